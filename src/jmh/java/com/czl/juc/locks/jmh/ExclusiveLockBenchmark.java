@@ -0,0 +1,140 @@
+package com.czl.juc.locks.jmh;
+
+import com.czl.juc.locks.source.ClhLock;
+import com.czl.juc.locks.source.CohortLock;
+import com.czl.juc.locks.source.McsLock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 互斥锁的JMH基准：所有线程执行同一个临界区（lock、消耗work个CPU令牌、unlock），
+ * 同时输出吞吐量与单次操作耗时的分位数（SampleTime）。
+ * 线程数用 -t 指定，或由{@link LockBenchmarks}批量运行；每组参数单独fork，保证锁的调用点是单态的
+ * @Date 2026/10/18
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExclusiveLockBenchmark {
+
+    /** 被测的锁 */
+    @Param({"source-nonfair", "source-fair", "source-eventually-fair",
+            "jdk-nonfair", "jdk-fair", "synchronized", "stamped",
+            "mcs", "clh", "cohort"})
+    public String lock;
+
+    /** 临界区长度，Blackhole.consumeCPU的令牌数 */
+    @Param({"0", "50", "500"})
+    public int work;
+
+    private Section section;
+
+    @Setup
+    public void setUp() {
+        section = Section.of(lock);
+    }
+
+    @Benchmark
+    public void lockUnlock() {
+        section.execute(work);
+    }
+
+    /**
+     * 一个被锁保护的临界区，每种锁一个实现，synchronized也能用同样的方式测量
+     */
+    abstract static class Section {
+        long counter;
+
+        abstract void execute(int work);
+
+        static Section of(String lock) {
+            switch (lock) {
+                case "source-nonfair":
+                    return new SourceSection(new com.czl.juc.locks.source.ReentrantLock(false));
+                case "source-fair":
+                    return new SourceSection(new com.czl.juc.locks.source.ReentrantLock(true));
+                case "source-eventually-fair":
+                    return new SourceSection(new com.czl.juc.locks.source.ReentrantLock(1, TimeUnit.MILLISECONDS));
+                case "jdk-nonfair":
+                    return new JdkSection(new ReentrantLock(false));
+                case "jdk-fair":
+                    return new JdkSection(new ReentrantLock(true));
+                case "synchronized":
+                    return new SynchronizedSection();
+                case "stamped":
+                    return new JdkSection(new StampedLock().asWriteLock());
+                case "mcs":
+                    return new SourceSection(new McsLock());
+                case "clh":
+                    return new SourceSection(new ClhLock());
+                case "cohort":
+                    return new SourceSection(new CohortLock());
+                default:
+                    throw new IllegalArgumentException(lock);
+            }
+        }
+    }
+
+    static final class SourceSection extends Section {
+        private final com.czl.juc.locks.source.Lock lock;
+
+        SourceSection(com.czl.juc.locks.source.Lock lock) {
+            this.lock = lock;
+        }
+
+        void execute(int work) {
+            lock.lock();
+            try {
+                counter++;
+                Blackhole.consumeCPU(work);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    static final class JdkSection extends Section {
+        private final Lock lock;
+
+        JdkSection(Lock lock) {
+            this.lock = lock;
+        }
+
+        void execute(int work) {
+            lock.lock();
+            try {
+                counter++;
+                Blackhole.consumeCPU(work);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    static final class SynchronizedSection extends Section {
+        void execute(int work) {
+            synchronized (this) {
+                counter++;
+                Blackhole.consumeCPU(work);
+            }
+        }
+    }
+}
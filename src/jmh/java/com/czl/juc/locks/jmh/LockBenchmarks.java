@@ -0,0 +1,79 @@
+package com.czl.juc.locks.jmh;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 批量运行锁基准：互斥锁按线程数扫描，读写锁按总线程数与读写比例扫描，
+ * 结果同时写入 target/jmh-*.csv。JMH的线程数不能用@Param表达，所以在这里循环。
+ * 用法：java -cp target/benchmarks.jar com.czl.juc.locks.jmh.LockBenchmarks [线程数列表] [读写比例列表]
+ * 例如：... LockBenchmarks 1,4,16 9:1,3:1,1:1
+ * @Date 2026/10/18
+ */
+public class LockBenchmarks {
+
+    private static final String DEFAULT_THREADS = "1,2,4,8,16";
+    private static final String DEFAULT_RATIOS = "9:1,3:1,1:1";
+
+    public static void main(String[] args) throws RunnerException {
+        int[] threads = parseInts(args.length > 0 ? args[0] : DEFAULT_THREADS);
+        String[] ratios = (args.length > 1 ? args[1] : DEFAULT_RATIOS).split(",");
+
+        List<RunResult> results = new ArrayList<>();
+        for (int t : threads) {
+            Options opt = new OptionsBuilder()
+                    .include(ExclusiveLockBenchmark.class.getSimpleName())
+                    .threads(t)
+                    .resultFormat(ResultFormatType.CSV)
+                    .result("target/jmh-exclusive-t" + t + ".csv")
+                    .build();
+            results.addAll(new Runner(opt).run());
+        }
+        for (int t : threads) {
+            for (String ratio : ratios) {
+                int[] rw = parseInts(ratio.replace(':', ','));
+                int readers = Math.max(1, t * rw[0] / (rw[0] + rw[1]));
+                int writers = Math.max(1, t - readers);
+                Options opt = new OptionsBuilder()
+                        .include(ReadWriteLockBenchmark.class.getSimpleName())
+                        .threadGroups(readers, writers)
+                        .resultFormat(ResultFormatType.CSV)
+                        .result("target/jmh-rw-" + readers + "r" + writers + "w.csv")
+                        .build();
+                results.addAll(new Runner(opt).run());
+            }
+        }
+        summarize(results);
+    }
+
+    private static void summarize(Collection<RunResult> results) {
+        System.out.println();
+        System.out.println("Benchmark / params / mode -> score (unit)");
+        for (RunResult r : results) {
+            System.out.printf("%s %s threads=%s %s -> %.3f %s%n",
+                    r.getParams().getBenchmark(),
+                    r.getParams().getParam("lock") + "/work=" + r.getParams().getParam("work"),
+                    java.util.Arrays.toString(r.getParams().getThreadGroups()),
+                    r.getParams().getMode().shortLabel(),
+                    r.getPrimaryResult().getScore(),
+                    r.getPrimaryResult().getScoreUnit());
+        }
+    }
+
+    private static int[] parseInts(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+}
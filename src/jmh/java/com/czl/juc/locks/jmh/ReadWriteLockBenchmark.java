@@ -0,0 +1,231 @@
+package com.czl.juc.locks.jmh;
+
+import com.czl.juc.locks.source.BiasedReadWriteLock;
+import com.czl.juc.locks.source.HoldTableReadWriteLock;
+import com.czl.juc.locks.source.PhaseFairReadWriteLock;
+import com.czl.juc.locks.source.StampedReadWriteLock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 读写锁的JMH基准：一组内的读线程与写线程共享一把锁，读线程读两个字段，写线程更新两个字段。
+ * 读写线程的比例默认3:1，用 -tg 读线程数,写线程数 指定，或由{@link LockBenchmarks}批量运行。
+ * 同时输出读、写各自的吞吐量与耗时分位数
+ * @Date 2026/10/18
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class ReadWriteLockBenchmark {
+
+    /** 被测的锁 */
+    @Param({"jdk-rrwl", "jdk-rrwl-fair", "stamped", "stamped-optimistic",
+            "source-stamped", "source-stamped-optimistic", "source-biased", "source-phase-fair",
+            "source-hold-table"})
+    public String lock;
+
+    /** 临界区长度，Blackhole.consumeCPU的令牌数 */
+    @Param({"0", "50", "500"})
+    public int work;
+
+    private Guard guard;
+
+    @Setup
+    public void setUp() {
+        guard = Guard.of(lock);
+    }
+
+    @Benchmark
+    @Group("rw")
+    @GroupThreads(3)
+    public long read() {
+        return guard.read(work);
+    }
+
+    @Benchmark
+    @Group("rw")
+    @GroupThreads(1)
+    public void write() {
+        guard.write(work);
+    }
+
+    /**
+     * 被读写锁保护的一对字段，写线程保持 x == y
+     */
+    abstract static class Guard {
+        long x, y;
+
+        abstract long read(int work);
+
+        abstract void write(int work);
+
+        final long readFields(int work) {
+            Blackhole.consumeCPU(work);
+            return x - y;
+        }
+
+        final void writeFields(int work) {
+            x++;
+            Blackhole.consumeCPU(work);
+            y++;
+        }
+
+        static Guard of(String lock) {
+            switch (lock) {
+                case "jdk-rrwl":
+                    return new JdkGuard(new ReentrantReadWriteLock(false));
+                case "jdk-rrwl-fair":
+                    return new JdkGuard(new ReentrantReadWriteLock(true));
+                case "stamped":
+                    return new JdkGuard(new StampedLock().asReadWriteLock());
+                case "stamped-optimistic":
+                    return new OptimisticGuard();
+                case "source-stamped":
+                    return new SourceGuard(new StampedReadWriteLock());
+                case "source-stamped-optimistic":
+                    return new SourceOptimisticGuard();
+                case "source-biased":
+                    return new SourceGuard(new BiasedReadWriteLock());
+                case "source-phase-fair":
+                    return new SourceGuard(new PhaseFairReadWriteLock());
+                case "source-hold-table":
+                    return new SourceGuard(new HoldTableReadWriteLock());
+                default:
+                    throw new IllegalArgumentException(lock);
+            }
+        }
+    }
+
+    static final class JdkGuard extends Guard {
+        private final java.util.concurrent.locks.Lock readLock;
+        private final java.util.concurrent.locks.Lock writeLock;
+
+        JdkGuard(java.util.concurrent.locks.ReadWriteLock rw) {
+            this.readLock = rw.readLock();
+            this.writeLock = rw.writeLock();
+        }
+
+        long read(int work) {
+            readLock.lock();
+            try {
+                return readFields(work);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        void write(int work) {
+            writeLock.lock();
+            try {
+                writeFields(work);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    static final class SourceGuard extends Guard {
+        private final com.czl.juc.locks.source.Lock readLock;
+        private final com.czl.juc.locks.source.Lock writeLock;
+
+        SourceGuard(com.czl.juc.locks.source.ReadWriteLock rw) {
+            this.readLock = rw.readLock();
+            this.writeLock = rw.writeLock();
+        }
+
+        long read(int work) {
+            readLock.lock();
+            try {
+                return readFields(work);
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        void write(int work) {
+            writeLock.lock();
+            try {
+                writeFields(work);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * JDK StampedLock：先乐观读，校验失败再退回读锁
+     */
+    static final class OptimisticGuard extends Guard {
+        private final StampedLock sl = new StampedLock();
+
+        long read(int work) {
+            long stamp = sl.tryOptimisticRead();
+            long r = readFields(work);
+            if (sl.validate(stamp))
+                return r;
+            stamp = sl.readLock();
+            try {
+                return readFields(work);
+            } finally {
+                sl.unlockRead(stamp);
+            }
+        }
+
+        void write(int work) {
+            long stamp = sl.writeLock();
+            try {
+                writeFields(work);
+            } finally {
+                sl.unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * source StampedReadWriteLock：先乐观读，校验失败再退回读锁
+     */
+    static final class SourceOptimisticGuard extends Guard {
+        private final StampedReadWriteLock rw = new StampedReadWriteLock();
+
+        long read(int work) {
+            long stamp = rw.tryOptimisticRead();
+            long r = readFields(work);
+            if (rw.validate(stamp))
+                return r;
+            rw.readLock().lock();
+            try {
+                return readFields(work);
+            } finally {
+                rw.readLock().unlock();
+            }
+        }
+
+        void write(int work) {
+            rw.writeLock().lock();
+            try {
+                writeFields(work);
+            } finally {
+                rw.writeLock().unlock();
+            }
+        }
+    }
+}
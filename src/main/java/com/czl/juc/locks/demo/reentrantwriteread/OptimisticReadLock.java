@@ -0,0 +1,37 @@
+package com.czl.juc.locks.demo.reentrantwriteread;
+
+import com.czl.juc.locks.source.StampedReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 乐观读，与ReadLock相同的读操作，校验失败才获取读锁
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class OptimisticReadLock implements Runnable {
+
+    StampedReadWriteLock lock;
+
+    public OptimisticReadLock(StampedReadWriteLock lock) {
+        this.lock = lock;
+    }
+
+    @Override
+    public void run() {
+        long stamp = lock.tryOptimisticRead();
+        log.info(Thread.currentThread().getName() + "-lock.tryOptimisticRead()");
+        if (lock.validate(stamp)) {
+            log.info("【乐观读】校验通过，没有获取读锁。。。");
+            return;
+        }
+        try {
+            lock.readLock().lock();
+            log.info(Thread.currentThread().getName() + "-lock.readLock().lock()");
+            log.info("【乐观读】校验失败，退回到读锁。。。");
+        } finally {
+            lock.readLock().unlock();
+            log.info(Thread.currentThread().getName() + "-lock.readLock().unlock()");
+        }
+    }
+}
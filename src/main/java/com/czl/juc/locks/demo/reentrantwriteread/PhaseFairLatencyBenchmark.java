@@ -0,0 +1,130 @@
+package com.czl.juc.locks.demo.reentrantwriteread;
+
+import com.czl.juc.locks.source.PhaseFairReadWriteLock;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 读写共存（ReadAndWrite）场景下的尾延迟对比：
+ * JDK ReentrantReadWriteLock（非公平/公平）与PhaseFairReadWriteLock，
+ * 分别统计读锁、写锁获取延迟的p50/p99/p99.9/max
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class PhaseFairLatencyBenchmark {
+
+    private static final int THREADS = 16;
+    /** 写操作的比例（百分比） */
+    private static final int WRITE_PERCENT = 10;
+    private static final long RUN_MILLIS = 3000;
+    /** 临界区内的计算量 */
+    private static final int READ_WORK = 500;
+    private static final int WRITE_WORK = 2000;
+    private static final int SAMPLES = 1 << 15;
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        ReentrantReadWriteLock nonfair = new ReentrantReadWriteLock();
+        run("jdk ReentrantReadWriteLock(nonfair)",
+                nonfair.readLock()::lock, nonfair.readLock()::unlock,
+                nonfair.writeLock()::lock, nonfair.writeLock()::unlock);
+
+        ReentrantReadWriteLock fair = new ReentrantReadWriteLock(true);
+        run("jdk ReentrantReadWriteLock(fair)",
+                fair.readLock()::lock, fair.readLock()::unlock,
+                fair.writeLock()::lock, fair.writeLock()::unlock);
+
+        PhaseFairReadWriteLock phaseFair = new PhaseFairReadWriteLock();
+        run("source PhaseFairReadWriteLock",
+                phaseFair.readLock()::lock, phaseFair.readLock()::unlock,
+                phaseFair.writeLock()::lock, phaseFair.writeLock()::unlock);
+    }
+
+    private static void run(String name, Runnable readLock, Runnable readUnlock,
+                            Runnable writeLock, Runnable writeUnlock) throws InterruptedException {
+        final long[][] reads = new long[THREADS][SAMPLES];
+        final long[][] writes = new long[THREADS][SAMPLES];
+        final int[] readCount = new int[THREADS];
+        final int[] writeCount = new int[THREADS];
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final long deadline = System.nanoTime() + RUN_MILLIS * 1000000L;
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int r = 0;
+                int w = 0;
+                while (System.nanoTime() < deadline) {
+                    boolean write = random.nextInt(100) < WRITE_PERCENT;
+                    long t0 = System.nanoTime();
+                    if (write) {
+                        writeLock.run();
+                        try {
+                            writes[id][w++ & (SAMPLES - 1)] = System.nanoTime() - t0;
+                            work(WRITE_WORK);
+                        } finally {
+                            writeUnlock.run();
+                        }
+                    } else {
+                        readLock.run();
+                        try {
+                            reads[id][r++ & (SAMPLES - 1)] = System.nanoTime() - t0;
+                            work(READ_WORK);
+                        } finally {
+                            readUnlock.run();
+                        }
+                    }
+                }
+                readCount[id] = r;
+                writeCount[id] = w;
+                done.countDown();
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        log.info("【{}】【读】{}", name, percentiles(reads, readCount));
+        log.info("【{}】【写】{}", name, percentiles(writes, writeCount));
+    }
+
+    private static String percentiles(long[][] samples, int[] counts) {
+        int n = 0;
+        for (int c : counts) {
+            n += Math.min(c, SAMPLES);
+        }
+        long[] all = new long[n];
+        int k = 0;
+        for (int t = 0; t < samples.length; t++) {
+            int c = Math.min(counts[t], SAMPLES);
+            System.arraycopy(samples[t], 0, all, k, c);
+            k += c;
+        }
+        if (n == 0) {
+            return "无样本";
+        }
+        Arrays.sort(all);
+        return "次数：" + n
+                + " p50：" + all[(int) (n * 0.50)] + "ns"
+                + " p99：" + all[(int) (n * 0.99)] + "ns"
+                + " p99.9：" + all[(int) (n * 0.999)] + "ns"
+                + " max：" + all[n - 1] + "ns";
+    }
+
+    private static void work(int iterations) {
+        long x = sink;
+        for (int i = 0; i < iterations; i++) {
+            x = x * 31 + i;
+        }
+        sink = x;
+    }
+}
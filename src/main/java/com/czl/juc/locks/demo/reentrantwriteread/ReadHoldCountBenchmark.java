@@ -0,0 +1,133 @@
+package com.czl.juc.locks.demo.reentrantwriteread;
+
+import com.czl.juc.locks.source.HoldTableReadWriteLock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 大量读线程下读锁重入计数的开销：每个读线程反复重入获取读锁（默认嵌套2层）再释放，
+ * 另有一个写线程每毫秒写一次，使读线程走到“写线程排队时检查自己是否已持有读锁”的路径。
+ * 对比JDK ReentrantReadWriteLock（ThreadLocal计数）与HoldTableReadWriteLock（firstReader/缓存/开放寻址表）的读吞吐量。
+ * 用法：java -cp ... ReadHoldCountBenchmark [读线程数] [嵌套层数]，默认2000个读线程、2层
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class ReadHoldCountBenchmark {
+
+    private static final long RUN_MILLIS = 5000;
+    private static final long WRITE_INTERVAL_NANOS = 1000000L;
+
+    /**
+     * 测试用的锁操作
+     */
+    interface RwLock {
+        void readLock();
+
+        void readUnlock();
+
+        void writeLock();
+
+        void writeUnlock();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int readers = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        final ReentrantReadWriteLock jdk = new ReentrantReadWriteLock();
+        run("jdk ReentrantReadWriteLock", readers, depth, new RwLock() {
+            public void readLock() {
+                jdk.readLock().lock();
+            }
+
+            public void readUnlock() {
+                jdk.readLock().unlock();
+            }
+
+            public void writeLock() {
+                jdk.writeLock().lock();
+            }
+
+            public void writeUnlock() {
+                jdk.writeLock().unlock();
+            }
+        });
+        final HoldTableReadWriteLock source = new HoldTableReadWriteLock();
+        run("source HoldTableReadWriteLock", readers, depth, new RwLock() {
+            public void readLock() {
+                source.readLock().lock();
+            }
+
+            public void readUnlock() {
+                source.readLock().unlock();
+            }
+
+            public void writeLock() {
+                source.writeLock().lock();
+            }
+
+            public void writeUnlock() {
+                source.writeLock().unlock();
+            }
+        });
+        log.info("【{}】", source);
+    }
+
+    private static void run(String name, int readers, int depth, RwLock lock) throws InterruptedException {
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong writes = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(readers + 1);
+        final long[] deadline = new long[1];
+
+        for (int t = 0; t < readers; t++) {
+            new Thread(() -> {
+                long n = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        for (int i = 0; i < depth; i++) {
+                            lock.readLock();
+                        }
+                        for (int i = 0; i < depth; i++) {
+                            lock.readUnlock();
+                        }
+                        n++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    reads.addAndGet(n);
+                    done.countDown();
+                }
+            }, "hold-reader-" + t).start();
+        }
+        new Thread(() -> {
+            try {
+                start.await();
+                long next = System.nanoTime();
+                while (System.nanoTime() < deadline[0]) {
+                    if (System.nanoTime() >= next) {
+                        lock.writeLock();
+                        lock.writeUnlock();
+                        writes.incrementAndGet();
+                        next += WRITE_INTERVAL_NANOS;
+                    }
+                    Thread.yield();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }, "hold-writer").start();
+
+        deadline[0] = System.nanoTime() + RUN_MILLIS * 1000000L;
+        start.countDown();
+        done.await();
+        log.info("【{}】【读线程：{}】【嵌套：{}】【读次数/秒：{}】【写次数：{}】",
+                name, readers, depth, reads.get() * 1000 / RUN_MILLIS, writes.get());
+    }
+}
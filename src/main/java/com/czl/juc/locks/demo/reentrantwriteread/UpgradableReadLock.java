@@ -0,0 +1,51 @@
+package com.czl.juc.locks.demo.reentrantwriteread;
+
+import com.czl.juc.locks.source.UpgradableReadWriteLock;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 可升级读锁：先在可升级读锁下检查缓存，未命中时原子升级为写锁填充，
+ * 不需要放开读锁重新加写锁再校验
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class UpgradableReadLock implements Runnable {
+
+    UpgradableReadWriteLock lock;
+    Map<String, String> cache;
+    String key;
+
+    public UpgradableReadLock(UpgradableReadWriteLock lock, Map<String, String> cache, String key) {
+        this.lock = lock;
+        this.cache = cache;
+        this.key = key;
+    }
+
+    @Override
+    public void run() {
+        lock.upgradableLock().lock();
+        log.info(Thread.currentThread().getName() + "-lock.upgradableLock().lock()");
+        try {
+            String value = cache.get(key);
+            if (value != null) {
+                log.info("【可升级读】缓存命中：{}", value);
+                return;
+            }
+            lock.writeLock().lock();
+            log.info(Thread.currentThread().getName() + "-lock.writeLock().lock()，升级为写锁");
+            try {
+                value = key + "-" + System.nanoTime();
+                cache.put(key, value);
+                log.info("【可升级读】缓存未命中，升级后填充：{}", value);
+            } finally {
+                lock.writeLock().unlock();
+                log.info(Thread.currentThread().getName() + "-lock.writeLock().unlock()，降级为可升级读锁");
+            }
+        } finally {
+            lock.upgradableLock().unlock();
+            log.info(Thread.currentThread().getName() + "-lock.upgradableLock().unlock()");
+        }
+    }
+}
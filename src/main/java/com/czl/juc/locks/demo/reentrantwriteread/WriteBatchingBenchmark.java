@@ -0,0 +1,112 @@
+package com.czl.juc.locks.demo.reentrantwriteread;
+
+import com.czl.juc.locks.source.BatchingWriter;
+import com.czl.juc.locks.source.StampedReadWriteLock;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 写锁批量提交：大量写线程各自做很短的更新（两个计数器加一），另有读线程读取并校验两个计数器相等。
+ * 对比WriteLock的写法（每次更新获取一次写锁）与BatchingWriter在不同批大小下的写吞吐量，以及平均批大小。
+ * 用法：java -cp ... WriteBatchingBenchmark [写线程数] [读线程数]，默认16个写线程、2个读线程
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class WriteBatchingBenchmark {
+
+    private static final long RUN_MILLIS = 3000;
+    private static final int[] BATCH_SIZES = {1, 8, 64};
+
+    /** 被保护的数据，写线程保持 x == y */
+    static long x, y;
+
+    public static void main(String[] args) throws InterruptedException {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+
+        final StampedReadWriteLock plain = new StampedReadWriteLock();
+        run("WriteLock", plain, writers, readers, () -> {
+            plain.writeLock().lock();
+            try {
+                x++;
+                y++;
+            } finally {
+                plain.writeLock().unlock();
+            }
+        }, null);
+
+        for (int maxBatch : BATCH_SIZES) {
+            StampedReadWriteLock lock = new StampedReadWriteLock();
+            final BatchingWriter batching = new BatchingWriter(lock, maxBatch);
+            run("BatchingWriter(maxBatch=" + maxBatch + ")", lock, writers, readers, () -> batching.write(() -> {
+                x++;
+                y++;
+            }), batching);
+        }
+    }
+
+    private static void run(String name, StampedReadWriteLock lock, int writers, int readers,
+                            Runnable update, BatchingWriter batching) throws InterruptedException {
+        x = 0;
+        y = 0;
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong torn = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(writers + readers);
+        final long[] deadline = new long[1];
+
+        for (int t = 0; t < writers; t++) {
+            new Thread(() -> {
+                long n = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        update.run();
+                        n++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    writes.addAndGet(n);
+                    done.countDown();
+                }
+            }, "batch-writer-" + t).start();
+        }
+        for (int t = 0; t < readers; t++) {
+            new Thread(() -> {
+                long n = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        lock.readLock().lock();
+                        try {
+                            if (x != y) {
+                                torn.incrementAndGet();
+                            }
+                        } finally {
+                            lock.readLock().unlock();
+                        }
+                        n++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    reads.addAndGet(n);
+                    done.countDown();
+                }
+            }, "batch-reader-" + t).start();
+        }
+
+        deadline[0] = System.nanoTime() + RUN_MILLIS * 1000000L;
+        start.countDown();
+        done.await();
+        String batchSize = batching == null || batching.getBatchCount() == 0 ? "1" :
+                String.format("%.1f", (double) batching.getWriteCount() / batching.getBatchCount());
+        log.info("【{}】【写线程：{}】【写次数/秒：{}】【读次数/秒：{}】【平均批大小：{}】【x：{}】【读到不一致：{}】",
+                name, writers, writes.get() * 1000 / RUN_MILLIS, reads.get() * 1000 / RUN_MILLIS,
+                batchSize, x, torn.get());
+    }
+}
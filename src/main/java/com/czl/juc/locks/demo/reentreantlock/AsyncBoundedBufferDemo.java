@@ -0,0 +1,108 @@
+package com.czl.juc.locks.demo.reentreantlock;
+
+import com.czl.juc.locks.source.AsyncCondition;
+import com.czl.juc.locks.source.AsyncLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 异步条件变量：Condition文档中的有界缓冲区，put/take都返回CompletableFuture。
+ * 4个生产者、4个消费者在2个线程的线程池上交替运行，缓冲区满或空时以awaitAsync等待，不阻塞任何线程。
+ * 最后检查取出的元素个数与总和。
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class AsyncBoundedBufferDemo {
+
+    private static final int PRODUCERS = 4;
+    private static final int ITEMS_PER_PRODUCER = 10000;
+
+    static class BoundedBuffer<E> {
+        final AsyncLock lock;
+        final AsyncCondition notFull;
+        final AsyncCondition notEmpty;
+        final Object[] items = new Object[100];
+        int putptr, takeptr, count;
+
+        BoundedBuffer(AsyncLock lock) {
+            this.lock = lock;
+            this.notFull = lock.newCondition();
+            this.notEmpty = lock.newCondition();
+        }
+
+        CompletableFuture<Void> put(E x) {
+            return lock.lockAsync().thenCompose(h -> put(h, x));
+        }
+
+        private CompletableFuture<Void> put(AsyncLock.LockHandle h, E x) {
+            if (count == items.length)
+                return notFull.awaitAsync(h).thenCompose(v -> put(h, x));
+            items[putptr] = x;
+            if (++putptr == items.length)
+                putptr = 0;
+            ++count;
+            notEmpty.signal();
+            h.unlock();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<E> take() {
+            return lock.lockAsync().thenCompose(this::take);
+        }
+
+        @SuppressWarnings("unchecked")
+        private CompletableFuture<E> take(AsyncLock.LockHandle h) {
+            if (count == 0)
+                return notEmpty.awaitAsync(h).thenCompose(v -> take(h));
+            E x = (E) items[takeptr];
+            if (++takeptr == items.length)
+                takeptr = 0;
+            --count;
+            notFull.signal();
+            h.unlock();
+            return CompletableFuture.completedFuture(x);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        BoundedBuffer<Integer> buffer = new BoundedBuffer<>(new AsyncLock(executor));
+        AtomicLong taken = new AtomicLong();
+        AtomicLong sum = new AtomicLong();
+
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[PRODUCERS * 2];
+        for (int p = 0; p < PRODUCERS; p++) {
+            loops[p] = produce(buffer, p * ITEMS_PER_PRODUCER, (p + 1) * ITEMS_PER_PRODUCER);
+            loops[PRODUCERS + p] = consume(buffer, ITEMS_PER_PRODUCER, taken, sum);
+        }
+        CompletableFuture.allOf(loops).get();
+
+        long n = (long) PRODUCERS * ITEMS_PER_PRODUCER;
+        log.info("【取出：{}，期望：{}】【总和：{}，期望：{}】", taken.get(), n, sum.get(), n * (n - 1) / 2);
+        executor.shutdown();
+    }
+
+    /**
+     * 依次放入[from, to)，每次put完成后再放下一个
+     */
+    private static CompletableFuture<Void> produce(BoundedBuffer<Integer> buffer, int from, int to) {
+        if (from == to)
+            return CompletableFuture.completedFuture(null);
+        return buffer.put(from).thenCompose(v -> produce(buffer, from + 1, to));
+    }
+
+    private static CompletableFuture<Void> consume(BoundedBuffer<Integer> buffer, int remaining,
+                                                   AtomicLong taken, AtomicLong sum) {
+        if (remaining == 0)
+            return CompletableFuture.completedFuture(null);
+        return buffer.take().thenCompose(x -> {
+            taken.incrementAndGet();
+            sum.addAndGet(x);
+            return consume(buffer, remaining - 1, taken, sum);
+        });
+    }
+}
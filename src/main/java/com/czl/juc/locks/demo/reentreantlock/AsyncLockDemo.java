@@ -0,0 +1,61 @@
+package com.czl.juc.locks.demo.reentreantlock;
+
+import com.czl.juc.locks.source.AsyncLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 异步锁：2个线程的线程池上排队10000个逻辑等待者，每个拿到锁后对计数器加一再释放；
+ * 另有一批带超时的等待者。等待期间不占用任何线程，最后检查计数器与超时次数。
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class AsyncLockDemo {
+
+    private static final int WAITERS = 10000;
+    private static final int TIMED_WAITERS = 1000;
+
+    private static int counter;
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AsyncLock lock = new AsyncLock(executor);
+
+        // hold the lock so that every request below has to queue
+        AsyncLock.LockHandle first = lock.tryLock();
+        CompletableFuture<?>[] all = new CompletableFuture<?>[WAITERS];
+        for (int i = 0; i < WAITERS; i++) {
+            all[i] = lock.lockAsync().thenAccept(handle -> {
+                try {
+                    counter++;
+                } finally {
+                    handle.unlock();
+                }
+            });
+        }
+        AtomicInteger timedOut = new AtomicInteger();
+        CompletableFuture<?>[] timed = new CompletableFuture<?>[TIMED_WAITERS];
+        for (int i = 0; i < TIMED_WAITERS; i++) {
+            timed[i] = lock.tryLockAsync(10, TimeUnit.MILLISECONDS).handle((handle, e) -> {
+                if (handle != null)
+                    handle.unlock();
+                else
+                    timedOut.incrementAndGet();
+                return null;
+            });
+        }
+        log.info("【排队的等待者：{}】【线程池线程数：2】", lock.getQueueLength());
+        Thread.sleep(50);
+        first.unlock();
+
+        CompletableFuture.allOf(all).get();
+        CompletableFuture.allOf(timed).get();
+        log.info("【计数器：{}，期望：{}】【超时的等待者：{}】【锁状态：{}】", counter, WAITERS, timedOut.get(), lock);
+        executor.shutdown();
+    }
+}
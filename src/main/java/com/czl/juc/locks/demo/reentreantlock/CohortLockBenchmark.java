@@ -0,0 +1,107 @@
+package com.czl.juc.locks.demo.reentreantlock;
+
+import com.czl.juc.locks.source.CohortLock;
+import com.czl.juc.locks.source.Lock;
+import com.czl.juc.locks.source.NumaTopology;
+import com.czl.juc.locks.source.ReentrantLock;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: CohortLock与ReentrantLock的对比。每个工作线程启动时用taskset把自己绑定到
+ * 一个NUMA节点的cpu上（线程i绑定到节点 i % 节点数），临界区读写一块共享数组，
+ * 跨插槽交接锁时这块数据也要跨插槽传输。
+ * 用法：java -cp ... CohortLockBenchmark [线程数]，需要Linux与taskset命令；
+ * 绑定失败时只打印警告，线程不绑定继续运行
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class CohortLockBenchmark {
+
+    private static final long RUN_MILLIS = 3000;
+    /** 临界区读写的共享数据，4KB */
+    private static final long[] SHARED = new long[512];
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 2 * Runtime.getRuntime().availableProcessors();
+        log.info("【NUMA节点数：{}】【线程数：{}】", NumaTopology.nodeCount(), threads);
+        run("source ReentrantLock", new ReentrantLock(), threads);
+        run("source CohortLock", new CohortLock(), threads);
+    }
+
+    private static void run(String name, Lock lock, int threads) throws InterruptedException {
+        final long[] ops = new long[threads];
+        final CountDownLatch ready = new CountDownLatch(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            new Thread(() -> {
+                pin(id % NumaTopology.nodeCount());
+                // let the scheduler move us before the lock samples our node
+                Thread.yield();
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long n = 0;
+                while (System.nanoTime() < deadline[0]) {
+                    lock.lock();
+                    try {
+                        for (int i = 0; i < SHARED.length; i += 8) {
+                            SHARED[i]++;
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    n++;
+                }
+                ops[id] = n;
+                done.countDown();
+            }, "cohort-bench-" + t).start();
+        }
+        ready.await();
+        deadline[0] = System.nanoTime() + RUN_MILLIS * 1000000L;
+        start.countDown();
+        done.await();
+        long total = 0;
+        for (long n : ops) {
+            total += n;
+        }
+        log.info("【{}】【吞吐量：{} ops/ms】【各线程：{}】", name, total / RUN_MILLIS, Arrays.toString(ops));
+    }
+
+    /**
+     * 用taskset把当前线程绑定到指定节点的cpu上
+     */
+    private static void pin(int node) {
+        long tid = NumaTopology.currentTid();
+        int[] cpus = NumaTopology.cpusOf(node);
+        if (tid < 0 || cpus.length == 0) {
+            log.warn("【无法绑定线程】【tid：{}】【节点：{}】", tid, node);
+            return;
+        }
+        StringBuilder list = new StringBuilder();
+        for (int cpu : cpus) {
+            list.append(list.length() == 0 ? "" : ",").append(cpu);
+        }
+        try {
+            Process p = new ProcessBuilder("taskset", "-p", "-c", list.toString(), String.valueOf(tid))
+                    .redirectErrorStream(true)
+                    .start();
+            while (p.getInputStream().read() >= 0) {
+                // discard taskset's report
+            }
+            if (p.waitFor() != 0) {
+                log.warn("【taskset失败】【tid：{}】【cpu：{}】", tid, list);
+            }
+        } catch (Exception e) {
+            log.warn("【taskset不可用】{}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.czl.juc.locks.demo.reentreantlock;
+
+import com.czl.juc.locks.source.ReentrantLock;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 非公平、公平、最终公平（交接阈值1ms）三种ReentrantLock的对比，
+ * 输出吞吐量，以及lock()等待时间的p99和最大值；最终公平锁的最大等待应接近阈值，
+ * 吞吐量应接近非公平锁
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class EventuallyFairBenchmark {
+
+    private static final int THREADS = 16;
+    private static final long RUN_MILLIS = 3000;
+    /** 临界区内的计算量，约1微秒 */
+    private static final int WORK = 200;
+    /** 每个线程保留的延迟样本数（环形覆盖） */
+    private static final int SAMPLES = 1 << 14;
+
+    private static long shared;
+
+    public static void main(String[] args) throws InterruptedException {
+        run("nonfair", new ReentrantLock(false));
+        run("fair", new ReentrantLock(true));
+        run("eventually fair(1ms)", new ReentrantLock(1, TimeUnit.MILLISECONDS));
+    }
+
+    private static void run(String name, ReentrantLock lock) throws InterruptedException {
+        final long[][] samples = new long[THREADS][SAMPLES];
+        final long[] max = new long[THREADS];
+        final long[] ops = new long[THREADS];
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final long[] deadline = new long[1];
+        for (int t = 0; t < THREADS; t++) {
+            final int id = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long n = 0;
+                while (System.nanoTime() < deadline[0]) {
+                    long t0 = System.nanoTime();
+                    lock.lock();
+                    try {
+                        long waited = System.nanoTime() - t0;
+                        samples[id][(int) (n & (SAMPLES - 1))] = waited;
+                        max[id] = Math.max(max[id], waited);
+                        work();
+                    } finally {
+                        lock.unlock();
+                    }
+                    n++;
+                }
+                ops[id] = n;
+                done.countDown();
+            }).start();
+        }
+        deadline[0] = System.nanoTime() + RUN_MILLIS * 1000000L;
+        start.countDown();
+        done.await();
+
+        long total = 0;
+        long worst = 0;
+        int count = 0;
+        for (int t = 0; t < THREADS; t++) {
+            total += ops[t];
+            worst = Math.max(worst, max[t]);
+            count += (int) Math.min(ops[t], SAMPLES);
+        }
+        long[] sorted = new long[count];
+        int k = 0;
+        for (int t = 0; t < THREADS; t++) {
+            int n = (int) Math.min(ops[t], SAMPLES);
+            System.arraycopy(samples[t], 0, sorted, k, n);
+            k += n;
+        }
+        Arrays.sort(sorted);
+        long p99 = sorted.length == 0 ? 0 : sorted[(int) (sorted.length * 0.99)];
+        log.info("【{}】【线程数：{}】【吞吐量：{} ops/ms】【lock() p99：{} us】【最大等待：{} us】",
+                name, THREADS, total / RUN_MILLIS, p99 / 1000, worst / 1000);
+    }
+
+    private static void work() {
+        long x = shared;
+        for (int i = 0; i < WORK; i++) {
+            x = x * 31 + i;
+        }
+        shared = x;
+    }
+}
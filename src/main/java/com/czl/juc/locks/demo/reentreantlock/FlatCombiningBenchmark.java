@@ -0,0 +1,103 @@
+package com.czl.juc.locks.demo.reentreantlock;
+
+import com.czl.juc.locks.source.FlatCombiningLock;
+import com.czl.juc.locks.source.ReentrantLock;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.LongConsumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 平面合并锁与ReentrantLock的对比：所有线程反复对同一个共享结构做很短的操作
+ * （一个用数组实现的栈，交替入栈、出栈，并更新一块2KB的统计数组），
+ * ReentrantLock按lock/try/finally/unlock写法，FlatCombiningLock用execute替换这段代码。
+ * 合并时这块数据一直留在合并者的缓存里，不随锁的交接在核之间来回传输。
+ * 用法：java -cp ... FlatCombiningBenchmark [线程数]，默认32与2倍cpu数中的较大值
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class FlatCombiningBenchmark {
+
+    private static final long RUN_MILLIS = 3000;
+
+    /**
+     * 被保护的共享结构：数组栈与统计数组
+     */
+    static final class Shared {
+        final long[] stack = new long[1024];
+        int size;
+        /** 每次操作都更新的统计数据，2KB */
+        final long[] stats = new long[256];
+
+        long op(long value) {
+            long r;
+            if ((value & 1) == 0 && size < stack.length) {
+                stack[size++] = value;
+                r = size;
+            } else {
+                r = size > 0 ? stack[--size] : -1;
+            }
+            for (int i = 0; i < stats.length; i += 8) {
+                stats[i]++;
+            }
+            return r;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) :
+                Math.max(32, 2 * Runtime.getRuntime().availableProcessors());
+
+        final Shared plain = new Shared();
+        final ReentrantLock lock = new ReentrantLock();
+        run("source ReentrantLock", threads, plain, value -> {
+            lock.lock();
+            try {
+                plain.op(value);
+            } finally {
+                lock.unlock();
+            }
+        });
+
+        final Shared combinedShared = new Shared();
+        final FlatCombiningLock combining = new FlatCombiningLock();
+        run("source FlatCombiningLock", threads, combinedShared,
+                value -> combining.execute(() -> combinedShared.op(value)));
+        log.info("【{}】【每次合并的平均操作数：{}】", combining,
+                combining.getCombineCount() == 0 ? 0 : combining.getCombinedCount() / combining.getCombineCount());
+    }
+
+    private static void run(String name, int threads, Shared shared, LongConsumer op)
+            throws InterruptedException {
+        final long[] ops = new long[threads];
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long n = 0;
+                while (System.nanoTime() < deadline[0]) {
+                    op.accept(n + id);
+                    n++;
+                }
+                ops[id] = n;
+                done.countDown();
+            }, "fc-" + t).start();
+        }
+        deadline[0] = System.nanoTime() + RUN_MILLIS * 1000000L;
+        start.countDown();
+        done.await();
+        long total = 0;
+        for (long n : ops) {
+            total += n;
+        }
+        log.info("【{}】【线程数：{}】【操作数/秒：{}】【统计计数：{}】",
+                name, threads, total * 1000 / RUN_MILLIS, shared.stats[0]);
+    }
+}
@@ -0,0 +1,123 @@
+package com.czl.juc.locks.demo.reentreantlock;
+
+import com.czl.juc.locks.source.SharedMemoryLock;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 跨进程锁对比：启动多个子JVM，全部就绪后同时开始，每个子进程反复加锁、对共享文件中的计数器加一、解锁，
+ * 对比FileChannel.lock与SharedMemoryLock（内存映射 + CAS）的平均每次加解锁耗时（不含JVM启动），
+ * 最后检查计数器是否等于进程数 × 次数。
+ * 用法：java -cp ... SharedMemoryLockBenchmark [进程数] [每个进程的次数]，默认4个进程、每个20000次
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class SharedMemoryLockBenchmark {
+
+    /**
+     * 第1个槽存放测试数据，不与第0个槽的锁字和闸门重叠：计数器、各子进程循环耗时之和、就绪进程数、开始标志
+     */
+    private static final int DATA_OFFSET = SharedMemoryLock.SLOT_BYTES;
+    private static final int COUNTER = 0;
+    private static final int ELAPSED = 8;
+    private static final int READY = 16;
+    private static final int START = 24;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "child".equals(args[0])) {
+            child(args[1], new File(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int processes = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        run("FileChannel.lock", "file", processes, iterations);
+        run("SharedMemoryLock", "shm", processes, iterations);
+    }
+
+    private static void run(String name, String mode, int processes, int iterations) throws Exception {
+        File file = File.createTempFile("czl-shm-lock", ".dat");
+        file.deleteOnExit();
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classpath = System.getProperty("java.class.path");
+        List<Process> children = new ArrayList<>();
+        for (int p = 0; p < processes; p++) {
+            children.add(new ProcessBuilder(java, "-cp", classpath, SharedMemoryLockBenchmark.class.getName(),
+                    "child", mode, file.getAbsolutePath(), Integer.toString(iterations))
+                    .inheritIO().start());
+        }
+        long counter;
+        long elapsed;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, DATA_OFFSET, 32);
+            while (data.getLong(READY) < processes) {
+                Thread.sleep(1);
+            }
+            data.putLong(START, 1);
+            for (Process child : children) {
+                child.waitFor();
+            }
+            counter = data.getLong(COUNTER);
+            elapsed = data.getLong(ELAPSED);
+        }
+        long operations = (long) processes * iterations;
+        log.info("【{}】【进程数：{}】【每进程次数：{}】【每次加解锁：{} ns】【计数器：{}，期望：{}】",
+                name, processes, iterations, elapsed / operations, counter, operations);
+    }
+
+    /**
+     * 子进程：登记就绪，等待开始标志，然后循环加锁、计数器加一、解锁，最后把循环耗时累加到文件中
+     */
+    private static void child(String mode, File file, int iterations) throws Exception {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_WRITE, DATA_OFFSET, 32);
+            SharedMemoryLock shm = new SharedMemoryLock(file, 0);
+            // registration always goes through the file lock, whichever lock is measured
+            FileLock registration = channel.lock(DATA_OFFSET + READY, 8, false);
+            try {
+                data.putLong(READY, data.getLong(READY) + 1);
+            } finally {
+                registration.release();
+            }
+            while (data.getLong(START) == 0) {
+                Thread.sleep(1);
+            }
+            long start = System.nanoTime();
+            if ("file".equals(mode)) {
+                for (int i = 0; i < iterations; i++) {
+                    FileLock lock = channel.lock(0, 1, false);
+                    try {
+                        data.putLong(COUNTER, data.getLong(COUNTER) + 1);
+                    } finally {
+                        lock.release();
+                    }
+                }
+            } else {
+                for (int i = 0; i < iterations; i++) {
+                    shm.lock();
+                    try {
+                        data.putLong(COUNTER, data.getLong(COUNTER) + 1);
+                    } finally {
+                        shm.unlock();
+                    }
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            shm.lock();
+            try {
+                data.putLong(ELAPSED, data.getLong(ELAPSED) + elapsed);
+            } finally {
+                shm.unlock();
+            }
+        }
+    }
+}
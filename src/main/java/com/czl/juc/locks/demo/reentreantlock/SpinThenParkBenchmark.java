@@ -0,0 +1,96 @@
+package com.czl.juc.locks.demo.reentreantlock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 自适应自旋（source ReentrantLock非公平锁）与JDK ReentrantLock的对比，
+ * 临界区为微秒级，输出2~64线程下的吞吐量与lock()延迟的p99
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class SpinThenParkBenchmark {
+
+    private static final int[] THREADS = {2, 4, 8, 16, 32, 64};
+    private static final long RUN_MILLIS = 2000;
+    /** 临界区内的计算量，约1微秒 */
+    private static final int WORK = 200;
+    /** 每个线程保留的延迟样本数（环形覆盖） */
+    private static final int SAMPLES = 1 << 14;
+
+    private static long shared;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int threads : THREADS) {
+            final java.util.concurrent.locks.ReentrantLock jdk = new java.util.concurrent.locks.ReentrantLock();
+            final com.czl.juc.locks.source.ReentrantLock source = new com.czl.juc.locks.source.ReentrantLock();
+            run("jdk ReentrantLock", threads, jdk::lock, jdk::unlock);
+            run("source ReentrantLock(spin)", threads, source::lock, source::unlock);
+        }
+    }
+
+    private static void run(String name, int threads, Runnable lock, Runnable unlock) throws InterruptedException {
+        final long[][] samples = new long[threads][SAMPLES];
+        final long[] ops = new long[threads];
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long n = 0;
+                while (System.nanoTime() < deadline[0]) {
+                    long t0 = System.nanoTime();
+                    lock.run();
+                    try {
+                        samples[id][(int) (n & (SAMPLES - 1))] = System.nanoTime() - t0;
+                        work();
+                    } finally {
+                        unlock.run();
+                    }
+                    n++;
+                }
+                ops[id] = n;
+                done.countDown();
+            }).start();
+        }
+        deadline[0] = System.nanoTime() + RUN_MILLIS * 1000000L;
+        start.countDown();
+        done.await();
+
+        long total = 0;
+        List<Long> all = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            total += ops[t];
+            int n = (int) Math.min(ops[t], SAMPLES);
+            for (int i = 0; i < n; i++) {
+                all.add(samples[t][i]);
+            }
+        }
+        long[] sorted = new long[all.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = all.get(i);
+        }
+        Arrays.sort(sorted);
+        long p99 = sorted.length == 0 ? 0 : sorted[(int) (sorted.length * 0.99)];
+        log.info("【{}】【线程数：{}】【吞吐量：{} ops/ms】【lock() p99：{} ns】",
+                name, threads, total / RUN_MILLIS, p99);
+    }
+
+    private static void work() {
+        long x = shared;
+        for (int i = 0; i < WORK; i++) {
+            x = x * 31 + i;
+        }
+        shared = x;
+    }
+}
@@ -0,0 +1,69 @@
+package com.czl.juc.locks.demo.reentreantlock;
+
+import com.czl.juc.locks.source.Condition;
+import com.czl.juc.locks.source.LogLinearHistogram;
+import com.czl.juc.locks.source.ReentrantLock;
+import com.czl.juc.locks.source.TimingWheel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 大量线程在同一个Condition上带超时等待（没有signal，全部超时返回），
+ * 对比默认的parkNanos与时间轮两种阻塞策略：超时次数，以及实际等待比请求超时晚了多少（p50/p99/最大值）。
+ * 用法：java -cp ... TimedConditionBenchmark [线程数]，默认1000个线程
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class TimedConditionBenchmark {
+
+    private static final long RUN_MILLIS = 5000;
+    /** 每次等待的超时在[1, 20]毫秒之间随机 */
+    private static final long MIN_TIMEOUT_NANOS = 1000000L;
+    private static final long MAX_TIMEOUT_NANOS = 20000000L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        run("parkNanos", threads, ReentrantLock::newCondition);
+        run("TimingWheel", threads, lock -> lock.newCondition(TimingWheel.shared().parkingPolicy()));
+    }
+
+    private static void run(String name, int threads, Function<ReentrantLock, Condition> conditionOf)
+            throws InterruptedException {
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition condition = conditionOf.apply(lock);
+        final LogLinearHistogram lateness = new LogLinearHistogram();
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long deadline = System.nanoTime() + RUN_MILLIS * 1000000L;
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long timeout = random.nextLong(MIN_TIMEOUT_NANOS, MAX_TIMEOUT_NANOS + 1);
+                        lock.lock();
+                        try {
+                            long remaining = condition.awaitNanos(timeout);
+                            // remaining is how far past the timeout we returned, negated
+                            lateness.record(-remaining);
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "timed-wait-" + t).start();
+        }
+        done.await();
+        log.info("【{}】【线程数：{}】【超时次数：{}】【超时延迟 p50：{} us】【p99：{} us】【最大：{} us】",
+                name, threads, lateness.getTotalCount(),
+                lateness.getValueAtPercentile(50) / 1000,
+                lateness.getValueAtPercentile(99) / 1000,
+                lateness.getMaxValue() / 1000);
+    }
+}
@@ -0,0 +1,115 @@
+package com.czl.juc.locks.demo.reentreantlock;
+
+import com.czl.juc.locks.source.LogLinearHistogram;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 超时风暴：一个线程反复长时间持有锁（约2毫秒），大量线程以几十到几百微秒的超时tryLock，
+ * 绝大多数获取失败，队列中不断堆积被取消的节点。统计持有线程unlock()的耗时分布，
+ * 对比JDK ReentrantLock与source ReentrantLock（带超时获取延迟批量摘除被取消的节点）。
+ * 用法：java -cp ... TryLockTimeoutStormBenchmark [等待线程数]，默认256
+ * @Date 2026/10/18
+ */
+@Slf4j
+public class TryLockTimeoutStormBenchmark {
+
+    private static final long RUN_MILLIS = 5000;
+    private static final long HOLD_NANOS = 2000000L;
+    private static final long MIN_TIMEOUT_NANOS = 50000L;
+    private static final long MAX_TIMEOUT_NANOS = 500000L;
+
+    /**
+     * 测试用的锁操作
+     */
+    interface TimedLock {
+        void lock();
+
+        boolean tryLock(long time, TimeUnit unit) throws InterruptedException;
+
+        void unlock();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int waiters = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        final java.util.concurrent.locks.ReentrantLock jdk = new java.util.concurrent.locks.ReentrantLock();
+        final com.czl.juc.locks.source.ReentrantLock source = new com.czl.juc.locks.source.ReentrantLock();
+        run("jdk ReentrantLock", waiters, new TimedLock() {
+            public void lock() {
+                jdk.lock();
+            }
+
+            public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+                return jdk.tryLock(time, unit);
+            }
+
+            public void unlock() {
+                jdk.unlock();
+            }
+        });
+        run("source ReentrantLock", waiters, new TimedLock() {
+            public void lock() {
+                source.lock();
+            }
+
+            public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+                return source.tryLock(time, unit);
+            }
+
+            public void unlock() {
+                source.unlock();
+            }
+        });
+    }
+
+    private static void run(String name, int waiters, TimedLock lock) throws InterruptedException {
+        final LogLinearHistogram release = new LogLinearHistogram();
+        final AtomicLong acquired = new AtomicLong();
+        final AtomicLong timedOut = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(waiters + 1);
+        final long deadline = System.nanoTime() + RUN_MILLIS * 1000000L;
+
+        new Thread(() -> {
+            while (System.nanoTime() < deadline) {
+                lock.lock();
+                long t0 = System.nanoTime();
+                while (System.nanoTime() - t0 < HOLD_NANOS) {
+                    // hold the lock so that most timed waiters give up
+                }
+                long r0 = System.nanoTime();
+                lock.unlock();
+                release.record(System.nanoTime() - r0);
+            }
+            done.countDown();
+        }, "storm-holder").start();
+
+        for (int t = 0; t < waiters; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long timeout = random.nextLong(MIN_TIMEOUT_NANOS, MAX_TIMEOUT_NANOS + 1);
+                        if (lock.tryLock(timeout, TimeUnit.NANOSECONDS)) {
+                            acquired.incrementAndGet();
+                            lock.unlock();
+                        } else {
+                            timedOut.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "storm-waiter-" + t).start();
+        }
+        done.await();
+        log.info("【{}】【等待线程：{}】【获取成功：{}】【超时：{}】【unlock() p50：{} ns】【p99：{} ns】【最大：{} ns】",
+                name, waiters, acquired.get(), timedOut.get(),
+                release.getValueAtPercentile(50), release.getValueAtPercentile(99), release.getMaxValue());
+    }
+}
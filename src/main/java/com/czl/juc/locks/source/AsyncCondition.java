@@ -0,0 +1,277 @@
+package com.czl.juc.locks.source;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * {@link AsyncLock}的条件变量：{@link #awaitAsync}释放锁后立即返回一个future，
+ * 被{@link #signal()}/{@link #signalAll()}唤醒后重新获取锁，再在锁的executor上完成future。
+ * 等待期间不占用线程，适合事件循环代码。
+ *
+ * A condition bound to an {@link AsyncLock}. {@link #awaitAsync} releases
+ * the lock and returns at once with a future; {@link #signal()} and
+ * {@link #signalAll()} complete such futures instead of unparking
+ * threads. As with {@link Condition#await()}, a woken waiter re-acquires
+ * the lock before its future completes, and the caller's
+ * {@link AsyncLock.LockHandle} holds the lock again when it does. Futures
+ * complete on the lock's executor.
+ *
+ * <p>The waiter is queued before the lock is released, so a signal issued
+ * by a later holder of the lock is never lost. Signalling does not require
+ * holding the lock, but only signals issued under the lock are ordered
+ * with the state the waiters test. Waiters are woken in FIFO order, and a
+ * woken waiter queues for the lock behind those already waiting for it.
+ * There are no spurious wakeups, but the awaited state may have changed
+ * again by the time the lock is re-acquired, so waits belong in a loop.
+ *
+ * <p>The bounded buffer of the {@link Condition} documentation becomes:
+ * <pre> {@code
+ * class BoundedBuffer<E> {
+ *   final AsyncLock lock = new AsyncLock(executor);
+ *   final AsyncCondition notFull  = lock.newCondition();
+ *   final AsyncCondition notEmpty = lock.newCondition();
+ *   final Object[] items = new Object[100];
+ *   int putptr, takeptr, count;
+ *
+ *   CompletableFuture<Void> put(E x) {
+ *     return lock.lockAsync().thenCompose(h -> put(h, x));
+ *   }
+ *
+ *   private CompletableFuture<Void> put(AsyncLock.LockHandle h, E x) {
+ *     if (count == items.length)
+ *       return notFull.awaitAsync(h).thenCompose(v -> put(h, x));
+ *     items[putptr] = x;
+ *     if (++putptr == items.length) putptr = 0;
+ *     ++count;
+ *     notEmpty.signal();
+ *     h.unlock();
+ *     return CompletableFuture.completedFuture(null);
+ *   }
+ * }}</pre>
+ *
+ * <p>Cancelling an await future releases the lock once it has been
+ * re-acquired, instead of returning it to the caller. If the lock's
+ * executor rejects the task that would complete an await future, the
+ * future completes exceptionally with the
+ * {@link java.util.concurrent.RejectedExecutionException} and the
+ * caller's handle does not hold the lock.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 异步条件变量
+ * @Date 2026/10/18
+ */
+public final class AsyncCondition {
+
+    private final AsyncLock lock;
+
+    /** 等待者，先进先出，由this保护 */
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<Waiter>();
+
+    /**
+     * 一个等待者。state从WAITING变为SIGNALLED或TIMED_OUT恰好一次，决定由哪一方重新获取锁
+     * A waiter. Its state leaves {@code WAITING} exactly once, to either
+     * {@code SIGNALLED} or {@code TIMED_OUT}, and the side that moves it
+     * re-acquires the lock.
+     */
+    static final class Waiter {
+        static final int WAITING = 0;
+        static final int SIGNALLED = 1;
+        static final int TIMED_OUT = 2;
+
+        static final AtomicIntegerFieldUpdater<Waiter> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Waiter.class, "state");
+
+        final AsyncLock.LockHandle handle;
+        /** 完成时的结果：是否被唤醒（非限时等待时忽略） */
+        final CompletableFuture<Boolean> future;
+        volatile int state;
+        TimingWheel.Timeout timeout;
+
+        Waiter(AsyncLock.LockHandle handle, CompletableFuture<Boolean> future) {
+            this.handle = handle;
+            this.future = future;
+        }
+    }
+
+    AsyncCondition(AsyncLock lock) {
+        this.lock = lock;
+    }
+
+    /**
+     * 释放锁并等待唤醒，唤醒后重新获取锁再完成future
+     * Releases the lock held by the given handle and waits asynchronously
+     * for a signal.
+     *
+     * @param handle the caller's handle on this condition's lock
+     * @return a future completed, once signalled, when {@code handle}
+     *         holds the lock again
+     * @throws IllegalArgumentException if {@code handle} belongs to
+     *         another lock
+     * @throws IllegalMonitorStateException if {@code handle} has been
+     *         released
+     */
+    public CompletableFuture<Void> awaitAsync(AsyncLock.LockHandle handle) {
+        CompletableFuture<Void> result = new CompletableFuture<Void>();
+        Waiter w = new Waiter(handle, new CompletableFuture<Boolean>());
+        w.future.whenComplete((signalled, e) -> {
+            if (e != null)
+                result.completeExceptionally(e);
+            else if (!result.complete(null))
+                handle.unlock();            // cancelled by the caller meanwhile
+        });
+        release(w);
+        result.whenComplete((v, e) -> {
+            if (result.isCancelled())
+                w.future.cancel(false);
+        });
+        return result;
+    }
+
+    /**
+     * 限时等待；超时同样先重新获取锁，再以false完成future
+     * Releases the lock held by the given handle and waits asynchronously
+     * for a signal, for at most the given time. Whether signalled or timed
+     * out, the lock is re-acquired before the future completes.
+     *
+     * @param handle the caller's handle on this condition's lock
+     * @param time the maximum time to wait
+     * @param unit the time unit of the {@code time} argument
+     * @return a future completed, when {@code handle} holds the lock
+     *         again, with {@code false} if the waiting time elapsed before
+     *         a signal, else {@code true}
+     * @throws IllegalArgumentException if {@code handle} belongs to
+     *         another lock
+     * @throws IllegalMonitorStateException if {@code handle} has been
+     *         released
+     */
+    public CompletableFuture<Boolean> awaitAsync(AsyncLock.LockHandle handle, long time, TimeUnit unit) {
+        Waiter w = new Waiter(handle, new CompletableFuture<Boolean>());
+        release(w);
+        w.timeout = lock.wheel().schedule(() -> {
+            if (Waiter.STATE.compareAndSet(w, Waiter.WAITING, Waiter.TIMED_OUT)) {
+                dequeue(w);
+                reacquire(w, false);
+            }
+        }, time, unit);
+        return w.future;
+    }
+
+    /**
+     * 先入队，再释放锁，保证之后持有锁的线程发出的signal不会丢失
+     * Queues the waiter, then releases the caller's lock.
+     */
+    private void release(Waiter w) {
+        AsyncLock.LockHandle handle = w.handle;
+        if (handle.lock() != lock)
+            throw new IllegalArgumentException("handle of another lock");
+        if (!handle.isHeld())
+            throw new IllegalMonitorStateException();
+        synchronized (this) {
+            waiters.addLast(w);
+        }
+        handle.unlock();
+    }
+
+    /**
+     * 超时的等待者立即出队，不必等到下一次signal
+     * Removes a timed-out waiter from the queue.
+     */
+    private synchronized void dequeue(Waiter w) {
+        waiters.remove(w);
+    }
+
+    /**
+     * 重新获取锁，获得后完成future；future已被取消时把锁释放掉；executor拒绝执行时以该异常完成future
+     * Re-acquires the lock for the waiter and completes its future, or
+     * releases the lock again if the future was cancelled. If the executor
+     * rejects the grant, the future completes exceptionally with the
+     * rejection and the handle stays released.
+     */
+    private void reacquire(Waiter w, boolean signalled) {
+        lock.reacquire(w.handle, () -> {
+            if (!w.future.complete(signalled))
+                w.handle.unlock();
+        }, w.future::completeExceptionally);
+    }
+
+    /**
+     * Wakes up the longest-waiting waiter, if any.
+     */
+    public void signal() {
+        for (;;) {
+            Waiter w;
+            synchronized (this) {
+                w = waiters.pollFirst();
+            }
+            if (w == null)
+                return;
+            if (wake(w))
+                return;
+        }
+    }
+
+    /**
+     * Wakes up all waiting waiters.
+     */
+    public void signalAll() {
+        Waiter[] all;
+        synchronized (this) {
+            all = waiters.toArray(new Waiter[0]);
+            waiters.clear();
+        }
+        for (Waiter w : all)
+            wake(w);
+    }
+
+    /**
+     * 唤醒一个等待者；已超时或已取消的等待者返回false
+     * Wakes one waiter, returning {@code false} if it had already timed out
+     * or been cancelled.
+     */
+    private boolean wake(Waiter w) {
+        if (w.future.isDone())
+            return false;                   // cancelled; its handle stays released
+        if (!Waiter.STATE.compareAndSet(w, Waiter.WAITING, Waiter.SIGNALLED))
+            return false;
+        if (w.timeout != null)
+            w.timeout.cancel();
+        reacquire(w, true);
+        return true;
+    }
+
+    /**
+     * Queries whether any waiters are waiting on this condition. This
+     * method is designed for monitoring.
+     *
+     * @return {@code true} if there are waiting waiters
+     */
+    public synchronized boolean hasWaiters() {
+        for (Waiter w : waiters) {
+            if (w.state == Waiter.WAITING && !w.future.isDone())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of waiters waiting on this condition. This method
+     * is designed for monitoring.
+     *
+     * @return the number of waiting waiters
+     */
+    public synchronized int getWaitQueueLength() {
+        int n = 0;
+        for (Waiter w : waiters) {
+            if (w.state == Waiter.WAITING && !w.future.isDone())
+                n++;
+        }
+        return n;
+    }
+
+    /** 队列中的等待者个数，包括已超时或已取消但尚未出队的；供测试使用 */
+    synchronized int waiterCount() {
+        return waiters.size();
+    }
+}
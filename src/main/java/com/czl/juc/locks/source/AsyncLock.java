@@ -0,0 +1,378 @@
+package com.czl.juc.locks.source;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * 异步互斥锁：{@link #lockAsync()}不阻塞调用线程，返回一个在获得锁时完成的{@link CompletableFuture}。
+ * 等待者以待完成的future排队，而不是以阻塞的线程排队，成千上万个逻辑上的等待者不占用任何线程。
+ * 锁的交接通过调用方提供的{@link Executor}完成future，后续的回调在该executor上执行。
+ *
+ * A mutual exclusion lock for asynchronous code. {@link #lockAsync()}
+ * never blocks: it returns a {@link CompletableFuture} that completes
+ * with a {@link LockHandle} once the lock is granted. Waiters are queued
+ * as incomplete futures rather than parked threads, so any number of
+ * logical waiters costs no threads.
+ *
+ * <p>An uncontended acquisition completes the future before returning.
+ * Otherwise the future is completed on the executor given at
+ * construction, so dependent stages run there and never on the thread
+ * that released the lock. Ownership passes directly from the releasing
+ * handle to the next waiter, in strict FIFO order.
+ *
+ * <p>Ownership belongs to the {@link LockHandle}, not to a thread, since
+ * an asynchronous critical section may hop between threads. The lock is
+ * therefore not reentrant: acquiring it again while holding a handle
+ * waits for that handle to be released.
+ *
+ * <p>A waiter whose future is cancelled, or times out in
+ * {@link #tryLockAsync}, leaves the queue at that moment, so abandoned
+ * waiters do not pile up behind a long hold. If the lock is granted to a
+ * future that was completed concurrently, the grant is released again at
+ * once. If the executor rejects a grant, that waiter's future fails with
+ * the {@link RejectedExecutionException} and the lock passes on to the
+ * next waiter, in a loop on the releasing thread rather than by
+ * recursion. Timeouts use a {@link TimingWheel}.
+ *
+ * <p>{@link #newCondition()} returns an {@link AsyncCondition}, whose waits
+ * are futures as well.
+ *
+ * <p>Sample usage:
+ * <pre> {@code
+ * AsyncLock lock = new AsyncLock(executor);
+ *
+ * CompletableFuture<Void> update() {
+ *   return lock.lockAsync().thenCompose(handle ->
+ *       writeAsync().whenComplete((r, e) -> handle.unlock()));
+ * }}</pre>
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 异步互斥锁
+ * @Date 2026/10/18
+ */
+public class AsyncLock {
+
+    /** 完成交接时使用的executor */
+    private final Executor executor;
+
+    /** 超时使用的时间轮 */
+    private final TimingWheel wheel;
+
+    /** 是否被持有；与waiters一起由this保护 */
+    private boolean held;
+
+    /** 等待者，先进先出 */
+    private final ArrayDeque<CompletableFuture<LockHandle>> waiters = new ArrayDeque<CompletableFuture<LockHandle>>();
+
+    /**
+     * 一次获得的锁，释放恰好一次
+     * One grant of the lock. Releasing it passes the lock to the next
+     * waiter. A handle can be released only once.
+     */
+    public final class LockHandle implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        LockHandle() {
+        }
+
+        /**
+         * Releases the lock.
+         *
+         * @throws IllegalMonitorStateException if this handle was already
+         *         released
+         */
+        public void unlock() {
+            if (!released.compareAndSet(false, true))
+                throw new IllegalMonitorStateException();
+            release();
+        }
+
+        /**
+         * Same as {@link #unlock()}, for use in try-with-resources.
+         */
+        public void close() {
+            unlock();
+        }
+
+        /**
+         * Returns the lock this handle was granted by.
+         *
+         * @return the lock
+         */
+        public AsyncLock lock() {
+            return AsyncLock.this;
+        }
+
+        /**
+         * Queries if this handle still holds the lock.
+         *
+         * @return {@code true} if not yet released
+         */
+        public boolean isHeld() {
+            return !released.get();
+        }
+    }
+
+    /**
+     * Creates a lock that completes waiting futures on the given executor
+     * and uses the shared {@link TimingWheel} for timeouts.
+     *
+     * @param executor runs the completion of each grant
+     * @throws NullPointerException if {@code executor} is null
+     */
+    public AsyncLock(Executor executor) {
+        this(executor, TimingWheel.shared());
+    }
+
+    /**
+     * Creates a lock that completes waiting futures on the given executor
+     * and uses the given timing wheel for timeouts.
+     *
+     * @param executor runs the completion of each grant
+     * @param wheel schedules the timeouts of {@link #tryLockAsync}
+     * @throws NullPointerException if an argument is null
+     */
+    public AsyncLock(Executor executor, TimingWheel wheel) {
+        if (executor == null || wheel == null)
+            throw new NullPointerException();
+        this.executor = executor;
+        this.wheel = wheel;
+    }
+
+    /**
+     * 获取锁，返回获得锁时完成的future
+     * Acquires the lock asynchronously.
+     *
+     * @return a future completed with a handle once the lock is granted;
+     *         already complete if the lock was free
+     */
+    public CompletableFuture<LockHandle> lockAsync() {
+        CompletableFuture<LockHandle> f = new CompletableFuture<LockHandle>();
+        if (enqueue(f))
+            f.complete(new LockHandle());
+        else
+            f.whenComplete((h, e) -> dequeueIfAbandoned(f, e));
+        return f;
+    }
+
+    /**
+     * Acquires the lock if it is free, without waiting.
+     *
+     * @return a handle, or {@code null} if the lock is held
+     */
+    public LockHandle tryLock() {
+        synchronized (this) {
+            if (held)
+                return null;
+            held = true;
+        }
+        return new LockHandle();
+    }
+
+    /**
+     * 限时获取：超时后future以{@link TimeoutException}异常完成
+     * Acquires the lock asynchronously, giving up after the given waiting
+     * time.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the time unit of the timeout argument
+     * @return a future completed with a handle once the lock is granted,
+     *         or completed exceptionally with a {@link TimeoutException}
+     *         if the waiting time elapses first
+     */
+    public CompletableFuture<LockHandle> tryLockAsync(long timeout, TimeUnit unit) {
+        CompletableFuture<LockHandle> f = new CompletableFuture<LockHandle>();
+        if (timeout <= 0L) {
+            // not queued at all, so nothing is left behind to dequeue
+            LockHandle h = tryLock();
+            if (h != null)
+                f.complete(h);
+            else
+                f.completeExceptionally(new TimeoutException());
+        } else if (enqueue(f)) {
+            f.complete(new LockHandle());
+        } else {
+            TimingWheel.Timeout t = wheel.schedule(() -> expire(f), timeout, unit);
+            // drop the timeout from the wheel once f completes either way
+            f.whenComplete((h, e) -> {
+                t.cancel();
+                dequeueIfAbandoned(f, e);
+            });
+        }
+        return f;
+    }
+
+    /**
+     * Returns a new {@link AsyncCondition} bound to this lock.
+     *
+     * @return a new condition
+     */
+    public AsyncCondition newCondition() {
+        return new AsyncCondition(this);
+    }
+
+    /**
+     * 条件等待结束后，替已释放的handle重新排队获取锁；获得后handle重新生效，并在executor上执行granted；
+     * executor拒绝执行时handle保持已释放，以拒绝异常调用failed
+     * Re-acquires the lock for a handle that a condition wait released.
+     * Once granted, the handle holds the lock again and {@code granted}
+     * runs on the executor. If the executor rejects the grant, the handle
+     * stays released and {@code failed} runs with the
+     * {@link RejectedExecutionException}, on the thread that was passing
+     * the lock.
+     */
+    void reacquire(LockHandle handle, Runnable granted, Consumer<Throwable> failed) {
+        CompletableFuture<LockHandle> f = new CompletableFuture<LockHandle>();
+        // registered before queueing, so it runs wherever f is completed: on the executor
+        f.whenComplete((grant, e) -> {
+            if (e != null) {
+                failed.accept(e);
+                return;
+            }
+            grant.released.set(true);
+            handle.released.set(false);
+            granted.run();
+        });
+        if (enqueue(f) && !grant(f))
+            release();
+    }
+
+    /** 超时使用的时间轮 */
+    TimingWheel wheel() {
+        return wheel;
+    }
+
+    /**
+     * 锁空闲时直接占有，否则排队
+     * Takes the lock if free, otherwise queues the future.
+     *
+     * @return {@code true} if the lock was taken
+     */
+    private synchronized boolean enqueue(CompletableFuture<LockHandle> f) {
+        if (!held) {
+            held = true;
+            return true;
+        }
+        waiters.addLast(f);
+        return false;
+    }
+
+    /**
+     * 超时或取消的等待者立即出队；交接被拒绝的等待者已经出队，不再搜索队列
+     * Removes a waiter whose future failed while queued, such as by
+     * cancellation or timeout. A rejected grant was polled already, so
+     * the queue is not searched for it.
+     */
+    private void dequeueIfAbandoned(CompletableFuture<LockHandle> f, Throwable e) {
+        if (e != null && !(e instanceof RejectedExecutionException))
+            dequeue(f);
+    }
+
+    private synchronized void dequeue(CompletableFuture<LockHandle> f) {
+        waiters.remove(f);
+    }
+
+    /**
+     * 交给下一个还在等待的等待者，没有则置为空闲；executor拒绝时在循环中继续交给下一个，不递归
+     * Passes the lock to the next waiter whose future is still incomplete,
+     * or frees it. Waiters whose grant the executor rejects are failed one
+     * after another in this loop.
+     */
+    void release() {
+        for (;;) {
+            CompletableFuture<LockHandle> next;
+            synchronized (this) {
+                do {
+                    next = waiters.pollFirst();
+                } while (next != null && next.isDone());
+                if (next == null) {
+                    held = false;
+                    return;
+                }
+            }
+            if (grant(next))
+                return;
+        }
+    }
+
+    /**
+     * 在executor上把锁交给f；f已经完成（取消或超时）时把锁再传下去。
+     * executor拒绝时f以拒绝异常完成，返回false，锁仍由调用方负责传下去
+     * Completes the future with a new grant on the executor. A grant that
+     * loses to a concurrent completion is released again.
+     *
+     * @return {@code false} if the executor rejected the grant; the future
+     *         has then failed and the caller still owns the lock
+     */
+    private boolean grant(CompletableFuture<LockHandle> f) {
+        LockHandle handle = new LockHandle();
+        try {
+            executor.execute(() -> {
+                if (!f.complete(handle))
+                    handle.unlock();
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            f.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    /**
+     * 在executor上以超时完成f；executor拒绝时以拒绝异常完成
+     * Completes the future with a timeout on the executor.
+     */
+    private void expire(CompletableFuture<LockHandle> f) {
+        try {
+            executor.execute(() -> f.completeExceptionally(new TimeoutException()));
+        } catch (RejectedExecutionException e) {
+            if (f.completeExceptionally(e))
+                dequeue(f);
+        }
+    }
+
+    /**
+     * Queries if the lock is held. This method is designed for monitoring,
+     * not for synchronization control.
+     *
+     * @return {@code true} if the lock is held
+     */
+    public synchronized boolean isLocked() {
+        return held;
+    }
+
+    /**
+     * Returns the number of waiters whose futures are still incomplete.
+     * This method is designed for monitoring.
+     *
+     * @return the number of waiting futures
+     */
+    public synchronized int getQueueLength() {
+        int n = 0;
+        for (CompletableFuture<LockHandle> f : waiters) {
+            if (!f.isDone())
+                n++;
+        }
+        return n;
+    }
+
+    /** 队列中的等待者个数，包括已完成但尚未出队的；供测试使用 */
+    synchronized int waiterCount() {
+        return waiters.size();
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        return super.toString() + (isLocked() ? "[Locked]" : "[Unlocked]");
+    }
+}
@@ -0,0 +1,283 @@
+package com.czl.juc.locks.source;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 写锁的批量提交（group commit）前端：写线程不再各自获取写锁，而是把更新操作提交到队列，
+ * 由其中一个线程（合并者）获取一次写锁、在同一个独占区内按提交顺序执行一批更新，释放写锁后再唤醒各提交者。
+ * 大量很短的写操作时，锁的交接次数从每次更新一次降为每批一次，写吞吐量随批大小增长。
+ *
+ * A write-combining, group-commit front end for the write lock of a
+ * {@link ReadWriteLock}.
+ *
+ * <p>Instead of each writer taking the write lock for its own small
+ * update, writers submit the update to {@link #write(Runnable)} or
+ * {@link #write(Supplier)}, which queue it. One submitter at a time
+ * becomes the <em>combiner</em>: it takes the write lock once, runs up to
+ * {@code maxBatch} queued updates in submission order inside that single
+ * exclusive section, releases the lock, and only then wakes the
+ * submitters whose updates it ran. The other submitters simply park until
+ * their update is done. Under load the lock is handed off once per batch
+ * rather than once per update, so write throughput grows with the batch
+ * size, while readers still see every batch as one atomic write.
+ *
+ * <p>When a combiner finishes its batch it gives up the role and wakes
+ * the oldest waiting submitter, which takes over if updates remain; no
+ * thread combines for longer than one batch after its own update ran.
+ *
+ * <p>Updates run on whichever thread is combining, so they must not
+ * depend on the identity or thread-locals of the submitting thread. An
+ * update may itself call {@code write}, which runs the nested update
+ * directly. A thread that already holds the write lock must not call
+ * {@code write}: the combiner would wait for the lock it holds. An update
+ * that throws fails only its own submission; the exception is rethrown
+ * to its submitter.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 写锁批量提交前端
+ * @Date 2026/10/18
+ */
+public class BatchingWriter {
+
+    /** 默认每批最多执行的更新数 */
+    static final int DEFAULT_MAX_BATCH = 64;
+
+    /** 提交者等待时先自旋的次数，之后park */
+    static final int SPINS = 1 << 6;
+
+    /** 被保护的写锁 */
+    private final Lock writeLock;
+
+    /** 每批最多执行的更新数 */
+    private final int maxBatch;
+
+    /** 合并者本批执行的更新，只由合并者使用 */
+    private final Request[] batch;
+
+    /** 待执行的更新，按提交顺序 */
+    private final ConcurrentLinkedQueue<Request> queue = new ConcurrentLinkedQueue<Request>();
+
+    /** 1表示有线程正在合并 */
+    private volatile int combining;
+
+    /** 当前的合并者，用于识别更新内部的嵌套提交 */
+    private volatile Thread combiner;
+
+    /** 已执行的批数与更新数，只由合并者修改 */
+    private volatile long batches;
+    private volatile long writes;
+
+    private static final AtomicIntegerFieldUpdater<BatchingWriter> COMBINING =
+        AtomicIntegerFieldUpdater.newUpdater(BatchingWriter.class, "combining");
+
+    /**
+     * 一次提交的更新及其结果
+     * A submitted update and its outcome, published by {@code done}.
+     */
+    static final class Request {
+        final Supplier<?> update;
+        final Thread submitter;
+        Object result;
+        Throwable failure;
+        volatile boolean done;
+
+        Request(Supplier<?> update, Thread submitter) {
+            this.update = update;
+            this.submitter = submitter;
+        }
+    }
+
+    /**
+     * Creates a front end for the given lock's write lock, running up to
+     * {@value #DEFAULT_MAX_BATCH} updates per batch.
+     *
+     * @param lock the lock whose write lock guards the updates
+     * @throws NullPointerException if {@code lock} is null
+     */
+    public BatchingWriter(ReadWriteLock lock) {
+        this(lock, DEFAULT_MAX_BATCH);
+    }
+
+    /**
+     * Creates a front end for the given lock's write lock.
+     *
+     * @param lock the lock whose write lock guards the updates
+     * @param maxBatch the largest number of updates run in one exclusive
+     *        section; 1 disables batching
+     * @throws NullPointerException if {@code lock} is null
+     * @throws IllegalArgumentException if {@code maxBatch} is not positive
+     */
+    public BatchingWriter(ReadWriteLock lock, int maxBatch) {
+        if (maxBatch <= 0)
+            throw new IllegalArgumentException("maxBatch " + maxBatch);
+        this.writeLock = lock.writeLock();
+        this.maxBatch = maxBatch;
+        this.batch = new Request[maxBatch];
+    }
+
+    /**
+     * 提交更新并等待它在写锁下执行完毕
+     * Runs the given update under the write lock, possibly batched with
+     * other threads' updates, and returns once it has run.
+     *
+     * @param update the update
+     * @throws NullPointerException if {@code update} is null
+     * @throws RuntimeException if the update threw it
+     * @throws Error if the update threw it
+     */
+    public void write(Runnable update) {
+        if (update == null)
+            throw new NullPointerException();
+        write(() -> {
+            update.run();
+            return null;
+        });
+    }
+
+    /**
+     * 提交更新，等待它在写锁下执行完毕并返回其结果
+     * Runs the given update under the write lock, possibly batched with
+     * other threads' updates, and returns its result.
+     *
+     * @param update the update
+     * @param <T> the type of the result
+     * @return the update's result
+     * @throws NullPointerException if {@code update} is null
+     * @throws RuntimeException if the update threw it
+     * @throws Error if the update threw it
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T write(Supplier<T> update) {
+        if (update == null)
+            throw new NullPointerException();
+        Thread current = Thread.currentThread();
+        if (combiner == current)
+            return update.get();    // nested in an update we are combining
+        Request r = new Request(update, current);
+        queue.add(r);
+        boolean interrupted = false;
+        int spins = SPINS;
+        while (!r.done) {
+            if (combining == 0 && COMBINING.compareAndSet(this, 0, 1)) {
+                combine();
+            } else if (spins > 0) {
+                spins--;
+            } else {
+                LockSupport.park(this);
+                if (Thread.interrupted())
+                    interrupted = true;
+            }
+        }
+        if (interrupted)
+            current.interrupt();
+        if (r.failure != null) {
+            if (r.failure instanceof RuntimeException)
+                throw (RuntimeException) r.failure;
+            if (r.failure instanceof Error)
+                throw (Error) r.failure;
+            throw new UndeclaredThrowableException(r.failure);
+        }
+        return (T) r.result;
+    }
+
+    /**
+     * 作为合并者执行一批更新：获取一次写锁，执行至多maxBatch个更新，释放写锁后唤醒提交者，
+     * 然后放弃合并者身份；队列中还有更新时唤醒最早的等待者接手
+     * Runs one batch as the combiner, then gives up the role. Submitters
+     * are woken only after the write lock is released, so they do not
+     * wake up to contend for it, and before the role is given up, so that
+     * the batch array can be reused. If updates remain, the oldest waiting
+     * submitter is woken to take over; a submitter that queued after the
+     * queue was checked finds the role free itself.
+     */
+    private void combine() {
+        Request[] batch = this.batch;
+        int n = 0;
+        try {
+            combiner = Thread.currentThread();
+            writeLock.lock();
+            try {
+                Request r;
+                while (n < batch.length && (r = queue.poll()) != null) {
+                    try {
+                        r.result = r.update.get();
+                    } catch (Throwable e) {
+                        r.failure = e;
+                    }
+                    batch[n++] = r;
+                }
+                if (n > 0) {
+                    writes += n;
+                    batches++;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            Thread self = Thread.currentThread();
+            for (int i = 0; i < n; i++) {
+                Request r = batch[i];
+                batch[i] = null;
+                r.done = true;
+                if (r.submitter != self)
+                    LockSupport.unpark(r.submitter);
+            }
+            combiner = null;
+            combining = 0;
+            Request next = queue.peek();
+            if (next != null)
+                LockSupport.unpark(next.submitter);
+        }
+    }
+
+    /**
+     * 每批最多执行的更新数
+     * Returns the largest number of updates run in one exclusive section.
+     *
+     * @return the batch limit
+     */
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    /**
+     * 已执行的批数
+     * Returns the number of batches run so far, each one exclusive section.
+     *
+     * @return the number of batches
+     */
+    public long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * 已执行的更新数，除以批数即平均批大小
+     * Returns the number of updates run so far; divided by
+     * {@link #getBatchCount()} it gives the mean batch size.
+     *
+     * @return the number of updates
+     */
+    public long getWriteCount() {
+        return writes;
+    }
+
+    /**
+     * 等待执行的更新数的估计值
+     * Returns an estimate of the number of updates waiting to run.
+     *
+     * @return the number of queued updates
+     */
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    public String toString() {
+        return super.toString() + "[Batches = " + batches +
+            ", Writes = " + writes +
+            ", Max batch = " + maxBatch + "]";
+    }
+}
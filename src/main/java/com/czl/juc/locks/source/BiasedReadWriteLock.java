@@ -0,0 +1,395 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 读偏向的读写锁：读线程不再CAS同一个state，而是在按线程分散的、做了缓存行填充的
+ * 计数槽中登记自己，读操作之间没有共享写，读吞吐量可以随核数近似线性增长；
+ * 写线程先获取内部的{@link ReentrantLock}，撤销读偏向，再等待所有计数槽归零。
+ * 每个线程的读锁重入次数记在开放寻址表里，已持有读锁的线程重入时不在写线程之后排队。
+ *
+ * A {@link ReadWriteLock} biased towards readers, for read-mostly data.
+ *
+ * <p>Readers announce themselves by incrementing one of a set of
+ * striped, cache-line-padded counters chosen from the reading thread's
+ * id, then check that the lock is still in reader-biased mode. Readers
+ * on different stripes never write to the same cache line, so read-side
+ * throughput is not limited by a single contended state word as it is in
+ * {@link java.util.concurrent.locks.ReentrantReadWriteLock}.
+ *
+ * <p>A writer acquires an internal {@link ReentrantLock}, revokes the
+ * reader bias, and then waits for every stripe to drain to zero. Readers
+ * that arrive while the bias is revoked back out of their stripe and
+ * queue behind the writer on the internal lock, so writers are not
+ * starved by a continuous stream of new readers. Writers are
+ * correspondingly expensive: each write acquisition scans all stripes,
+ * and drains readers by polling.
+ *
+ * <p>Each thread's read holds are counted in a
+ * {@link HoldTableReadWriteLock.HoldTable}, whose lookup only reads
+ * shared memory once the thread has a record. A thread that already
+ * holds the read lock re-enters it on its stripe even when the bias is
+ * revoked: a draining writer is waiting for that very hold, so the reader
+ * must not queue behind it.
+ *
+ * <p>Properties of this implementation:
+ * <ul>
+ * <li>Both locks are reentrant, including a read re-entry while a writer
+ * is draining readers. The write lock holder may also acquire the read
+ * lock (downgrading), but a read lock holder must not acquire the write
+ * lock, which would wait for its own read hold forever.
+ * <li>The read lock does not support conditions; the write lock does not
+ * support them either, because a waiting writer would otherwise let
+ * readers in while its bias revocation is still in effect.
+ * <li>Releasing a read lock not held by the current thread throws
+ * {@link IllegalMonitorStateException}.
+ * </ul>
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 读偏向、分段计数的读写锁
+ * @Date 2026/10/18
+ */
+public class BiasedReadWriteLock implements ReadWriteLock {
+
+    /** 两个计数槽之间间隔的long个数，16个long为128字节，可以同时避开相邻缓存行预取 */
+    private static final int STRIDE = 16;
+
+    /** 写线程等待读线程退出时，先自旋的次数 */
+    private static final int DRAIN_SPINS = 128;
+
+    /** 写线程等待读线程退出时，最长的单次park时间 */
+    private static final long MAX_DRAIN_PARK_NANOS = 1000000L;
+
+    /** 读线程计数槽，第i个槽位于下标i*STRIDE */
+    private final AtomicLongArray readers;
+
+    /** 槽数减一，槽数为2的幂 */
+    private final int mask;
+
+    /**
+     * 读偏向标志，写线程持有writerLock期间为false
+     * Whether readers may enter on their stripe alone. Cleared only by a
+     * thread holding {@link #writerLock}.
+     */
+    private volatile boolean readerBias = true;
+
+    /** 写线程之间互斥，读偏向被撤销时读线程也在此排队 */
+    private final ReentrantLock writerLock;
+
+    /** 各线程的读锁重入次数 */
+    private final HoldTableReadWriteLock.HoldTable holds = new HoldTableReadWriteLock.HoldTable();
+
+    private final ReadLock readerView = new ReadLock();
+    private final WriteLock writerView = new WriteLock();
+
+    /**
+     * Creates a lock with four stripes per available processor.
+     */
+    public BiasedReadWriteLock() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Creates a lock with at least the given number of reader stripes,
+     * rounded up to a power of two.
+     *
+     * @param stripes the minimum number of reader stripes
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     */
+    public BiasedReadWriteLock(int stripes) {
+        if (stripes <= 0)
+            throw new IllegalArgumentException("stripes must be positive");
+        int n = 1;
+        while (n < stripes && n < (1 << 16))
+            n <<= 1;
+        this.mask = n - 1;
+        // one extra leading stride so every stripe is padded on both sides
+        this.readers = new AtomicLongArray((n + 1) * STRIDE);
+        this.writerLock = new ReentrantLock();
+    }
+
+    @Override
+    public Lock readLock() {
+        return readerView;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writerView;
+    }
+
+    /**
+     * 当前线程对应的计数槽下标，同一线程总是映射到同一个槽
+     * Index of the current thread's stripe. A thread always maps to the
+     * same stripe, so an unlock finds the counter its lock incremented.
+     */
+    private int slot() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & mask) * STRIDE + STRIDE;
+    }
+
+    /**
+     * 当前线程的读锁重入次数记录，不存在则插入
+     */
+    private HoldTableReadWriteLock.Holds holds() {
+        return holds.claim(Thread.currentThread());
+    }
+
+    /**
+     * 快速路径：在计数槽登记，如果读偏向仍有效或当前线程已持有读锁则成功，否则撤回登记
+     * Fast path: announce on the stripe and keep the hold only if the bias
+     * is still in effect. The increment and the bias read are both volatile,
+     * so a writer that cleared the bias and then scanned the stripes either
+     * sees this reader or this reader sees the cleared bias. A thread that
+     * already holds the read lock keeps the hold regardless: no writer can
+     * finish draining while that hold is outstanding, unless the writer is
+     * this thread.
+     */
+    private boolean tryFastRead(HoldTableReadWriteLock.Holds h, int slot) {
+        readers.getAndIncrement(slot);
+        if (readerBias || h.count > 0) {
+            h.count++;
+            return true;
+        }
+        readers.getAndDecrement(slot);
+        return false;
+    }
+
+    /**
+     * 慢路径的收尾：已经持有writerLock，此时没有活跃的写线程，直接登记即可
+     * Completes a slow-path read while holding {@link #writerLock}. Either
+     * no writer is active or the current thread is the writer, so the
+     * stripe can be incremented unconditionally.
+     */
+    private void readUnderWriterLock(HoldTableReadWriteLock.Holds h, int slot) {
+        try {
+            readers.getAndIncrement(slot);
+            h.count++;
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    /**
+     * 所有计数槽是否都为零
+     */
+    private boolean readersDrained() {
+        for (int i = STRIDE, end = (mask + 2) * STRIDE; i < end; i += STRIDE) {
+            if (readers.get(i) != 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * 撤销读偏向后，等待所有读线程退出；先自旋，再以指数增长的时间park
+     * Waits for all stripes to drain after the bias has been revoked.
+     *
+     * @param deadline the {@link System#nanoTime} deadline, or 0 to wait forever
+     * @param interruptible whether to abort when the thread is interrupted
+     * @return {@code true} if drained, {@code false} if the deadline passed
+     * @throws InterruptedException if interruptible and interrupted
+     */
+    private boolean awaitReadersDrained(long deadline, boolean interruptible)
+            throws InterruptedException {
+        long parkNanos = 1000L;
+        for (int spins = 0; !readersDrained(); ++spins) {
+            if (deadline != 0L && deadline - System.nanoTime() <= 0L)
+                return false;
+            if (spins < DRAIN_SPINS)
+                continue;
+            LockSupport.parkNanos(this, parkNanos);
+            if (parkNanos < MAX_DRAIN_PARK_NANOS)
+                parkNanos <<= 1;
+            if (interruptible && Thread.interrupted())
+                throw new InterruptedException();
+        }
+        return true;
+    }
+
+    /**
+     * 写锁首次获取时撤销读偏向并等待读线程退出；失败则恢复读偏向并释放writerLock
+     * Called with {@link #writerLock} newly held: revokes the bias and
+     * drains readers, or restores the bias and releases the lock on failure.
+     */
+    private boolean revokeBias(long deadline, boolean interruptible)
+            throws InterruptedException {
+        if (writerLock.getHoldCount() > 1)
+            return true;                    // reentrant write, already revoked
+        readerBias = false;
+        boolean drained = false;
+        try {
+            drained = awaitReadersDrained(deadline, interruptible);
+            return drained;
+        } finally {
+            if (!drained) {
+                readerBias = true;
+                writerLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 读锁视图
+     * The read lock view.
+     */
+    final class ReadLock implements Lock {
+
+        public void lock() {
+            HoldTableReadWriteLock.Holds h = holds();
+            int slot = slot();
+            if (tryFastRead(h, slot))
+                return;
+            writerLock.lock();
+            readUnderWriterLock(h, slot);
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            HoldTableReadWriteLock.Holds h = holds();
+            int slot = slot();
+            if (tryFastRead(h, slot))
+                return;
+            writerLock.lockInterruptibly();
+            readUnderWriterLock(h, slot);
+        }
+
+        public boolean tryLock() {
+            HoldTableReadWriteLock.Holds h = holds();
+            int slot = slot();
+            if (tryFastRead(h, slot))
+                return true;
+            if (!writerLock.tryLock())
+                return false;
+            readUnderWriterLock(h, slot);
+            return true;
+        }
+
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            HoldTableReadWriteLock.Holds h = holds();
+            int slot = slot();
+            if (tryFastRead(h, slot))
+                return true;
+            if (!writerLock.tryLock(time, unit))
+                return false;
+            readUnderWriterLock(h, slot);
+            return true;
+        }
+
+        public void unlock() {
+            HoldTableReadWriteLock.Holds h = holds.find(Thread.currentThread());
+            if (h == null || h.count == 0)
+                throw new IllegalMonitorStateException();
+            h.count--;
+            readers.getAndDecrement(slot());
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException} because
+         * read locks do not support conditions.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        public String toString() {
+            return super.toString() + "[Read lock, bias = " + readerBias + "]";
+        }
+    }
+
+    /**
+     * 写锁视图
+     * The write lock view.
+     */
+    final class WriteLock implements Lock {
+
+        public void lock() {
+            writerLock.lock();
+            try {
+                revokeBias(0L, false);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);    // not interruptible
+            }
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            writerLock.lockInterruptibly();
+            revokeBias(0L, true);
+        }
+
+        public boolean tryLock() {
+            if (!writerLock.tryLock())
+                return false;
+            if (writerLock.getHoldCount() > 1)
+                return true;
+            readerBias = false;
+            if (readersDrained())
+                return true;
+            readerBias = true;
+            writerLock.unlock();
+            return false;
+        }
+
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(time);
+            long deadline = System.nanoTime() + nanos;
+            if (deadline == 0L)
+                deadline = 1L;
+            if (!writerLock.tryLock(nanos, TimeUnit.NANOSECONDS))
+                return false;
+            return revokeBias(deadline, true);
+        }
+
+        public void unlock() {
+            if (!writerLock.isHeldByCurrentThread())
+                throw new IllegalMonitorStateException();
+            if (writerLock.getHoldCount() == 1)
+                readerBias = true;
+            writerLock.unlock();
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException}: waiting on a
+         * condition would release the writer lock while the reader bias is
+         * still revoked.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        public String toString() {
+            return super.toString() + "[Write lock, held = " + writerLock.isLocked() + "]";
+        }
+    }
+
+    /**
+     * 当前线程的读锁重入次数
+     * Queries the number of reentrant read holds on this lock by the
+     * current thread.
+     *
+     * @return the number of holds on the read lock by the current thread
+     */
+    public int getReadHoldCount() {
+        HoldTableReadWriteLock.Holds h = holds.find(Thread.currentThread());
+        return h == null ? 0 : h.count;
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        return super.toString() + "[Stripes = " + (mask + 1) + ", bias = " + readerBias + "]";
+    }
+}
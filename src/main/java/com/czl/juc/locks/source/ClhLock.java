@@ -0,0 +1,222 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CLH队列自旋锁：等待线程形成一个隐式链表，每个线程在前驱节点上自旋，
+ * 前驱释放时只写自己的节点，后继即可感知。支持带超时的放弃：
+ * 放弃的线程把自己的节点指向它的前驱，后继线程随之改为在更前面的节点上自旋。
+ *
+ * A Craig/Landin/Hagersten queue spin lock implementing {@link Lock}.
+ *
+ * <p>Each waiter swaps its node into the tail and spins on the node of
+ * its predecessor, which only the predecessor writes. Releasing the lock
+ * is a single write to the releaser's own node. This is the lock the
+ * wait queue of {@link QueuedSynchronizer} is derived from, used here in
+ * its original spinning form.
+ *
+ * <p>Timed and interruptible acquisitions use Scott's CLH-try protocol: a
+ * node's {@code pred} field is {@code null} while its owner waits or holds
+ * the lock, {@link Node#AVAILABLE} once released, and otherwise points to
+ * the node its owner was waiting on when it gave up, so the successor
+ * simply moves on to spin there instead.
+ *
+ * <p>This is a spin lock: waiters never park, they only
+ * {@link Thread#yield yield} periodically. The lock is reentrant and does
+ * not support conditions.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: CLH队列自旋锁
+ * @Date 2026/10/18
+ */
+public class ClhLock implements Lock {
+
+    /** 自旋多少次后让出一次CPU（2的幂减1） */
+    static final int YIELD_MASK = 1023;
+
+    /** 队尾，初始为一个已释放的节点 */
+    private final AtomicReference<Node> tail;
+
+    /** 持有锁的线程的节点，只由持有者读写 */
+    private Node holder;
+
+    /** 持有锁的线程 */
+    private volatile Thread owner;
+
+    /** 重入次数，只由持有者读写 */
+    private int holds;
+
+    /**
+     * 队列节点，pred独占一个缓存行
+     * Queue node, padded so the word successors spin on has its own
+     * cache line.
+     */
+    static final class Node {
+        /** 表示节点已释放 Marks a released node */
+        static final Node AVAILABLE = new Node();
+
+        long p0, p1, p2, p3, p4, p5, p6;
+        /**
+         * null：等待或持有中；AVAILABLE：已释放；其他：已放弃，后继应改为在此节点上自旋
+         */
+        volatile Node pred;
+        long q0, q1, q2, q3, q4, q5, q6;
+    }
+
+    /**
+     * Creates an unlocked CLH lock.
+     */
+    public ClhLock() {
+        Node initial = new Node();
+        initial.pred = Node.AVAILABLE;
+        tail = new AtomicReference<Node>(initial);
+    }
+
+    /**
+     * 入队并在前驱上自旋，超时或中断时放弃节点
+     * Enqueues and spins on the predecessor until it is released.
+     *
+     * @param deadline {@link System#nanoTime} deadline, or 0 for none
+     * @param interruptible whether to abort on interrupt
+     * @return {@code true} if acquired, {@code false} on timeout
+     * @throws InterruptedException if interruptible and interrupted
+     */
+    private boolean acquire(long deadline, boolean interruptible)
+            throws InterruptedException {
+        Thread current = Thread.currentThread();
+        if (owner == current) {
+            reenter();
+            return true;
+        }
+        Node node = new Node();
+        Node pred = tail.getAndSet(node);
+        for (int spins = 1; ; ++spins) {
+            Node p = pred.pred;
+            if (p == Node.AVAILABLE)
+                break;
+            if (p != null) {
+                pred = p;                   // predecessor gave up, skip it
+                continue;
+            }
+            if ((spins & YIELD_MASK) != 0)
+                continue;
+            boolean interrupted = interruptible && Thread.interrupted();
+            if (interrupted || (deadline != 0L && deadline - System.nanoTime() <= 0L)) {
+                // give up: if no one queued behind us, just take our node back
+                if (!tail.compareAndSet(node, pred))
+                    node.pred = pred;
+                if (interrupted)
+                    throw new InterruptedException();
+                return false;
+            }
+            Thread.yield();
+        }
+        holder = node;
+        owner = current;
+        holds = 1;
+        return true;
+    }
+
+    private void reenter() {
+        if (holds == Integer.MAX_VALUE)
+            throw new Error("Maximum lock count exceeded");
+        holds++;
+    }
+
+    public void lock() {
+        try {
+            acquire(0L, false);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);        // not interruptible
+        }
+    }
+
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        acquire(0L, true);
+    }
+
+    /**
+     * 只有队尾节点已释放（没有持有者和等待者）时才获取成功
+     * Acquires the lock only if no thread holds or is waiting for it.
+     */
+    public boolean tryLock() {
+        Thread current = Thread.currentThread();
+        if (owner == current) {
+            reenter();
+            return true;
+        }
+        Node t = tail.get();
+        if (t.pred != Node.AVAILABLE)
+            return false;
+        Node node = new Node();
+        if (!tail.compareAndSet(t, node))
+            return false;
+        holder = node;
+        owner = current;
+        holds = 1;
+        return true;
+    }
+
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        long nanos = unit.toNanos(time);
+        if (nanos <= 0L)
+            return tryLock();
+        long deadline = System.nanoTime() + nanos;
+        return acquire(deadline == 0L ? 1L : deadline, true);
+    }
+
+    /**
+     * 释放锁：标记自己的节点为已释放
+     * Releases the lock by marking the holder's node available.
+     */
+    public void unlock() {
+        if (owner != Thread.currentThread())
+            throw new IllegalMonitorStateException();
+        if (--holds > 0)
+            return;
+        Node node = holder;
+        holder = null;
+        owner = null;
+        node.pred = Node.AVAILABLE;
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException}: a spin lock has no
+     * wait queue to transfer condition waiters onto.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public Condition newCondition() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Queries if this lock is held by any thread.
+     *
+     * @return {@code true} if any thread holds this lock
+     */
+    public boolean isLocked() {
+        return owner != null;
+    }
+
+    /**
+     * Queries if this lock is held by the current thread.
+     *
+     * @return {@code true} if current thread holds this lock
+     */
+    public boolean isHeldByCurrentThread() {
+        return owner == Thread.currentThread();
+    }
+
+    public String toString() {
+        Thread o = owner;
+        return super.toString() + ((o == null) ?
+                                   "[Unlocked]" :
+                                   "[Locked by thread " + o.getName() + "]");
+    }
+}
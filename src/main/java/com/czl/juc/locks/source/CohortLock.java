@@ -0,0 +1,328 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * NUMA感知的队列锁（lock cohorting）：一个全局锁，加上每个节点一个本地{@link ReentrantLock}。
+ * 线程先获取所在节点的本地锁，再获取全局锁；释放时如果本节点还有线程在等待本地锁，
+ * 就把全局锁留给本节点，直接在节点内交接，避免锁在插槽之间来回传递。
+ * 为了不饿死其他节点，连续的节点内交接次数有上限。
+ *
+ * A NUMA-aware cohort lock, after Dice, Marathe and Shavit's "Lock
+ * Cohorting". Threads are grouped into cohorts by node; each cohort has a
+ * local {@link ReentrantLock}, and cohorts compete for one global lock.
+ *
+ * <p>To acquire, a thread takes its cohort's local lock and then, unless
+ * its cohort already owns it, the global lock. On release, if other
+ * threads of the same cohort are queued on the local lock, the global
+ * lock is kept by the cohort and only the local lock is released, so the
+ * next owner runs on the same node and finds the protected data in its
+ * node's caches. At most {@code maxLocalPasses} consecutive hand-offs stay
+ * within a cohort before the global lock is released, which bounds how
+ * long the other nodes can be kept waiting.
+ *
+ * <p>The global lock is passed between threads of a cohort, so it is a
+ * thread-oblivious mutex built directly on {@link QueuedSynchronizer}
+ * rather than an owner-checked {@code ReentrantLock}.
+ *
+ * <p>A timed or interruptible acquisition that gives up never blocks
+ * afterwards; a global lock kept for a waiter that left is released by
+ * whichever thread sees the cohort without waiters.
+ *
+ * <p>The lock is reentrant and does not support conditions. The node
+ * mapping is evaluated once per outermost acquisition;
+ * {@link NumaTopology#currentNode()} is the default mapping.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: NUMA感知的队列锁
+ * @Date 2026/10/18
+ */
+public class CohortLock implements Lock {
+
+    /** 默认的连续节点内交接上限 */
+    public static final int DEFAULT_MAX_LOCAL_PASSES = 64;
+
+    /** 全局锁 */
+    private final GlobalSync global = new GlobalSync();
+
+    /** 每个节点一个队伍 */
+    private final Cohort[] cohorts;
+
+    /** 线程到节点的映射 */
+    private final ToIntFunction<Thread> nodeOf;
+
+    /** 连续节点内交接上限 */
+    private final int maxLocalPasses;
+
+    /**
+     * 每个节点的本地锁与状态，ownsGlobal和passes只在持有本地锁时读写
+     * A node's local lock and hand-off state. {@code ownsGlobal} and
+     * {@code passes} are guarded by {@code local}.
+     */
+    static final class Cohort {
+        final ReentrantLock local = new ReentrantLock();
+        /**
+         * 正在等待本地锁的线程数。用显式计数而不是hasQueuedThreads()，
+         * 因为后者会把已取消的节点和正在自旋的线程算错
+         * Threads currently waiting for {@code local}. An explicit count,
+         * because {@code hasQueuedThreads()} both counts cancelled nodes
+         * and misses threads that are still spinning.
+         */
+        final AtomicInteger waiting = new AtomicInteger();
+        /** 本节点当前是否持有全局锁 */
+        boolean ownsGlobal;
+        /** 本节点已连续交接的次数 */
+        int passes;
+        long p0, p1, p2, p3, p4, p5, p6;
+    }
+
+    /**
+     * 不检查持有者的互斥锁，可以由获取线程以外的线程释放
+     * Thread-oblivious mutex: any thread may release it.
+     */
+    static final class GlobalSync extends QueuedSynchronizer {
+        private static final long serialVersionUID = -3926127367830815206L;
+
+        protected boolean tryAcquire(int unused) {
+            return getState() == 0 && compareAndSetState(0, 1);
+        }
+
+        protected boolean tryRelease(int unused) {
+            if (getState() == 0)
+                throw new IllegalMonitorStateException();
+            setState(0);
+            return true;
+        }
+    }
+
+    /**
+     * 使用/sys读取的NUMA拓扑创建
+     * Creates a cohort lock with one cohort per NUMA node reported by
+     * {@link NumaTopology}.
+     */
+    public CohortLock() {
+        this(NumaTopology.nodeCount(), t -> NumaTopology.currentNode(), DEFAULT_MAX_LOCAL_PASSES);
+    }
+
+    /**
+     * 指定节点数与线程到节点的映射
+     * Creates a cohort lock with a caller-supplied node mapping.
+     *
+     * @param nodes the number of cohorts
+     * @param nodeOf maps the acquiring thread, which is always the current
+     *        thread, to a node in {@code [0, nodes)}
+     * @param maxLocalPasses the maximum number of consecutive hand-offs
+     *        within a cohort before the global lock is released
+     * @throws IllegalArgumentException if {@code nodes} or
+     *         {@code maxLocalPasses} is not positive
+     * @throws NullPointerException if {@code nodeOf} is null
+     */
+    public CohortLock(int nodes, ToIntFunction<Thread> nodeOf, int maxLocalPasses) {
+        if (nodes <= 0 || maxLocalPasses <= 0)
+            throw new IllegalArgumentException();
+        if (nodeOf == null)
+            throw new NullPointerException();
+        this.cohorts = new Cohort[nodes];
+        for (int i = 0; i < nodes; i++)
+            cohorts[i] = new Cohort();
+        this.nodeOf = nodeOf;
+        this.maxLocalPasses = maxLocalPasses;
+    }
+
+    /**
+     * 当前线程所属的队伍；已持有锁的线程返回其持有的队伍，保证重入与释放使用同一个队伍
+     * Returns the current thread's cohort. A thread already holding the
+     * lock gets the cohort it acquired through, whatever the mapping says
+     * now.
+     */
+    private Cohort cohort() {
+        for (Cohort c : cohorts) {
+            if (c.local.isHeldByCurrentThread())
+                return c;
+        }
+        int node = nodeOf.applyAsInt(Thread.currentThread());
+        if (node < 0 || node >= cohorts.length)
+            throw new IllegalStateException("node " + node + " out of range");
+        return cohorts[node];
+    }
+
+    /**
+     * 已持有本地锁时，如果本节点还没有全局锁则获取
+     * Called with the local lock held.
+     *
+     * @param nanos wait limit; negative to wait forever
+     * @return whether the cohort now owns the global lock
+     */
+    private boolean acquireGlobal(Cohort c, long nanos, boolean interruptible)
+            throws InterruptedException {
+        if (c.ownsGlobal)
+            return true;
+        if (nanos >= 0L) {
+            if (!global.tryAcquireNanos(1, nanos))
+                return false;
+        } else if (interruptible) {
+            global.acquireInterruptibly(1);
+        } else {
+            global.acquire(1);
+        }
+        c.ownsGlobal = true;
+        c.passes = 0;
+        return true;
+    }
+
+    /**
+     * 节点内交接之后、以及获取本地锁失败（超时或中断）之后调用：持有者可能因为看到有线程在等待而保留了全局锁，
+     * 如果此时已经没有等待者，就用tryLock进入本地锁，代为释放全局锁。不阻塞：tryLock失败说明
+     * 有线程持有本地锁，它释放本地锁时会再做同样的检查；放弃的等待者先减waiting再检查，
+     * 交接的持有者先释放本地锁再检查，两边总有一方看到对方的动作，全局锁不会被遗留在本节点
+     * Called after a hand-off within the cohort and after a timed or
+     * interrupted local acquisition gave up. A holder may have kept the
+     * global lock for a waiter that has since left; if nobody is waiting,
+     * take the local lock with {@code tryLock} and release the global lock
+     * on the cohort's behalf. This never blocks. A waiter gives up by
+     * decrementing {@code waiting} before checking, and a holder hands off
+     * by releasing the local lock before checking, so of a waiter and a
+     * holder racing here at least one sees the other's step; and if the
+     * {@code tryLock} fails, whoever holds the local lock checks again
+     * when releasing it.
+     */
+    private void releaseIfAbandoned(Cohort c) {
+        while (c.waiting.get() == 0 && c.local.tryLock()) {
+            try {
+                if (!c.ownsGlobal || c.local.getHoldCount() > 1)
+                    return;
+                if (c.waiting.get() == 0) {
+                    c.ownsGlobal = false;
+                    c.passes = 0;
+                    global.release(1);
+                    return;
+                }
+            } finally {
+                c.local.unlock();
+            }
+            // a waiter arrived while we held the local lock; it may leave again
+        }
+    }
+
+    public void lock() {
+        Cohort c = cohort();
+        c.waiting.incrementAndGet();
+        try {
+            c.local.lock();
+        } finally {
+            c.waiting.decrementAndGet();
+        }
+        try {
+            acquireGlobal(c, -1L, false);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);        // not interruptible
+        }
+    }
+
+    public void lockInterruptibly() throws InterruptedException {
+        Cohort c = cohort();
+        c.waiting.incrementAndGet();
+        try {
+            c.local.lockInterruptibly();
+        } catch (InterruptedException e) {
+            c.waiting.decrementAndGet();
+            releaseIfAbandoned(c);
+            throw e;
+        }
+        c.waiting.decrementAndGet();
+        boolean acquired = false;
+        try {
+            acquired = acquireGlobal(c, -1L, true);
+        } finally {
+            if (!acquired)
+                c.local.unlock();
+        }
+    }
+
+    public boolean tryLock() {
+        Cohort c = cohort();
+        if (!c.local.tryLock())
+            return false;
+        if (c.ownsGlobal || global.tryAcquire(1)) {
+            if (!c.ownsGlobal) {
+                c.ownsGlobal = true;
+                c.passes = 0;
+            }
+            return true;
+        }
+        c.local.unlock();
+        return false;
+    }
+
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        long nanos = Math.max(unit.toNanos(time), 0L);
+        long deadline = System.nanoTime() + nanos;
+        Cohort c = cohort();
+        boolean locked = false;
+        c.waiting.incrementAndGet();
+        try {
+            locked = c.local.tryLock(nanos, TimeUnit.NANOSECONDS);
+        } finally {
+            c.waiting.decrementAndGet();
+            if (!locked)
+                releaseIfAbandoned(c);
+        }
+        if (!locked)
+            return false;
+        boolean acquired = false;
+        try {
+            acquired = acquireGlobal(c, Math.max(deadline - System.nanoTime(), 0L), true);
+            return acquired;
+        } finally {
+            if (!acquired)
+                c.local.unlock();
+        }
+    }
+
+    /**
+     * 释放：本节点有等待者且未超过交接上限时保留全局锁，只释放本地锁
+     * Releases the lock, keeping the global lock within the cohort if a
+     * cohort member is waiting and the pass limit has not been reached.
+     */
+    public void unlock() {
+        Cohort c = cohort();
+        if (!c.local.isHeldByCurrentThread())
+            throw new IllegalMonitorStateException();
+        boolean passed = false;
+        if (c.local.getHoldCount() == 1) {
+            if (c.waiting.get() > 0 && c.passes < maxLocalPasses) {
+                c.passes++;
+                passed = true;
+            } else {
+                c.ownsGlobal = false;
+                c.passes = 0;
+                global.release(1);
+            }
+        }
+        c.local.unlock();
+        if (passed)
+            releaseIfAbandoned(c);          // the waiter may have given up meanwhile
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException}.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public Condition newCondition() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        return super.toString() + "[Cohorts = " + cohorts.length +
+            ", Max local passes = " + maxLocalPasses +
+            (global.getState() == 0 ? ", Unlocked]" : ", Locked]");
+    }
+}
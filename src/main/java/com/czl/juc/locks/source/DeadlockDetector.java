@@ -0,0 +1,385 @@
+package com.czl.juc.locks.source;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 在线死锁检测：登记的{@link ReentrantLock}构成等待图（等待线程 → 锁 → 持有线程），
+ * 后台线程周期性地在图中找环，找到后连同各线程的栈一起报告；可选地让环中一个在
+ * {@code lockInterruptibly()}中等待的线程抛出{@link DeadlockException}，打破死锁。
+ *
+ * Online deadlock detection for {@link ReentrantLock}. Registered locks
+ * form a wait-for graph, with an edge from each queued thread to the
+ * owner of the lock it is queued on. A background thread periodically
+ * looks for cycles in that graph and reports each new one, with the
+ * stack of every thread involved, to a listener.
+ *
+ * <p>Edges are not tracked on the lock paths at all: a scan reads each
+ * registered lock's owner and wait queue, so acquisitions cost nothing
+ * extra. A cycle found in one snapshot is checked again edge by edge
+ * before it is reported, since the snapshot is not atomic; a real
+ * deadlock cannot change between the two looks.
+ *
+ * <p>With {@link #setBreakCycles} set, the detector also picks one thread
+ * of each cycle that is blocked in {@link ReentrantLock#lockInterruptibly()}
+ * and interrupts it; its call then fails with a {@link DeadlockException}
+ * describing the cycle. Threads blocked in {@code lock()} cannot be
+ * failed, so a cycle made only of those is just reported. To know which
+ * threads wait interruptibly, the contended path of
+ * {@code lockInterruptibly()} records the waiting thread; its uncontended
+ * path is unchanged.
+ *
+ * <p>Detection is switched on for the whole JVM with the system property
+ * {@code com.czl.juc.locks.deadlockDetection=true}, which registers every
+ * {@code ReentrantLock} with {@link #shared()} and starts its scans once a
+ * second. When it is off, {@link #ENABLED} is a constant {@code false}
+ * and the lock paths compile as before; locks can still be registered by
+ * hand with a detector that is started explicitly, but only the shared
+ * detector can fail {@code lockInterruptibly()}. Locks are held weakly.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 在线死锁检测
+ * @Date 2026/10/18
+ */
+public final class DeadlockDetector {
+
+    /** 是否开启检测，JVM级开关 Whether detection is compiled in */
+    public static final boolean ENABLED = Boolean.getBoolean("com.czl.juc.locks.deadlockDetection");
+
+    /** 开启检测时共享实例的扫描周期 */
+    public static final long DEFAULT_PERIOD_MILLIS = 1000L;
+
+    private static final class Shared {
+        static final DeadlockDetector DETECTOR = newShared();
+
+        private static DeadlockDetector newShared() {
+            DeadlockDetector d = new DeadlockDetector();
+            if (ENABLED)
+                d.start(DEFAULT_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+            return d;
+        }
+    }
+
+    /** 登记的锁，弱引用 */
+    private final ConcurrentLinkedQueue<WeakReference<ReentrantLock>> locks =
+        new ConcurrentLinkedQueue<WeakReference<ReentrantLock>>();
+
+    /** 正在lockInterruptibly()中排队的线程及其等待的锁 */
+    private final ConcurrentHashMap<Thread, ReentrantLock> interruptibleWaiters =
+        new ConcurrentHashMap<Thread, ReentrantLock>();
+
+    /** 被选中打破死锁的线程 */
+    private final ConcurrentHashMap<Thread, Deadlock> victims = new ConcurrentHashMap<Thread, Deadlock>();
+
+    /** 上一次扫描发现的环，只报告新出现的环；只由扫描方访问 */
+    private Set<Set<Thread>> lastCycles = Collections.emptySet();
+
+    /**
+     * 日志对象放在单独的类里：ReentrantLock的构造方法会读取ENABLED，从而初始化本类，
+     * 关闭时不应因此加载SLF4J，所以直到第一次报告才初始化
+     * Holds the logger. {@code ReentrantLock} reads {@link #ENABLED} on
+     * construction, which initializes this class; SLF4J is only loaded
+     * once the default listener first reports.
+     */
+    private static final class Logging {
+        static final Logger LOG = LoggerFactory.getLogger(DeadlockDetector.class);
+    }
+
+    private volatile Consumer<Deadlock> listener = d -> Logging.LOG.warn("{}", d);
+    private volatile boolean breakCycles;
+    private volatile Thread scanner;
+
+    /**
+     * 一个死锁环：threads.get(i)等待locks.get(i)，该锁由threads.get(i + 1)持有（最后一个回到第一个）
+     * A cycle of the wait-for graph: {@code getThreads().get(i)} waits for
+     * {@code getLocks().get(i)}, which is owned by the next thread, the
+     * last one's lock being owned by the first thread.
+     */
+    public static final class Deadlock {
+        private final List<Thread> threads;
+        private final List<ReentrantLock> locks;
+        private final Map<Thread, StackTraceElement[]> stacks;
+
+        Deadlock(List<Thread> threads, List<ReentrantLock> locks) {
+            this.threads = Collections.unmodifiableList(threads);
+            this.locks = Collections.unmodifiableList(locks);
+            Map<Thread, StackTraceElement[]> m = new LinkedHashMap<Thread, StackTraceElement[]>();
+            for (Thread t : threads)
+                m.put(t, t.getStackTrace());
+            this.stacks = Collections.unmodifiableMap(m);
+        }
+
+        /** Returns the deadlocked threads, in cycle order. */
+        public List<Thread> getThreads() {
+            return threads;
+        }
+
+        /** Returns the lock each thread waits for, in cycle order. */
+        public List<ReentrantLock> getLocks() {
+            return locks;
+        }
+
+        /** Returns each thread's stack, taken when the cycle was verified. */
+        public Map<Thread, StackTraceElement[]> getStacks() {
+            return stacks;
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Deadlock found:\n");
+            for (int i = 0; i < threads.size(); i++) {
+                Thread t = threads.get(i);
+                sb.append("  \"").append(t.getName()).append("\" waits for ").append(locks.get(i))
+                    .append(", held by \"").append(threads.get((i + 1) % threads.size()).getName())
+                    .append("\"\n");
+            }
+            for (Map.Entry<Thread, StackTraceElement[]> e : stacks.entrySet()) {
+                sb.append("\"").append(e.getKey().getName()).append("\":\n");
+                for (StackTraceElement frame : e.getValue())
+                    sb.append("\tat ").append(frame).append('\n');
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * 打破死锁时，被选中的线程从lockInterruptibly()抛出的异常
+     * Thrown by {@link ReentrantLock#lockInterruptibly()} in the thread
+     * chosen to break a deadlock.
+     */
+    public static class DeadlockException extends InterruptedException {
+        private static final long serialVersionUID = 3790427138522815061L;
+
+        private final transient Deadlock deadlock;
+
+        DeadlockException(Deadlock deadlock) {
+            super("lock acquisition failed to break a deadlock");
+            this.deadlock = deadlock;
+        }
+
+        /**
+         * Returns the cycle this exception broke.
+         *
+         * @return the deadlock
+         */
+        public Deadlock getDeadlock() {
+            return deadlock;
+        }
+    }
+
+    /**
+     * Creates a detector with no registered locks and no scanning thread.
+     */
+    public DeadlockDetector() {
+    }
+
+    /**
+     * Returns the detector that locks register with when detection is
+     * enabled by system property.
+     *
+     * @return the shared detector
+     */
+    public static DeadlockDetector shared() {
+        return Shared.DETECTOR;
+    }
+
+    /**
+     * Adds a lock to the wait-for graph. The lock is held weakly.
+     *
+     * @param lock the lock
+     */
+    public void register(ReentrantLock lock) {
+        locks.add(new WeakReference<ReentrantLock>(lock));
+    }
+
+    /**
+     * Sets the listener that receives each newly found deadlock. It runs
+     * on the scanning thread. The default logs the report at WARN level
+     * through SLF4J, under this class's logger; pass a listener to route
+     * reports elsewhere, e.g. {@code d -> {}} to drop them.
+     *
+     * @param listener the listener
+     */
+    public void setListener(Consumer<Deadlock> listener) {
+        if (listener == null)
+            throw new NullPointerException();
+        this.listener = listener;
+    }
+
+    /**
+     * Sets whether each newly found deadlock is broken by failing the
+     * {@code lockInterruptibly()} of one of its threads, if any of them
+     * waits interruptibly.
+     *
+     * @param breakCycles whether to break deadlocks
+     */
+    public void setBreakCycles(boolean breakCycles) {
+        this.breakCycles = breakCycles;
+    }
+
+    /**
+     * 启动后台扫描线程；已启动时什么也不做
+     * Starts scanning in a daemon thread, unless already started.
+     *
+     * @param period the time between scans
+     * @param unit the time unit of {@code period}
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (scanner != null)
+            return;
+        long nanos = unit.toNanos(period);
+        Thread t = new Thread(() -> {
+            while (scanner == Thread.currentThread()) {
+                LockSupport.parkNanos(this, nanos);
+                try {
+                    detect();
+                } catch (RuntimeException e) {
+                    // a failing listener must not end detection
+                    Logging.LOG.warn("deadlock scan failed", e);
+                }
+            }
+        }, "czl-deadlock-detector");
+        t.setDaemon(true);
+        scanner = t;
+        t.start();
+    }
+
+    /**
+     * Stops the scanning thread, if any.
+     */
+    public synchronized void stop() {
+        Thread t = scanner;
+        scanner = null;
+        if (t != null)
+            LockSupport.unpark(t);
+    }
+
+    /**
+     * 扫描一次：建图、找环、复核；新出现的环交给监听器，并按设置打破
+     * Scans the registered locks once. Each verified cycle that was not
+     * present in the previous scan is passed to the listener and, if
+     * enabled, broken.
+     *
+     * @return the verified cycles present now, including ones already
+     *         reported
+     */
+    public synchronized List<Deadlock> detect() {
+        Map<Thread, ReentrantLock> waitsFor = new HashMap<Thread, ReentrantLock>();
+        for (Iterator<WeakReference<ReentrantLock>> it = locks.iterator(); it.hasNext(); ) {
+            ReentrantLock lock = it.next().get();
+            if (lock == null) {
+                it.remove();
+                continue;
+            }
+            for (Thread t : lock.getQueuedThreads())
+                waitsFor.put(t, lock);
+        }
+
+        List<Deadlock> found = new ArrayList<Deadlock>();
+        Set<Set<Thread>> cycles = new HashSet<Set<Thread>>();
+        // each thread waits for at most one lock, so the graph is a functional graph
+        Map<Thread, Integer> walk = new IdentityHashMap<Thread, Integer>();
+        Set<Thread> done = Collections.newSetFromMap(new IdentityHashMap<Thread, Boolean>());
+        for (Thread start : waitsFor.keySet()) {
+            if (done.contains(start))
+                continue;
+            List<Thread> path = new ArrayList<Thread>();
+            walk.clear();
+            Thread t = start;
+            while (t != null && !done.contains(t) && !walk.containsKey(t)) {
+                walk.put(t, path.size());
+                path.add(t);
+                ReentrantLock lock = waitsFor.get(t);
+                t = lock == null ? null : lock.getOwner();
+            }
+            if (t != null && walk.containsKey(t)) {
+                List<Thread> threads = new ArrayList<Thread>(path.subList(walk.get(t), path.size()));
+                Deadlock d = verify(threads, waitsFor);
+                if (d != null) {
+                    found.add(d);
+                    Set<Thread> key = new HashSet<Thread>(threads);
+                    cycles.add(key);
+                    if (!lastCycles.contains(key))
+                        report(d);
+                }
+            }
+            done.addAll(path);
+        }
+        lastCycles = cycles;
+        return found;
+    }
+
+    /**
+     * 快照不是原子的，逐条边复核：每个线程仍在其等待的锁上排队，且该锁仍由下一个线程持有
+     * Re-checks each edge of a cycle found in the non-atomic snapshot.
+     */
+    static Deadlock verify(List<Thread> threads, Map<Thread, ReentrantLock> waitsFor) {
+        List<ReentrantLock> cycleLocks = new ArrayList<ReentrantLock>(threads.size());
+        for (int i = 0; i < threads.size(); i++) {
+            Thread t = threads.get(i);
+            ReentrantLock lock = waitsFor.get(t);
+            if (!lock.hasQueuedThread(t) || lock.getOwner() != threads.get((i + 1) % threads.size()))
+                return null;
+            cycleLocks.add(lock);
+        }
+        return new Deadlock(threads, cycleLocks);
+    }
+
+    private void report(Deadlock d) {
+        try {
+            listener.accept(d);
+        } finally {
+            if (breakCycles) {
+                for (int i = 0; i < d.getThreads().size(); i++) {
+                    Thread t = d.getThreads().get(i);
+                    if (interruptibleWaiters.get(t) == d.getLocks().get(i)) {
+                        victims.put(t, d);
+                        t.interrupt();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * lockInterruptibly()的竞争路径：登记等待中的线程，被选中打破死锁时抛出DeadlockException
+     * Contended path of {@link ReentrantLock#lockInterruptibly()} while
+     * detection is enabled. Records the waiting thread so that a cycle
+     * through it can be broken.
+     */
+    void acquireInterruptibly(ReentrantLock lock, QueuedSynchronizer sync) throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        if (sync.tryAcquire(1))
+            return;
+        Thread current = Thread.currentThread();
+        interruptibleWaiters.put(current, lock);
+        try {
+            sync.acquireInterruptibly(1);
+        } catch (InterruptedException e) {
+            Deadlock d = victims.remove(current);
+            if (d != null)
+                throw new DeadlockException(d);
+            throw e;
+        } finally {
+            interruptibleWaiters.remove(current);
+            victims.remove(current);
+        }
+    }
+}
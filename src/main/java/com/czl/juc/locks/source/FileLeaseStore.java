@@ -0,0 +1,192 @@
+package com.czl.juc.locks.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 基于文件的租约存储，用于同一台机器（或共享文件系统）上的多个进程之间测试{@link LeaseLock}。
+ * 每个名字一个文件，内容为"令牌 到期时间 持有者"三行；读改写在旁边的.lock文件的{@link FileChannel#lock()}保护下完成。
+ * 新记录先写入临时文件并刷盘，再原子地重命名为租约文件，崩溃后看到的要么是旧记录要么是新记录，令牌不会回退。
+ * 到期时间用墙上时钟，各进程的时钟需要大致同步。
+ *
+ * A {@link LeaseStore} keeping one small file per lock name in a
+ * directory, for testing {@link LeaseLock} across processes on one host
+ * or on a shared file system.
+ *
+ * <p>Each file holds three lines: the last fencing token, the expiry time
+ * and the owner, empty when free. Every operation is a read-modify-write
+ * under an exclusive {@link FileChannel#lock()} on a companion
+ * {@code .lock} file. File locks are held on behalf of the whole process,
+ * so operations on the same file are also serialized within the process.
+ * Expiry uses the wall clock, so the processes' clocks must roughly agree.
+ *
+ * <p>A new record is written to a temporary file, forced to disk and then
+ * atomically renamed over the lease file, so after a crash the file holds
+ * either the old or the new record and the fencing token never goes
+ * back. The lock is taken on a separate file because the rename replaces
+ * the lease file itself. A lease file that exists but cannot be parsed is
+ * reported rather than taken for a fresh one.
+ *
+ * <p>I/O failures are rethrown as {@link UncheckedIOException}.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 基于文件的租约存储
+ * @Date 2026/10/18
+ */
+public class FileLeaseStore implements LeaseStore {
+
+    /**
+     * 进程内按文件路径串行化。同一进程中的两个通道对同一文件加锁会抛出OverlappingFileLockException，
+     * 所以所有实例共用这张表
+     * Per-file monitors, shared by all instances: two channels of one
+     * process locking the same file throw OverlappingFileLockException.
+     */
+    private static final ConcurrentHashMap<String, Object> MONITORS = new ConcurrentHashMap<String, Object>();
+
+    /** 存放租约文件的目录 */
+    private final File dir;
+
+    /**
+     * Creates a store keeping its files in the given directory, which is
+     * created if missing.
+     *
+     * @param dir the directory
+     * @throws UncheckedIOException if the directory cannot be created
+     */
+    public FileLeaseStore(File dir) {
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory())
+            throw new UncheckedIOException(new IOException("cannot create " + dir));
+        this.dir = dir;
+    }
+
+    /** 文件中的一条记录 */
+    static final class Record {
+        long token;
+        long expiresAt;
+        /** 空串表示空闲 */
+        String owner = "";
+    }
+
+    public Lease tryAcquire(String name, String owner, long ttlMillis) {
+        if (owner.isEmpty() || owner.indexOf('\n') >= 0)
+            throw new IllegalArgumentException("owner " + owner);
+        return update(name, r -> {
+            long now = System.currentTimeMillis();
+            if (!r.owner.isEmpty() && !r.owner.equals(owner) && r.expiresAt - now > 0)
+                return null;
+            r.owner = owner;
+            r.token++;
+            r.expiresAt = now + ttlMillis;
+            return new Lease(name, owner, r.token, r.expiresAt);
+        });
+    }
+
+    public Lease renew(Lease lease, long ttlMillis) {
+        return update(lease.getName(), r -> {
+            long now = System.currentTimeMillis();
+            if (!current(r, lease, now))
+                return null;
+            r.expiresAt = now + ttlMillis;
+            return new Lease(lease.getName(), r.owner, r.token, r.expiresAt);
+        });
+    }
+
+    public boolean release(Lease lease) {
+        return update(lease.getName(), r -> {
+            if (!current(r, lease, System.currentTimeMillis()))
+                return null;
+            r.owner = "";
+            return lease;
+        }) != null;
+    }
+
+    private static boolean current(Record r, Lease lease, long now) {
+        return r.owner.equals(lease.getOwner()) && r.token == lease.getToken() &&
+            r.expiresAt - now > 0;
+    }
+
+    /**
+     * 在文件锁保护下读出记录，交给action修改；action返回非null时写回
+     * Reads the name's record under the file lock and applies the action,
+     * writing the record back if the action returns non-null.
+     */
+    private <T> T update(String name, Function<Record, T> action) {
+        File file = fileOf(name);
+        Object monitor = MONITORS.computeIfAbsent(file.getAbsolutePath(), k -> new Object());
+        synchronized (monitor) {
+            try (RandomAccessFile raf = new RandomAccessFile(new File(dir, file.getName() + ".lock"), "rw");
+                 FileChannel channel = raf.getChannel()) {
+                channel.lock();                 // released when the channel closes
+                Record r = read(file.toPath());
+                T result = action.apply(r);
+                if (result != null)
+                    write(file.toPath(), r);
+                return result;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private File fileOf(String name) {
+        if (name.isEmpty() || !name.matches("[A-Za-z0-9._-]+") || name.startsWith("."))
+            throw new IllegalArgumentException("lock name " + name);
+        return new File(dir, name + ".lease");
+    }
+
+    /**
+     * 读出记录；文件不存在表示从未使用过，返回空闲的新记录
+     * Reads the record; a missing file means the name was never used.
+     */
+    private static Record read(Path file) throws IOException {
+        Record r = new Record();
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return r;
+        }
+        String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n", -1);
+        if (lines.length < 3)
+            throw new IOException("corrupt lease file");
+        try {
+            r.token = Long.parseLong(lines[0]);
+            r.expiresAt = Long.parseLong(lines[1]);
+        } catch (NumberFormatException e) {
+            throw new IOException("corrupt lease file", e);
+        }
+        r.owner = lines[2];
+        return r;
+    }
+
+    /**
+     * 写入临时文件并刷盘，再原子地替换租约文件
+     * Writes the record to a temporary file, forces it, and renames it
+     * over the lease file. Called with the file lock held, so one
+     * temporary file per name suffices.
+     */
+    private static void write(Path file, Record r) throws IOException {
+        byte[] bytes = (r.token + "\n" + r.expiresAt + "\n" + r.owner + "\n").getBytes(StandardCharsets.UTF_8);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            while (buf.hasRemaining())
+                channel.write(buf);
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
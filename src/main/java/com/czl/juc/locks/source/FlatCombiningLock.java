@@ -0,0 +1,334 @@
+package com.czl.juc.locks.source;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Supplier;
+
+/**
+ * 平面合并（flat combining）锁：线程把临界区作为操作发布到自己的槽位上，然后在槽位上自旋；
+ * 抢到锁的线程（合并者）依次执行所有槽位上待执行的操作，并把结果写回槽位。
+ * 高竞争时被保护的数据结构一直留在合并者的缓存里，锁也不必在线程之间逐个交接，
+ * 其他线程只在自己槽位的缓存行上自旋。
+ *
+ * A flat-combining {@link Lock}, after Hendler, Incze, Shavit and
+ * Tzafrir.
+ *
+ * <p>{@link #execute(Supplier)} and {@link #execute(Runnable)} replace a
+ * {@code lock(); try { ... } finally { unlock(); }} block with the block
+ * itself:
+ *
+ *  <pre> {@code
+ * int v = combiner.execute(() -> stack.pop());   // was: lock(); try { return stack.pop(); } ...
+ * combiner.execute(() -> { stack.push(x); });}</pre>
+ *
+ * A caller publishes its section in a slot of a fixed array, chosen by
+ * hashing the thread's id so that a thread tends to reuse the same slot,
+ * and then spins on that slot. Whichever caller wins the underlying mutex
+ * becomes the <em>combiner</em>: it runs every pending section it finds
+ * in the slots, writes each result back into its slot, and repeats the
+ * scan while it keeps finding work, up to a few passes. Under heavy
+ * contention the protected structure stays in the combiner's cache while
+ * many sections run back to back, and the lock is not handed from thread
+ * to thread once per section; the waiting threads each spin on their own
+ * cache line. If every slot is taken, a caller falls back to running its
+ * section under the mutex itself.
+ *
+ * <p>Sections run on whichever thread is combining, so they must not
+ * depend on the identity or thread-locals of the calling thread, and they
+ * should be short. A section may call {@code execute} again, which runs
+ * the nested section directly. A section that throws fails only its own
+ * call; the exception is rethrown to its caller.
+ *
+ * <p>The {@link Lock} methods act on the same mutex, so code that needs a
+ * long or blocking critical section, or a {@link Condition}, can still
+ * lock this lock directly and excludes combined sections while it does.
+ * Conditions must not be awaited inside a combined section. Waiting
+ * callers never park, they only {@link Thread#yield yield} periodically,
+ * as in {@link McsLock}.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 平面合并锁
+ * @Date 2026/10/18
+ */
+public class FlatCombiningLock implements Lock {
+
+    /** 默认槽位数的下限 */
+    static final int MIN_SLOTS = 32;
+
+    /** 合并者最多扫描的轮数，某一轮没有发现待执行的操作时提前结束 */
+    static final int COMBINE_PASSES = 4;
+
+    /** 自旋多少次后让出一次CPU（2的幂减1） */
+    static final int YIELD_MASK = 1023;
+
+    /** 合并者持有的锁，也是Lock方法直接操作的锁 */
+    private final ReentrantLock mutex;
+
+    /** 发布操作的槽位，长度为2的幂 */
+    private final Slot[] slots;
+
+    /** 槽位数减一 */
+    private final int mask;
+
+    /** 合并次数与合并执行的操作数，只由合并者修改 */
+    private volatile long combines;
+    private volatile long combined;
+
+    /**
+     * 发布操作的槽位，独占缓存行
+     * A publication slot. Padded so that the state a waiter spins on does
+     * not share a cache line with any other slot.
+     */
+    static final class Slot {
+        static final int FREE = 0;
+        static final int CLAIMED = 1;
+        static final int PENDING = 2;
+        static final int DONE = 3;
+
+        long p0, p1, p2, p3, p4, p5, p6;
+        volatile int state;
+        Supplier<?> section;
+        Object result;
+        Throwable failure;
+        long q0, q1, q2, q3, q4, q5, q6;
+
+        private static final AtomicIntegerFieldUpdater<Slot> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Slot.class, "state");
+
+        boolean claim() {
+            return state == FREE && STATE.compareAndSet(this, FREE, CLAIMED);
+        }
+    }
+
+    /**
+     * Creates a lock with twice as many slots as available processors,
+     * and at least {@value #MIN_SLOTS}.
+     */
+    public FlatCombiningLock() {
+        this(Math.max(MIN_SLOTS, 2 * Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Creates a lock with the given number of slots, rounded up to a
+     * power of two. Callers beyond the number of slots run their sections
+     * under the mutex without combining.
+     *
+     * @param slots the number of publication slots
+     * @throws IllegalArgumentException if {@code slots} is not positive
+     */
+    public FlatCombiningLock(int slots) {
+        if (slots <= 0)
+            throw new IllegalArgumentException("slots " + slots);
+        int n = slots >= Striped.MAX_STRIPES ? Striped.MAX_STRIPES :
+            Integer.highestOneBit(slots - 1) << 1;
+        if (n == 0)
+            n = 1;
+        this.slots = new Slot[n];
+        for (int i = 0; i < n; i++)
+            this.slots[i] = new Slot();
+        this.mask = n - 1;
+        this.mutex = new ReentrantLock();
+    }
+
+    /**
+     * 以合并方式执行临界区
+     * Runs the given section exclusively, possibly on a combining thread
+     * together with other callers' sections.
+     *
+     * @param section the critical section
+     * @throws NullPointerException if {@code section} is null
+     * @throws RuntimeException if the section threw it
+     * @throws Error if the section threw it
+     */
+    public void execute(Runnable section) {
+        if (section == null)
+            throw new NullPointerException();
+        execute(() -> {
+            section.run();
+            return null;
+        });
+    }
+
+    /**
+     * 以合并方式执行临界区并返回其结果
+     * Runs the given section exclusively, possibly on a combining thread
+     * together with other callers' sections, and returns its result.
+     *
+     * @param section the critical section
+     * @param <T> the type of the result
+     * @return the section's result
+     * @throws NullPointerException if {@code section} is null
+     * @throws RuntimeException if the section threw it
+     * @throws Error if the section threw it
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Supplier<T> section) {
+        if (section == null)
+            throw new NullPointerException();
+        if (mutex.isHeldByCurrentThread())
+            return section.get();    // nested, or called with the lock held
+        Slot slot = claimSlot();
+        if (slot == null) {
+            mutex.lock();
+            try {
+                return section.get();
+            } finally {
+                mutex.unlock();
+            }
+        }
+        slot.section = section;
+        slot.state = Slot.PENDING;
+        for (int spins = 1; slot.state != Slot.DONE; ++spins) {
+            if (!mutex.isLocked() && mutex.tryLock()) {
+                try {
+                    combine();
+                } finally {
+                    mutex.unlock();
+                }
+            } else if ((spins & YIELD_MASK) == 0) {
+                Thread.yield();
+            }
+        }
+        Object result = slot.result;
+        Throwable failure = slot.failure;
+        slot.section = null;
+        slot.result = null;
+        slot.failure = null;
+        slot.state = Slot.FREE;
+        if (failure != null) {
+            if (failure instanceof RuntimeException)
+                throw (RuntimeException) failure;
+            if (failure instanceof Error)
+                throw (Error) failure;
+            throw new UndeclaredThrowableException(failure);
+        }
+        return (T) result;
+    }
+
+    /**
+     * 从线程id哈希到的槽位开始线性探测，占用第一个空闲槽位；全部被占用时返回null
+     * Claims the first free slot probing from the thread's home slot, or
+     * returns null if every slot is taken.
+     */
+    private Slot claimSlot() {
+        long id = Thread.currentThread().getId();
+        int h = Striped.spread((int) (id ^ (id >>> 32)));
+        for (int i = 0; i <= mask; i++) {
+            Slot s = slots[(h + i) & mask];
+            if (s.claim())
+                return s;
+        }
+        return null;
+    }
+
+    /**
+     * 合并：扫描所有槽位，执行待执行的操作并写回结果，直到某一轮没有发现操作或达到轮数上限。
+     * 调用方已持有mutex
+     * Runs pending sections found in the slots, called with the mutex
+     * held. Scans again while a pass finds work, up to
+     * {@value #COMBINE_PASSES} passes, so that a burst of callers is
+     * served without handing the mutex around.
+     */
+    private void combine() {
+        Slot[] slots = this.slots;
+        long n = 0;
+        for (int pass = 0; pass < COMBINE_PASSES; pass++) {
+            long before = n;
+            for (Slot s : slots) {
+                if (s.state != Slot.PENDING)
+                    continue;
+                try {
+                    s.result = s.section.get();
+                } catch (Throwable e) {
+                    s.failure = e;
+                }
+                s.state = Slot.DONE;
+                n++;
+            }
+            if (n == before)
+                break;
+        }
+        combines++;
+        combined += n;
+    }
+
+    public void lock() {
+        mutex.lock();
+    }
+
+    public void lockInterruptibly() throws InterruptedException {
+        mutex.lockInterruptibly();
+    }
+
+    public boolean tryLock() {
+        return mutex.tryLock();
+    }
+
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return mutex.tryLock(time, unit);
+    }
+
+    public void unlock() {
+        mutex.unlock();
+    }
+
+    /**
+     * Returns a condition of the underlying mutex, for use by threads
+     * that lock this lock directly; it must not be awaited inside a
+     * combined section.
+     *
+     * @return the Condition object
+     */
+    public Condition newCondition() {
+        return mutex.newCondition();
+    }
+
+    /**
+     * 槽位数
+     * Returns the number of publication slots.
+     *
+     * @return the number of slots
+     */
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    /**
+     * 合并次数
+     * Returns the number of times a thread has combined.
+     *
+     * @return the number of combines
+     */
+    public long getCombineCount() {
+        return combines;
+    }
+
+    /**
+     * 合并执行的操作数，除以合并次数即每次合并的平均操作数
+     * Returns the number of sections run by combining; divided by
+     * {@link #getCombineCount()} it gives the mean number of sections
+     * each combiner ran.
+     *
+     * @return the number of combined sections
+     */
+    public long getCombinedCount() {
+        return combined;
+    }
+
+    /** 已发布、等待执行的槽位数；供测试使用 */
+    int pendingCount() {
+        int n = 0;
+        for (Slot s : slots) {
+            if (s.state == Slot.PENDING)
+                n++;
+        }
+        return n;
+    }
+
+    public String toString() {
+        return super.toString() + "[Slots = " + slots.length +
+            ", Combines = " + combines +
+            ", Combined = " + combined + "]";
+    }
+}
@@ -0,0 +1,599 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 读锁可重入、且不使用ThreadLocal记录每个线程读锁重入次数的读写锁。
+ * JDK ReentrantReadWriteLock用ThreadLocal的HoldCounter记录读锁重入次数，
+ * 上千个读线程时ThreadLocalMap的查找、弱引用清理出现在读路径的热点上。
+ * 这里改为：第一个读线程的次数记在firstReader字段里；最近一次使用的记录缓存在cachedHolds里；
+ * 其余线程的记录放在本锁自己的开放寻址表中，按线程id哈希、线性探测，插入只需一次CAS，查找不加锁。
+ *
+ * A {@link ReadWriteLock} with reentrant reads whose per-thread read hold
+ * counts are kept without {@link ThreadLocal}.
+ *
+ * <p>{@link java.util.concurrent.locks.ReentrantReadWriteLock} counts each
+ * reader's holds in a {@code ThreadLocal}, and with thousands of reader
+ * threads the thread-local map lookups and stale-entry expunging show up
+ * on the read path. This lock instead keeps the counts in three places:
+ * <ul>
+ * <li>the thread that took the first read hold counts its holds in two
+ * plain fields, as {@code ReentrantReadWriteLock} also does;
+ * <li>the record of the most recent other reader is cached in a field,
+ * which covers a thread that re-enters or releases right after acquiring;
+ * <li>every other reader's record lives in a per-lock open-addressed
+ * table, probed linearly from a hash of the thread id. A thread claims its
+ * record with one CAS on first read and keeps it afterwards, so later
+ * reads find it again without writing to the table; lookups take no lock.
+ * </ul>
+ * A reader's record is modified only by that reader. Records of threads
+ * that have terminated with no holds are dropped when the table is next
+ * resized, so the table stays proportional to the live reader threads.
+ *
+ * <p>Otherwise the lock behaves like the nonfair
+ * {@code ReentrantReadWriteLock}: both locks are reentrant, the write lock
+ * holder may acquire the read lock, queued writers are preferred over
+ * newly arriving readers that do not already hold the read lock, and the
+ * write lock supports conditions.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 读锁可重入计数不使用ThreadLocal的读写锁
+ * @Date 2026/10/18
+ */
+public class HoldTableReadWriteLock implements ReadWriteLock {
+
+    private final Sync sync;
+    private final ReadLock readerLock;
+    private final WriteLock writerLock;
+
+    /**
+     * Creates a new lock, initially in unlocked state.
+     */
+    public HoldTableReadWriteLock() {
+        sync = new Sync();
+        readerLock = new ReadLock();
+        writerLock = new WriteLock();
+    }
+
+    @Override
+    public Lock readLock() {
+        return readerLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writerLock;
+    }
+
+    /**
+     * 写锁是否被持有
+     * Queries if the write lock is held by any thread.
+     *
+     * @return {@code true} if any thread holds the write lock
+     */
+    public boolean isWriteLocked() {
+        return Sync.exclusiveCount(sync.getState()) != 0;
+    }
+
+    /**
+     * Queries if the write lock is held by the current thread.
+     *
+     * @return {@code true} if the current thread holds the write lock
+     */
+    public boolean isWriteLockedByCurrentThread() {
+        return sync.isHeldExclusively();
+    }
+
+    /**
+     * Queries the number of reentrant write holds on this lock by the
+     * current thread.
+     *
+     * @return the number of holds on the write lock by the current thread,
+     *         or zero if the write lock is not held by the current thread
+     */
+    public int getWriteHoldCount() {
+        return sync.isHeldExclusively() ? Sync.exclusiveCount(sync.getState()) : 0;
+    }
+
+    /**
+     * Queries the number of read locks held for this lock.
+     *
+     * @return the number of read locks held
+     */
+    public int getReadLockCount() {
+        return Sync.sharedCount(sync.getState());
+    }
+
+    /**
+     * 当前线程的读锁重入次数
+     * Queries the number of reentrant read holds on this lock by the
+     * current thread.
+     *
+     * @return the number of holds on the read lock by the current thread
+     */
+    public int getReadHoldCount() {
+        return sync.getReadHoldCount();
+    }
+
+    /** 重入次数表的当前容量；供测试使用 */
+    int holdTableCapacity() {
+        return sync.holds.capacity();
+    }
+
+    /**
+     * 一个读线程的读锁重入次数，只由该线程修改
+     * A reader's hold count. Only its thread modifies {@code count}.
+     */
+    static final class Holds {
+        final Thread thread;
+        int count;
+
+        Holds(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    /**
+     * 读锁重入次数的开放寻址表，线性探测。表中的槽位一旦填入就不再清空，
+     * 因此查找遇到空槽即可断定不存在；扩容时先用SEALED封住旧表的空槽，使并发的插入改到新表进行
+     * Open-addressed, linearly probed table of {@link Holds}. A filled
+     * slot is never emptied, so a probe that reaches an empty slot proves
+     * the thread has no record. A resize first seals every empty slot of
+     * the old table, so that a concurrent claim either lands before the
+     * seal and is copied, or fails on the seal and retries in the new
+     * table; records themselves are shared by both tables.
+     */
+    static final class HoldTable {
+        static final int MIN_CAPACITY = 16;
+        /** 封住旧表空槽的标记 */
+        static final Holds SEALED = new Holds(null);
+
+        /** 一代表 One generation of the table */
+        static final class Table {
+            final AtomicReferenceArray<Holds> slots;
+            final int mask;
+            final int threshold;
+            final AtomicInteger size = new AtomicInteger();
+
+            Table(int capacity) {
+                slots = new AtomicReferenceArray<Holds>(capacity);
+                mask = capacity - 1;
+                threshold = capacity - (capacity >>> 2);
+            }
+        }
+
+        private volatile Table table = new Table(MIN_CAPACITY);
+
+        static int hash(Thread t) {
+            long id = t.getId();
+            return Striped.spread((int) (id ^ (id >>> 32)));
+        }
+
+        /**
+         * 查找线程的记录，不存在返回null
+         * Returns the thread's record, or null if it has none.
+         */
+        Holds find(Thread t) {
+            int h = hash(t);
+            for (;;) {
+                Table tab = table;
+                int mask = tab.mask;
+                boolean sealed = false;
+                for (int i = h & mask, n = 0; n <= mask; i = (i + 1) & mask, n++) {
+                    Holds e = tab.slots.get(i);
+                    if (e == null)
+                        return null;
+                    if (e == SEALED) {
+                        sealed = true;
+                        break;
+                    }
+                    if (e.thread == t)
+                        return e;
+                }
+                // a claim made after the seal went into the next table
+                if (!sealed || table == tab)
+                    return null;
+            }
+        }
+
+        /**
+         * 查找线程的记录，不存在则插入
+         * Returns the thread's record, inserting one if it has none.
+         */
+        Holds claim(Thread t) {
+            int h = hash(t);
+            Holds mine = null;
+            for (;;) {
+                Table tab = table;
+                int mask = tab.mask;
+                boolean full = true;
+                for (int i = h & mask, n = 0; n <= mask; i = (i + 1) & mask, n++) {
+                    Holds e = tab.slots.get(i);
+                    if (e == null) {
+                        if (tab.size.get() >= tab.threshold)
+                            break;
+                        if (mine == null)
+                            mine = new Holds(t);
+                        if (tab.slots.compareAndSet(i, null, mine)) {
+                            tab.size.incrementAndGet();
+                            return mine;
+                        }
+                        e = tab.slots.get(i);
+                    }
+                    if (e == SEALED) {
+                        full = false;
+                        break;
+                    }
+                    if (e.thread == t)
+                        return e;
+                }
+                resize(tab, full);
+            }
+        }
+
+        /**
+         * 扩容或等待正在进行的扩容完成；只保留存活线程或仍持有读锁的记录
+         * Replaces the given table, unless another thread already has,
+         * keeping only records of live threads or with holds outstanding.
+         */
+        private synchronized void resize(Table tab, boolean grow) {
+            if (table != tab)
+                return;
+            AtomicReferenceArray<Holds> old = tab.slots;
+            int capacity = old.length();
+            Holds[] kept = new Holds[capacity];
+            int n = 0;
+            for (int i = 0; i < capacity; i++) {
+                Holds e;
+                while ((e = old.get(i)) == null && !old.compareAndSet(i, null, SEALED)) {
+                    // lost to a claim; copy what it inserted
+                }
+                if (e != null && e != SEALED && (e.count != 0 || e.thread.isAlive()))
+                    kept[n++] = e;
+            }
+            int newCapacity = MIN_CAPACITY;
+            while (newCapacity - (newCapacity >>> 2) <= n + (grow ? n : 0))
+                newCapacity <<= 1;
+            Table next = new Table(newCapacity);
+            for (int k = 0; k < n; k++) {
+                Holds e = kept[k];
+                int i = hash(e.thread) & next.mask;
+                while (next.slots.get(i) != null)
+                    i = (i + 1) & next.mask;
+                next.slots.set(i, e);
+            }
+            next.size.set(n);
+            table = next;
+        }
+
+        /**
+         * 表的当前容量
+         */
+        int capacity() {
+            return table.slots.length();
+        }
+    }
+
+    /**
+     * 同步器，state高16位为读锁数量，低16位为写锁重入次数，与ReentrantReadWriteLock相同
+     * Synchronization implementation. As in {@code ReentrantReadWriteLock},
+     * the lower 16 bits of the state count write holds and the upper 16
+     * bits count read holds.
+     */
+    static final class Sync extends QueuedSynchronizer {
+        private static final long serialVersionUID = -3281094316452871630L;
+
+        static final int SHARED_SHIFT   = 16;
+        static final int SHARED_UNIT    = (1 << SHARED_SHIFT);
+        static final int MAX_COUNT      = (1 << SHARED_SHIFT) - 1;
+        static final int EXCLUSIVE_MASK = (1 << SHARED_SHIFT) - 1;
+
+        /** Returns the number of shared holds represented in count  */
+        static int sharedCount(int c)    { return c >>> SHARED_SHIFT; }
+        /** Returns the number of exclusive holds represented in count  */
+        static int exclusiveCount(int c) { return c & EXCLUSIVE_MASK; }
+
+        /** 除firstReader外各读线程的重入次数 */
+        private final transient HoldTable holds = new HoldTable();
+
+        /**
+         * 最近一次使用的读线程记录，只作为提示，使用前比较线程
+         * The record most recently used by a reader other than the first.
+         * A hint only: callers check its thread before trusting it.
+         */
+        private transient Holds cachedHolds;
+
+        /**
+         * 把读锁从0变为1的线程及其重入次数，只由该线程修改
+         * The thread that moved the read count from zero to one, and its
+         * hold count; as in {@code ReentrantReadWriteLock}, only that
+         * thread writes them.
+         */
+        private transient Thread firstReader;
+        private transient int firstReaderHoldCount;
+
+        /**
+         * 当前线程的记录，不存在时不插入
+         */
+        private Holds holdsOf(Thread current) {
+            Holds h = cachedHolds;
+            if (h != null && h.thread == current)
+                return h;
+            h = holds.find(current);
+            if (h != null)
+                cachedHolds = h;
+            return h;
+        }
+
+        /**
+         * 记录当前线程获得了一次读锁，调用时读锁计数已经加上
+         * Counts a read hold just taken by the current thread.
+         */
+        private void countReadHold(Thread current, int r) {
+            if (r == 0) {
+                firstReader = current;
+                firstReaderHoldCount = 1;
+            } else if (firstReader == current) {
+                firstReaderHoldCount++;
+            } else {
+                Holds h = cachedHolds;
+                if (h == null || h.thread != current)
+                    cachedHolds = h = holds.claim(current);
+                h.count++;
+            }
+        }
+
+        final int getReadHoldCount() {
+            if (sharedCount(getState()) == 0)
+                return 0;
+            Thread current = Thread.currentThread();
+            if (firstReader == current)
+                return firstReaderHoldCount;
+            Holds h = holdsOf(current);
+            return (h == null) ? 0 : h.count;
+        }
+
+        protected final boolean tryAcquire(int acquires) {
+            Thread current = Thread.currentThread();
+            int c = getState();
+            int w = exclusiveCount(c);
+            if (c != 0) {
+                // (Note: if c != 0 and w == 0 then shared count != 0)
+                if (w == 0 || current != getExclusiveOwnerThread())
+                    return false;
+                if (w + exclusiveCount(acquires) > MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+                // Reentrant acquire
+                setState(c + acquires);
+                return true;
+            }
+            if (!compareAndSetState(c, c + acquires))
+                return false;
+            setExclusiveOwnerThread(current);
+            return true;
+        }
+
+        protected final boolean tryRelease(int releases) {
+            if (!isHeldExclusively())
+                throw new IllegalMonitorStateException();
+            int nextc = getState() - releases;
+            boolean free = exclusiveCount(nextc) == 0;
+            if (free)
+                setExclusiveOwnerThread(null);
+            setState(nextc);
+            return free;
+        }
+
+        protected final int tryAcquireShared(int unused) {
+            Thread current = Thread.currentThread();
+            int c = getState();
+            if (exclusiveCount(c) != 0 &&
+                getExclusiveOwnerThread() != current)
+                return -1;
+            int r = sharedCount(c);
+            if (!apparentlyFirstQueuedIsExclusive() &&
+                r < MAX_COUNT &&
+                compareAndSetState(c, c + SHARED_UNIT)) {
+                countReadHold(current, r);
+                return 1;
+            }
+            return fullTryAcquireShared(current);
+        }
+
+        /**
+         * 完整的读锁获取：处理CAS失败，以及写线程排队时已持有读锁的线程的重入
+         * Full version of acquire for reads, that handles CAS misses
+         * and reentrant reads not dealt with in tryAcquireShared.
+         */
+        private int fullTryAcquireShared(Thread current) {
+            for (;;) {
+                int c = getState();
+                if (exclusiveCount(c) != 0) {
+                    if (getExclusiveOwnerThread() != current)
+                        return -1;
+                    // else we hold the exclusive lock; blocking here
+                    // would cause deadlock.
+                } else if (apparentlyFirstQueuedIsExclusive()) {
+                    // Make sure we're not acquiring read lock reentrantly
+                    if (firstReader != current) {
+                        Holds h = holdsOf(current);
+                        if (h == null || h.count == 0)
+                            return -1;
+                    }
+                }
+                int r = sharedCount(c);
+                if (r == MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+                if (compareAndSetState(c, c + SHARED_UNIT)) {
+                    countReadHold(current, r);
+                    return 1;
+                }
+            }
+        }
+
+        protected final boolean tryReleaseShared(int unused) {
+            Thread current = Thread.currentThread();
+            if (firstReader == current) {
+                if (firstReaderHoldCount == 1)
+                    firstReader = null;
+                else
+                    firstReaderHoldCount--;
+            } else {
+                Holds h = holdsOf(current);
+                if (h == null || h.count <= 0)
+                    throw new IllegalMonitorStateException(
+                        "attempt to unlock read lock, not locked by current thread");
+                h.count--;
+            }
+            for (;;) {
+                int c = getState();
+                int nextc = c - SHARED_UNIT;
+                if (compareAndSetState(c, nextc))
+                    return nextc == 0;
+            }
+        }
+
+        /**
+         * Performs tryLock for write, enabling barging.
+         */
+        final boolean tryWriteLock() {
+            Thread current = Thread.currentThread();
+            int c = getState();
+            if (c != 0) {
+                int w = exclusiveCount(c);
+                if (w == 0 || current != getExclusiveOwnerThread())
+                    return false;
+                if (w == MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+            }
+            if (!compareAndSetState(c, c + 1))
+                return false;
+            setExclusiveOwnerThread(current);
+            return true;
+        }
+
+        /**
+         * Performs tryLock for read, enabling barging.
+         */
+        final boolean tryReadLock() {
+            Thread current = Thread.currentThread();
+            for (;;) {
+                int c = getState();
+                if (exclusiveCount(c) != 0 &&
+                    getExclusiveOwnerThread() != current)
+                    return false;
+                int r = sharedCount(c);
+                if (r == MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+                if (compareAndSetState(c, c + SHARED_UNIT)) {
+                    countReadHold(current, r);
+                    return true;
+                }
+            }
+        }
+
+        protected final boolean isHeldExclusively() {
+            return getExclusiveOwnerThread() == Thread.currentThread();
+        }
+
+        final ConditionObject newCondition() {
+            return new ConditionObject();
+        }
+    }
+
+    /**
+     * 读锁视图，可重入
+     * The lock returned by method {@link #readLock}. Reentrant.
+     */
+    final class ReadLock implements Lock {
+
+        public void lock() {
+            sync.acquireShared(1);
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            sync.acquireSharedInterruptibly(1);
+        }
+
+        public boolean tryLock() {
+            return sync.tryReadLock();
+        }
+
+        public boolean tryLock(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return sync.tryAcquireSharedNanos(1, unit.toNanos(timeout));
+        }
+
+        public void unlock() {
+            sync.releaseShared(1);
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException} because
+         * read locks do not support conditions.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        public String toString() {
+            return super.toString() + "[Read locks = " + getReadLockCount() + "]";
+        }
+    }
+
+    /**
+     * 写锁视图，可重入
+     * The lock returned by method {@link #writeLock}. Reentrant.
+     */
+    final class WriteLock implements Lock {
+
+        public void lock() {
+            sync.acquire(1);
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            sync.acquireInterruptibly(1);
+        }
+
+        public boolean tryLock() {
+            return sync.tryWriteLock();
+        }
+
+        public boolean tryLock(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return sync.tryAcquireNanos(1, unit.toNanos(timeout));
+        }
+
+        public void unlock() {
+            sync.release(1);
+        }
+
+        public Condition newCondition() {
+            return sync.newCondition();
+        }
+
+        public String toString() {
+            Thread o = sync.isHeldExclusively() ? Thread.currentThread() : null;
+            return super.toString() + (isWriteLocked() ?
+                                       "[Locked" + (o == null ? "" : " by thread " + o.getName()) + "]" :
+                                       "[Unlocked]");
+        }
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        int c = sync.getState();
+        return super.toString() +
+            "[Write locks = " + Sync.exclusiveCount(c) +
+            ", Read locks = " + Sync.sharedCount(c) +
+            ", Hold table capacity = " + sync.holds.capacity() + "]";
+    }
+}
@@ -0,0 +1,77 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内的租约存储，用于测试以及单进程部署。每个名字的记录在释放后保留，以保证令牌单调递增。
+ *
+ * A {@link LeaseStore} held in this process's memory, for tests and
+ * single-process deployments. A name's record is kept after release so
+ * that its fencing tokens keep increasing.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 进程内租约存储
+ * @Date 2026/10/18
+ */
+public class InMemoryLeaseStore implements LeaseStore {
+
+    /** 每个名字的当前状态，只在compute中修改 */
+    private final ConcurrentHashMap<String, Record> records = new ConcurrentHashMap<String, Record>();
+
+    static final class Record {
+        /** 当前持有者，null表示空闲 */
+        String owner;
+        /** 最近一次发放的令牌 */
+        long token;
+        long expiresAt;
+    }
+
+    public Lease tryAcquire(String name, String owner, long ttlMillis) {
+        if (owner == null)
+            throw new NullPointerException();
+        Lease[] granted = new Lease[1];
+        records.compute(name, (k, r) -> {
+            if (r == null)
+                r = new Record();
+            long now = System.currentTimeMillis();
+            if (r.owner == null || r.owner.equals(owner) || r.expiresAt - now <= 0) {
+                r.owner = owner;
+                r.token++;
+                r.expiresAt = now + ttlMillis;
+                granted[0] = new Lease(name, owner, r.token, r.expiresAt);
+            }
+            return r;
+        });
+        return granted[0];
+    }
+
+    public Lease renew(Lease lease, long ttlMillis) {
+        Lease[] renewed = new Lease[1];
+        records.computeIfPresent(lease.getName(), (k, r) -> {
+            long now = System.currentTimeMillis();
+            if (current(r, lease, now)) {
+                r.expiresAt = now + ttlMillis;
+                renewed[0] = new Lease(k, r.owner, r.token, r.expiresAt);
+            }
+            return r;
+        });
+        return renewed[0];
+    }
+
+    public boolean release(Lease lease) {
+        boolean[] released = new boolean[1];
+        records.computeIfPresent(lease.getName(), (k, r) -> {
+            if (current(r, lease, System.currentTimeMillis())) {
+                r.owner = null;
+                released[0] = true;
+            }
+            return r;
+        });
+        return released[0];
+    }
+
+    private static boolean current(Record r, Lease lease, long now) {
+        return lease.getOwner().equals(r.owner) && r.token == lease.getToken() &&
+            r.expiresAt - now > 0;
+    }
+}
@@ -0,0 +1,271 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按key精确加锁：每个正在使用的key有自己的{@link ReentrantLock}，不同的key之间不会互相阻塞。
+ * 每把锁带一个引用计数，持有者与等待者各占一个引用；计数归零（没有线程持有也没有线程等待）时
+ * 从表中移除并放回一个有界的池子，留给下一个key复用。所以内存随活跃key数增长，而不是随出现过的key数增长。
+ *
+ * Exact per-key locking: each key in use gets a dedicated
+ * {@link ReentrantLock}, so unrelated keys never conflict the way they
+ * can in a {@link StripedLock}.
+ *
+ * <p>Each lock carries a reference count, with one reference per
+ * acquisition that holds or is waiting for it. The count is only changed
+ * inside {@link ConcurrentHashMap#compute}, which serializes it with the
+ * removal of the mapping. When it drops to zero, no thread holds or waits
+ * for the lock; the mapping is removed and the lock is returned to a
+ * bounded pool for reuse by another key. Memory is therefore proportional
+ * to the number of keys currently in use, not to all keys ever seen.
+ *
+ * <p>Locks are reentrant per key. Every successful {@code lock} or
+ * {@code tryLock} must be matched by exactly one {@link #unlock}.
+ *
+ * @param <K> the key type, with consistent {@code equals} and
+ *            {@code hashCode}
+ * @author one3c-chenzhilong9
+ * @Description: 按key精确加锁，引用计数回收
+ * @Date 2026/10/18
+ */
+public class KeyedLockManager<K> {
+
+    /** 默认池子大小 */
+    public static final int DEFAULT_POOL_SIZE = 64;
+
+    /** 正在使用的key到锁的映射 */
+    private final ConcurrentHashMap<K, Entry> locks = new ConcurrentHashMap<K, Entry>();
+
+    /** 回收的锁 */
+    private final ConcurrentLinkedQueue<Entry> pool = new ConcurrentLinkedQueue<Entry>();
+
+    /** 池子里的锁数，可能短暂地比实际多或少 */
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /** 池子上限 */
+    private final int maxPooled;
+
+    /** 是否公平 */
+    private final boolean fair;
+
+    /**
+     * 一把锁和它的引用计数，refs只在compute中修改
+     * A lock and its reference count. {@code refs} is only read and
+     * written inside {@code compute} on the owning mapping.
+     */
+    static final class Entry {
+        final ReentrantLock lock;
+        int refs;
+
+        Entry(boolean fair) {
+            this.lock = new ReentrantLock(fair);
+        }
+    }
+
+    /**
+     * Creates a manager of nonfair locks with the default pool size.
+     */
+    public KeyedLockManager() {
+        this(false, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Creates a manager with the given fairness policy and pool size.
+     *
+     * @param fair whether the per-key locks are fair
+     * @param maxPooled the maximum number of idle locks kept for reuse,
+     *        or zero to keep none
+     * @throws IllegalArgumentException if {@code maxPooled} is negative
+     */
+    public KeyedLockManager(boolean fair, int maxPooled) {
+        if (maxPooled < 0)
+            throw new IllegalArgumentException("maxPooled " + maxPooled);
+        this.fair = fair;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * 取得key的锁并加一个引用，必要时从池子里取或新建
+     * Returns the key's lock with one more reference, taking one from the
+     * pool or creating one if the key has none.
+     */
+    private Entry retain(K key) {
+        return locks.compute(key, (k, e) -> {
+            if (e == null)
+                e = borrow();
+            e.refs++;
+            return e;
+        });
+    }
+
+    /**
+     * 减一个引用，归零时移除映射并把锁放回池子
+     * Drops one reference, removing the mapping and pooling the lock once
+     * the count reaches zero.
+     */
+    private void release(K key) {
+        locks.computeIfPresent(key, (k, e) -> {
+            if (--e.refs != 0)
+                return e;
+            recycle(e);
+            return null;
+        });
+    }
+
+    private Entry borrow() {
+        Entry e = pool.poll();
+        if (e == null)
+            return new Entry(fair);
+        pooled.decrementAndGet();
+        return e;
+    }
+
+    private void recycle(Entry e) {
+        if (pooled.incrementAndGet() <= maxPooled)
+            pool.offer(e);
+        else
+            pooled.decrementAndGet();
+    }
+
+    /**
+     * Acquires the lock for the given key, waiting if another thread
+     * holds it.
+     *
+     * @param key the key
+     * @throws NullPointerException if {@code key} is null
+     */
+    public void lock(K key) {
+        retain(key).lock.lock();
+    }
+
+    /**
+     * Acquires the lock for the given key unless the current thread is
+     * interrupted.
+     *
+     * @param key the key
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws NullPointerException if {@code key} is null
+     */
+    public void lockInterruptibly(K key) throws InterruptedException {
+        Entry e = retain(key);
+        boolean acquired = false;
+        try {
+            e.lock.lockInterruptibly();
+            acquired = true;
+        } finally {
+            if (!acquired)
+                release(key);
+        }
+    }
+
+    /**
+     * Acquires the lock for the given key only if it is free at the time
+     * of invocation.
+     *
+     * @param key the key
+     * @return {@code true} if the lock was acquired
+     * @throws NullPointerException if {@code key} is null
+     */
+    public boolean tryLock(K key) {
+        Entry e = retain(key);
+        if (e.lock.tryLock())
+            return true;
+        release(key);
+        return false;
+    }
+
+    /**
+     * Acquires the lock for the given key if it becomes free within the
+     * given waiting time and the current thread is not interrupted.
+     *
+     * @param key the key
+     * @param timeout the maximum time to wait
+     * @param unit the time unit of the timeout argument
+     * @return {@code true} if the lock was acquired
+     * @throws InterruptedException if the current thread is interrupted
+     * @throws NullPointerException if {@code key} is null
+     */
+    public boolean tryLock(K key, long timeout, TimeUnit unit) throws InterruptedException {
+        Entry e = retain(key);
+        boolean acquired = false;
+        try {
+            acquired = e.lock.tryLock(timeout, unit);
+            return acquired;
+        } finally {
+            if (!acquired)
+                release(key);
+        }
+    }
+
+    /**
+     * Releases the lock for the given key. Once no thread holds or waits
+     * for it, the lock is discarded or pooled.
+     *
+     * @param key the key
+     * @throws IllegalMonitorStateException if the current thread does not
+     *         hold the lock for the key
+     */
+    public void unlock(K key) {
+        Entry e = locks.get(key);
+        if (e == null)
+            throw new IllegalMonitorStateException();
+        e.lock.unlock();
+        release(key);
+    }
+
+    /**
+     * Queries if the current thread holds the lock for the given key.
+     *
+     * @param key the key
+     * @return {@code true} if the current thread holds the key's lock
+     */
+    public boolean isHeldByCurrentThread(K key) {
+        Entry e = locks.get(key);
+        return e != null && e.lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Queries if any thread holds the lock for the given key.
+     *
+     * @param key the key
+     * @return {@code true} if some thread holds the key's lock
+     */
+    public boolean isLocked(K key) {
+        Entry e = locks.get(key);
+        return e != null && e.lock.isLocked();
+    }
+
+    /**
+     * Returns the number of keys whose lock is currently held or waited
+     * for. This method is designed for monitoring, not for
+     * synchronization control.
+     *
+     * @return the number of keys in use
+     */
+    public int getActiveKeyCount() {
+        return locks.size();
+    }
+
+    /**
+     * Returns the number of idle locks kept for reuse.
+     *
+     * @return the number of pooled locks
+     */
+    public int getPooledCount() {
+        return Math.max(0, pooled.get());
+    }
+
+    /**
+     * Returns a string identifying this manager and the number of keys in
+     * use.
+     *
+     * @return a string identifying this manager
+     */
+    public String toString() {
+        return super.toString() + "[activeKeys = " + locks.size() +
+            ", pooled = " + getPooledCount() + "]";
+    }
+}
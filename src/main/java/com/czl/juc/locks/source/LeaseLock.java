@@ -0,0 +1,404 @@
+package com.czl.juc.locks.source;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于租约的分布式锁：进程之间通过{@link LeaseStore}中带有效期的租约互斥，
+ * 进程内的线程先竞争一把本地{@link ReentrantLock}，只有拿到本地锁的线程才访问存储。
+ * 释放时如果本进程还有线程在等待，并且租约剩余时间充足，就把租约留给下一个本地线程，省掉一次远程往返；
+ * 与{@link CohortLock}的节点内交接是同一个思路，连续交接次数同样有上限，避免饿死其他进程。
+ *
+ * A {@link Lock} whose mutual exclusion between processes comes from a
+ * time-limited lease in a {@link LeaseStore}, while threads of this
+ * process first compete for a local {@link ReentrantLock}. Only the local
+ * owner talks to the store.
+ *
+ * <p>On release, if other local threads are waiting and the lease still
+ * has at least a third of its duration left, the lease is kept and passed
+ * on with the local lock, so the next local owner needs no round trip to
+ * the store. This is the same hand-off as {@link CohortLock}'s, with this
+ * process as the cohort and the lease as the global lock; as there, at
+ * most {@code maxLocalPasses} consecutive hand-offs happen before the
+ * lease is released so other processes get a turn. A kept lease that is
+ * running low is renewed in one round trip before it is reused.
+ *
+ * <p>A lease can expire while its holder is still running, for instance
+ * after a long GC pause, and the lock cannot detect that. Holders should
+ * pass {@link #getFencingToken()} to the protected resource with every
+ * write, and the resource should reject tokens older than the newest it
+ * has seen. {@link #isLeaseValid()} gives a conservative local estimate,
+ * counted from when the lease was requested.
+ *
+ * <p>While another process holds the lease, acquisition polls the store
+ * with exponential backoff. A timed or interruptible acquisition that
+ * gives up never waits for the local lock afterwards; only if it finds a
+ * lease kept for it and no other local waiter does it return the lease
+ * to the store, in one round trip. The lock is reentrant and does not
+ * support conditions.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 基于租约的分布式锁
+ * @Date 2026/10/18
+ */
+public class LeaseLock implements Lock {
+
+    /** 默认的连续本地交接上限 */
+    public static final int DEFAULT_MAX_LOCAL_PASSES = 64;
+
+    /** 轮询存储的退避时间范围 */
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(64);
+
+    private final LeaseStore store;
+
+    /** 锁的名字，即存储中的key */
+    private final String name;
+
+    /** 本锁实例在存储中的身份 */
+    private final String owner;
+
+    private final long leaseMillis;
+    private final long leaseNanos;
+
+    /** 连续本地交接上限 */
+    private final int maxLocalPasses;
+
+    /** 进程内的互斥 */
+    private final ReentrantLock local = new ReentrantLock();
+
+    /** 正在等待本地锁的线程数，见{@link CohortLock.Cohort#waiting} */
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    /** 当前持有的租约，null表示没有；以下三个字段只在持有本地锁时读写 */
+    private LeaseStore.Lease lease;
+
+    /** 租约在本地时钟上的到期时间，从发出请求时算起，偏保守 */
+    private long leaseDeadline;
+
+    /** 已连续本地交接的次数 */
+    private int passes;
+
+    /**
+     * Creates a lease lock with the default hand-off limit.
+     *
+     * @param store the lease store
+     * @param name the name of the lock in the store
+     * @param leaseTime the lease duration
+     * @param unit the time unit of {@code leaseTime}
+     * @throws IllegalArgumentException if {@code leaseTime} is less than
+     *         one millisecond
+     * @throws NullPointerException if {@code store} or {@code name} is null
+     */
+    public LeaseLock(LeaseStore store, String name, long leaseTime, TimeUnit unit) {
+        this(store, name, leaseTime, unit, DEFAULT_MAX_LOCAL_PASSES);
+    }
+
+    /**
+     * Creates a lease lock.
+     *
+     * @param store the lease store
+     * @param name the name of the lock in the store
+     * @param leaseTime the lease duration
+     * @param unit the time unit of {@code leaseTime}
+     * @param maxLocalPasses the maximum number of consecutive hand-offs of
+     *        the lease between local threads, or zero to release the lease
+     *        on every unlock
+     * @throws IllegalArgumentException if {@code leaseTime} is less than
+     *         one millisecond or {@code maxLocalPasses} is negative
+     * @throws NullPointerException if {@code store} or {@code name} is null
+     */
+    public LeaseLock(LeaseStore store, String name, long leaseTime, TimeUnit unit, int maxLocalPasses) {
+        if (store == null || name == null)
+            throw new NullPointerException();
+        long millis = unit.toMillis(leaseTime);
+        if (millis < 1 || maxLocalPasses < 0)
+            throw new IllegalArgumentException();
+        this.store = store;
+        this.name = name;
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+        this.leaseMillis = millis;
+        this.leaseNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        this.maxLocalPasses = maxLocalPasses;
+    }
+
+    /**
+     * 持有的租约是否还剩至少三分之一，可以直接交给下一个本地线程
+     * Whether the held lease has at least a third of its duration left.
+     */
+    private boolean leaseFresh(long now) {
+        return lease != null && leaseDeadline - now > leaseNanos / 3;
+    }
+
+    /**
+     * 已持有本地锁（最外层）时确保持有租约：沿用、续期或向存储申请
+     * Called by the outermost local holder. Reuses, renews or acquires the
+     * lease.
+     *
+     * @param nanos wait limit; negative to wait forever
+     * @return whether the lease is now held; if not, or if this method
+     *         throws, no lease is held
+     */
+    private boolean acquireLease(long nanos, boolean interruptible) throws InterruptedException {
+        long start = System.nanoTime();
+        if (leaseFresh(start))
+            return true;
+        if (lease != null) {
+            LeaseStore.Lease old = lease;
+            lease = null;
+            if (leaseDeadline - start > 0) {
+                LeaseStore.Lease renewed = store.renew(old, leaseMillis);
+                if (renewed != null) {
+                    lease = renewed;
+                    leaseDeadline = start + leaseNanos;
+                    return true;
+                }
+            }
+        }
+        long deadline = start + nanos;
+        long backoff = MIN_BACKOFF_NANOS;
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                long sent = System.nanoTime();
+                LeaseStore.Lease granted = store.tryAcquire(name, owner, leaseMillis);
+                if (granted != null) {
+                    lease = granted;
+                    leaseDeadline = sent + leaseNanos;
+                    passes = 0;
+                    return true;
+                }
+                long park = backoff;
+                if (nanos >= 0L) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0L)
+                        return false;
+                    park = Math.min(park, remaining);
+                }
+                LockSupport.parkNanos(this, park);
+                if (Thread.interrupted()) {
+                    if (interruptible)
+                        throw new InterruptedException();
+                    interrupted = true;
+                }
+                backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 把租约还给存储，即使存储出错也清掉本地状态
+     * Gives the lease back to the store. Local state is cleared even if the
+     * store fails; the lease then simply expires.
+     */
+    private void releaseLease() {
+        LeaseStore.Lease old = lease;
+        lease = null;
+        passes = 0;
+        if (old != null)
+            store.release(old);
+    }
+
+    /**
+     * 本地交接之后、以及获取本地锁失败（超时或中断）之后调用，同{@link CohortLock}：
+     * 如果保留的租约已经没有本地等待者，就用tryLock进入本地锁代为释放，不阻塞
+     * Called after a local hand-off and after a timed or interrupted local
+     * acquisition gave up, with the same non-blocking handshake as
+     * {@link CohortLock}: if the lease was kept for a waiter that has left,
+     * release it, entering the local lock only by {@code tryLock}.
+     */
+    private void releaseIfAbandoned() {
+        while (waiting.get() == 0 && local.tryLock()) {
+            try {
+                if (lease == null || local.getHoldCount() > 1)
+                    return;
+                if (waiting.get() == 0) {
+                    releaseLease();
+                    return;
+                }
+            } finally {
+                local.unlock();
+            }
+        }
+    }
+
+    public void lock() {
+        waiting.incrementAndGet();
+        try {
+            local.lock();
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (local.getHoldCount() > 1)
+            return;
+        boolean acquired = false;
+        try {
+            acquired = acquireLease(-1L, false);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);        // not interruptible
+        } finally {
+            if (!acquired)
+                local.unlock();
+        }
+    }
+
+    public void lockInterruptibly() throws InterruptedException {
+        waiting.incrementAndGet();
+        try {
+            local.lockInterruptibly();
+        } catch (InterruptedException e) {
+            waiting.decrementAndGet();
+            releaseIfAbandoned();
+            throw e;
+        }
+        waiting.decrementAndGet();
+        if (local.getHoldCount() > 1)
+            return;
+        boolean acquired = false;
+        try {
+            acquired = acquireLease(-1L, true);
+        } finally {
+            if (!acquired)
+                local.unlock();
+        }
+    }
+
+    public boolean tryLock() {
+        if (!local.tryLock())
+            return false;
+        if (local.getHoldCount() > 1)
+            return true;
+        boolean acquired = false;
+        try {
+            acquired = acquireLease(0L, false);
+            return acquired;
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);        // not interruptible
+        } finally {
+            if (!acquired)
+                local.unlock();
+        }
+    }
+
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        long nanos = Math.max(unit.toNanos(time), 0L);
+        long deadline = System.nanoTime() + nanos;
+        boolean locked = false;
+        waiting.incrementAndGet();
+        try {
+            locked = local.tryLock(nanos, TimeUnit.NANOSECONDS);
+        } finally {
+            waiting.decrementAndGet();
+            if (!locked)
+                releaseIfAbandoned();
+        }
+        if (!locked)
+            return false;
+        if (local.getHoldCount() > 1)
+            return true;
+        boolean acquired = false;
+        try {
+            acquired = acquireLease(Math.max(deadline - System.nanoTime(), 0L), true);
+            return acquired;
+        } finally {
+            if (!acquired)
+                local.unlock();
+        }
+    }
+
+    /**
+     * 释放：有本地等待者、租约剩余时间充足且未超过交接上限时保留租约，只释放本地锁
+     * Releases the lock, keeping the lease for the next local owner if a
+     * local thread is waiting, the lease is fresh and the pass limit has
+     * not been reached.
+     */
+    public void unlock() {
+        if (!local.isHeldByCurrentThread())
+            throw new IllegalMonitorStateException();
+        boolean passed = false;
+        try {
+            if (local.getHoldCount() == 1) {
+                if (waiting.get() > 0 && passes < maxLocalPasses && leaseFresh(System.nanoTime())) {
+                    passes++;
+                    passed = true;
+                } else {
+                    releaseLease();
+                }
+            }
+        } finally {
+            local.unlock();
+        }
+        if (passed)
+            releaseIfAbandoned();           // the waiter may have given up meanwhile
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException}.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public Condition newCondition() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 当前租约的隔离令牌，持有者应把它带给被保护的资源
+     * Returns the fencing token of the lease under which the current
+     * thread holds this lock.
+     *
+     * @return the fencing token
+     * @throws IllegalMonitorStateException if the current thread does not
+     *         hold this lock
+     */
+    public long getFencingToken() {
+        if (!local.isHeldByCurrentThread())
+            throw new IllegalMonitorStateException();
+        return lease.getToken();
+    }
+
+    /**
+     * Queries if the current thread holds this lock and, by the local
+     * clock, the lease has not yet expired. Since the estimate is counted
+     * from when the lease was requested, it errs on the side of expiry.
+     *
+     * @return {@code true} if the current thread holds an unexpired lease
+     */
+    public boolean isLeaseValid() {
+        return local.isHeldByCurrentThread() && lease != null &&
+            leaseDeadline - System.nanoTime() > 0;
+    }
+
+    /**
+     * Queries if this lock is held by the current thread.
+     *
+     * @return {@code true} if the current thread holds this lock
+     */
+    public boolean isHeldByCurrentThread() {
+        return local.isHeldByCurrentThread();
+    }
+
+    /**
+     * Returns the name of this lock in the store.
+     *
+     * @return the lock name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        return super.toString() + "[" + name + ", " +
+            (local.isLocked() ? "Locked locally" : "Unlocked locally") + "]";
+    }
+}
@@ -0,0 +1,106 @@
+package com.czl.juc.locks.source;
+
+/**
+ * {@link LeaseLock}使用的租约存储，可以是本进程内存、共享文件、或者远程的协调服务。
+ * 每次授予租约时发放一个严格递增的隔离令牌（fencing token），持有者把它带给被保护的资源，
+ * 资源拒绝比已见过的更小的令牌，这样租约过期后仍在运行的旧持有者写不进去。
+ *
+ * A store of named, time-limited leases, as used by {@link LeaseLock}.
+ * Implementations may keep leases in memory, in a shared file, or in a
+ * remote coordination service.
+ *
+ * <p>Every grant of a lease carries a fencing token that is strictly
+ * greater than any token previously granted for the same name. Holders
+ * pass the token along with each write to the protected resource, which
+ * rejects tokens lower than the highest it has seen. A holder that paused
+ * past its lease's expiry is then fenced off even though it still
+ * believes it holds the lease.
+ *
+ * <p>Expiry times are in the store's own clock. Callers should not
+ * compare them with their local clock, but track expiry themselves from
+ * the time they sent the request, as {@link LeaseLock} does.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 租约存储
+ * @Date 2026/10/18
+ */
+public interface LeaseStore {
+
+    /**
+     * 授予的租约
+     * A granted lease.
+     */
+    final class Lease {
+        private final String name;
+        private final String owner;
+        private final long token;
+        private final long expiresAt;
+
+        public Lease(String name, String owner, long token, long expiresAt) {
+            if (name == null || owner == null)
+                throw new NullPointerException();
+            this.name = name;
+            this.owner = owner;
+            this.token = token;
+            this.expiresAt = expiresAt;
+        }
+
+        /** Returns the name of the leased lock. */
+        public String getName() {
+            return name;
+        }
+
+        /** Returns the identity of the holder. */
+        public String getOwner() {
+            return owner;
+        }
+
+        /** Returns the fencing token of this grant. */
+        public long getToken() {
+            return token;
+        }
+
+        /** Returns the expiry time, in milliseconds of the store's clock. */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        public String toString() {
+            return "Lease[" + name + ", owner = " + owner + ", token = " + token +
+                ", expiresAt = " + expiresAt + "]";
+        }
+    }
+
+    /**
+     * 租约空闲、已过期或已属于owner时授予新租约（新令牌），否则返回null，不等待
+     * Grants a lease on the given name if it is free, expired, or already
+     * held by the given owner. Each grant gets a new fencing token. Does not
+     * wait.
+     *
+     * @param name the name of the lock
+     * @param owner the identity of the requester
+     * @param ttlMillis the lease duration
+     * @return the lease, or {@code null} if another owner holds it
+     */
+    Lease tryAcquire(String name, String owner, long ttlMillis);
+
+    /**
+     * 租约仍有效且未被他人取得时延长，令牌不变；否则返回null
+     * Extends a lease that has not expired, keeping its fencing token.
+     *
+     * @param lease the lease to extend
+     * @param ttlMillis the new duration, counted from now
+     * @return the extended lease, or {@code null} if the lease was lost
+     */
+    Lease renew(Lease lease, long ttlMillis);
+
+    /**
+     * 释放租约；租约已过期或已被他人取得时什么也不做
+     * Releases a lease. Does nothing if the lease has expired or has since
+     * been granted to someone else.
+     *
+     * @param lease the lease to release
+     * @return {@code true} if the lease was still current and is now released
+     */
+    boolean release(Lease lease);
+}
@@ -0,0 +1,376 @@
+package com.czl.juc.locks.source;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 锁顺序校验（仿Linux lockdep）：按创建位置把锁归为"锁类"，记录线程持有A类锁时再阻塞获取B类锁形成的
+ * A → B顺序边；新边出现时检查图中是否已有B →* A的路径，有则说明两处代码以相反顺序加锁，
+ * 即使这次没有真的死锁，也可能死锁，第一次出现时报告。用于测试与灰度环境。
+ *
+ * A lock-order validator in the style of Linux's lockdep, for test and
+ * canary runs. Locks are grouped into lock classes by creation site: all
+ * locks created by the same line of code form one class. Whenever a
+ * thread holding a lock of class A blocks to acquire a lock of class B,
+ * the edge A &rarr; B is added to a graph shared by all threads. When an
+ * edge is new, the graph is searched for a path back from B to A; such a
+ * path means that somewhere else B-class locks are taken before A-class
+ * ones, which can deadlock even if it has not yet. Each such inversion is
+ * reported to a listener the first time it appears, with the stack that
+ * recorded the reverse order and the current one.
+ *
+ * <p>Only blocking acquisitions add edges, since {@code tryLock} cannot
+ * wait forever, but locks acquired by {@code tryLock} still count as held.
+ * Nesting two locks of the same class is not checked: code that does so,
+ * for example to lock several entities at once, has to order them by
+ * other means, as {@link StripedLock#lockAll} does. The creation site is
+ * the first stack frame outside this package, so locks created inside
+ * this package's utilities are attributed to their caller.
+ *
+ * <p>Validation covers {@link ReentrantLock} and is switched on for the
+ * whole JVM with the system property
+ * {@code com.czl.juc.locks.lockOrder=true}. When it is off,
+ * {@link #ENABLED} is a constant {@code false} and the lock paths compile
+ * as before. On canary hosts, {@code com.czl.juc.locks.lockOrder.sampleRate=N}
+ * validates one outermost acquisition in {@code N}, picked at random;
+ * the others cost a random number and nothing else. Sampled-out locks are
+ * not tracked as held, so sampling misses some edges but never reports a
+ * false inversion.
+ *
+ * <p>Held locks are tracked per thread. A {@link Condition} wait takes
+ * the lock off the waiting thread's held locks while it is released, and
+ * puts it back once reacquired, whether or not the original acquisition
+ * was sampled; the lock is then held again, so edges recorded from it are
+ * real.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 锁顺序校验
+ * @Date 2026/10/18
+ */
+public final class LockOrderValidator {
+
+    /** 是否开启校验，JVM级开关 Whether validation is compiled in */
+    public static final boolean ENABLED = Boolean.getBoolean("com.czl.juc.locks.lockOrder");
+
+    /** 采样率：每N次最外层获取校验一次 */
+    static final int SAMPLE_RATE = Math.max(1, Integer.getInteger("com.czl.juc.locks.lockOrder.sampleRate", 1));
+
+    /** 本包名，创建位置跳过本包的栈帧 */
+    private static final String PACKAGE_PREFIX = LockOrderValidator.class.getPackage().getName() + ".";
+
+    private static final class Shared {
+        static final LockOrderValidator VALIDATOR = new LockOrderValidator();
+    }
+
+    /** 创建位置到锁类 */
+    private final ConcurrentHashMap<String, LockClass> classes = new ConcurrentHashMap<String, LockClass>();
+
+    /** 顺序图：A类 → (B类 → 首次出现A → B时的记录) */
+    private final ConcurrentHashMap<LockClass, ConcurrentHashMap<LockClass, Edge>> graph =
+        new ConcurrentHashMap<LockClass, ConcurrentHashMap<LockClass, Edge>>();
+
+    /** 已报告的倒置，按(A, B)去重 */
+    private final Set<List<LockClass>> reported = ConcurrentHashMap.newKeySet();
+
+    /** 已报告的倒置，按报告顺序 */
+    private final List<Inversion> inversions = new CopyOnWriteArrayList<Inversion>();
+
+    /** 当前线程按获取顺序持有的锁 */
+    private final ThreadLocal<Held> held = ThreadLocal.withInitial(Held::new);
+
+    /**
+     * 日志对象放在单独的类里：ReentrantLock的构造方法会读取ENABLED，从而初始化本类，
+     * 关闭时不应因此加载SLF4J，所以直到第一次报告才初始化
+     * Holds the logger. {@code ReentrantLock} reads {@link #ENABLED} on
+     * construction, which initializes this class; SLF4J is only loaded
+     * once the default listener first reports.
+     */
+    private static final class Logging {
+        static final Logger LOG = LoggerFactory.getLogger(LockOrderValidator.class);
+    }
+
+    private volatile Consumer<Inversion> listener = i -> Logging.LOG.warn("{}", i);
+
+    /**
+     * 锁类：同一创建位置创建的所有锁
+     * A lock class: all locks created at one code location.
+     */
+    public static final class LockClass {
+        private final String site;
+
+        LockClass(String site) {
+            this.site = site;
+        }
+
+        /** Returns the creation site, as a stack frame. */
+        public String getSite() {
+            return site;
+        }
+
+        public String toString() {
+            return site;
+        }
+    }
+
+    /** 顺序边首次出现时的线程与栈 */
+    static final class Edge {
+        final String thread;
+        final StackTraceElement[] stack;
+
+        Edge(String thread, StackTraceElement[] stack) {
+            this.thread = thread;
+            this.stack = stack;
+        }
+    }
+
+    /**
+     * 一次顺序倒置：当前线程持有held类的锁去获取acquiring类的锁，而图中已有acquiring →* held的路径
+     * A lock-order inversion: a thread holding a lock of class
+     * {@code getHeld()} blocked on one of class {@code getAcquiring()},
+     * while the graph already had a path the other way.
+     */
+    public static final class Inversion {
+        private final LockClass heldClass;
+        private final LockClass acquiring;
+        private final List<LockClass> reversePath;
+        private final String reverseThread;
+        private final StackTraceElement[] reverseStack;
+        private final String thread;
+        private final StackTraceElement[] stack;
+
+        Inversion(LockClass heldClass, LockClass acquiring, List<LockClass> reversePath, Edge reverse, Edge now) {
+            this.heldClass = heldClass;
+            this.acquiring = acquiring;
+            this.reversePath = Collections.unmodifiableList(reversePath);
+            this.reverseThread = reverse.thread;
+            this.reverseStack = reverse.stack;
+            this.thread = now.thread;
+            this.stack = now.stack;
+        }
+
+        /** Returns the class of the lock already held. */
+        public LockClass getHeld() {
+            return heldClass;
+        }
+
+        /** Returns the class of the lock being acquired. */
+        public LockClass getAcquiring() {
+            return acquiring;
+        }
+
+        /**
+         * Returns the previously recorded order, from the class being
+         * acquired back to the class held.
+         */
+        public List<LockClass> getReversePath() {
+            return reversePath;
+        }
+
+        /** Returns where the first edge of the reverse path was recorded. */
+        public StackTraceElement[] getReverseStack() {
+            return reverseStack.clone();
+        }
+
+        /** Returns the stack of the acquisition that completed the cycle. */
+        public StackTraceElement[] getStack() {
+            return stack.clone();
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Possible deadlock: lock order inversion\n");
+            sb.append("  thread \"").append(thread).append("\" holds ").append(heldClass)
+                .append(" and acquires ").append(acquiring).append(":\n");
+            for (StackTraceElement frame : stack)
+                sb.append("\tat ").append(frame).append('\n');
+            sb.append("  but the reverse order ");
+            for (int i = 0; i < reversePath.size(); i++)
+                sb.append(i == 0 ? "" : " -> ").append(reversePath.get(i));
+            sb.append(" was seen in thread \"").append(reverseThread).append("\":\n");
+            for (StackTraceElement frame : reverseStack)
+                sb.append("\tat ").append(frame).append('\n');
+            return sb.toString();
+        }
+    }
+
+    /**
+     * 线程持有的锁，按获取顺序，释放可以不按顺序
+     * Locks held by one thread, in acquisition order. Releases need not
+     * be in reverse order.
+     */
+    static final class Held {
+        Object[] locks = new Object[8];
+        LockClass[] classes = new LockClass[8];
+        int size;
+
+        void push(Object lock, LockClass c) {
+            if (size == locks.length) {
+                locks = Arrays.copyOf(locks, size << 1);
+                classes = Arrays.copyOf(classes, size << 1);
+            }
+            locks[size] = lock;
+            classes[size++] = c;
+        }
+
+        void remove(Object lock) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (locks[i] == lock) {
+                    System.arraycopy(locks, i + 1, locks, i, size - i - 1);
+                    System.arraycopy(classes, i + 1, classes, i, size - i - 1);
+                    locks[--size] = null;
+                    classes[size] = null;
+                    return;
+                }
+            }
+        }
+    }
+
+    private LockOrderValidator() {
+    }
+
+    /**
+     * Returns the validator used by the locks of this package.
+     *
+     * @return the shared validator
+     */
+    public static LockOrderValidator shared() {
+        return Shared.VALIDATOR;
+    }
+
+    /**
+     * Sets the listener that receives each new inversion. It runs in the
+     * acquiring thread, before the acquisition blocks. The default logs
+     * the report at WARN level through SLF4J, under this class's logger;
+     * pass a listener to route reports elsewhere, e.g. {@code i -> {}} to
+     * drop them.
+     *
+     * @param listener the listener
+     */
+    public void setListener(Consumer<Inversion> listener) {
+        if (listener == null)
+            throw new NullPointerException();
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the inversions reported so far.
+     *
+     * @return the inversions, in the order reported
+     */
+    public List<Inversion> getInversions() {
+        return Collections.unmodifiableList(inversions);
+    }
+
+    /**
+     * 由创建锁的栈确定锁类
+     * Returns the lock class for a lock whose construction stack is given.
+     */
+    LockClass classOf(Throwable creation) {
+        String site = "<unknown>";
+        for (StackTraceElement frame : creation.getStackTrace()) {
+            if (!frame.getClassName().startsWith(PACKAGE_PREFIX)) {
+                site = frame.toString();
+                break;
+            }
+        }
+        return classes.computeIfAbsent(site, LockClass::new);
+    }
+
+    /**
+     * 最外层获取之前调用：决定是否采样，阻塞获取时为已持有的每个锁类添加到c的边并检查倒置
+     * Called before an outermost acquisition of a lock of class {@code c}.
+     *
+     * @param blocking whether the acquisition may block indefinitely
+     * @return whether the acquisition is sampled, in which case
+     *         {@link #acquired} must follow if it succeeds
+     */
+    boolean beforeAcquire(LockClass c, boolean blocking) {
+        if (SAMPLE_RATE > 1 && ThreadLocalRandom.current().nextInt(SAMPLE_RATE) != 0)
+            return false;
+        if (blocking) {
+            Held h = held.get();
+            for (int i = 0; i < h.size; i++) {
+                LockClass p = h.classes[i];
+                if (p != c)
+                    addEdge(p, c);
+            }
+        }
+        return true;
+    }
+
+    /** 采样的获取成功后调用 Called after a sampled acquisition succeeded. */
+    void acquired(Object lock, LockClass c) {
+        held.get().push(lock, c);
+    }
+
+    /**
+     * 锁最外层释放时调用，锁不在当前线程的记录中时什么也不做
+     * Called on the outermost release of a lock; does nothing if the
+     * current thread does not track it.
+     */
+    void released(Object lock) {
+        held.get().remove(lock);
+    }
+
+    private void addEdge(LockClass from, LockClass to) {
+        ConcurrentHashMap<LockClass, Edge> out = graph.get(from);
+        if (out == null)
+            out = graph.computeIfAbsent(from, k -> new ConcurrentHashMap<LockClass, Edge>());
+        if (out.containsKey(to))
+            return;                             // the common case: a known order
+        Edge e = new Edge(Thread.currentThread().getName(), new Throwable().getStackTrace());
+        if (out.putIfAbsent(to, e) != null)
+            return;
+        List<LockClass> path = findPath(to, from);
+        if (path != null && reported.add(Arrays.asList(from, to))) {
+            Inversion inv = new Inversion(from, to, path, graph.get(path.get(0)).get(path.get(1)), e);
+            inversions.add(inv);
+            listener.accept(inv);
+        }
+    }
+
+    /**
+     * 广度优先搜索from到to的路径
+     * Breadth-first search for a path in the graph.
+     *
+     * @return the classes along the path, or {@code null} if there is none
+     */
+    private List<LockClass> findPath(LockClass from, LockClass to) {
+        Map<LockClass, LockClass> parent = new HashMap<LockClass, LockClass>();
+        ArrayDeque<LockClass> queue = new ArrayDeque<LockClass>();
+        parent.put(from, from);
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            LockClass c = queue.poll();
+            ConcurrentHashMap<LockClass, Edge> out = graph.get(c);
+            if (out == null)
+                continue;
+            for (LockClass next : out.keySet()) {
+                if (parent.containsKey(next))
+                    continue;
+                parent.put(next, c);
+                if (next == to) {
+                    List<LockClass> path = new ArrayList<LockClass>();
+                    for (LockClass x = to; x != from; x = parent.get(x))
+                        path.add(x);
+                    path.add(from);
+                    Collections.reverse(path);
+                    return path;
+                }
+                queue.add(next);
+            }
+        }
+        return null;
+    }
+}
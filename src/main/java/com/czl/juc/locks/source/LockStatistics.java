@@ -0,0 +1,162 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个锁的运行统计：等待时间与持有时间的直方图（纳秒），以及插队、阻塞、超时的次数。
+ * 通过系统属性 -Dcom.czl.juc.locks.statistics=true 开启；未开启时{@link #ENABLED}为常量false，
+ * 锁中的统计代码会被JIT整体消除，快速路径上没有任何额外开销。
+ *
+ * Per-lock instrumentation for {@link ReentrantLock}: histograms of how
+ * long threads waited to acquire and how long they held the lock, and
+ * counts of barging, parking and timed-out acquisitions.
+ *
+ * <p>Instrumentation is switched on for the whole JVM with the system
+ * property {@code com.czl.juc.locks.statistics=true}. When it is off,
+ * {@link #ENABLED} is a constant {@code false}, the JIT compiler drops
+ * the instrumentation from the lock and unlock paths entirely, and
+ * {@link ReentrantLock#getStatistics()} returns {@code null}. When it is
+ * on, each lock gets its own instance; recording is lock-free and does
+ * not allocate.
+ *
+ * <p>What is counted:
+ * <ul>
+ * <li><em>wait time</em>: from entering {@code lock}, {@code
+ * lockInterruptibly} or {@code tryLock} to acquiring, for outermost
+ * (non-reentrant) acquisitions only;
+ * <li><em>hold time</em>: from that acquisition to the {@code unlock}
+ * releasing the last hold. Time spent in {@link Condition#await} is
+ * included: the waiting thread's start time is kept while the condition
+ * releases and reacquires the lock, and other threads' holds during the
+ * wait are recorded separately;
+ * <li><em>barges</em>: acquisitions that overtook threads already
+ * queued for the lock;
+ * <li><em>parks</em>: every time a thread blocks in the lock's queue or
+ * one of its conditions;
+ * <li><em>timeouts</em>: timed {@code tryLock} calls that gave up.
+ * </ul>
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 锁的运行统计
+ * @Date 2026/10/18
+ */
+public final class LockStatistics {
+
+    /** 是否开启统计，JVM级开关 Whether instrumentation is compiled in */
+    public static final boolean ENABLED = Boolean.getBoolean("com.czl.juc.locks.statistics");
+
+    private final LogLinearHistogram waitTimes = new LogLinearHistogram();
+    private final LogLinearHistogram holdTimes = new LogLinearHistogram();
+    private final AtomicLong barges = new AtomicLong();
+    private final AtomicLong parks = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    LockStatistics() {
+    }
+
+    /**
+     * 包装阻塞策略，统计阻塞次数
+     * Returns a parking policy that counts parks before delegating.
+     *
+     * @throws NullPointerException if {@code delegate} is null
+     */
+    ParkingPolicy countingParks(final ParkingPolicy delegate) {
+        if (delegate == null)
+            throw new NullPointerException();
+        return new ParkingPolicy() {
+            public void park(Object blocker) {
+                parks.incrementAndGet();
+                delegate.park(blocker);
+            }
+
+            public void parkNanos(Object blocker, long nanos) {
+                parks.incrementAndGet();
+                delegate.parkNanos(blocker, nanos);
+            }
+
+            public void unpark(Thread thread) {
+                delegate.unpark(thread);
+            }
+        };
+    }
+
+    void recordWait(long nanos) {
+        waitTimes.record(nanos);
+    }
+
+    void recordHold(long nanos) {
+        holdTimes.record(nanos);
+    }
+
+    void countBarge() {
+        barges.incrementAndGet();
+    }
+
+    void countTimeout() {
+        timeouts.incrementAndGet();
+    }
+
+    /**
+     * Returns the histogram of acquire wait times, in nanoseconds.
+     *
+     * @return the wait-time histogram
+     */
+    public LogLinearHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Returns the histogram of hold times, in nanoseconds.
+     *
+     * @return the hold-time histogram
+     */
+    public LogLinearHistogram getHoldTimes() {
+        return holdTimes;
+    }
+
+    /**
+     * Returns the number of acquisitions that overtook queued threads.
+     *
+     * @return the barge count
+     */
+    public long getBargeCount() {
+        return barges.get();
+    }
+
+    /**
+     * Returns the number of times a thread parked on the lock or one of
+     * its conditions.
+     *
+     * @return the park count
+     */
+    public long getParkCount() {
+        return parks.get();
+    }
+
+    /**
+     * Returns the number of timed acquisitions that timed out.
+     *
+     * @return the timeout count
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    /**
+     * 清空所有统计
+     * Clears all histograms and counters.
+     */
+    public void reset() {
+        waitTimes.reset();
+        holdTimes.reset();
+        barges.set(0L);
+        parks.set(0L);
+        timeouts.set(0L);
+    }
+
+    public String toString() {
+        return "LockStatistics[wait=" + waitTimes.summary() + ", hold=" + holdTimes.summary() +
+            ", barges=" + barges.get() + ", parks=" + parks.get() +
+            ", timeouts=" + timeouts.get() + "]";
+    }
+}
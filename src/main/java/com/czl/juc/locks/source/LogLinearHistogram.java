@@ -0,0 +1,155 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 对数-线性直方图：按2的幂分段，每段再线性分为16个桶，相对误差不超过1/16。
+ * 记录只做一次数组元素的原子自增，无锁、不分配内存，适合在锁的获取与释放路径上使用。
+ *
+ * A fixed-size, lock-free histogram of non-negative {@code long} values
+ * with log-linear buckets, in the style of HdrHistogram.
+ *
+ * <p>Values below 16 each get a bucket of their own. Above that, every
+ * power-of-two range {@code [2^e, 2^(e+1))} is split into 16 equal
+ * buckets, so a bucket's width is at most 1/16 of its lower bound and
+ * any reported value is within about 6% of the recorded one. All 960
+ * buckets are allocated up front; {@link #record} is a single atomic
+ * increment and never allocates.
+ *
+ * <p>Reads are not atomic with respect to concurrent records: a
+ * percentile computed while values are being recorded reflects some
+ * interleaving of them.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 对数-线性直方图
+ * @Date 2026/10/18
+ */
+public final class LogLinearHistogram {
+
+    /** 每段线性桶数的位数 */
+    static final int SUB_BUCKET_BITS = 4;
+
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** 覆盖[0, Long.MAX_VALUE]所需的桶数 */
+    static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 值所在的桶
+     * Returns the bucket index of a non-negative value.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int e = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (e - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((e - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | sub;
+    }
+
+    /**
+     * 桶内的最大值
+     * Returns the largest value that maps to the given bucket.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lowest + ((1L << shift) - 1);
+    }
+
+    /**
+     * 记录一个值，负数按0记录
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value the value to record
+     */
+    public void record(long value) {
+        if (value < 0L)
+            value = 0L;
+        counts.incrementAndGet(bucketOf(value));
+        long m;
+        while (value > (m = max.get()) && !max.compareAndSet(m, value))
+            ;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the total count
+     */
+    public long getTotalCount() {
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++)
+            total += counts.get(i);
+        return total;
+    }
+
+    /**
+     * Returns the largest recorded value, exactly, or 0 if none.
+     *
+     * @return the maximum value
+     */
+    public long getMaxValue() {
+        return max.get();
+    }
+
+    /**
+     * 返回百分位数，结果为所在桶的上界（不超过记录过的最大值）
+     * Returns the value at the given percentile: the highest value of
+     * the bucket containing it, capped at the recorded maximum.
+     *
+     * @param percentile a percentile in {@code [0, 100]}
+     * @return the value at that percentile, or 0 if nothing was recorded
+     * @throws IllegalArgumentException if {@code percentile} is out of range
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0.0 && percentile <= 100.0))
+            throw new IllegalArgumentException("percentile " + percentile);
+        long[] snapshot = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++)
+            total += snapshot[i] = counts.get(i);
+        if (total == 0L)
+            return 0L;
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return Math.min(highestValueIn(i), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * 清空；与并发的记录交错时，部分记录可能丢失
+     * Clears all counts. Values recorded concurrently may or may not
+     * survive the reset.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0L);
+        max.set(0L);
+    }
+
+    /**
+     * Returns a one-line summary of count, percentiles and maximum.
+     */
+    String summary() {
+        return "[count=" + getTotalCount() +
+            ", p50=" + getValueAtPercentile(50.0) +
+            ", p99=" + getValueAtPercentile(99.0) +
+            ", p99.9=" + getValueAtPercentile(99.9) +
+            ", max=" + getMaxValue() + "]";
+    }
+
+    public String toString() {
+        return super.toString() + summary();
+    }
+}
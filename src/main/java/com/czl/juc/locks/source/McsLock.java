@@ -0,0 +1,231 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * MCS队列自旋锁：等待线程排成一个显式链表，每个线程只在自己节点的status字段上自旋，
+ * 释放锁的线程直接把锁交给后继节点。高竞争下只有交接的两个线程之间有缓存行传输，
+ * 不会出现所有等待线程反复争抢同一个state缓存行的情况。
+ *
+ * A Mellor-Crummey/Scott queue spin lock implementing {@link Lock}.
+ *
+ * <p>Each waiter enqueues its own node with a single swap on the tail
+ * and then spins on a status word in that node, which lives on its own
+ * cache line. The releasing thread hands the lock directly to its
+ * successor by writing the successor's status, so under heavy contention
+ * each hand-off moves one cache line between two cores instead of every
+ * waiter re-reading a shared state word. Hand-off is strictly FIFO.
+ *
+ * <p>Timed and interruptible acquisitions abort by marking their node
+ * abandoned; an abandoned node stays in the queue and is skipped by the
+ * next release, so a waiter can leave without coordinating with its
+ * neighbours.
+ *
+ * <p>This is a spin lock: waiters never park, they only
+ * {@link Thread#yield yield} periodically. It suits short, very hot
+ * critical sections on machines with at least as many cores as
+ * contending threads. The lock is reentrant and does not support
+ * conditions.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: MCS队列自旋锁
+ * @Date 2026/10/18
+ */
+public class McsLock implements Lock {
+
+    /** 自旋多少次后让出一次CPU（2的幂减1） */
+    static final int YIELD_MASK = 1023;
+
+    /** 队尾，队列为空时为null */
+    private final AtomicReference<Node> tail = new AtomicReference<Node>();
+
+    /** 持有锁的线程的节点，只由持有者读写 */
+    private Node holder;
+
+    /** 持有锁的线程 */
+    private volatile Thread owner;
+
+    /** 重入次数，只由持有者读写 */
+    private int holds;
+
+    /**
+     * 队列节点，status独占一个缓存行
+     * Queue node. Padded so that the status a waiter spins on does not
+     * share a cache line with any other node.
+     */
+    static final class Node {
+        static final int WAITING = 0;
+        static final int GRANTED = 1;
+        static final int ABANDONED = 2;
+
+        long p0, p1, p2, p3, p4, p5, p6;
+        volatile int status;
+        volatile Node next;
+        long q0, q1, q2, q3, q4, q5, q6;
+
+        private static final AtomicIntegerFieldUpdater<Node> STATUS =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "status");
+
+        boolean compareAndSetStatus(int expect, int update) {
+            return STATUS.compareAndSet(this, expect, update);
+        }
+    }
+
+    /**
+     * 入队并自旋等待，超时或中断时放弃节点
+     * Enqueues and spins until granted.
+     *
+     * @param deadline {@link System#nanoTime} deadline, or 0 for none
+     * @param interruptible whether to abort on interrupt
+     * @return {@code true} if acquired, {@code false} on timeout
+     * @throws InterruptedException if interruptible and interrupted
+     */
+    private boolean acquire(long deadline, boolean interruptible)
+            throws InterruptedException {
+        Thread current = Thread.currentThread();
+        if (owner == current) {
+            reenter();
+            return true;
+        }
+        Node node = new Node();
+        Node pred = tail.getAndSet(node);
+        if (pred != null) {
+            pred.next = node;
+            for (int spins = 1; node.status != Node.GRANTED; ++spins) {
+                if ((spins & YIELD_MASK) != 0)
+                    continue;
+                boolean interrupted = interruptible && Thread.interrupted();
+                if (interrupted || (deadline != 0L && deadline - System.nanoTime() <= 0L)) {
+                    if (node.compareAndSetStatus(Node.WAITING, Node.ABANDONED)) {
+                        if (interrupted)
+                            throw new InterruptedException();
+                        return false;
+                    }
+                    // lost the race with a release: the lock is ours
+                    if (interrupted)
+                        current.interrupt();
+                    break;
+                }
+                Thread.yield();
+            }
+        }
+        holder = node;
+        owner = current;
+        holds = 1;
+        return true;
+    }
+
+    private void reenter() {
+        if (holds == Integer.MAX_VALUE)
+            throw new Error("Maximum lock count exceeded");
+        holds++;
+    }
+
+    public void lock() {
+        try {
+            acquire(0L, false);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);        // not interruptible
+        }
+    }
+
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        acquire(0L, true);
+    }
+
+    /**
+     * 只有队列为空时才获取成功
+     * Acquires the lock only if no thread holds or is waiting for it.
+     */
+    public boolean tryLock() {
+        Thread current = Thread.currentThread();
+        if (owner == current) {
+            reenter();
+            return true;
+        }
+        Node node = new Node();
+        if (!tail.compareAndSet(null, node))
+            return false;
+        holder = node;
+        owner = current;
+        holds = 1;
+        return true;
+    }
+
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        long nanos = unit.toNanos(time);
+        if (nanos <= 0L)
+            return tryLock();
+        long deadline = System.nanoTime() + nanos;
+        return acquire(deadline == 0L ? 1L : deadline, true);
+    }
+
+    /**
+     * 释放锁：把锁交给第一个未放弃的后继节点，没有后继时清空队尾
+     * Hands the lock to the first successor that has not abandoned its
+     * wait, treating each abandoned node as if it were releasing in turn.
+     */
+    public void unlock() {
+        if (owner != Thread.currentThread())
+            throw new IllegalMonitorStateException();
+        if (--holds > 0)
+            return;
+        Node node = holder;
+        holder = null;
+        owner = null;
+        for (;;) {
+            Node succ = node.next;
+            if (succ == null) {
+                if (tail.compareAndSet(node, null))
+                    return;
+                // a successor has swapped the tail but not linked yet
+                while ((succ = node.next) == null)
+                    ;
+            }
+            if (succ.compareAndSetStatus(Node.WAITING, Node.GRANTED))
+                return;
+            node = succ;                    // abandoned, release through it
+        }
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException}: a spin lock has no
+     * wait queue to transfer condition waiters onto.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public Condition newCondition() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Queries if this lock is held by any thread.
+     *
+     * @return {@code true} if any thread holds this lock
+     */
+    public boolean isLocked() {
+        return owner != null;
+    }
+
+    /**
+     * Queries if this lock is held by the current thread.
+     *
+     * @return {@code true} if current thread holds this lock
+     */
+    public boolean isHeldByCurrentThread() {
+        return owner == Thread.currentThread();
+    }
+
+    public String toString() {
+        Thread o = owner;
+        return super.toString() + ((o == null) ?
+                                   "[Unlocked]" :
+                                   "[Locked by thread " + o.getName() + "]");
+    }
+}
@@ -0,0 +1,178 @@
+package com.czl.juc.locks.source;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 从Linux的/sys与/proc读取NUMA拓扑：节点数、每个节点的CPU列表，以及当前线程所在的节点。
+ * 非Linux系统或读取失败时，视为只有一个节点。
+ *
+ * NUMA topology as reported by Linux sysfs, used by {@link CohortLock}
+ * to group threads by node.
+ *
+ * <p>Node membership is read from
+ * {@code /sys/devices/system/node/node<N>/cpulist}, and the CPU a thread
+ * is running on from field 39 of {@code /proc/thread-self/stat}. A thread
+ * is assigned to a node the first time it asks and keeps that node, so the
+ * mapping is only meaningful for threads pinned to one node (for example
+ * with {@code taskset}). On other systems, or if anything cannot be read,
+ * every thread is on node 0 of a single-node topology.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: NUMA拓扑
+ * @Date 2026/10/18
+ */
+public final class NumaTopology {
+
+    private static final String NODE_DIR = "/sys/devices/system/node";
+
+    /** cpu编号到节点编号的映射 */
+    private static final int[] CPU_TO_NODE;
+
+    /** 每个节点的cpu列表 */
+    private static final int[][] NODE_CPUS;
+
+    /** 线程第一次查询时所在的节点 */
+    private static final ThreadLocal<Integer> CURRENT_NODE = new ThreadLocal<Integer>();
+
+    static {
+        List<int[]> nodes = new ArrayList<int[]>();
+        int maxCpu = -1;
+        try {
+            for (int n = 0; ; n++) {
+                File cpulist = new File(NODE_DIR + "/node" + n + "/cpulist");
+                if (!cpulist.exists())
+                    break;
+                int[] cpus = parseCpuList(readLine(cpulist));
+                nodes.add(cpus);
+                for (int cpu : cpus)
+                    maxCpu = Math.max(maxCpu, cpu);
+            }
+        } catch (IOException | RuntimeException e) {
+            nodes.clear();
+        }
+        if (nodes.isEmpty()) {
+            int n = Runtime.getRuntime().availableProcessors();
+            int[] cpus = new int[n];
+            for (int i = 0; i < n; i++)
+                cpus[i] = i;
+            nodes.add(cpus);
+            maxCpu = n - 1;
+        }
+        NODE_CPUS = nodes.toArray(new int[nodes.size()][]);
+        CPU_TO_NODE = new int[maxCpu + 1];
+        for (int node = 0; node < NODE_CPUS.length; node++) {
+            for (int cpu : NODE_CPUS[node])
+                CPU_TO_NODE[cpu] = node;
+        }
+    }
+
+    private NumaTopology() {
+    }
+
+    /**
+     * Returns the number of NUMA nodes, at least one.
+     *
+     * @return the number of nodes
+     */
+    public static int nodeCount() {
+        return NODE_CPUS.length;
+    }
+
+    /**
+     * Returns the CPUs of the given node.
+     *
+     * @param node the node index
+     * @return a copy of the node's CPU ids
+     */
+    public static int[] cpusOf(int node) {
+        return NODE_CPUS[node].clone();
+    }
+
+    /**
+     * 当前线程所在的节点，第一次查询后缓存
+     * Returns the node the current thread was running on when it first
+     * asked, or 0 if that cannot be determined.
+     *
+     * @return the current thread's node
+     */
+    public static int currentNode() {
+        Integer node = CURRENT_NODE.get();
+        if (node == null) {
+            int cpu = currentCpu();
+            node = (cpu >= 0 && cpu < CPU_TO_NODE.length) ? CPU_TO_NODE[cpu] : 0;
+            CURRENT_NODE.set(node);
+        }
+        return node;
+    }
+
+    /**
+     * 当前线程正在运行的cpu，读取失败返回-1
+     * Returns the CPU the current thread is running on, or -1.
+     *
+     * @return the current CPU id, or -1 if unknown
+     */
+    public static int currentCpu() {
+        try {
+            String stat = readLine(new File("/proc/thread-self/stat"));
+            // comm may contain spaces, so count fields after its closing ')'
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            return Integer.parseInt(fields[39 - 3]);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 当前线程的内核线程id，可用于taskset -p；读取失败返回-1
+     * Returns the kernel thread id of the current thread, as used by
+     * {@code taskset -p}, or -1 if unknown.
+     *
+     * @return the current thread's tid, or -1
+     */
+    public static long currentTid() {
+        try {
+            return Long.parseLong(new File("/proc/thread-self").getCanonicalFile().getName());
+        } catch (IOException | RuntimeException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * 解析形如 0-3,8-11 的cpu列表
+     */
+    static int[] parseCpuList(String list) {
+        List<Integer> cpus = new ArrayList<Integer>();
+        for (String part : list.trim().split(",")) {
+            if (part.isEmpty())
+                continue;
+            int dash = part.indexOf('-');
+            if (dash < 0) {
+                cpus.add(Integer.parseInt(part));
+            } else {
+                int from = Integer.parseInt(part.substring(0, dash));
+                int to = Integer.parseInt(part.substring(dash + 1));
+                for (int cpu = from; cpu <= to; cpu++)
+                    cpus.add(cpu);
+            }
+        }
+        int[] result = new int[cpus.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = cpus.get(i);
+        return result;
+    }
+
+    private static String readLine(File file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.US_ASCII))) {
+            String line = reader.readLine();
+            return line == null ? "" : line;
+        }
+    }
+}
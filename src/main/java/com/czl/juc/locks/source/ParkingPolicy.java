@@ -0,0 +1,80 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 线程阻塞策略：{@link QueuedSynchronizer}在等待队列中阻塞、唤醒线程时，统一通过此接口完成，
+ * 默认实现直接委托给{@link LockSupport}；可以替换为自旋、计数、定时轮等实现，
+ * 以便对锁的慢路径进行调优和观测。
+ *
+ * Strategy used by {@link QueuedSynchronizer} to block and wake queued
+ * threads. All parking done by the synchronizer, both for lock
+ * acquisition and for {@link Condition} waits, goes through the policy
+ * it was constructed with, so the blocking behavior of a lock can be
+ * changed or observed without touching the queueing logic.
+ *
+ * <p>Implementations must have the same contract as the corresponding
+ * {@link LockSupport} methods: a call to {@link #park} or {@link #parkNanos}
+ * may return spuriously, and an {@link #unpark} that happens before the
+ * park makes the next park return immediately.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 同步器阻塞策略
+ * @Date 2026/10/18
+ */
+public interface ParkingPolicy {
+
+    /**
+     * 默认策略，等价于直接调用LockSupport
+     * The default policy, which delegates directly to {@link LockSupport}.
+     */
+    ParkingPolicy DEFAULT = new ParkingPolicy() {
+        @Override
+        public void park(Object blocker) {
+            LockSupport.park(blocker);
+        }
+
+        @Override
+        public void parkNanos(Object blocker, long nanos) {
+            LockSupport.parkNanos(blocker, nanos);
+        }
+
+        @Override
+        public void unpark(Thread thread) {
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public String toString() {
+            return "ParkingPolicy.DEFAULT";
+        }
+    };
+
+    /**
+     * Disables the current thread for thread scheduling purposes
+     * until it is unparked, interrupted, or returns spuriously.
+     *
+     * @param blocker the synchronization object responsible for this
+     *        thread parking
+     */
+    void park(Object blocker);
+
+    /**
+     * Disables the current thread for thread scheduling purposes for
+     * up to the specified waiting time, unless it is unparked or
+     * interrupted first, or returns spuriously.
+     *
+     * @param blocker the synchronization object responsible for this
+     *        thread parking
+     * @param nanos the maximum number of nanoseconds to wait
+     */
+    void parkNanos(Object blocker, long nanos);
+
+    /**
+     * Makes available the permit for the given thread.
+     *
+     * @param thread the thread to unpark, or {@code null}, in which case
+     *        this operation has no effect
+     */
+    void unpark(Thread thread);
+}
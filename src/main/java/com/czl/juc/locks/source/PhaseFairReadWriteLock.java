@@ -0,0 +1,369 @@
+package com.czl.juc.locks.source;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 阶段公平（phase-fair）的读写锁：读阶段与写阶段交替进行。
+ * 写线程在等待时，新到的读线程不能插队，只能等当前这个写阶段结束；
+ * 写阶段结束时，所有等待中的读线程一起进入下一个读阶段，即使后面还有写线程在排队。
+ * 因此读线程最多等待一个写阶段，写线程最多等待一个读阶段（加上排在它前面的写线程），
+ * 读写两边的延迟都有上界，既不会像读优先那样饿死写线程，也不会像写优先那样拉长读的尾延迟。
+ *
+ * A phase-fair {@link ReadWriteLock}, after Brandenburg and Anderson's
+ * reader-writer lock of the same name. Read phases and write phases
+ * alternate:
+ * <ul>
+ * <li>A reader that arrives while a writer holds or is waiting for the
+ * lock waits for exactly one write phase to finish, and is then admitted
+ * together with every other waiting reader, even if more writers are
+ * queued.
+ * <li>Writers are served in FIFO order. A writer waits for the readers
+ * admitted before it to leave, which is at most one read phase, and for
+ * the writers queued ahead of it.
+ * </ul>
+ * Readers therefore never wait for more than one writer, and writers are
+ * never starved by a stream of readers, which bounds tail latency on both
+ * sides; the JDK {@code ReentrantReadWriteLock} bounds neither in its
+ * nonfair mode.
+ *
+ * <p>Lock state is kept under an internal {@link ReentrantLock}, and
+ * waiting is done on its conditions, so every acquisition and release
+ * passes through that mutex. This favors latency bounds over raw read
+ * throughput; for read-mostly data with rare writers see
+ * {@link BiasedReadWriteLock}.
+ *
+ * <p>The write lock is reentrant and its holder may acquire the read
+ * lock. The read lock is not reentrant: a reader re-acquiring it while a
+ * writer waits will deadlock. Neither lock supports conditions.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 阶段公平读写锁
+ * @Date 2026/10/18
+ */
+public class PhaseFairReadWriteLock implements ReadWriteLock {
+
+    /** 保护以下所有状态 Guards all state below */
+    private final ReentrantLock mutex = new ReentrantLock();
+    /** 读线程在此等待写阶段结束 Readers wait here for the write phase to end */
+    private final Condition readable = mutex.newCondition();
+    /** 写线程在此等待轮到自己 Writers wait here for their turn */
+    private final Condition writable = mutex.newCondition();
+
+    /** 已获得读锁（包括写阶段结束时被批量授予）的读线程数 */
+    private int readers;
+    /** 等待当前写阶段结束的读线程数 */
+    private int waitingReaders;
+    /** 写阶段编号，每个写阶段结束时加一 */
+    private long phase;
+    /** 写锁持有者 */
+    private Thread writer;
+    /** 写锁重入次数 */
+    private int writeHolds;
+    /** 排队中的写线程，FIFO，元素为各写线程自己的标记对象 */
+    private final ArrayDeque<Object> writerQueue = new ArrayDeque<Object>();
+
+    private final ReadLock readerLock = new ReadLock();
+    private final WriteLock writerLock = new WriteLock();
+
+    @Override
+    public Lock readLock() {
+        return readerLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writerLock;
+    }
+
+    /**
+     * 获取读锁，调用方已持有mutex
+     * Read acquisition, called with {@link #mutex} held.
+     *
+     * @param nanos wait limit; negative to wait forever, zero to not wait
+     * @param interruptible whether to abort on interrupt
+     * @return whether the read lock was acquired
+     */
+    private boolean acquireRead(long nanos, boolean interruptible)
+            throws InterruptedException {
+        Thread current = Thread.currentThread();
+        if ((writer == null && writerQueue.isEmpty()) || writer == current) {
+            readers++;
+            return true;
+        }
+        if (nanos == 0L)
+            return false;
+        final boolean timed = nanos >= 0L;
+        long myPhase = phase;
+        waitingReaders++;
+        boolean granted = false;
+        try {
+            while (phase == myPhase) {
+                if (!timed) {
+                    if (interruptible)
+                        readable.await();
+                    else
+                        readable.awaitUninterruptibly();
+                } else if (nanos > 0L) {
+                    nanos = readable.awaitNanos(nanos);
+                } else {
+                    return false;
+                }
+            }
+            // the writer that ended the phase already counted us in readers
+            granted = true;
+            return true;
+        } finally {
+            if (!granted) {
+                if (phase == myPhase) {
+                    waitingReaders--;
+                } else {
+                    // granted while we were being interrupted; give it back
+                    releaseReadLocked();
+                }
+            }
+        }
+    }
+
+    /**
+     * 释放读锁，调用方已持有mutex
+     */
+    private void releaseReadLocked() {
+        if (readers == 0)
+            throw new IllegalMonitorStateException();
+        if (--readers == 0)
+            writable.signalAll();
+    }
+
+    /**
+     * 获取写锁，调用方已持有mutex
+     * Write acquisition, called with {@link #mutex} held.
+     */
+    private boolean acquireWrite(long nanos, boolean interruptible)
+            throws InterruptedException {
+        Thread current = Thread.currentThread();
+        if (writer == current) {
+            if (writeHolds == Integer.MAX_VALUE)
+                throw new Error("Maximum lock count exceeded");
+            writeHolds++;
+            return true;
+        }
+        if (writer == null && readers == 0 && writerQueue.isEmpty()) {
+            writer = current;
+            writeHolds = 1;
+            return true;
+        }
+        if (nanos == 0L)
+            return false;
+        final boolean timed = nanos >= 0L;
+        Object ticket = new Object();
+        writerQueue.addLast(ticket);
+        boolean acquired = false;
+        try {
+            while (writerQueue.peekFirst() != ticket || writer != null || readers != 0) {
+                if (!timed) {
+                    if (interruptible)
+                        writable.await();
+                    else
+                        writable.awaitUninterruptibly();
+                } else if (nanos > 0L) {
+                    nanos = writable.awaitNanos(nanos);
+                } else {
+                    return false;
+                }
+            }
+            writerQueue.pollFirst();
+            writer = current;
+            writeHolds = 1;
+            acquired = true;
+            return true;
+        } finally {
+            if (!acquired) {
+                writerQueue.remove(ticket);
+                // readers that queued behind us may have no write phase left to wait for
+                if (writer == null && writerQueue.isEmpty())
+                    endPhase();
+                else
+                    writable.signalAll();
+            }
+        }
+    }
+
+    /**
+     * 结束当前写阶段：把所有等待的读线程一次性计入readers，开始读阶段
+     * Ends the current write phase, admitting every waiting reader at once.
+     */
+    private void endPhase() {
+        readers += waitingReaders;
+        waitingReaders = 0;
+        phase++;
+        readable.signalAll();
+        if (readers == 0)
+            writable.signalAll();
+    }
+
+    /**
+     * 读锁视图
+     * The read lock view.
+     */
+    final class ReadLock implements Lock {
+
+        public void lock() {
+            mutex.lock();
+            try {
+                acquireRead(-1L, false);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);    // not interruptible
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            mutex.lockInterruptibly();
+            try {
+                acquireRead(-1L, true);
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        public boolean tryLock() {
+            mutex.lock();
+            try {
+                return acquireRead(0L, false);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long nanos = Math.max(unit.toNanos(time), 0L);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            mutex.lockInterruptibly();
+            try {
+                return acquireRead(nanos, true);
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        public void unlock() {
+            mutex.lock();
+            try {
+                releaseReadLocked();
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException} because
+         * read locks do not support conditions.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * 写锁视图
+     * The write lock view.
+     */
+    final class WriteLock implements Lock {
+
+        public void lock() {
+            mutex.lock();
+            try {
+                acquireWrite(-1L, false);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);    // not interruptible
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            mutex.lockInterruptibly();
+            try {
+                acquireWrite(-1L, true);
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        public boolean tryLock() {
+            mutex.lock();
+            try {
+                return acquireWrite(0L, false);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long nanos = Math.max(unit.toNanos(time), 0L);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            mutex.lockInterruptibly();
+            try {
+                return acquireWrite(nanos, true);
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        public void unlock() {
+            mutex.lock();
+            try {
+                if (writer != Thread.currentThread())
+                    throw new IllegalMonitorStateException();
+                if (--writeHolds == 0) {
+                    writer = null;
+                    endPhase();
+                }
+            } finally {
+                mutex.unlock();
+            }
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException}.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        mutex.lock();
+        try {
+            Thread w = writer;
+            return super.toString() +
+                "[Readers = " + readers +
+                ", Waiting readers = " + waitingReaders +
+                ", Waiting writers = " + writerQueue.size() +
+                (w == null ? ", Unlocked for write]" : ", Write locked by thread " + w.getName() + "]");
+        } finally {
+            mutex.unlock();
+        }
+    }
+}
@@ -0,0 +1,1835 @@
+package com.czl.juc.locks.source;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * 项目内的队列同步器，取代{@link java.util.concurrent.locks.AbstractQueuedSynchronizer}。
+ * 算法与JDK的AQS相同：一个int类型的同步状态state，加上一个CLH变体的FIFO等待队列；
+ * 不同之处在于：
+ * 1、state前后做了缓存行填充，避免与head/tail等字段发生伪共享；
+ * 2、线程的阻塞与唤醒通过可替换的{@link ParkingPolicy}完成；
+ * 3、等待队列、节点结构都在本项目中，可以按需调整和观测。
+ *
+ * Provides a framework for implementing blocking locks and related
+ * synchronizers that rely on first-in-first-out (FIFO) wait queues.
+ * The algorithm is the one used by the JDK's
+ * {@code AbstractQueuedSynchronizer}: subclasses define the protected
+ * {@link #tryAcquire}, {@link #tryRelease}, {@link #tryAcquireShared},
+ * {@link #tryReleaseShared} and {@link #isHeldExclusively} methods in
+ * terms of a single atomically updated {@code int} state, and this class
+ * carries out all queuing and blocking mechanics.
+ *
+ * <p>Differences from the JDK class:
+ * <ul>
+ * <li>The state word is isolated on its own cache line, so CAS traffic
+ * on it does not invalidate the line holding {@code head} and
+ * {@code tail}, and vice versa.
+ * <li>All blocking goes through the {@link ParkingPolicy} given at
+ * construction time.
+ * <li>The queue node layout and the condition implementation live in this
+ * package, so they can be tuned and profiled with the rest of the lock.
+ * </ul>
+ *
+ * <p>The {@link ConditionObject} nested class implements this package's
+ * {@link Condition} interface for synchronizers that support exclusive
+ * mode.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 队列同步器
+ * @Date 2026/10/18
+ */
+public abstract class QueuedSynchronizer extends QueuedSynchronizerRhsPad {
+
+    private static final long serialVersionUID = 3737899427754241961L;
+
+    /**
+     * 等待时间小于此阈值时，自旋比阻塞更快
+     * The number of nanoseconds for which it is faster to spin
+     * rather than to use timed park.
+     */
+    static final long spinForTimeoutThreshold = 1000L;
+
+    /**
+     * 独占模式下，锁的持有者线程
+     * The current owner of exclusive mode synchronization.
+     */
+    private transient Thread exclusiveOwnerThread;
+
+    /**
+     * 等待队列的头节点，延迟初始化
+     * Head of the wait queue, lazily initialized.  Except for
+     * initialization, it is modified only via method setHead.
+     */
+    private transient volatile Node head;
+
+    /**
+     * 等待队列的尾节点，延迟初始化
+     * Tail of the wait queue, lazily initialized.  Modified only via
+     * method enq to add new wait node.
+     */
+    private transient volatile Node tail;
+
+    /**
+     * 同步队列中等待获取的线程数：入队时加一，成为头节点或取消时减一
+     * Number of threads queued to acquire. Incremented when a node is
+     * linked in and decremented when it becomes head or is cancelled, so
+     * that monitoring reads it in O(1) instead of walking the queue.
+     */
+    private transient volatile int queued;
+
+    /**
+     * 所有条件队列中等待的线程总数
+     * Number of threads waiting on any condition of this synchronizer.
+     */
+    private transient volatile int conditionWaiters;
+
+    /**
+     * 阻塞策略
+     * Policy used for all parking and unparking done by this synchronizer.
+     */
+    private transient ParkingPolicy parkingPolicy;
+
+    private static final AtomicReferenceFieldUpdater<QueuedSynchronizer, Node> HEAD =
+        AtomicReferenceFieldUpdater.newUpdater(QueuedSynchronizer.class, Node.class, "head");
+    private static final AtomicReferenceFieldUpdater<QueuedSynchronizer, Node> TAIL =
+        AtomicReferenceFieldUpdater.newUpdater(QueuedSynchronizer.class, Node.class, "tail");
+    private static final AtomicIntegerFieldUpdater<QueuedSynchronizer> QUEUED =
+        AtomicIntegerFieldUpdater.newUpdater(QueuedSynchronizer.class, "queued");
+    private static final AtomicIntegerFieldUpdater<QueuedSynchronizer> CONDITION_WAITERS =
+        AtomicIntegerFieldUpdater.newUpdater(QueuedSynchronizer.class, "conditionWaiters");
+    private static final AtomicIntegerFieldUpdater<ConditionObject> WAITERS =
+        AtomicIntegerFieldUpdater.newUpdater(ConditionObject.class, "waiters");
+
+    /**
+     * Creates a new instance with initial synchronization state of zero,
+     * parking through {@link ParkingPolicy#DEFAULT}.
+     */
+    protected QueuedSynchronizer() {
+        this(ParkingPolicy.DEFAULT);
+    }
+
+    /**
+     * Creates a new instance with initial synchronization state of zero.
+     *
+     * @param parkingPolicy the policy used to block and wake queued threads
+     * @throws NullPointerException if the policy is null
+     */
+    protected QueuedSynchronizer(ParkingPolicy parkingPolicy) {
+        if (parkingPolicy == null)
+            throw new NullPointerException();
+        this.parkingPolicy = parkingPolicy;
+    }
+
+    /**
+     * 等待队列节点。
+     * Wait queue node class.
+     *
+     * <p>The wait queue is a variant of a "CLH" (Craig, Landin, and
+     * Hagersten) lock queue, exactly as in the JDK synchronizer: each node
+     * holds the status of its thread, a node is signalled when its
+     * predecessor releases, and the head node is the one whose thread
+     * currently owns (or last owned) the synchronizer.
+     */
+    static final class Node {
+        /** Marker to indicate a node is waiting in shared mode */
+        static final Node SHARED = new Node();
+        /** Marker to indicate a node is waiting in exclusive mode */
+        static final Node EXCLUSIVE = null;
+
+        /** waitStatus value to indicate thread has cancelled */
+        static final int CANCELLED =  1;
+        /** waitStatus value to indicate successor's thread needs unparking */
+        static final int SIGNAL    = -1;
+        /** waitStatus value to indicate thread is waiting on condition */
+        static final int CONDITION = -2;
+        /**
+         * waitStatus value to indicate the next acquireShared should
+         * unconditionally propagate
+         */
+        static final int PROPAGATE = -3;
+
+        /**
+         * 节点状态：SIGNAL、CANCELLED、CONDITION、PROPAGATE或0
+         * Status field, one of SIGNAL, CANCELLED, CONDITION, PROPAGATE
+         * or 0.  Non-negative values mean that a node doesn't need to
+         * signal.
+         */
+        volatile int waitStatus;
+
+        /** Link to predecessor node that current node/thread relies on. */
+        volatile Node prev;
+
+        /** Link to the successor node that the current node/thread unparks. */
+        volatile Node next;
+
+        /** The thread that enqueued this node. */
+        volatile Thread thread;
+
+        /**
+         * Link to next node waiting on condition, or the special value
+         * SHARED.
+         */
+        Node nextWaiter;
+
+        private static final AtomicIntegerFieldUpdater<Node> WAIT_STATUS =
+            AtomicIntegerFieldUpdater.newUpdater(Node.class, "waitStatus");
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        /**
+         * Returns true if node is waiting in shared mode.
+         */
+        final boolean isShared() {
+            return nextWaiter == SHARED;
+        }
+
+        /**
+         * Returns previous node, or throws NullPointerException if null.
+         */
+        final Node predecessor() throws NullPointerException {
+            Node p = prev;
+            if (p == null)
+                throw new NullPointerException();
+            else
+                return p;
+        }
+
+        final boolean compareAndSetWaitStatus(int expect, int update) {
+            return WAIT_STATUS.compareAndSet(this, expect, update);
+        }
+
+        final boolean compareAndSetNext(Node expect, Node update) {
+            return NEXT.compareAndSet(this, expect, update);
+        }
+
+        Node() {    // Used to establish initial head or SHARED marker
+        }
+
+        Node(Thread thread, Node mode) {     // Used by addWaiter
+            this.nextWaiter = mode;
+            this.thread = thread;
+        }
+
+        Node(Thread thread, int waitStatus) { // Used by Condition
+            this.waitStatus = waitStatus;
+            this.thread = thread;
+        }
+    }
+
+    /**
+     * 设置独占模式的持有者线程
+     * Sets the thread that currently owns exclusive access.
+     *
+     * @param thread the owner thread
+     */
+    protected final void setExclusiveOwnerThread(Thread thread) {
+        exclusiveOwnerThread = thread;
+    }
+
+    /**
+     * Returns the thread last set by {@code setExclusiveOwnerThread},
+     * or {@code null} if never set.
+     *
+     * @return the owner thread
+     */
+    protected final Thread getExclusiveOwnerThread() {
+        return exclusiveOwnerThread;
+    }
+
+    /**
+     * Returns the policy this synchronizer parks and unparks through.
+     *
+     * @return the parking policy
+     */
+    protected final ParkingPolicy getParkingPolicy() {
+        return parkingPolicy;
+    }
+
+    // Queuing utilities
+
+    /**
+     * 自旋+CAS方式将节点加入队尾，必要时初始化队列
+     * Inserts node into queue, initializing if necessary.
+     * @param node the node to insert
+     * @return node's predecessor
+     */
+    private Node enq(final Node node) {
+        for (;;) {
+            Node t = tail;
+            if (t == null) { // Must initialize
+                if (HEAD.compareAndSet(this, null, new Node()))
+                    tail = head;
+            } else {
+                node.prev = t;
+                if (TAIL.compareAndSet(this, t, node)) {
+                    t.next = node;
+                    QUEUED.incrementAndGet(this);
+                    return t;
+                }
+            }
+        }
+    }
+
+    /**
+     * 为当前线程创建指定模式的节点，并加入队尾
+     * Creates and enqueues node for current thread and given mode.
+     *
+     * @param mode Node.EXCLUSIVE for exclusive, Node.SHARED for shared
+     * @return the new node
+     */
+    private Node addWaiter(Node mode) {
+        Node node = new Node(Thread.currentThread(), mode);
+        // Try the fast path of enq; backup to full enq on failure
+        Node pred = tail;
+        if (pred != null) {
+            node.prev = pred;
+            if (TAIL.compareAndSet(this, pred, node)) {
+                pred.next = node;
+                QUEUED.incrementAndGet(this);
+                return node;
+            }
+        }
+        enq(node);
+        return node;
+    }
+
+    /**
+     * Sets head of queue to be node, thus dequeuing. Called only by
+     * acquire methods.  Also nulls out unused fields for sake of GC
+     * and to suppress unnecessary signals and traversals.
+     *
+     * @param node the node
+     */
+    private void setHead(Node node) {
+        head = node;
+        node.thread = null;
+        node.prev = null;
+        QUEUED.decrementAndGet(this);
+    }
+
+    /**
+     * 唤醒后继节点
+     * Wakes up node's successor, if one exists.
+     *
+     * @param node the node
+     */
+    private void unparkSuccessor(Node node) {
+        int ws = node.waitStatus;
+        if (ws < 0)
+            node.compareAndSetWaitStatus(ws, 0);
+
+        /*
+         * Thread to unpark is held in successor, which is normally
+         * just the next node.  If it is cancelled, skip forward over
+         * the run of cancelled nodes: timed acquires cancel lazily
+         * and leave their next-links intact, so a burst of timeouts
+         * costs one pass here, and the whole run is then unlinked
+         * with a single CAS.  Only if the forward links are
+         * apparently null or were cut by an eager cancellation,
+         * traverse backwards from tail to find the actual
+         * non-cancelled successor.
+         */
+        Node s = node.next;
+        if (s != null && s.waitStatus > 0) {
+            Node first = s;
+            do {
+                Node n = s.next;
+                s = (n == s) ? null : n;   // self-linked: eagerly cancelled
+            } while (s != null && s.waitStatus > 0);
+            if (s != null)
+                node.compareAndSetNext(first, s);
+        }
+        if (s == null) {
+            for (Node t = tail; t != null && t != node; t = t.prev)
+                if (t.waitStatus <= 0)
+                    s = t;
+        }
+        if (s != null)
+            parkingPolicy.unpark(s.thread);
+    }
+
+    /**
+     * Release action for shared mode -- signals successor and ensures
+     * propagation.
+     */
+    private void doReleaseShared() {
+        for (;;) {
+            Node h = head;
+            if (h != null && h != tail) {
+                int ws = h.waitStatus;
+                if (ws == Node.SIGNAL) {
+                    if (!h.compareAndSetWaitStatus(Node.SIGNAL, 0))
+                        continue;            // loop to recheck cases
+                    unparkSuccessor(h);
+                }
+                else if (ws == 0 &&
+                         !h.compareAndSetWaitStatus(0, Node.PROPAGATE))
+                    continue;                // loop on failed CAS
+            }
+            if (h == head)                   // loop if head changed
+                break;
+        }
+    }
+
+    /**
+     * Sets head of queue, and checks if successor may be waiting
+     * in shared mode, if so propagating if either propagate > 0 or
+     * PROPAGATE status was set.
+     *
+     * @param node the node
+     * @param propagate the return value from a tryAcquireShared
+     */
+    private void setHeadAndPropagate(Node node, int propagate) {
+        Node h = head; // Record old head for check below
+        setHead(node);
+        if (propagate > 0 || h == null || h.waitStatus < 0 ||
+            (h = head) == null || h.waitStatus < 0) {
+            Node s = node.next;
+            if (s == null || s.isShared())
+                doReleaseShared();
+        }
+    }
+
+    // Utilities for various versions of acquire
+
+    /**
+     * 取消正在进行的获取
+     * Cancels an ongoing attempt to acquire.
+     *
+     * @param node the node
+     */
+    private void cancelAcquire(Node node) {
+        cancelAcquire(node, false);
+    }
+
+    /**
+     * 取消正在进行的获取。lazy为true时（带超时的获取）保留被取消节点的next链接，
+     * 不做自链接，释放锁时unparkSuccessor可以沿next一次跳过、并用一次CAS摘除连续的已取消节点，
+     * 避免大量超时后每次释放都从队尾向前扫描整个队列
+     * Cancels an ongoing attempt to acquire.
+     *
+     * <p>A lazy cancellation, used by the timed acquire paths, leaves
+     * the node's next-link in place instead of self-linking it. When
+     * many timed waiters give up together, the next release can then
+     * skip the whole run of cancelled nodes going forward and unlink it
+     * in one CAS, instead of every release scanning back from the tail
+     * over the entire queue.
+     *
+     * @param node the node
+     * @param lazy whether to keep the node's next-link
+     */
+    private void cancelAcquire(Node node, boolean lazy) {
+        // Ignore if node doesn't exist
+        if (node == null)
+            return;
+
+        node.thread = null;
+        QUEUED.decrementAndGet(this);
+
+        // Skip cancelled predecessors
+        Node pred = node.prev;
+        while (pred.waitStatus > 0)
+            node.prev = pred = pred.prev;
+
+        // predNext is the apparent node to unsplice.
+        Node predNext = pred.next;
+
+        // Other threads can see the cancelled status after this write.
+        node.waitStatus = Node.CANCELLED;
+
+        // If we are the tail, remove ourselves.
+        if (node == tail && TAIL.compareAndSet(this, node, pred)) {
+            pred.compareAndSetNext(predNext, null);
+        } else {
+            // If successor needs signal, try to set pred's next-link
+            // so it will get one. Otherwise wake it up to propagate.
+            int ws;
+            if (pred != head &&
+                ((ws = pred.waitStatus) == Node.SIGNAL ||
+                 (ws <= 0 && pred.compareAndSetWaitStatus(ws, Node.SIGNAL))) &&
+                pred.thread != null) {
+                Node next = node.next;
+                if (next != null && next.waitStatus <= 0)
+                    pred.compareAndSetNext(predNext, next);
+            } else {
+                unparkSuccessor(node);
+            }
+
+            if (!lazy)
+                node.next = node; // help GC
+        }
+    }
+
+    /**
+     * 获取失败后，检查并更新前驱节点的状态，返回当前线程是否应该阻塞
+     * Checks and updates status for a node that failed to acquire.
+     * Returns true if thread should block.
+     *
+     * @param pred node's predecessor holding status
+     * @param node the node
+     * @return {@code true} if thread should block
+     */
+    private static boolean shouldParkAfterFailedAcquire(Node pred, Node node) {
+        int ws = pred.waitStatus;
+        if (ws == Node.SIGNAL)
+            // This node has already set status asking a release to
+            // signal it, so it can safely park.
+            return true;
+        if (ws > 0) {
+            // Predecessor was cancelled. Skip over predecessors and
+            // indicate retry.
+            do {
+                node.prev = pred = pred.prev;
+            } while (pred.waitStatus > 0);
+            pred.next = node;
+        } else {
+            // waitStatus must be 0 or PROPAGATE.  Indicate that we
+            // need a signal, but don't park yet.
+            pred.compareAndSetWaitStatus(ws, Node.SIGNAL);
+        }
+        return false;
+    }
+
+    /**
+     * Convenience method to interrupt current thread.
+     */
+    static void selfInterrupt() {
+        Thread.currentThread().interrupt();
+    }
+
+    /**
+     * 阻塞当前线程，被唤醒后返回是否被中断
+     * Convenience method to park and then check if interrupted
+     *
+     * @return {@code true} if interrupted
+     */
+    private boolean parkAndCheckInterrupt() {
+        parkingPolicy.park(this);
+        return Thread.interrupted();
+    }
+
+    /**
+     * 以独占不可中断模式，为队列中的线程获取锁
+     * Acquires in exclusive uninterruptible mode for thread already in
+     * queue. Used by condition wait methods as well as acquire.
+     *
+     * @param node the node
+     * @param arg the acquire argument
+     * @return {@code true} if interrupted while waiting
+     */
+    final boolean acquireQueued(final Node node, int arg) {
+        boolean failed = true;
+        try {
+            boolean interrupted = false;
+            for (;;) {
+                final Node p = node.predecessor();
+                if (p == head && tryAcquire(arg)) {
+                    setHead(node);
+                    p.next = null; // help GC
+                    failed = false;
+                    return interrupted;
+                }
+                if (shouldParkAfterFailedAcquire(p, node) &&
+                    parkAndCheckInterrupt())
+                    interrupted = true;
+            }
+        } finally {
+            if (failed)
+                cancelAcquire(node);
+        }
+    }
+
+    /**
+     * Acquires in exclusive interruptible mode.
+     * @param arg the acquire argument
+     */
+    private void doAcquireInterruptibly(int arg)
+        throws InterruptedException {
+        final Node node = addWaiter(Node.EXCLUSIVE);
+        boolean failed = true;
+        try {
+            for (;;) {
+                final Node p = node.predecessor();
+                if (p == head && tryAcquire(arg)) {
+                    setHead(node);
+                    p.next = null; // help GC
+                    failed = false;
+                    return;
+                }
+                if (shouldParkAfterFailedAcquire(p, node) &&
+                    parkAndCheckInterrupt())
+                    throw new InterruptedException();
+            }
+        } finally {
+            if (failed)
+                cancelAcquire(node);
+        }
+    }
+
+    /**
+     * Acquires in exclusive timed mode.
+     *
+     * @param arg the acquire argument
+     * @param nanosTimeout max wait time
+     * @return {@code true} if acquired
+     */
+    private boolean doAcquireNanos(int arg, long nanosTimeout)
+            throws InterruptedException {
+        if (nanosTimeout <= 0L)
+            return false;
+        final long deadline = System.nanoTime() + nanosTimeout;
+        final Node node = addWaiter(Node.EXCLUSIVE);
+        boolean failed = true;
+        try {
+            for (;;) {
+                final Node p = node.predecessor();
+                if (p == head && tryAcquire(arg)) {
+                    setHead(node);
+                    p.next = null; // help GC
+                    failed = false;
+                    return true;
+                }
+                nanosTimeout = deadline - System.nanoTime();
+                if (nanosTimeout <= 0L)
+                    return false;
+                if (shouldParkAfterFailedAcquire(p, node) &&
+                    nanosTimeout > spinForTimeoutThreshold)
+                    parkingPolicy.parkNanos(this, nanosTimeout);
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+            }
+        } finally {
+            if (failed)
+                cancelAcquire(node, true);
+        }
+    }
+
+    /**
+     * Acquires in shared uninterruptible mode.
+     * @param arg the acquire argument
+     */
+    private void doAcquireShared(int arg) {
+        final Node node = addWaiter(Node.SHARED);
+        boolean failed = true;
+        try {
+            boolean interrupted = false;
+            for (;;) {
+                final Node p = node.predecessor();
+                if (p == head) {
+                    int r = tryAcquireShared(arg);
+                    if (r >= 0) {
+                        setHeadAndPropagate(node, r);
+                        p.next = null; // help GC
+                        if (interrupted)
+                            selfInterrupt();
+                        failed = false;
+                        return;
+                    }
+                }
+                if (shouldParkAfterFailedAcquire(p, node) &&
+                    parkAndCheckInterrupt())
+                    interrupted = true;
+            }
+        } finally {
+            if (failed)
+                cancelAcquire(node);
+        }
+    }
+
+    /**
+     * Acquires in shared interruptible mode.
+     * @param arg the acquire argument
+     */
+    private void doAcquireSharedInterruptibly(int arg)
+        throws InterruptedException {
+        final Node node = addWaiter(Node.SHARED);
+        boolean failed = true;
+        try {
+            for (;;) {
+                final Node p = node.predecessor();
+                if (p == head) {
+                    int r = tryAcquireShared(arg);
+                    if (r >= 0) {
+                        setHeadAndPropagate(node, r);
+                        p.next = null; // help GC
+                        failed = false;
+                        return;
+                    }
+                }
+                if (shouldParkAfterFailedAcquire(p, node) &&
+                    parkAndCheckInterrupt())
+                    throw new InterruptedException();
+            }
+        } finally {
+            if (failed)
+                cancelAcquire(node);
+        }
+    }
+
+    /**
+     * Acquires in shared timed mode.
+     *
+     * @param arg the acquire argument
+     * @param nanosTimeout max wait time
+     * @return {@code true} if acquired
+     */
+    private boolean doAcquireSharedNanos(int arg, long nanosTimeout)
+            throws InterruptedException {
+        if (nanosTimeout <= 0L)
+            return false;
+        final long deadline = System.nanoTime() + nanosTimeout;
+        final Node node = addWaiter(Node.SHARED);
+        boolean failed = true;
+        try {
+            for (;;) {
+                final Node p = node.predecessor();
+                if (p == head) {
+                    int r = tryAcquireShared(arg);
+                    if (r >= 0) {
+                        setHeadAndPropagate(node, r);
+                        p.next = null; // help GC
+                        failed = false;
+                        return true;
+                    }
+                }
+                nanosTimeout = deadline - System.nanoTime();
+                if (nanosTimeout <= 0L)
+                    return false;
+                if (shouldParkAfterFailedAcquire(p, node) &&
+                    nanosTimeout > spinForTimeoutThreshold)
+                    parkingPolicy.parkNanos(this, nanosTimeout);
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+            }
+        } finally {
+            if (failed)
+                cancelAcquire(node, true);
+        }
+    }
+
+    // Main exported methods
+
+    /**
+     * 尝试以独占模式获取，由子类实现
+     * Attempts to acquire in exclusive mode. This method should query
+     * if the state of the object permits it to be acquired in the
+     * exclusive mode, and if so to acquire it.
+     *
+     * @param arg the acquire argument
+     * @return {@code true} if successful
+     * @throws UnsupportedOperationException if exclusive mode is not supported
+     */
+    protected boolean tryAcquire(int arg) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 尝试以独占模式释放，由子类实现
+     * Attempts to set the state to reflect a release in exclusive mode.
+     *
+     * @param arg the release argument
+     * @return {@code true} if this object is now in a fully released
+     *         state, so that any waiting threads may attempt to acquire
+     * @throws UnsupportedOperationException if exclusive mode is not supported
+     */
+    protected boolean tryRelease(int arg) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 尝试以共享模式获取，由子类实现
+     * Attempts to acquire in shared mode.
+     *
+     * @param arg the acquire argument
+     * @return a negative value on failure; zero if acquisition in shared
+     *         mode succeeded but no subsequent shared-mode acquire can
+     *         succeed; and a positive value if subsequent shared-mode
+     *         acquires might also succeed
+     * @throws UnsupportedOperationException if shared mode is not supported
+     */
+    protected int tryAcquireShared(int arg) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 尝试以共享模式释放，由子类实现
+     * Attempts to set the state to reflect a release in shared mode.
+     *
+     * @param arg the release argument
+     * @return {@code true} if this release of shared mode may permit a
+     *         waiting acquire (shared or exclusive) to succeed
+     * @throws UnsupportedOperationException if shared mode is not supported
+     */
+    protected boolean tryReleaseShared(int arg) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Returns {@code true} if synchronization is held exclusively with
+     * respect to the current (calling) thread.
+     *
+     * @return {@code true} if synchronization is held exclusively
+     * @throws UnsupportedOperationException if conditions are not supported
+     */
+    protected boolean isHeldExclusively() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 以独占模式获取，忽略中断
+     * Acquires in exclusive mode, ignoring interrupts.
+     *
+     * @param arg the acquire argument
+     */
+    public final void acquire(int arg) {
+        if (!tryAcquire(arg) &&
+            acquireQueued(addWaiter(Node.EXCLUSIVE), arg))
+            selfInterrupt();
+    }
+
+    /**
+     * Acquires in exclusive mode, aborting if interrupted.
+     *
+     * @param arg the acquire argument
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    public final void acquireInterruptibly(int arg)
+            throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        if (!tryAcquire(arg))
+            doAcquireInterruptibly(arg);
+    }
+
+    /**
+     * Attempts to acquire in exclusive mode, aborting if interrupted,
+     * and failing if the given timeout elapses.
+     *
+     * @param arg the acquire argument
+     * @param nanosTimeout the maximum number of nanoseconds to wait
+     * @return {@code true} if acquired; {@code false} if timed out
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    public final boolean tryAcquireNanos(int arg, long nanosTimeout)
+            throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        return tryAcquire(arg) ||
+            doAcquireNanos(arg, nanosTimeout);
+    }
+
+    /**
+     * 以独占模式释放，成功后唤醒后继节点
+     * Releases in exclusive mode.
+     *
+     * @param arg the release argument
+     * @return the value returned from {@link #tryRelease}
+     */
+    public final boolean release(int arg) {
+        if (tryRelease(arg)) {
+            Node h = head;
+            if (h != null && h.waitStatus != 0)
+                unparkSuccessor(h);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 以共享模式获取，忽略中断
+     * Acquires in shared mode, ignoring interrupts.
+     *
+     * @param arg the acquire argument
+     */
+    public final void acquireShared(int arg) {
+        if (tryAcquireShared(arg) < 0)
+            doAcquireShared(arg);
+    }
+
+    /**
+     * Acquires in shared mode, aborting if interrupted.
+     *
+     * @param arg the acquire argument
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    public final void acquireSharedInterruptibly(int arg)
+            throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        if (tryAcquireShared(arg) < 0)
+            doAcquireSharedInterruptibly(arg);
+    }
+
+    /**
+     * Attempts to acquire in shared mode, aborting if interrupted, and
+     * failing if the given timeout elapses.
+     *
+     * @param arg the acquire argument
+     * @param nanosTimeout the maximum number of nanoseconds to wait
+     * @return {@code true} if acquired; {@code false} if timed out
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    public final boolean tryAcquireSharedNanos(int arg, long nanosTimeout)
+            throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        return tryAcquireShared(arg) >= 0 ||
+            doAcquireSharedNanos(arg, nanosTimeout);
+    }
+
+    /**
+     * 以共享模式释放
+     * Releases in shared mode.
+     *
+     * @param arg the release argument
+     * @return the value returned from {@link #tryReleaseShared}
+     */
+    public final boolean releaseShared(int arg) {
+        if (tryReleaseShared(arg)) {
+            doReleaseShared();
+            return true;
+        }
+        return false;
+    }
+
+    // Queue inspection methods
+
+    /**
+     * Queries whether any threads are waiting to acquire.
+     *
+     * @return {@code true} if there may be other threads waiting to acquire
+     */
+    public final boolean hasQueuedThreads() {
+        return head != tail;
+    }
+
+    /**
+     * Queries whether any threads have ever contended to acquire this
+     * synchronizer.
+     *
+     * @return {@code true} if there has ever been contention
+     */
+    public final boolean hasContended() {
+        return head != null;
+    }
+
+    /**
+     * Returns the first (longest-waiting) thread in the queue, or
+     * {@code null} if no threads are currently queued.
+     *
+     * @return the first (longest-waiting) thread in the queue, or
+     *         {@code null} if no threads are currently queued
+     */
+    public final Thread getFirstQueuedThread() {
+        // handle only fast path, else relay
+        return (head == tail) ? null : fullGetFirstQueuedThread();
+    }
+
+    /**
+     * Version of getFirstQueuedThread called when fastpath fails
+     */
+    private Thread fullGetFirstQueuedThread() {
+        Node h, s;
+        Thread st;
+        if (((h = head) != null && (s = h.next) != null &&
+             s.prev == head && (st = s.thread) != null) ||
+            ((h = head) != null && (s = h.next) != null &&
+             s.prev == head && (st = s.thread) != null))
+            return st;
+
+        Node t = tail;
+        Thread firstThread = null;
+        while (t != null && t != head) {
+            Thread tt = t.thread;
+            if (tt != null)
+                firstThread = tt;
+            t = t.prev;
+        }
+        return firstThread;
+    }
+
+    /**
+     * Returns true if the given thread is currently queued.
+     *
+     * @param thread the thread
+     * @return {@code true} if the given thread is on the queue
+     * @throws NullPointerException if the thread is null
+     */
+    public final boolean isQueued(Thread thread) {
+        if (thread == null)
+            throw new NullPointerException();
+        for (Node p = tail; p != null; p = p.prev)
+            if (p.thread == thread)
+                return true;
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if the apparent first queued thread, if one
+     * exists, is waiting in exclusive mode.
+     */
+    final boolean apparentlyFirstQueuedIsExclusive() {
+        Node h, s;
+        return (h = head) != null &&
+            (s = h.next)  != null &&
+            !s.isShared()         &&
+            s.thread != null;
+    }
+
+    /**
+     * 查询是否有线程比当前线程等待得更久，公平锁用此方法判断是否可以直接获取
+     * Queries whether any threads have been waiting to acquire longer
+     * than the current thread.
+     *
+     * @return {@code true} if there is a queued thread preceding the
+     *         current thread, and {@code false} if the current thread
+     *         is at the head of the queue or the queue is empty
+     */
+    public final boolean hasQueuedPredecessors() {
+        Node t = tail; // Read fields in reverse initialization order
+        Node h = head;
+        Node s;
+        return h != t &&
+            ((s = h.next) == null || s.thread != Thread.currentThread());
+    }
+
+    // Instrumentation and monitoring methods
+
+    /**
+     * 返回等待获取的线程数的估计值，读取计数器，O(1)且不分配对象
+     * Returns an estimate of the number of threads waiting to acquire.
+     * The count is maintained on enqueue, acquire and cancellation, so
+     * this method reads a single field and neither walks the queue nor
+     * allocates.
+     *
+     * @return the estimated number of threads waiting to acquire
+     */
+    public final int getQueueLength() {
+        // a node transferred from a condition may acquire before its
+        // signaller has counted it in, briefly driving the count negative
+        return Math.max(queued, 0);
+    }
+
+    /**
+     * 返回在本同步器所有条件上等待的线程数的估计值，无需持有锁，O(1)
+     * Returns an estimate of the number of threads waiting on any
+     * condition of this synchronizer. Unlike the per-condition methods,
+     * this does not require holding exclusive synchronization.
+     *
+     * @return the estimated number of condition waiters
+     */
+    public final int getConditionWaiterCount() {
+        return Math.max(conditionWaiters, 0);
+    }
+
+    /**
+     * Returns a collection containing threads that may be waiting to
+     * acquire.
+     *
+     * @return the collection of threads
+     */
+    public final Collection<Thread> getQueuedThreads() {
+        ArrayList<Thread> list = new ArrayList<Thread>();
+        for (Node p = tail; p != null; p = p.prev) {
+            Thread t = p.thread;
+            if (t != null)
+                list.add(t);
+        }
+        return list;
+    }
+
+    /**
+     * Returns a collection containing threads that may be waiting to
+     * acquire in exclusive mode.
+     *
+     * @return the collection of threads
+     */
+    public final Collection<Thread> getExclusiveQueuedThreads() {
+        ArrayList<Thread> list = new ArrayList<Thread>();
+        for (Node p = tail; p != null; p = p.prev) {
+            if (!p.isShared()) {
+                Thread t = p.thread;
+                if (t != null)
+                    list.add(t);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns a collection containing threads that may be waiting to
+     * acquire in shared mode.
+     *
+     * @return the collection of threads
+     */
+    public final Collection<Thread> getSharedQueuedThreads() {
+        ArrayList<Thread> list = new ArrayList<Thread>();
+        for (Node p = tail; p != null; p = p.prev) {
+            if (p.isShared()) {
+                Thread t = p.thread;
+                if (t != null)
+                    list.add(t);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns a string identifying this synchronizer, as well as its state.
+     *
+     * @return a string identifying this synchronizer, as well as its state
+     */
+    public String toString() {
+        int s = getState();
+        String q  = hasQueuedThreads() ? "non" : "";
+        return super.toString() +
+            "[State = " + s + ", " + q + "empty queue]";
+    }
+
+    // Internal support methods for Conditions
+
+    /**
+     * Returns true if a node, always one that was initially placed on
+     * a condition queue, is now waiting to reacquire on sync queue.
+     * @param node the node
+     * @return true if is reacquiring
+     */
+    final boolean isOnSyncQueue(Node node) {
+        if (node.waitStatus == Node.CONDITION || node.prev == null)
+            return false;
+        if (node.next != null) // If has successor, it must be on queue
+            return true;
+        return findNodeFromTail(node);
+    }
+
+    /**
+     * Returns true if node is on sync queue by searching backwards from tail.
+     * Called only when needed by isOnSyncQueue.
+     * @return true if present
+     */
+    private boolean findNodeFromTail(Node node) {
+        Node t = tail;
+        for (;;) {
+            if (t == node)
+                return true;
+            if (t == null)
+                return false;
+            t = t.prev;
+        }
+    }
+
+    /**
+     * 将节点从条件队列转移到同步队列
+     * Transfers a node from a condition queue onto sync queue.
+     * Returns true if successful.
+     * @param node the node
+     * @return true if successfully transferred (else the node was
+     * cancelled before signal)
+     */
+    final boolean transferForSignal(Node node) {
+        /*
+         * If cannot change waitStatus, the node has been cancelled.
+         */
+        if (!node.compareAndSetWaitStatus(Node.CONDITION, 0))
+            return false;
+
+        /*
+         * Splice onto queue and try to set waitStatus of predecessor to
+         * indicate that thread is (probably) waiting. If cancelled or
+         * attempt to set waitStatus fails, wake up to resync (in which
+         * case the waitStatus can be transiently and harmlessly wrong).
+         */
+        Node p = enq(node);
+        int ws = p.waitStatus;
+        if (ws > 0 || !p.compareAndSetWaitStatus(ws, Node.SIGNAL))
+            parkingPolicy.unpark(node.thread);
+        return true;
+    }
+
+    /**
+     * Transfers node, if necessary, to sync queue after a cancelled wait.
+     * Returns true if thread was cancelled before being signalled.
+     *
+     * @param node the node
+     * @return true if cancelled before the node was signalled
+     */
+    final boolean transferAfterCancelledWait(Node node) {
+        if (node.compareAndSetWaitStatus(Node.CONDITION, 0)) {
+            enq(node);
+            return true;
+        }
+        /*
+         * If we lost out to a signal(), then we can't proceed
+         * until it finishes its enq().  Cancelling during an
+         * incomplete transfer is both rare and transient, so just
+         * spin.
+         */
+        while (!isOnSyncQueue(node))
+            Thread.yield();
+        return false;
+    }
+
+    /**
+     * 以当前state完全释放，返回释放前的state
+     * Invokes release with current state value; returns saved state.
+     * Cancels node and throws exception on failure.
+     * @param node the condition node for this wait
+     * @return previous sync state
+     */
+    final int fullyRelease(Node node) {
+        boolean failed = true;
+        try {
+            int savedState = getState();
+            if (release(savedState)) {
+                failed = false;
+                return savedState;
+            } else {
+                throw new IllegalMonitorStateException();
+            }
+        } finally {
+            if (failed)
+                node.waitStatus = Node.CANCELLED;
+        }
+    }
+
+    /**
+     * 条件等待即将完全释放同步器时调用，默认什么也不做；返回值在重新获取之后原样传给{@link #conditionReacquired}
+     * Called by a {@link ConditionObject} wait, in the waiting thread,
+     * just before it fully releases this synchronizer. The result is
+     * passed to {@link #conditionReacquired} once the thread holds the
+     * synchronizer again, however the wait ended. Lets a subclass suspend
+     * per-hold bookkeeping that the release and reacquire inside the
+     * condition would otherwise bypass. The default does nothing.
+     *
+     * @return a value to hand back after reacquiring
+     */
+    long conditionReleasing() {
+        return 0L;
+    }
+
+    /**
+     * 条件等待重新获取同步器之后调用，默认什么也不做
+     * Called by a {@link ConditionObject} wait after the waiting thread
+     * has reacquired this synchronizer. The default does nothing.
+     *
+     * @param saved the value returned by {@link #conditionReleasing}
+     */
+    void conditionReacquired(long saved) {
+    }
+
+    // Instrumentation methods for conditions
+
+    /**
+     * Queries whether the given ConditionObject uses this synchronizer
+     * as its lock.
+     *
+     * @param condition the condition
+     * @return {@code true} if owned
+     * @throws NullPointerException if the condition is null
+     */
+    public final boolean owns(ConditionObject condition) {
+        return condition.isOwnedBy(this);
+    }
+
+    /**
+     * Queries whether any threads are waiting on the given condition
+     * associated with this synchronizer.
+     *
+     * @param condition the condition
+     * @return {@code true} if there are any waiting threads
+     * @throws IllegalMonitorStateException if exclusive synchronization
+     *         is not held
+     * @throws IllegalArgumentException if the given condition is
+     *         not associated with this synchronizer
+     * @throws NullPointerException if the condition is null
+     */
+    public final boolean hasWaiters(ConditionObject condition) {
+        if (!owns(condition))
+            throw new IllegalArgumentException("Not owner");
+        return condition.hasWaiters();
+    }
+
+    /**
+     * Returns an estimate of the number of threads waiting on the
+     * given condition associated with this synchronizer.
+     *
+     * @param condition the condition
+     * @return the estimated number of waiting threads
+     * @throws IllegalMonitorStateException if exclusive synchronization
+     *         is not held
+     * @throws IllegalArgumentException if the given condition is
+     *         not associated with this synchronizer
+     * @throws NullPointerException if the condition is null
+     */
+    public final int getWaitQueueLength(ConditionObject condition) {
+        if (!owns(condition))
+            throw new IllegalArgumentException("Not owner");
+        return condition.getWaitQueueLength();
+    }
+
+    /**
+     * Returns a collection containing those threads that may be
+     * waiting on the given condition associated with this
+     * synchronizer.
+     *
+     * @param condition the condition
+     * @return the collection of threads
+     * @throws IllegalMonitorStateException if exclusive synchronization
+     *         is not held
+     * @throws IllegalArgumentException if the given condition is
+     *         not associated with this synchronizer
+     * @throws NullPointerException if the condition is null
+     */
+    public final Collection<Thread> getWaitingThreads(ConditionObject condition) {
+        if (!owns(condition))
+            throw new IllegalArgumentException("Not owner");
+        return condition.getWaitingThreads();
+    }
+
+    /**
+     * 本包Condition接口的实现，等待线程在条件队列中排队，被signal后转移到同步队列
+     * Condition implementation for a {@link QueuedSynchronizer} serving as
+     * the basis of a {@link Lock} implementation.
+     *
+     * <p>Method documentation for this class describes mechanics,
+     * not behavioral specifications from the point of view of Lock
+     * and Condition users.
+     */
+    public class ConditionObject implements Condition, java.io.Serializable {
+        private static final long serialVersionUID = 1173984872572414699L;
+        /** First node of condition queue. */
+        private transient Node firstWaiter;
+        /** Last node of condition queue. */
+        private transient Node lastWaiter;
+        /**
+         * 条件等待使用的阻塞策略，为null时使用同步器的策略
+         * Policy for condition waits, or null to use the synchronizer's.
+         * Not serialized.
+         */
+        private final transient ParkingPolicy waitPolicy;
+        /** 在本条件上等待的线程数 */
+        transient volatile int waiters;
+
+        /**
+         * Creates a new {@code ConditionObject} instance.
+         */
+        public ConditionObject() {
+            this.waitPolicy = null;
+        }
+
+        /**
+         * 创建条件对象，条件等待（包括带超时的等待）通过指定的阻塞策略阻塞，
+         * 例如{@link TimingWheel#parkingPolicy()}；获取锁时的阻塞仍使用同步器的策略
+         * Creates a new {@code ConditionObject} whose waits block through
+         * the given policy instead of the synchronizer's. Reacquiring the
+         * lock after a wait still parks through the synchronizer's policy,
+         * and waiters are woken by the synchronizer's {@code unpark}, so
+         * both policies must share the {@link java.util.concurrent.locks.LockSupport}
+         * permit, as all policies in this package do.
+         *
+         * @param waitPolicy the policy used to park waiting threads
+         * @throws NullPointerException if {@code waitPolicy} is null
+         */
+        public ConditionObject(ParkingPolicy waitPolicy) {
+            if (waitPolicy == null)
+                throw new NullPointerException();
+            this.waitPolicy = waitPolicy;
+        }
+
+        private ParkingPolicy waitPolicy() {
+            ParkingPolicy p = waitPolicy;
+            return (p != null) ? p : parkingPolicy;
+        }
+
+        // Internal methods
+
+        /**
+         * Adds a new waiter to wait queue.
+         * @return its new wait node
+         */
+        private Node addConditionWaiter() {
+            Node t = lastWaiter;
+            // If lastWaiter is cancelled, clean out.
+            if (t != null && t.waitStatus != Node.CONDITION) {
+                unlinkCancelledWaiters();
+                t = lastWaiter;
+            }
+            Node node = new Node(Thread.currentThread(), Node.CONDITION);
+            if (t == null)
+                firstWaiter = node;
+            else
+                t.nextWaiter = node;
+            lastWaiter = node;
+            WAITERS.incrementAndGet(this);
+            CONDITION_WAITERS.incrementAndGet(QueuedSynchronizer.this);
+            return node;
+        }
+
+        /**
+         * 等待节点离开条件队列（被转移、取消或释放失败）时计数减一
+         * Counts a waiter out once its node leaves CONDITION status.
+         */
+        private void waiterLeft() {
+            WAITERS.decrementAndGet(this);
+            CONDITION_WAITERS.decrementAndGet(QueuedSynchronizer.this);
+        }
+
+        /**
+         * Transfers a signalled node to the sync queue, counting it out
+         * if it had not been cancelled.
+         */
+        private boolean transferWaiter(Node node) {
+            if (!transferForSignal(node))
+                return false;
+            waiterLeft();
+            return true;
+        }
+
+        /**
+         * Transfers a node after a cancelled wait, counting it out if
+         * it was cancelled before being signalled.
+         */
+        private boolean cancelWaiter(Node node) {
+            if (!transferAfterCancelledWait(node))
+                return false;
+            waiterLeft();
+            return true;
+        }
+
+        /**
+         * Fully releases for a new waiter, counting it out if the
+         * release fails and the node is cancelled.
+         */
+        private int fullyReleaseWaiter(Node node) {
+            boolean failed = true;
+            try {
+                int savedState = fullyRelease(node);
+                failed = false;
+                return savedState;
+            } finally {
+                if (failed)
+                    waiterLeft();
+            }
+        }
+
+        /**
+         * Removes and transfers nodes until hit non-cancelled one or
+         * null.
+         * @param first (non-null) the first node on condition queue
+         */
+        private void doSignal(Node first) {
+            do {
+                if ( (firstWaiter = first.nextWaiter) == null)
+                    lastWaiter = null;
+                first.nextWaiter = null;
+            } while (!transferWaiter(first) &&
+                     (first = firstWaiter) != null);
+        }
+
+        /**
+         * Removes and transfers all nodes.
+         * @param first (non-null) the first node on condition queue
+         */
+        private void doSignalAll(Node first) {
+            lastWaiter = firstWaiter = null;
+            do {
+                Node next = first.nextWaiter;
+                first.nextWaiter = null;
+                transferWaiter(first);
+                first = next;
+            } while (first != null);
+        }
+
+        /**
+         * Unlinks cancelled waiter nodes from condition queue.
+         * Called only while holding lock.
+         */
+        private void unlinkCancelledWaiters() {
+            Node t = firstWaiter;
+            Node trail = null;
+            while (t != null) {
+                Node next = t.nextWaiter;
+                if (t.waitStatus != Node.CONDITION) {
+                    t.nextWaiter = null;
+                    if (trail == null)
+                        firstWaiter = next;
+                    else
+                        trail.nextWaiter = next;
+                    if (next == null)
+                        lastWaiter = trail;
+                }
+                else
+                    trail = t;
+                t = next;
+            }
+        }
+
+        // public methods
+
+        /**
+         * Moves the longest-waiting thread, if one exists, from the
+         * wait queue for this condition to the wait queue for the
+         * owning lock.
+         *
+         * @throws IllegalMonitorStateException if {@link #isHeldExclusively}
+         *         returns {@code false}
+         */
+        public final void signal() {
+            if (!isHeldExclusively())
+                throw new IllegalMonitorStateException();
+            Node first = firstWaiter;
+            if (first != null)
+                doSignal(first);
+        }
+
+        /**
+         * Moves all threads from the wait queue for this condition to
+         * the wait queue for the owning lock.
+         *
+         * @throws IllegalMonitorStateException if {@link #isHeldExclusively}
+         *         returns {@code false}
+         */
+        public final void signalAll() {
+            if (!isHeldExclusively())
+                throw new IllegalMonitorStateException();
+            Node first = firstWaiter;
+            if (first != null)
+                doSignalAll(first);
+        }
+
+        /**
+         * Implements uninterruptible condition wait.
+         */
+        public final void awaitUninterruptibly() {
+            Node node = addConditionWaiter();
+            long saved = conditionReleasing();
+            int savedState = fullyReleaseWaiter(node);
+            boolean interrupted = false;
+            while (!isOnSyncQueue(node)) {
+                waitPolicy().park(this);
+                if (Thread.interrupted())
+                    interrupted = true;
+            }
+            boolean reinterrupt = acquireQueued(node, savedState) || interrupted;
+            conditionReacquired(saved);
+            if (reinterrupt)
+                selfInterrupt();
+        }
+
+        /*
+         * For interruptible waits, we need to track whether to throw
+         * InterruptedException, if interrupted while blocked on
+         * condition, versus reinterrupt current thread, if
+         * interrupted while blocked waiting to re-acquire.
+         */
+
+        /** Mode meaning to reinterrupt on exit from wait */
+        private static final int REINTERRUPT =  1;
+        /** Mode meaning to throw InterruptedException on exit from wait */
+        private static final int THROW_IE    = -1;
+
+        /**
+         * Checks for interrupt, returning THROW_IE if interrupted
+         * before signalled, REINTERRUPT if after signalled, or
+         * 0 if not interrupted.
+         */
+        private int checkInterruptWhileWaiting(Node node) {
+            return Thread.interrupted() ?
+                (cancelWaiter(node) ? THROW_IE : REINTERRUPT) :
+                0;
+        }
+
+        /**
+         * Throws InterruptedException, reinterrupts current thread, or
+         * does nothing, depending on mode.
+         */
+        private void reportInterruptAfterWait(int interruptMode)
+            throws InterruptedException {
+            if (interruptMode == THROW_IE)
+                throw new InterruptedException();
+            else if (interruptMode == REINTERRUPT)
+                selfInterrupt();
+        }
+
+        /**
+         * Implements interruptible condition wait.
+         *
+         * @throws InterruptedException if the current thread is interrupted
+         */
+        public final void await() throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            Node node = addConditionWaiter();
+            long saved = conditionReleasing();
+            int savedState = fullyReleaseWaiter(node);
+            int interruptMode = 0;
+            while (!isOnSyncQueue(node)) {
+                waitPolicy().park(this);
+                if ((interruptMode = checkInterruptWhileWaiting(node)) != 0)
+                    break;
+            }
+            if (acquireQueued(node, savedState) && interruptMode != THROW_IE)
+                interruptMode = REINTERRUPT;
+            conditionReacquired(saved);
+            if (node.nextWaiter != null) // clean up if cancelled
+                unlinkCancelledWaiters();
+            if (interruptMode != 0)
+                reportInterruptAfterWait(interruptMode);
+        }
+
+        /**
+         * Implements timed condition wait.
+         *
+         * @throws InterruptedException if the current thread is interrupted
+         */
+        public final long awaitNanos(long nanosTimeout)
+                throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            Node node = addConditionWaiter();
+            long saved = conditionReleasing();
+            int savedState = fullyReleaseWaiter(node);
+            final long deadline = System.nanoTime() + nanosTimeout;
+            int interruptMode = 0;
+            while (!isOnSyncQueue(node)) {
+                if (nanosTimeout <= 0L) {
+                    cancelWaiter(node);
+                    break;
+                }
+                if (nanosTimeout >= spinForTimeoutThreshold)
+                    waitPolicy().parkNanos(this, nanosTimeout);
+                if ((interruptMode = checkInterruptWhileWaiting(node)) != 0)
+                    break;
+                nanosTimeout = deadline - System.nanoTime();
+            }
+            if (acquireQueued(node, savedState) && interruptMode != THROW_IE)
+                interruptMode = REINTERRUPT;
+            conditionReacquired(saved);
+            if (node.nextWaiter != null)
+                unlinkCancelledWaiters();
+            if (interruptMode != 0)
+                reportInterruptAfterWait(interruptMode);
+            return deadline - System.nanoTime();
+        }
+
+        /**
+         * Implements absolute timed condition wait.
+         *
+         * @throws InterruptedException if the current thread is interrupted
+         */
+        public final boolean awaitUntil(Date deadline)
+                throws InterruptedException {
+            long abstime = deadline.getTime();
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            Node node = addConditionWaiter();
+            long saved = conditionReleasing();
+            int savedState = fullyReleaseWaiter(node);
+            boolean timedout = false;
+            int interruptMode = 0;
+            while (!isOnSyncQueue(node)) {
+                long remaining = abstime - System.currentTimeMillis();
+                if (remaining <= 0L) {
+                    timedout = cancelWaiter(node);
+                    break;
+                }
+                waitPolicy().parkNanos(this, TimeUnit.MILLISECONDS.toNanos(remaining));
+                if ((interruptMode = checkInterruptWhileWaiting(node)) != 0)
+                    break;
+            }
+            if (acquireQueued(node, savedState) && interruptMode != THROW_IE)
+                interruptMode = REINTERRUPT;
+            conditionReacquired(saved);
+            if (node.nextWaiter != null)
+                unlinkCancelledWaiters();
+            if (interruptMode != 0)
+                reportInterruptAfterWait(interruptMode);
+            return !timedout;
+        }
+
+        /**
+         * Implements timed condition wait.
+         *
+         * @throws InterruptedException if the current thread is interrupted
+         */
+        public final boolean await(long time, TimeUnit unit)
+                throws InterruptedException {
+            long nanosTimeout = unit.toNanos(time);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            Node node = addConditionWaiter();
+            long saved = conditionReleasing();
+            int savedState = fullyReleaseWaiter(node);
+            final long deadline = System.nanoTime() + nanosTimeout;
+            boolean timedout = false;
+            int interruptMode = 0;
+            while (!isOnSyncQueue(node)) {
+                if (nanosTimeout <= 0L) {
+                    timedout = cancelWaiter(node);
+                    break;
+                }
+                if (nanosTimeout >= spinForTimeoutThreshold)
+                    waitPolicy().parkNanos(this, nanosTimeout);
+                if ((interruptMode = checkInterruptWhileWaiting(node)) != 0)
+                    break;
+                nanosTimeout = deadline - System.nanoTime();
+            }
+            if (acquireQueued(node, savedState) && interruptMode != THROW_IE)
+                interruptMode = REINTERRUPT;
+            conditionReacquired(saved);
+            if (node.nextWaiter != null)
+                unlinkCancelledWaiters();
+            if (interruptMode != 0)
+                reportInterruptAfterWait(interruptMode);
+            return !timedout;
+        }
+
+        //  support for instrumentation
+
+        /**
+         * Returns true if this condition was created by the given
+         * synchronization object.
+         *
+         * @return {@code true} if owned
+         */
+        final boolean isOwnedBy(QueuedSynchronizer sync) {
+            return sync == QueuedSynchronizer.this;
+        }
+
+        /**
+         * Queries whether any threads are waiting on this condition.
+         *
+         * @return {@code true} if there are any waiting threads
+         * @throws IllegalMonitorStateException if {@link #isHeldExclusively}
+         *         returns {@code false}
+         */
+        protected final boolean hasWaiters() {
+            if (!isHeldExclusively())
+                throw new IllegalMonitorStateException();
+            return waiters > 0;
+        }
+
+        /**
+         * Returns an estimate of the number of threads waiting on
+         * this condition.
+         *
+         * @return the estimated number of waiting threads
+         * @throws IllegalMonitorStateException if {@link #isHeldExclusively}
+         *         returns {@code false}
+         */
+        protected final int getWaitQueueLength() {
+            if (!isHeldExclusively())
+                throw new IllegalMonitorStateException();
+            return Math.max(waiters, 0);
+        }
+
+        /**
+         * Returns a collection containing those threads that may be
+         * waiting on this Condition.
+         *
+         * @return the collection of threads
+         * @throws IllegalMonitorStateException if {@link #isHeldExclusively}
+         *         returns {@code false}
+         */
+        protected final Collection<Thread> getWaitingThreads() {
+            if (!isHeldExclusively())
+                throw new IllegalMonitorStateException();
+            ArrayList<Thread> list = new ArrayList<Thread>();
+            for (Node w = firstWaiter; w != null; w = w.nextWaiter) {
+                if (w.waitStatus == Node.CONDITION) {
+                    Thread t = w.thread;
+                    if (t != null)
+                        list.add(t);
+                }
+            }
+            return list;
+        }
+    }
+
+    /**
+     * 反序列化后恢复默认的阻塞策略
+     * Reconstitutes the instance from a stream, restoring the default
+     * parking policy, which is not serialized.
+     */
+    private void readObject(java.io.ObjectInputStream s)
+        throws java.io.IOException, ClassNotFoundException {
+        s.defaultReadObject();
+        parkingPolicy = ParkingPolicy.DEFAULT;
+    }
+}
+
+/**
+ * state之前的缓存行填充
+ * Padding placed before the state word. Kept in its own class because
+ * the JVM lays out superclass fields before subclass fields, which is the
+ * only portable way to control field order.
+ */
+abstract class QueuedSynchronizerLhsPad implements java.io.Serializable {
+    private static final long serialVersionUID = -1404539219432469231L;
+    transient long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+/**
+ * 同步状态state，独占一个缓存行
+ * Holds the synchronization state on its own cache line.
+ */
+abstract class QueuedSynchronizerState extends QueuedSynchronizerLhsPad {
+    private static final long serialVersionUID = 6244713016262069474L;
+
+    /**
+     * 同步状态
+     * The synchronization state.
+     */
+    private volatile int state;
+
+    private static final AtomicIntegerFieldUpdater<QueuedSynchronizerState> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(QueuedSynchronizerState.class, "state");
+
+    /**
+     * Returns the current value of synchronization state.
+     * This operation has memory semantics of a {@code volatile} read.
+     * @return current state value
+     */
+    protected final int getState() {
+        return state;
+    }
+
+    /**
+     * Sets the value of synchronization state.
+     * This operation has memory semantics of a {@code volatile} write.
+     * @param newState the new state value
+     */
+    protected final void setState(int newState) {
+        state = newState;
+    }
+
+    /**
+     * CAS方式更新state
+     * Atomically sets synchronization state to the given updated
+     * value if the current state value equals the expected value.
+     * This operation has memory semantics of a {@code volatile} read
+     * and write.
+     *
+     * @param expect the expected value
+     * @param update the new value
+     * @return {@code true} if successful. False return indicates that the actual
+     *         value was not equal to the expected value.
+     */
+    protected final boolean compareAndSetState(int expect, int update) {
+        return STATE.compareAndSet(this, expect, update);
+    }
+}
+
+/**
+ * state之后的缓存行填充
+ * Padding placed after the state word.
+ */
+abstract class QueuedSynchronizerRhsPad extends QueuedSynchronizerState {
+    private static final long serialVersionUID = 8427341624016826384L;
+    transient long p10, p11, p12, p13, p14, p15, p16, p17;
+}
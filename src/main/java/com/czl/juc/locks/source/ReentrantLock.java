@@ -37,9 +37,6 @@ package com.czl.juc.locks.source;
 
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.AbstractQueuedSynchronizer;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
 
 /**
  *  一个与隐含监控锁使用{@code synchronized}方法和语法功能的可扩展的可重入互斥锁。
@@ -161,15 +158,81 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     private final Sync sync;
 
     /**
-     * 可重入锁，依赖于同步Sync，同步是基于AQS的实现；
-     * 同步Sync有两种实现一种是公平锁，一种是非公平锁；用AQS state表示，锁的状态。
+     * 运行统计，未开启统计时为null
+     * Instrumentation, or null unless {@link LockStatistics#ENABLED}.
+     */
+    private final transient LockStatistics stats;
+
+    /**
+     * 可重入锁，依赖于同步Sync，同步是基于本包QueuedSynchronizer的实现；
+     * 同步Sync有两种实现一种是公平锁，一种是非公平锁；用state表示，锁的状态。
      * Base of synchronization control for this lock. Subclassed
-     * into fair and nonfair versions below. Uses AQS state to
+     * into fair and nonfair versions below. Uses synchronizer state to
      * represent the number of holds on the lock.
      */
-    abstract static class Sync extends AbstractQueuedSynchronizer {
+    abstract static class Sync extends QueuedSynchronizer {
         private static final long serialVersionUID = -5179523762034025860L;
 
+        /** 运行统计，由外部类在构造时设置 Set once by the enclosing lock */
+        transient LockStatistics stats;
+
+        /**
+         * 锁顺序校验用的锁类，未开启校验时为null，由外部类在构造时设置
+         * Lock class for {@link LockOrderValidator}, or null unless
+         * validation is enabled. Set once by the enclosing lock.
+         */
+        transient LockOrderValidator.LockClass lockClass;
+
+        /**
+         * 最外层获取锁的时间，用于统计持有时间，由持有者读写
+         * When the current owner acquired the lock, for hold-time
+         * statistics. Guarded by the lock itself.
+         */
+        transient long holdStart;
+
+        /**
+         * 条件等待释放锁之前：保存持有时间的起点，并把锁从本线程的锁顺序记录中移除
+         * A condition wait is about to release the lock: saves the hold's
+         * start time, so that the hold recorded by the final unlock covers
+         * the whole hold including the wait, and takes the lock off the
+         * current thread's lock-order stack while it is not held.
+         */
+        long conditionReleasing() {
+            if (LockOrderValidator.ENABLED && lockClass != null)
+                LockOrderValidator.shared().released(this);
+            return holdStart;
+        }
+
+        /**
+         * 条件等待重新获取锁之后：恢复持有时间的起点，并把锁放回本线程的锁顺序记录
+         * The condition wait has reacquired the lock: restores the hold's
+         * start time, which another owner may have overwritten meanwhile,
+         * and puts the lock back on the current thread's lock-order stack.
+         */
+        void conditionReacquired(long saved) {
+            holdStart = saved;
+            if (LockOrderValidator.ENABLED && lockClass != null)
+                LockOrderValidator.shared().acquired(this, lockClass);
+        }
+
+        Sync(ParkingPolicy parkingPolicy) {
+            super(parkingPolicy);
+        }
+
+        /**
+         * 开启统计时，如果当前线程越过了已在排队的线程获取到锁，记一次插队
+         * Counts an acquisition by the current thread as a barge if it
+         * overtook queued threads. Compiles away unless statistics are
+         * enabled.
+         */
+        final void countBarge(Thread current) {
+            if (LockStatistics.ENABLED) {
+                LockStatistics s = stats;
+                if (s != null && hasQueuedThreads() && getFirstQueuedThread() != current)
+                    s.countBarge();
+            }
+        }
+
         /**
          * 在非公平锁实现中，允许快速获取锁
          * Performs {@link Lock#lock}. The main reason for subclassing
@@ -189,6 +252,7 @@ public class ReentrantLock implements Lock, java.io.Serializable {
                 if (compareAndSetState(0, acquires)) {
                     //尝试获取锁，如果获取成功，则设置锁的持有者，为当前线程，返回ture
                     setExclusiveOwnerThread(current);
+                    countBarge(current);
                     return true;
                 }
             }
@@ -227,6 +291,10 @@ public class ReentrantLock implements Lock, java.io.Serializable {
             return new ConditionObject();
         }
 
+        final ConditionObject newCondition(ParkingPolicy waitPolicy) {
+            return new ConditionObject(waitPolicy);
+        }
+
         // Methods relayed from outer class
 
         final Thread getOwner() {
@@ -258,18 +326,118 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     static final class NonfairSync extends Sync {
         private static final long serialVersionUID = 7316153563782823691L;
 
+        NonfairSync(ParkingPolicy parkingPolicy) {
+            super(parkingPolicy);
+        }
+
+        /** 多核时才自旋 Whether spinning can pay off at all on this machine */
+        static final boolean SPIN = Runtime.getRuntime().availableProcessors() > 1;
+
+        /** 自旋预算的上限，超过后park/unpark的开销已可忽略 */
+        static final long MAX_SPIN_NANOS = 20000L;
+
+        /** 自旋预算的下限，低于此值即停止自旋，只做探测 */
+        static final long MIN_SPIN_NANOS = 500L;
+
+        /** 自旋被关闭后，每隔多少次竞争获取做一次探测性自旋（2的幂减1） */
+        static final int PROBE_MASK = 63;
+
+        /**
+         * 当前的自旋预算（纳秒），根据自旋的成败与观测到的持有时间自适应调整；
+         * 各线程之间的竞争写入是良性的，只影响估计的精度
+         * Current spin budget in nanoseconds, adapted from spin outcomes.
+         * Racy updates are benign: they only perturb the estimate.
+         */
+        transient volatile long spinNanos = MAX_SPIN_NANOS / 4;
+
         /**
-         * //先以CAS方式获取锁，如果获取成功，设置当前线程为锁，持有者
-         * Performs lock.  Try immediate barge, backing up to normal
-         * acquire on failure.
+         * 自旋等到锁释放所用时间的指数滑动平均，近似锁的剩余持有时间
+         * Exponentially weighted moving average of how long successful
+         * spinners waited, which approximates the lock's hold time.
+         */
+        private transient volatile long holdNanosEstimate;
+
+        /** 竞争获取次数，用于探测 Count of contended lock() calls, used for probing */
+        private transient int contended;
+
+        /**
+         * //先以CAS方式获取锁，如果获取成功，设置当前线程为锁，持有者；
+         * //失败则在自适应的预算内自旋，自旋仍失败才进入队列阻塞
+         * Performs lock.  Try immediate barge, then spin for the adaptive
+         * budget, backing up to normal acquire on failure.
          */
         final void lock() {
-            if (compareAndSetState(0, 1))
-                setExclusiveOwnerThread(Thread.currentThread());
-            else
+            if (compareAndSetState(0, 1)) {
+                final Thread current = Thread.currentThread();
+                setExclusiveOwnerThread(current);
+                countBarge(current);
+            }
+            else if (!spinAcquire())
                 acquire(1);
         }
 
+        /**
+         * 在自旋预算内反复尝试获取锁；成功则根据等待时间调大预算，
+         * 失败则将预算减半，预算过小时停止自旋，只周期性地探测
+         * Spins for up to the current budget waiting for the lock to be
+         * released. A successful spin folds its wait into the hold-time
+         * estimate and sizes the budget from it; a failed spin halves the
+         * budget. Once the budget falls below {@link #MIN_SPIN_NANOS},
+         * only one in {@code PROBE_MASK + 1} contended acquires spins, so
+         * the lock can notice when holds get short again.
+         *
+         * @return {@code true} if the lock was acquired while spinning
+         */
+        private boolean spinAcquire() {
+            if (!SPIN)
+                return false;
+            final Thread current = Thread.currentThread();
+            if (getExclusiveOwnerThread() == current)
+                return false;               // reentrant, handled by acquire
+            long budget = spinBudget();
+            if (budget == 0L)
+                return false;
+            final long start = System.nanoTime();
+            for (int spins = 1; ; ++spins) {
+                if (getState() == 0 && compareAndSetState(0, 1)) {
+                    setExclusiveOwnerThread(current);
+                    countBarge(current);
+                    onSpinSuccess(System.nanoTime() - start);
+                    return true;
+                }
+                if ((spins & 63) == 0 && System.nanoTime() - start > budget) {
+                    onSpinFailure(budget);
+                    return false;
+                }
+            }
+        }
+
+        /**
+         * 本次竞争获取的自旋预算；预算低于下限时返回0表示不自旋，只有每PROBE_MASK+1次中的一次按下限探测
+         * Returns the budget for this contended acquire, or zero not to
+         * spin: below {@link #MIN_SPIN_NANOS} only every
+         * {@code PROBE_MASK + 1}th call probes, with the minimum budget.
+         */
+        long spinBudget() {
+            long budget = spinNanos;
+            if (budget >= MIN_SPIN_NANOS)
+                return budget;
+            return (++contended & PROBE_MASK) == 0 ? MIN_SPIN_NANOS : 0L;
+        }
+
+        void onSpinSuccess(long waited) {
+            long est = holdNanosEstimate;
+            est += (waited - est) >> 3;
+            holdNanosEstimate = est;
+            // spin about twice the expected wait, but never shrink on success
+            long budget = Math.max(spinNanos, est << 1);
+            spinNanos = Math.min(Math.max(budget, MIN_SPIN_NANOS), MAX_SPIN_NANOS);
+        }
+
+        void onSpinFailure(long budget) {
+            spinNanos = budget >> 1;
+        }
+
         protected final boolean tryAcquire(int acquires) {
             return nonfairTryAcquire(acquires);
         }
@@ -281,6 +449,10 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     static final class FairSync extends Sync {
         private static final long serialVersionUID = -3000897897090466540L;
 
+        FairSync(ParkingPolicy parkingPolicy) {
+            super(parkingPolicy);
+        }
+
         final void lock() {
             acquire(1);
         }
@@ -310,12 +482,111 @@ public class ReentrantLock implements Lock, java.io.Serializable {
         }
     }
 
+    /**
+     * 最终公平的同步器：平时与非公平锁一样允许插队；当队首等待者等待超过阈值后，
+     * 禁止插队，锁只能交给队首线程，直到它获取成功，然后重新允许插队
+     * Sync object for eventually-fair locks. Barging is allowed, as in
+     * the nonfair version, until the thread at the head of the queue has
+     * been failing to acquire for longer than the hand-off threshold.
+     * From then on new arrivals queue behind it, so the next release
+     * hands the lock to the head waiter; once it has acquired, barging
+     * is allowed again. Each thread's wait at the head of the queue is
+     * thus bounded by about the threshold plus one hold time.
+     */
+    static final class EventuallyFairSync extends Sync {
+        private static final long serialVersionUID = 4460925316573960164L;
+
+        /** 队首等待者允许被插队的时长 */
+        final long handoffNanos;
+
+        /**
+         * 为true时禁止插队
+         * Set while the head waiter is starving; disables barging.
+         */
+        private transient volatile boolean handoff;
+
+        /**
+         * 当前被计时的队首等待者及其开始计时的时间，只由队首线程读写
+         * The head waiter being timed, and when it first failed at the
+         * head. Only written by the thread at the head of the queue.
+         */
+        private transient Thread firstWaiter;
+        private transient long firstWaiterSince;
+
+        EventuallyFairSync(long handoffNanos, ParkingPolicy parkingPolicy) {
+            super(parkingPolicy);
+            this.handoffNanos = handoffNanos;
+        }
+
+        /**
+         * //未处于交接状态时先以CAS方式插队，失败则入队
+         * Performs lock. Barge unless the head waiter is starving,
+         * backing up to normal acquire on failure.
+         */
+        final void lock() {
+            if (!handoff && compareAndSetState(0, 1)) {
+                final Thread current = Thread.currentThread();
+                setExclusiveOwnerThread(current);
+                countBarge(current);
+            }
+            else
+                acquire(1);
+        }
+
+        /**
+         * 交接状态下与公平锁相同，只有队首线程能获取；否则与非公平锁相同。
+         * 队首线程获取失败时累计它的等待时间，超过阈值则进入交接状态
+         * Fair while a hand-off is pending, nonfair otherwise. A failed
+         * attempt by the head waiter checks how long it has been
+         * failing, and starts a hand-off once that passes the threshold.
+         */
+        protected final boolean tryAcquire(int acquires) {
+            final Thread current = Thread.currentThread();
+            int c = getState();
+            if (c == 0) {
+                if (handoff) {
+                    if (!hasQueuedPredecessors() &&
+                        compareAndSetState(0, acquires)) {
+                        setExclusiveOwnerThread(current);
+                        firstWaiter = null;
+                        handoff = false;
+                        return true;
+                    }
+                }
+                else if (compareAndSetState(0, acquires)) {
+                    setExclusiveOwnerThread(current);
+                    if (firstWaiter == current)
+                        firstWaiter = null;
+                    countBarge(current);
+                    return true;
+                }
+            }
+            else if (current == getExclusiveOwnerThread()) {
+                int nextc = c + acquires;
+                if (nextc < 0)
+                    throw new Error("Maximum lock count exceeded");
+                setState(nextc);
+                return true;
+            }
+            if (!handoff && getFirstQueuedThread() == current) {
+                long now = System.nanoTime();
+                if (firstWaiter != current) {
+                    firstWaiter = current;
+                    firstWaiterSince = now;
+                } else if (now - firstWaiterSince >= handoffNanos) {
+                    handoff = true;
+                }
+            }
+            return false;
+        }
+    }
+
     /**
      * Creates an instance of {@code ReentrantLock}.
      * This is equivalent to using {@code ReentrantLock(false)}.
      */
     public ReentrantLock() {
-        sync = new NonfairSync();
+        this(false, ParkingPolicy.DEFAULT);
     }
 
     /**
@@ -325,7 +596,115 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      * @param fair {@code true} if this lock should use a fair ordering policy
      */
     public ReentrantLock(boolean fair) {
-        sync = fair ? new FairSync() : new NonfairSync();
+        this(fair, ParkingPolicy.DEFAULT);
+    }
+
+    /**
+     * 指定公平性和阻塞策略，创建可重入锁；阻塞策略用于等待队列中线程的阻塞与唤醒
+     * Creates an instance of {@code ReentrantLock} with the
+     * given fairness policy, blocking and waking queued threads
+     * through the given parking policy.
+     *
+     * @param fair {@code true} if this lock should use a fair ordering policy
+     * @param parkingPolicy the policy used to park and unpark waiting threads
+     * @throws NullPointerException if the parking policy is null
+     */
+    public ReentrantLock(boolean fair, ParkingPolicy parkingPolicy) {
+        stats = newStatistics();
+        if (stats != null)
+            parkingPolicy = stats.countingParks(parkingPolicy);
+        sync = fair ? new FairSync(parkingPolicy) : new NonfairSync(parkingPolicy);
+        sync.stats = stats;
+        sync.lockClass = LockOrderValidator.ENABLED ? LockOrderValidator.shared().classOf(new Throwable()) : null;
+        registerForDeadlockDetection();
+    }
+
+    /**
+     * 创建最终公平的可重入锁：允许插队，但队首线程等待超过阈值后，锁直接交给它
+     * Creates an eventually-fair {@code ReentrantLock}. Under contention
+     * the lock behaves as a nonfair lock, letting arriving threads barge
+     * ahead of queued ones, until the longest-waiting thread has been at
+     * the head of the queue for longer than {@code handoffThreshold}; the
+     * lock is then handed to that thread before barging resumes. This
+     * keeps most of the throughput of the nonfair policy while bounding
+     * how long any one thread can be overtaken.
+     *
+     * <p>As with the fair policy, the untimed {@link #tryLock()} method
+     * still barges.
+     *
+     * @param handoffThreshold how long the head waiter may be overtaken
+     * @param unit the time unit of the {@code handoffThreshold} argument
+     * @throws IllegalArgumentException if {@code handoffThreshold} is negative
+     */
+    public ReentrantLock(long handoffThreshold, TimeUnit unit) {
+        this(handoffThreshold, unit, ParkingPolicy.DEFAULT);
+    }
+
+    /**
+     * 指定交接阈值和阻塞策略，创建最终公平的可重入锁
+     * Creates an eventually-fair {@code ReentrantLock} that blocks and
+     * wakes queued threads through the given parking policy.
+     *
+     * @param handoffThreshold how long the head waiter may be overtaken
+     * @param unit the time unit of the {@code handoffThreshold} argument
+     * @param parkingPolicy the policy used to park and unpark waiting threads
+     * @throws IllegalArgumentException if {@code handoffThreshold} is negative
+     * @throws NullPointerException if the parking policy is null
+     * @see #ReentrantLock(long, TimeUnit)
+     */
+    public ReentrantLock(long handoffThreshold, TimeUnit unit, ParkingPolicy parkingPolicy) {
+        if (handoffThreshold < 0)
+            throw new IllegalArgumentException();
+        stats = newStatistics();
+        if (stats != null)
+            parkingPolicy = stats.countingParks(parkingPolicy);
+        sync = new EventuallyFairSync(unit.toNanos(handoffThreshold), parkingPolicy);
+        sync.stats = stats;
+        sync.lockClass = LockOrderValidator.ENABLED ? LockOrderValidator.shared().classOf(new Throwable()) : null;
+        registerForDeadlockDetection();
+    }
+
+    private static LockStatistics newStatistics() {
+        return LockStatistics.ENABLED ? new LockStatistics() : null;
+    }
+
+    /**
+     * 开启锁顺序校验时，在最外层获取之前检查顺序
+     * Checks lock order before an outermost acquisition.
+     *
+     * @return whether the acquisition is tracked, in which case
+     *         {@link #orderAcquired()} must follow if it succeeds
+     */
+    private boolean orderBeforeAcquire(boolean blocking) {
+        return sync.lockClass != null && !sync.isHeldExclusively() &&
+            LockOrderValidator.shared().beforeAcquire(sync.lockClass, blocking);
+    }
+
+    private void orderAcquired() {
+        LockOrderValidator.shared().acquired(sync, sync.lockClass);
+    }
+
+    /**
+     * 开启死锁检测时登记到共享的检测器
+     * Registers this lock with the shared deadlock detector when
+     * detection is enabled.
+     */
+    private void registerForDeadlockDetection() {
+        if (DeadlockDetector.ENABLED)
+            DeadlockDetector.shared().register(this);
+    }
+
+    /**
+     * 开启统计时，在最外层获取成功后记录等待时间，并开始计算持有时间
+     * Records the wait of an outermost acquisition that started at
+     * {@code start}, and starts timing the hold.
+     */
+    private void acquired(LockStatistics s, long start) {
+        if (sync.getHoldCount() == 1) {
+            long now = System.nanoTime();
+            s.recordWait(now - start);
+            sync.holdStart = now;
+        }
     }
 
     /**
@@ -343,7 +722,17 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      * at which time the lock hold count is set to one.
      */
     public void lock() {
-        sync.lock();
+        boolean ordered = LockOrderValidator.ENABLED && orderBeforeAcquire(true);
+        LockStatistics s;
+        if (LockStatistics.ENABLED && (s = stats) != null) {
+            long start = System.nanoTime();
+            sync.lock();
+            acquired(s, start);
+        } else {
+            sync.lock();
+        }
+        if (ordered)
+            orderAcquired();
     }
 
     /**
@@ -393,7 +782,29 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      * @throws InterruptedException if the current thread is interrupted
      */
     public void lockInterruptibly() throws InterruptedException {
-        sync.acquireInterruptibly(1);
+        boolean ordered = LockOrderValidator.ENABLED && orderBeforeAcquire(true);
+        LockStatistics s;
+        if (LockStatistics.ENABLED && (s = stats) != null) {
+            long start = System.nanoTime();
+            acquireInterruptibly();
+            acquired(s, start);
+        } else {
+            acquireInterruptibly();
+        }
+        if (ordered)
+            orderAcquired();
+    }
+
+    /**
+     * 开启死锁检测时，经检测器获取，以便在死锁时让本线程失败
+     * Goes through the deadlock detector when detection is enabled, so
+     * that a deadlock through this thread can be broken.
+     */
+    private void acquireInterruptibly() throws InterruptedException {
+        if (DeadlockDetector.ENABLED)
+            DeadlockDetector.shared().acquireInterruptibly(this, sync);
+        else
+            sync.acquireInterruptibly(1);
     }
 
     /**
@@ -423,7 +834,19 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      *         thread; and {@code false} otherwise
      */
     public boolean tryLock() {
-        return sync.nonfairTryAcquire(1);
+        boolean ordered = LockOrderValidator.ENABLED && orderBeforeAcquire(false);
+        LockStatistics s;
+        if (LockStatistics.ENABLED && (s = stats) != null) {
+            long start = System.nanoTime();
+            if (!sync.nonfairTryAcquire(1))
+                return false;
+            acquired(s, start);
+        } else if (!sync.nonfairTryAcquire(1)) {
+            return false;
+        }
+        if (ordered)
+            orderAcquired();
+        return true;
     }
 
     /**
@@ -500,7 +923,21 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      */
     public boolean tryLock(long timeout, TimeUnit unit)
             throws InterruptedException {
-        return sync.tryAcquireNanos(1, unit.toNanos(timeout));
+        boolean ordered = LockOrderValidator.ENABLED && orderBeforeAcquire(false);
+        LockStatistics s;
+        if (LockStatistics.ENABLED && (s = stats) != null) {
+            long start = System.nanoTime();
+            if (!sync.tryAcquireNanos(1, unit.toNanos(timeout))) {
+                s.countTimeout();
+                return false;
+            }
+            acquired(s, start);
+        } else if (!sync.tryAcquireNanos(1, unit.toNanos(timeout))) {
+            return false;
+        }
+        if (ordered)
+            orderAcquired();
+        return true;
     }
 
     /**
@@ -515,6 +952,11 @@ public class ReentrantLock implements Lock, java.io.Serializable {
      *         hold this lock
      */
     public void unlock() {
+        LockStatistics s;
+        if (LockStatistics.ENABLED && (s = stats) != null && sync.getHoldCount() == 1)
+            s.recordHold(System.nanoTime() - sync.holdStart);
+        if (LockOrderValidator.ENABLED && sync.lockClass != null && sync.getHoldCount() == 1)
+            LockOrderValidator.shared().released(sync);     // no-op unless this thread tracked it
         sync.release(1);
     }
 
@@ -561,6 +1003,31 @@ public class ReentrantLock implements Lock, java.io.Serializable {
         return sync.newCondition();
     }
 
+    /**
+     * 创建条件对象，条件等待通过指定的阻塞策略阻塞。传入{@link TimingWheel#parkingPolicy()}时，
+     * awaitNanos/await(time, unit)/awaitUntil的超时由共享的时间轮统一触发，
+     * 大量线程带超时等待时不再各自设置内核定时器，取消也是O(1)
+     * Returns a {@link Condition} instance for use with this
+     * {@link Lock} instance, whose waits block through the given
+     * parking policy. It behaves exactly like {@link #newCondition()}
+     * otherwise.
+     *
+     * <p>With {@link TimingWheel#parkingPolicy()}, the timeouts of
+     * {@code awaitNanos}, {@code await(long, TimeUnit)} and
+     * {@code awaitUntil} are driven by a shared timing wheel instead of
+     * one {@code parkNanos} timer per waiting thread. Scheduling and
+     * cancelling a timeout are then O(1), and timeouts fire in batches
+     * on the wheel's tick, up to one tick late.
+     *
+     * @param waitPolicy the policy used to park threads waiting on the
+     *        condition
+     * @return the Condition object
+     * @throws NullPointerException if {@code waitPolicy} is null
+     */
+    public Condition newCondition(ParkingPolicy waitPolicy) {
+        return sync.newCondition(waitPolicy);
+    }
+
     /**
      * Queries the number of holds on this lock by the current thread.
      *
@@ -660,6 +1127,18 @@ public class ReentrantLock implements Lock, java.io.Serializable {
         return sync instanceof FairSync;
     }
 
+    /**
+     * 返回本锁的运行统计；未通过-Dcom.czl.juc.locks.statistics=true开启时返回null
+     * Returns this lock's wait-time, hold-time and event statistics, or
+     * {@code null} if statistics are not enabled.
+     *
+     * @return the statistics, or {@code null}
+     * @see LockStatistics
+     */
+    public LockStatistics getStatistics() {
+        return stats;
+    }
+
     /**
      * Returns the thread that currently owns this lock, or
      * {@code null} if not owned. When this method is called by a
@@ -708,9 +1187,10 @@ public class ReentrantLock implements Lock, java.io.Serializable {
 
     /**
      * Returns an estimate of the number of threads waiting to
-     * acquire this lock.  The value is only an estimate because the number of
-     * threads may change dynamically while this method traverses
-     * internal data structures.  This method is designed for use in
+     * acquire this lock.  The value is read from a counter kept by the
+     * acquire and release paths, in constant time and without allocating,
+     * and is only an estimate because the number of threads may change
+     * dynamically.  This method is designed for use in
      * monitoring of the system state, not for synchronization
      * control.
      *
@@ -753,9 +1233,9 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     public boolean hasWaiters(Condition condition) {
         if (condition == null)
             throw new NullPointerException();
-        if (!(condition instanceof AbstractQueuedSynchronizer.ConditionObject))
+        if (!(condition instanceof QueuedSynchronizer.ConditionObject))
             throw new IllegalArgumentException("not owner");
-        return sync.hasWaiters((AbstractQueuedSynchronizer.ConditionObject)condition);
+        return sync.hasWaiters((QueuedSynchronizer.ConditionObject)condition);
     }
 
     /**
@@ -776,9 +1256,9 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     public int getWaitQueueLength(Condition condition) {
         if (condition == null)
             throw new NullPointerException();
-        if (!(condition instanceof AbstractQueuedSynchronizer.ConditionObject))
+        if (!(condition instanceof QueuedSynchronizer.ConditionObject))
             throw new IllegalArgumentException("not owner");
-        return sync.getWaitQueueLength((AbstractQueuedSynchronizer.ConditionObject)condition);
+        return sync.getWaitQueueLength((QueuedSynchronizer.ConditionObject)condition);
     }
 
     /**
@@ -801,9 +1281,130 @@ public class ReentrantLock implements Lock, java.io.Serializable {
     protected Collection<Thread> getWaitingThreads(Condition condition) {
         if (condition == null)
             throw new NullPointerException();
-        if (!(condition instanceof AbstractQueuedSynchronizer.ConditionObject))
+        if (!(condition instanceof QueuedSynchronizer.ConditionObject))
             throw new IllegalArgumentException("not owner");
-        return sync.getWaitingThreads((AbstractQueuedSynchronizer.ConditionObject)condition);
+        return sync.getWaitingThreads((QueuedSynchronizer.ConditionObject)condition);
+    }
+
+    /**
+     * 将锁的当前状态写入给定的快照对象并返回它。只读取计数器和状态字段，
+     * 不遍历等待队列、不分配对象、不需要持有锁，适合健康检查高频调用
+     * Fills the given snapshot with this lock's current owner, hold
+     * count, queue length and condition waiter count, and returns it.
+     *
+     * <p>Every value is read from a field kept up to date by the acquire
+     * and release paths, so this method takes no lock, walks no queue and
+     * allocates nothing; a monitor can reuse one snapshot per lock and
+     * poll it at any rate without adding contention. The values are read
+     * one after another and are each a best-effort estimate, in the same
+     * sense as {@link #getQueueLength}; they need not describe a single
+     * instant.
+     *
+     * @param into the snapshot to fill
+     * @return {@code into}
+     * @throws NullPointerException if {@code into} is null
+     */
+    public Snapshot snapshot(Snapshot into) {
+        int holds = sync.getState();
+        Thread owner = (holds == 0) ? null : sync.getOwner();
+        into.owner = owner;
+        into.holdCount = (owner == null) ? 0 : holds;
+        into.queueLength = sync.getQueueLength();
+        into.conditionWaiters = sync.getConditionWaiterCount();
+        return into;
+    }
+
+    /**
+     * 返回新的快照对象；需要避免分配时使用{@link #snapshot(Snapshot)}
+     * Returns a new snapshot of this lock's state.
+     *
+     * @return the snapshot
+     * @see #snapshot(Snapshot)
+     */
+    public Snapshot snapshot() {
+        return snapshot(new Snapshot());
+    }
+
+    /**
+     * 锁状态快照：持有线程、重入次数、等待获取的线程数、条件上等待的线程数。
+     * 可变、可复用，不是线程安全的，每个监控线程使用自己的实例
+     * A reusable snapshot of a lock's state, filled by
+     * {@link ReentrantLock#snapshot(Snapshot)}. Instances are mutable and
+     * not thread-safe; each monitoring thread should use its own.
+     *
+     * @author one3c-chenzhilong9
+     * @Description: 锁状态快照
+     * @Date 2026/10/18
+     */
+    public static final class Snapshot {
+        /** 持有锁的线程 */
+        private Thread owner;
+        /** 持有线程的重入次数 */
+        private int holdCount;
+        /** 等待获取锁的线程数 */
+        private int queueLength;
+        /** 在锁的所有条件上等待的线程数 */
+        private int conditionWaiters;
+
+        /**
+         * Creates an empty snapshot, describing an unlocked lock.
+         */
+        public Snapshot() {
+        }
+
+        /**
+         * Returns the thread that owned the lock, or {@code null} if it
+         * was not held.
+         *
+         * @return the owner, or {@code null}
+         */
+        public Thread getOwner() {
+            return owner;
+        }
+
+        /**
+         * Returns the owner's hold count, or zero if the lock was not held.
+         *
+         * @return the hold count
+         */
+        public int getHoldCount() {
+            return holdCount;
+        }
+
+        /**
+         * Returns the estimated number of threads waiting to acquire the lock.
+         *
+         * @return the queue length
+         */
+        public int getQueueLength() {
+            return queueLength;
+        }
+
+        /**
+         * Returns the estimated number of threads waiting on any condition
+         * of the lock.
+         *
+         * @return the number of condition waiters
+         */
+        public int getConditionWaiters() {
+            return conditionWaiters;
+        }
+
+        /**
+         * Returns whether the lock was held.
+         *
+         * @return {@code true} if the lock was held
+         */
+        public boolean isLocked() {
+            return owner != null;
+        }
+
+        public String toString() {
+            return "Snapshot[owner=" + (owner == null ? "none" : owner.getName()) +
+                ", holdCount=" + holdCount +
+                ", queueLength=" + queueLength +
+                ", conditionWaiters=" + conditionWaiters + "]";
+        }
     }
 
     /**
@@ -0,0 +1,535 @@
+package com.czl.juc.locks.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLockInterruptionException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 跨进程锁：锁字放在内存映射的共享文件里，同一台机器上的多个JVM直接对它CAS，无竞争时不进内核。
+ * 进程内的线程先竞争一把本地{@link ReentrantLock}，每个JVM最多一个线程碰锁字。
+ * 有限次自旋失败后，等待者排队获取同一文件上的一个{@link FileChannel#lock}区间（"闸门"），
+ * 在内核里睡眠；只有拿到闸门的那一个等待者以指数退避轮询锁字。
+ * 锁字记录持有者的PID，持有进程崩溃后等待者检测到PID不存在即可接管。
+ *
+ * An inter-process {@link Lock} for JVMs on the same host. Each lock is a
+ * 64-byte slot of a memory-mapped file whose first word holds the owner,
+ * and acquiring it is a compare-and-swap on the mapped memory, so an
+ * uncontended acquire and release never enter the kernel. Threads of one
+ * JVM first compete for a local {@link ReentrantLock}, so at most one
+ * thread per JVM touches the shared word.
+ *
+ * <p>A contender spins on the word a bounded number of times. If that
+ * fails, it takes an exclusive {@link FileChannel#lock} on a byte of the
+ * slot (the gate) and, holding it, polls the word with exponential
+ * backoff. Other contenders, from any JVM, sleep in the kernel waiting for
+ * the gate instead of spinning. The owner never touches the gate, which
+ * keeps file locks off the fast path.
+ *
+ * <p>The owner word is the owner JVM's process id in the high half and a
+ * per-JVM random number in the low half. A contender that finds the word
+ * owned by a process that is no longer alive takes it over, and
+ * {@link #getRecoveryCount()} counts such takeovers. Liveness comes from
+ * {@code ProcessHandle} on Java 9+ and from {@code /proc} on Java 8, so
+ * crash recovery is unavailable on Java 8 outside Linux. As with any
+ * PID-based scheme, a crashed owner whose PID has been reused is mistaken
+ * for a live one until the new process exits. The data a crashed owner was
+ * updating may be inconsistent, so callers should check for recoveries.
+ *
+ * <p>All instances in a JVM for the same file and slot share one mapping
+ * and one local lock. The lock is reentrant and does not support
+ * conditions. The word is accessed through {@code sun.misc.Unsafe}, bound
+ * reflectively as in {@link StampedReadWriteLock.Fences}.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 基于共享内存映射文件的跨进程锁
+ * @Date 2026/10/18
+ */
+public class SharedMemoryLock implements Lock {
+
+    /** 每个锁占用的字节数，一个缓存行 */
+    public static final int SLOT_BYTES = 64;
+
+    /** 闸门在槽内的偏移，只用于文件锁，不存数据 */
+    private static final int GATE_OFFSET = 8;
+
+    /** 进入闸门之前的自旋次数 */
+    private static final int SPINS = 1 << 10;
+
+    /** 持有闸门时轮询锁字的退避时间范围 */
+    private static final long MIN_BACKOFF_NANOS = 1000L;
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** 持有闸门时每轮询多少次检查一次持有者是否存活 */
+    private static final int LIVENESS_CHECK_INTERVAL = 64;
+
+    /** 本JVM中所有实例共享的槽，key为文件规范路径与槽号 */
+    private static final ConcurrentHashMap<String, Slot> SLOTS = new ConcurrentHashMap<String, Slot>();
+
+    private final Slot slot;
+
+    /**
+     * 一个槽：映射、锁字地址与本地锁
+     * A slot shared by the instances of this JVM. The mapping is kept
+     * reachable so that it is never unmapped.
+     */
+    static final class Slot {
+        final File file;
+        final long position;
+        final MappedByteBuffer map;
+        final long address;
+        final ReentrantLock local = new ReentrantLock();
+        final AtomicLong recoveries = new AtomicLong();
+
+        Slot(File file, int index) throws IOException {
+            this.file = file;
+            this.position = (long) index * SLOT_BYTES;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                 FileChannel channel = raf.getChannel()) {
+                this.map = channel.map(FileChannel.MapMode.READ_WRITE, position, SLOT_BYTES);
+            }
+            this.address = Memory.address(map);
+        }
+    }
+
+    /**
+     * Creates a lock on the given slot of the given file, creating and
+     * extending the file as needed. All JVMs that use the same file and
+     * slot exclude each other.
+     *
+     * @param file the shared file, on a local file system
+     * @param index the slot number
+     * @throws IllegalArgumentException if {@code index} is negative
+     * @throws UncheckedIOException if the file cannot be mapped
+     */
+    public SharedMemoryLock(File file, int index) {
+        if (index < 0)
+            throw new IllegalArgumentException("index " + index);
+        try {
+            String key = file.getCanonicalPath() + "#" + index;
+            Slot s = SLOTS.get(key);
+            if (s == null) {
+                Slot created = new Slot(file.getCanonicalFile(), index);
+                s = SLOTS.putIfAbsent(key, created);
+                if (s == null)
+                    s = created;
+            }
+            this.slot = s;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 尝试一次：锁字空闲时CAS；被已死亡的进程持有时接管
+     * One attempt at the word: take it if free, or if its owner is dead
+     * and {@code checkOwner} is set.
+     */
+    private boolean tryAcquireWord(boolean checkOwner) {
+        long w = Memory.getVolatile(slot.address);
+        if (w == 0L)
+            return Memory.compareAndSwap(slot.address, 0L, Owner.SELF);
+        if (checkOwner && !Owner.isAlive(w) && Memory.compareAndSwap(slot.address, w, Owner.SELF)) {
+            slot.recoveries.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 已持有本地锁（最外层）时获取锁字：先自旋，再经闸门睡眠
+     * Called by the outermost local holder.
+     *
+     * @param nanos wait limit; negative to wait forever
+     * @return whether the word is now owned
+     */
+    private boolean acquireWord(long nanos, boolean interruptible) throws InterruptedException {
+        if (tryAcquireWord(true))
+            return true;
+        if (nanos == 0L)
+            return false;
+        for (int i = 0; i < SPINS; i++) {
+            if (Memory.getVolatile(slot.address) == 0L && tryAcquireWord(false))
+                return true;
+        }
+        long deadline = System.nanoTime() + nanos;
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                FileChannel gate;
+                try {
+                    gate = enterGate(nanos < 0L ? -1L : deadline - System.nanoTime());
+                } catch (InterruptedException e) {
+                    if (interruptible)
+                        throw e;
+                    interrupted = true;     // enter the gate again with the status cleared
+                    continue;
+                }
+                if (gate == null)
+                    return false;
+                try {
+                    long backoff = MIN_BACKOFF_NANOS;
+                    for (int n = 1;; n++) {
+                        if (tryAcquireWord(n % LIVENESS_CHECK_INTERVAL == 0))
+                            return true;
+                        long park = backoff;
+                        if (nanos >= 0L) {
+                            long remaining = deadline - System.nanoTime();
+                            if (remaining <= 0L)
+                                return false;
+                            park = Math.min(park, remaining);
+                        }
+                        LockSupport.parkNanos(this, park);
+                        if (Thread.interrupted()) {
+                            if (interruptible)
+                                throw new InterruptedException();
+                            interrupted = true;
+                        }
+                        backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+                    }
+                } finally {
+                    closeQuietly(gate);
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 获取闸门：在独立的通道上对槽内的闸门字节加文件锁，关闭通道即释放。
+     * 每次用新通道，因为阻塞在lock()上的线程被中断会关闭通道。
+     * 等待闸门时被中断（通道因中断关闭，或文件锁等待被中断）一律清除中断状态并抛出InterruptedException
+     * Opens a private channel and takes the slot's gate on it; closing the
+     * channel releases the gate. A fresh channel is used each time because
+     * interrupting a thread blocked in {@code lock()} closes the channel.
+     * An interrupt while waiting for the gate, whether it surfaces as
+     * {@link ClosedByInterruptException}, as
+     * {@link FileLockInterruptionException} or between timed attempts, is
+     * reported as {@code InterruptedException} with the status cleared.
+     *
+     * @param nanos wait limit; negative to wait forever
+     * @return the channel holding the gate, or {@code null} on timeout
+     * @throws InterruptedException if interrupted while waiting for the gate
+     */
+    private FileChannel enterGate(long nanos) throws InterruptedException {
+        long deadline = System.nanoTime() + nanos;
+        FileChannel channel = null;
+        try {
+            channel = new RandomAccessFile(slot.file, "rw").getChannel();
+            long gate = slot.position + GATE_OFFSET;
+            if (nanos < 0L) {
+                channel.lock(gate, 1L, false);
+                return channel;
+            }
+            long backoff = MIN_BACKOFF_NANOS;
+            for (;;) {
+                if (channel.tryLock(gate, 1L, false) != null)
+                    return channel;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0L) {
+                    closeQuietly(channel);
+                    return null;
+                }
+                LockSupport.parkNanos(this, Math.min(backoff, remaining));
+                if (Thread.interrupted()) {
+                    closeQuietly(channel);
+                    throw new InterruptedException();
+                }
+                backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+            }
+        } catch (ClosedByInterruptException | FileLockInterruptionException e) {
+            closeQuietly(channel);
+            Thread.interrupted();
+            throw new InterruptedException();
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null)
+            return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // the gate, if held, is released with the file descriptor
+        }
+    }
+
+    public void lock() {
+        slot.local.lock();
+        if (slot.local.getHoldCount() > 1)
+            return;
+        boolean acquired = false;
+        try {
+            acquired = acquireWord(-1L, false);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);        // not interruptible
+        } finally {
+            if (!acquired)
+                slot.local.unlock();
+        }
+    }
+
+    public void lockInterruptibly() throws InterruptedException {
+        slot.local.lockInterruptibly();
+        if (slot.local.getHoldCount() > 1)
+            return;
+        boolean acquired = false;
+        try {
+            acquired = acquireWord(-1L, true);
+        } finally {
+            if (!acquired)
+                slot.local.unlock();
+        }
+    }
+
+    public boolean tryLock() {
+        if (!slot.local.tryLock())
+            return false;
+        if (slot.local.getHoldCount() > 1 || tryAcquireWord(true))
+            return true;
+        slot.local.unlock();
+        return false;
+    }
+
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        long nanos = Math.max(unit.toNanos(time), 0L);
+        long deadline = System.nanoTime() + nanos;
+        if (!slot.local.tryLock(nanos, TimeUnit.NANOSECONDS))
+            return false;
+        if (slot.local.getHoldCount() > 1)
+            return true;
+        boolean acquired = false;
+        try {
+            acquired = acquireWord(Math.max(deadline - System.nanoTime(), 0L), true);
+            return acquired;
+        } finally {
+            if (!acquired)
+                slot.local.unlock();
+        }
+    }
+
+    /**
+     * 释放：最外层释放时清零锁字
+     * Releases the lock, clearing the shared word on the outermost release.
+     *
+     * @throws IllegalMonitorStateException if the current thread does not
+     *         hold this lock
+     * @throws IllegalStateException if another process took the word over,
+     *         having judged this JVM dead
+     */
+    public void unlock() {
+        if (!slot.local.isHeldByCurrentThread())
+            throw new IllegalMonitorStateException();
+        boolean lost = false;
+        try {
+            if (slot.local.getHoldCount() == 1)
+                lost = !Memory.compareAndSwap(slot.address, Owner.SELF, 0L);
+        } finally {
+            slot.local.unlock();
+        }
+        if (lost)
+            throw new IllegalStateException("lock word was taken over by another process");
+    }
+
+    /**
+     * Throws {@code UnsupportedOperationException}.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public Condition newCondition() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Queries if this lock is held by the current thread.
+     *
+     * @return {@code true} if the current thread holds this lock
+     */
+    public boolean isHeldByCurrentThread() {
+        return slot.local.isHeldByCurrentThread();
+    }
+
+    /**
+     * Queries if this lock is held by any process. This method is
+     * designed for monitoring, not for synchronization control.
+     *
+     * @return {@code true} if some process holds this lock
+     */
+    public boolean isLocked() {
+        return Memory.getVolatile(slot.address) != 0L;
+    }
+
+    /**
+     * Returns the process id of the current owner, or zero if the lock is
+     * free. This method is designed for monitoring.
+     *
+     * @return the owner's process id, or zero
+     */
+    public long getOwnerPid() {
+        return Memory.getVolatile(slot.address) >>> 32;
+    }
+
+    /**
+     * 本JVM从已死亡进程手中接管该锁的次数
+     * Returns the number of times this JVM took the lock over from a dead
+     * owner. Data guarded by the lock may have been left half-updated.
+     *
+     * @return the number of recoveries
+     */
+    public long getRecoveryCount() {
+        return slot.recoveries.get();
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        long pid = getOwnerPid();
+        return super.toString() + "[" + slot.file + "#" + (slot.position / SLOT_BYTES) +
+            (pid == 0L ? ", Unlocked]" : ", Locked by pid " + pid + "]");
+    }
+
+    /**
+     * 锁字中的持有者标识：高32位PID，低32位为本JVM的随机数，用来区分同一PID的前后两个JVM
+     * The owner word: process id in the high half, a random per-JVM number
+     * in the low half to tell apart successive JVMs with the same id.
+     */
+    static final class Owner {
+        static final long PID = currentPid();
+        static final long SELF = (PID << 32) | (ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE));
+
+        private static final MethodHandle PROCESS_OF = processOfHandle();
+        private static final MethodHandle IS_ALIVE = isAliveHandle();
+
+        private Owner() {
+        }
+
+        static boolean isAlive(long word) {
+            long pid = word >>> 32;
+            if (pid == PID)
+                return word == SELF;            // an earlier JVM with our pid is gone
+            if (PROCESS_OF != null) {
+                try {
+                    Optional<?> handle = (Optional<?>) PROCESS_OF.invoke(pid);
+                    return handle.isPresent() && (boolean) IS_ALIVE.invoke(handle.get());
+                } catch (Throwable t) {
+                    return true;
+                }
+            }
+            File proc = new File("/proc");
+            return !proc.isDirectory() || new File(proc, Long.toString(pid)).exists();
+        }
+
+        private static long currentPid() {
+            String name = ManagementFactory.getRuntimeMXBean().getName();
+            int at = name.indexOf('@');
+            try {
+                return Long.parseLong(at > 0 ? name.substring(0, at) : name);
+            } catch (NumberFormatException e) {
+                // no pid available: a random id still excludes, but never looks dead
+                return ThreadLocalRandom.current().nextInt(1 << 22, Integer.MAX_VALUE);
+            }
+        }
+
+        private static MethodHandle processOfHandle() {
+            try {
+                Class<?> ph = Class.forName("java.lang.ProcessHandle");
+                return MethodHandles.publicLookup().findStatic(ph, "of",
+                    MethodType.methodType(Optional.class, long.class));
+            } catch (ReflectiveOperationException e) {
+                return null;                    // Java 8
+            }
+        }
+
+        private static MethodHandle isAliveHandle() {
+            try {
+                Class<?> ph = Class.forName("java.lang.ProcessHandle");
+                return MethodHandles.publicLookup().findVirtual(ph, "isAlive",
+                    MethodType.methodType(boolean.class));
+            } catch (ReflectiveOperationException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 通过反射绑定的sun.misc.Unsafe，对映射内存的绝对地址做volatile读与CAS
+     * Volatile reads and CAS on absolute addresses of mapped memory, through
+     * {@code sun.misc.Unsafe} bound reflectively.
+     */
+    static final class Memory {
+        private static final MethodHandle GET_LONG_VOLATILE;
+        private static final MethodHandle COMPARE_AND_SWAP_LONG;
+        private static final long ADDRESS_OFFSET;
+
+        static {
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field f = unsafeClass.getDeclaredField("theUnsafe");
+                f.setAccessible(true);
+                Object unsafe = f.get(null);
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                GET_LONG_VOLATILE = lookup.findVirtual(unsafeClass, "getLongVolatile",
+                    MethodType.methodType(long.class, Object.class, long.class)).bindTo(unsafe);
+                COMPARE_AND_SWAP_LONG = lookup.findVirtual(unsafeClass, "compareAndSwapLong",
+                    MethodType.methodType(boolean.class, Object.class, long.class, long.class, long.class))
+                    .bindTo(unsafe);
+                MethodHandle fieldOffset = lookup.findVirtual(unsafeClass, "objectFieldOffset",
+                    MethodType.methodType(long.class, Field.class)).bindTo(unsafe);
+                ADDRESS_OFFSET = (long) fieldOffset.invoke(Buffer.class.getDeclaredField("address"));
+            } catch (Throwable t) {
+                throw new ExceptionInInitializerError(t);
+            }
+        }
+
+        private Memory() {
+        }
+
+        static long address(MappedByteBuffer map) {
+            try {
+                return (long) GET_LONG_VOLATILE.invokeExact((Object) map, ADDRESS_OFFSET);
+            } catch (Throwable t) {
+                throw new Error(t);
+            }
+        }
+
+        static long getVolatile(long address) {
+            try {
+                return (long) GET_LONG_VOLATILE.invokeExact((Object) null, address);
+            } catch (Throwable t) {
+                throw new Error(t);
+            }
+        }
+
+        static boolean compareAndSwap(long address, long expect, long update) {
+            try {
+                return (boolean) COMPARE_AND_SWAP_LONG.invokeExact((Object) null, address, expect, update);
+            } catch (Throwable t) {
+                throw new Error(t);
+            }
+        }
+    }
+}
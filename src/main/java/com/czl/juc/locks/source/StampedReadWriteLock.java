@@ -0,0 +1,458 @@
+package com.czl.juc.locks.source;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Supplier;
+
+/**
+ * 支持乐观读的读写锁：{@link #tryOptimisticRead()}只读取版本号得到一个stamp，
+ * 读完数据后用{@link #validate(long)}检查期间是否有写线程获取过写锁；
+ * 整个乐观读过程没有任何共享内存的写操作。校验失败时再退回到完整的读锁。
+ *
+ * A {@link ReadWriteLock} with an additional optimistic read mode, in the
+ * style of {@link java.util.concurrent.locks.StampedLock}.
+ *
+ * <p>Writers bump a version number when they first acquire and when they
+ * finally release the write lock, so the version is odd exactly while the
+ * write lock is held. {@link #tryOptimisticRead()} returns the current
+ * version as a stamp (or zero if write-locked), and {@link #validate}
+ * checks that the version has not moved since. Neither method writes to
+ * shared memory, so short read sections that validate successfully cost
+ * only two reads of the version. The usual pattern, which
+ * {@link #optimisticRead(Supplier)} packages up, is:
+ *
+ *  <pre> {@code
+ * long stamp = lock.tryOptimisticRead();
+ * int x = this.x, y = this.y;           // copy fields into locals
+ * if (!lock.validate(stamp)) {
+ *   lock.readLock().lock();             // fall back to a real read lock
+ *   try {
+ *     x = this.x; y = this.y;
+ *   } finally {
+ *     lock.readLock().unlock();
+ *   }
+ * }
+ * use(x, y);}</pre>
+ *
+ * <p>As with {@code StampedLock}, data read under an optimistic stamp may
+ * be inconsistent until validated, so such reads must only copy fields
+ * into locals and must not act on them before {@code validate} succeeds.
+ *
+ * <p>The {@link #readLock()} and {@link #writeLock()} views behave like
+ * those of {@link java.util.concurrent.locks.ReentrantReadWriteLock} with
+ * two differences: the read lock is <em>not</em> reentrant (a reader that
+ * re-acquires it while a writer is queued will deadlock), and only the
+ * write lock supports conditions. The write lock is reentrant and its
+ * holder may also acquire the read lock. Queued writers are preferred
+ * over newly arriving readers.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 支持乐观读的读写锁
+ * @Date 2026/10/18
+ */
+public class StampedReadWriteLock implements ReadWriteLock {
+
+    private final Sync sync;
+    private final ReadLock readerLock;
+    private final WriteLock writerLock;
+
+    /**
+     * Creates a new lock, initially in unlocked state.
+     */
+    public StampedReadWriteLock() {
+        sync = new Sync();
+        readerLock = new ReadLock();
+        writerLock = new WriteLock();
+    }
+
+    @Override
+    public Lock readLock() {
+        return readerLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writerLock;
+    }
+
+    /**
+     * 返回乐观读的stamp，写锁被持有时返回0
+     * Returns a stamp that can later be validated, or zero if
+     * exclusively locked.
+     *
+     * @return a valid optimistic read stamp, or zero if exclusively locked
+     */
+    public long tryOptimisticRead() {
+        long v = sync.version;
+        return (v & 1L) == 0L ? v : 0L;
+    }
+
+    /**
+     * 检查stamp获取之后是否有写线程获取过写锁
+     * Returns true if the write lock has not been acquired since issuance
+     * of the given stamp. Always returns false if the stamp is zero.
+     *
+     * @param stamp a stamp from {@link #tryOptimisticRead()}
+     * @return {@code true} if the write lock has not been acquired
+     *         since issuance of the given stamp; else false
+     */
+    public boolean validate(long stamp) {
+        Fences.loadFence();
+        return stamp != 0L && sync.version == stamp;
+    }
+
+    /**
+     * 先乐观读，校验失败再在读锁下重读一次
+     * Runs the given reader under an optimistic stamp and returns its
+     * result if the stamp validates; otherwise runs it again under the
+     * read lock. The reader may therefore run twice and must be free of
+     * side effects.
+     *
+     * @param reader the read section
+     * @param <T> the type of the result
+     * @return the result of a validated or read-locked run of the reader
+     */
+    public <T> T optimisticRead(Supplier<T> reader) {
+        long stamp = tryOptimisticRead();
+        if (stamp != 0L) {
+            T result = reader.get();
+            if (validate(stamp))
+                return result;
+        }
+        readerLock.lock();
+        try {
+            return reader.get();
+        } finally {
+            readerLock.unlock();
+        }
+    }
+
+    /**
+     * 写锁是否被持有
+     * Queries if the write lock is held by any thread.
+     *
+     * @return {@code true} if any thread holds the write lock
+     */
+    public boolean isWriteLocked() {
+        return Sync.exclusiveCount(sync.getState()) != 0;
+    }
+
+    /**
+     * Queries the number of read locks held for this lock.
+     *
+     * @return the number of read locks held
+     */
+    public int getReadLockCount() {
+        return Sync.sharedCount(sync.getState());
+    }
+
+    /**
+     * 同步器，state高16位为读锁数量，低16位为写锁重入次数，与ReentrantReadWriteLock相同
+     * Synchronization implementation. As in {@code ReentrantReadWriteLock},
+     * the lower 16 bits of the state count write holds and the upper 16 bits
+     * count read holds, but read holds are not attributed to threads.
+     */
+    static final class Sync extends QueuedSynchronizer {
+        private static final long serialVersionUID = 5403620138254893582L;
+
+        /**
+         * 版本号初值，偶数表示未持有写锁；从2开始，使0可以表示乐观读失败
+         * Initial version. Even values mean not write-locked; starting at two
+         * leaves zero free to mean "no stamp".
+         */
+        static final long ORIGIN = 2L;
+
+        /**
+         * 写锁版本号，写锁首次获取和最终释放时各加一
+         * Incremented by the writer on first acquisition and on final
+         * release, so odd while write-locked.
+         */
+        volatile long version = ORIGIN;
+
+        private static final AtomicLongFieldUpdater<Sync> VERSION =
+            AtomicLongFieldUpdater.newUpdater(Sync.class, "version");
+
+        /**
+         * 写线程首次获取写锁后调用，版本号变为奇数；原子自增保证之后的数据写不会重排到它之前
+         * Called by the writer after first acquiring; the atomic increment
+         * keeps the writer's subsequent data writes from being reordered
+         * ahead of the version change that optimistic readers look for.
+         */
+        private void beginWrite() {
+            VERSION.incrementAndGet(this);
+        }
+
+        /**
+         * 写线程最终释放写锁前调用，版本号恢复为偶数
+         * Called by the writer before its final release.
+         */
+        private void endWrite() {
+            VERSION.incrementAndGet(this);
+        }
+
+        static final int SHARED_SHIFT   = 16;
+        static final int SHARED_UNIT    = (1 << SHARED_SHIFT);
+        static final int MAX_COUNT      = (1 << SHARED_SHIFT) - 1;
+        static final int EXCLUSIVE_MASK = (1 << SHARED_SHIFT) - 1;
+
+        /** Returns the number of shared holds represented in count  */
+        static int sharedCount(int c)    { return c >>> SHARED_SHIFT; }
+        /** Returns the number of exclusive holds represented in count  */
+        static int exclusiveCount(int c) { return c & EXCLUSIVE_MASK; }
+
+        protected final boolean tryAcquire(int acquires) {
+            Thread current = Thread.currentThread();
+            int c = getState();
+            int w = exclusiveCount(c);
+            if (c != 0) {
+                // (Note: if c != 0 and w == 0 then shared count != 0)
+                if (w == 0 || current != getExclusiveOwnerThread())
+                    return false;
+                if (w + exclusiveCount(acquires) > MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+                // Reentrant acquire
+                setState(c + acquires);
+                return true;
+            }
+            if (!compareAndSetState(c, c + acquires))
+                return false;
+            setExclusiveOwnerThread(current);
+            beginWrite();
+            return true;
+        }
+
+        protected final boolean tryRelease(int releases) {
+            if (!isHeldExclusively())
+                throw new IllegalMonitorStateException();
+            int nextc = getState() - releases;
+            boolean free = exclusiveCount(nextc) == 0;
+            if (free) {
+                endWrite();
+                setExclusiveOwnerThread(null);
+            }
+            setState(nextc);
+            return free;
+        }
+
+        /**
+         * 写锁被其他线程持有，或者队首是等待的写线程（写优先）时，读锁获取失败
+         * Fails if another thread holds the write lock, or if the first
+         * queued thread is a writer and the caller does not hold the
+         * write lock.
+         */
+        protected final int tryAcquireShared(int unused) {
+            Thread current = Thread.currentThread();
+            for (;;) {
+                int c = getState();
+                if (exclusiveCount(c) != 0) {
+                    if (getExclusiveOwnerThread() != current)
+                        return -1;
+                } else if (apparentlyFirstQueuedIsExclusive()) {
+                    return -1;
+                }
+                if (sharedCount(c) == MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+                if (compareAndSetState(c, c + SHARED_UNIT))
+                    return 1;
+            }
+        }
+
+        protected final boolean tryReleaseShared(int unused) {
+            for (;;) {
+                int c = getState();
+                if (sharedCount(c) == 0)
+                    throw new IllegalMonitorStateException();
+                int nextc = c - SHARED_UNIT;
+                if (compareAndSetState(c, nextc))
+                    return nextc == 0;
+            }
+        }
+
+        /**
+         * Performs tryLock for write, enabling barging in both modes.
+         */
+        final boolean tryWriteLock() {
+            Thread current = Thread.currentThread();
+            int c = getState();
+            if (c != 0) {
+                int w = exclusiveCount(c);
+                if (w == 0 || current != getExclusiveOwnerThread())
+                    return false;
+                if (w == MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+            }
+            if (!compareAndSetState(c, c + 1))
+                return false;
+            if (c == 0) {
+                setExclusiveOwnerThread(current);
+                beginWrite();
+            }
+            return true;
+        }
+
+        /**
+         * Performs tryLock for read, enabling barging in both modes.
+         */
+        final boolean tryReadLock() {
+            Thread current = Thread.currentThread();
+            for (;;) {
+                int c = getState();
+                if (exclusiveCount(c) != 0 &&
+                    getExclusiveOwnerThread() != current)
+                    return false;
+                if (sharedCount(c) == MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+                if (compareAndSetState(c, c + SHARED_UNIT))
+                    return true;
+            }
+        }
+
+        protected final boolean isHeldExclusively() {
+            return getExclusiveOwnerThread() == Thread.currentThread();
+        }
+
+        final ConditionObject newCondition() {
+            return new ConditionObject();
+        }
+    }
+
+    /**
+     * 读锁视图，不可重入
+     * The lock returned by method {@link #readLock}. Not reentrant.
+     */
+    final class ReadLock implements Lock {
+
+        public void lock() {
+            sync.acquireShared(1);
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            sync.acquireSharedInterruptibly(1);
+        }
+
+        public boolean tryLock() {
+            return sync.tryReadLock();
+        }
+
+        public boolean tryLock(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return sync.tryAcquireSharedNanos(1, unit.toNanos(timeout));
+        }
+
+        public void unlock() {
+            sync.releaseShared(1);
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException} because
+         * read locks do not support conditions.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        public String toString() {
+            return super.toString() + "[Read locks = " + getReadLockCount() + "]";
+        }
+    }
+
+    /**
+     * 写锁视图，可重入
+     * The lock returned by method {@link #writeLock}. Reentrant.
+     */
+    final class WriteLock implements Lock {
+
+        public void lock() {
+            sync.acquire(1);
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            sync.acquireInterruptibly(1);
+        }
+
+        public boolean tryLock() {
+            return sync.tryWriteLock();
+        }
+
+        public boolean tryLock(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return sync.tryAcquireNanos(1, unit.toNanos(timeout));
+        }
+
+        public void unlock() {
+            sync.release(1);
+        }
+
+        public Condition newCondition() {
+            return sync.newCondition();
+        }
+
+        public String toString() {
+            Thread o = sync.isHeldExclusively() ? Thread.currentThread() : null;
+            return super.toString() + (isWriteLocked() ?
+                                       "[Locked" + (o == null ? "" : " by thread " + o.getName()) + "]" :
+                                       "[Unlocked]");
+        }
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        return super.toString() +
+            "[Write locks = " + Sync.exclusiveCount(sync.getState()) +
+            ", Read locks = " + getReadLockCount() +
+            ", Version = " + sync.version + "]";
+    }
+
+    /**
+     * 读屏障。Java 8没有公开的fence API，这里通过MethodHandle调用
+     * VarHandle.acquireFence（Java 9+）或sun.misc.Unsafe.loadFence，JIT会将其内联为屏障指令
+     * Load fence for {@link #validate}. Java 8 has no public fence API, so
+     * this binds {@code VarHandle.acquireFence} (Java 9+) or
+     * {@code sun.misc.Unsafe.loadFence} reflectively; a constant method
+     * handle is inlined by the JIT down to the fence itself.
+     */
+    static final class Fences {
+        private static final MethodHandle LOAD_FENCE = loadFenceHandle();
+
+        private Fences() {
+        }
+
+        static void loadFence() {
+            try {
+                LOAD_FENCE.invokeExact();
+            } catch (Throwable t) {
+                throw new Error(t);
+            }
+        }
+
+        private static MethodHandle loadFenceHandle() {
+            MethodType type = MethodType.methodType(void.class);
+            try {
+                Class<?> varHandle = Class.forName("java.lang.invoke.VarHandle");
+                return MethodHandles.publicLookup().findStatic(varHandle, "acquireFence", type);
+            } catch (ReflectiveOperationException ignored) {
+                // Java 8: fall back to Unsafe
+            }
+            try {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field f = unsafeClass.getDeclaredField("theUnsafe");
+                f.setAccessible(true);
+                return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "loadFence", type)
+                    .bindTo(f.get(null));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+}
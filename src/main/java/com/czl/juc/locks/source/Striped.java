@@ -0,0 +1,190 @@
+package com.czl.juc.locks.source;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 分段锁的公共部分：固定数量（2的幂）的锁，按key的哈希选择其中一个。
+ * 批量获取时先把key映射为去重、升序的分段下标，所有线程按同一顺序加锁，因此不会互相死锁。
+ *
+ * Common base of {@link StripedLock} and {@link StripedReadWriteLock}: a
+ * fixed, power-of-two number of stripes, with keys mapped onto them by a
+ * mixed hash code.
+ *
+ * <p>Bulk operations map their keys to the distinct stripe indexes they
+ * use, in ascending order. Every caller therefore acquires stripes in the
+ * same global order, which rules out lock-order deadlocks between bulk
+ * acquisitions, however their key sets overlap.
+ *
+ * @param <K> the key type
+ * @param <L> the stripe type
+ * @author one3c-chenzhilong9
+ * @Description: 分段锁基类
+ * @Date 2026/10/18
+ */
+abstract class Striped<K, L> {
+
+    /** 分段数的上限 */
+    static final int MAX_STRIPES = 1 << 30;
+
+    /** 分段，长度为2的幂 */
+    private final Object[] stripes;
+
+    /** 分段数减一 */
+    private final int mask;
+
+    Striped(int stripes, Supplier<? extends L> factory) {
+        if (stripes <= 0)
+            throw new IllegalArgumentException("stripes " + stripes);
+        if (factory == null)
+            throw new NullPointerException();
+        int n = stripeCount(stripes);
+        this.stripes = new Object[n];
+        for (int i = 0; i < n; i++) {
+            L stripe = factory.get();
+            if (stripe == null)
+                throw new NullPointerException("factory returned null");
+            this.stripes[i] = stripe;
+        }
+        this.mask = n - 1;
+    }
+
+    /**
+     * 向上取整到2的幂，不超过MAX_STRIPES
+     * Rounds a positive stripe count up to a power of two, capped at
+     * {@link #MAX_STRIPES}.
+     */
+    static int stripeCount(int stripes) {
+        if (stripes >= MAX_STRIPES)
+            return MAX_STRIPES;
+        int n = Integer.highestOneBit(stripes - 1) << 1;
+        return n == 0 ? 1 : n;
+    }
+
+    /**
+     * 混合哈希码的高低位，避免只有高位不同的key落在同一分段（murmur3的fmix32）
+     * Mixes all bits of the hash code into the low bits, as keys with
+     * poorly distributed hash codes would otherwise share stripes.
+     */
+    static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Returns the number of stripes, a power of two.
+     *
+     * @return the number of stripes
+     */
+    public final int size() {
+        return stripes.length;
+    }
+
+    /**
+     * key对应的分段下标
+     * Returns the index of the stripe guarding the given key.
+     *
+     * @param key the key
+     * @return the stripe index, in {@code [0, size())}
+     * @throws NullPointerException if {@code key} is null
+     */
+    public final int indexFor(K key) {
+        return spread(key.hashCode()) & mask;
+    }
+
+    /**
+     * Returns the stripe guarding the given key. Equal keys always get
+     * the same stripe; different keys may share one.
+     *
+     * @param key the key
+     * @return the stripe
+     * @throws NullPointerException if {@code key} is null
+     */
+    @SuppressWarnings("unchecked")
+    public final L get(K key) {
+        return (L) stripes[indexFor(key)];
+    }
+
+    /**
+     * Returns the stripe at the given index.
+     *
+     * @param index the stripe index
+     * @return the stripe
+     * @throws ArrayIndexOutOfBoundsException if the index is out of range
+     */
+    @SuppressWarnings("unchecked")
+    public final L getAt(int index) {
+        return (L) stripes[index];
+    }
+
+    /**
+     * 返回keys用到的分段，去重并按下标升序排列，即批量加锁的顺序
+     * Returns the stripes used by the given keys, each once, in
+     * ascending index order, which is the order bulk operations lock them.
+     *
+     * @param keys the keys
+     * @return the distinct stripes, in lock order
+     * @throws NullPointerException if {@code keys} or any key is null
+     */
+    public final List<L> bulkGet(Iterable<? extends K> keys) {
+        int[] indexes = new int[8];
+        int n = 0;
+        for (K key : keys) {
+            if (n == indexes.length)
+                indexes = Arrays.copyOf(indexes, n << 1);
+            indexes[n++] = indexFor(key);
+        }
+        Arrays.sort(indexes, 0, n);
+        List<L> result = new ArrayList<L>(n);
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || indexes[i] != indexes[i - 1])
+                result.add(getAt(indexes[i]));
+        }
+        return result;
+    }
+
+    /**
+     * 按顺序获取所有锁；某个获取抛出异常时，释放已获取的锁后再抛出
+     * Locks each of the given locks in order, releasing the ones already
+     * acquired if one of the acquisitions throws.
+     */
+    static List<Lock> lockInOrder(List<Lock> locks) {
+        int locked = 0;
+        try {
+            for (Lock lock : locks) {
+                lock.lock();
+                locked++;
+            }
+            return locks;
+        } finally {
+            if (locked < locks.size())
+                unlockInReverse(locks, locked);
+        }
+    }
+
+    /**
+     * 逆序释放前count个锁
+     * Unlocks the first {@code count} locks, in reverse order.
+     */
+    static void unlockInReverse(List<? extends Lock> locks, int count) {
+        Throwable failure = null;
+        for (int i = count - 1; i >= 0; i--) {
+            try {
+                locks.get(i).unlock();
+            } catch (RuntimeException | Error e) {
+                if (failure == null)
+                    failure = e;
+            }
+        }
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+    }
+}
@@ -0,0 +1,96 @@
+package com.czl.juc.locks.source;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 按key分段的互斥锁：固定数量的锁代替"每个key一把锁"，内存有上界，竞争分散到各个分段。
+ * 相同的key总是得到同一把锁；不同的key可能共享一把锁，因此持有某个分段时不要再去获取另一个分段，
+ * 需要同时锁多个key时使用{@link #lockAll}。
+ *
+ * Maps keys onto a fixed number of {@link Lock}s, so that per-entity
+ * locking needs bounded memory instead of one lock per key. Equal keys
+ * always map to the same lock; distinct keys may share one, so a thread
+ * holding a stripe must not acquire another stripe directly. Use
+ * {@link #lockAll} to lock several keys at once.
+ *
+ * <p>The default stripes are {@link ReentrantLock}s, whose synchronization
+ * state is padded to its own cache line by {@link QueuedSynchronizer}, so
+ * neighbouring stripes do not false-share.
+ *
+ * <p>Sample usage:
+ * <pre> {@code
+ * StripedLock<Long> locks = StripedLock.lock(64);
+ *
+ * void transfer(long from, long to) {
+ *   List<Lock> held = locks.lockAll(Arrays.asList(from, to));
+ *   try {
+ *     // ...
+ *   } finally {
+ *     StripedLock.unlockAll(held);
+ *   }
+ * }}</pre>
+ *
+ * @param <K> the key type
+ * @author one3c-chenzhilong9
+ * @Description: 按key分段的锁
+ * @Date 2026/10/18
+ */
+public final class StripedLock<K> extends Striped<K, Lock> {
+
+    private StripedLock(int stripes, Supplier<? extends Lock> factory) {
+        super(stripes, factory);
+    }
+
+    /**
+     * Creates a striped lock with at least the given number of
+     * {@link ReentrantLock} stripes, rounded up to a power of two.
+     *
+     * @param stripes the minimum number of stripes
+     * @param <K> the key type
+     * @return a new striped lock
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     */
+    public static <K> StripedLock<K> lock(int stripes) {
+        return new StripedLock<K>(stripes, ReentrantLock::new);
+    }
+
+    /**
+     * Creates a striped lock with at least the given number of stripes,
+     * rounded up to a power of two, each created by the given factory.
+     *
+     * @param stripes the minimum number of stripes
+     * @param factory creates one lock per stripe
+     * @param <K> the key type
+     * @return a new striped lock
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     * @throws NullPointerException if {@code factory} is null or returns null
+     */
+    public static <K> StripedLock<K> lock(int stripes, Supplier<? extends Lock> factory) {
+        return new StripedLock<K>(stripes, factory);
+    }
+
+    /**
+     * 锁住keys用到的所有分段，按分段下标升序获取，与其他lockAll调用之间不会死锁
+     * Locks the stripes of all the given keys, each once, in ascending
+     * stripe order, so concurrent calls cannot deadlock with each other.
+     * The returned locks must be released with {@link #unlockAll}.
+     *
+     * @param keys the keys
+     * @return the locks acquired, in acquisition order
+     * @throws NullPointerException if {@code keys} or any key is null
+     */
+    public List<Lock> lockAll(Iterable<? extends K> keys) {
+        return lockInOrder(bulkGet(keys));
+    }
+
+    /**
+     * 逆序释放{@link #lockAll}返回的锁
+     * Releases the locks returned by a bulk acquisition, in reverse order.
+     *
+     * @param locks the locks returned by a bulk acquisition
+     */
+    public static void unlockAll(List<? extends Lock> locks) {
+        unlockInReverse(locks, locks.size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.czl.juc.locks.source;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 按key分段的读写锁，语义同{@link StripedLock}。
+ * 批量获取读锁或写锁时同样按分段下标升序获取。
+ *
+ * Maps keys onto a fixed number of {@link ReadWriteLock}s. See
+ * {@link StripedLock} for the mapping and ordering rules; bulk read and
+ * write acquisitions lock their stripes in the same ascending order.
+ *
+ * <p>The default stripes are {@link StampedReadWriteLock}s, whose
+ * synchronization state is padded to its own cache line.
+ *
+ * @param <K> the key type
+ * @author one3c-chenzhilong9
+ * @Description: 按key分段的读写锁
+ * @Date 2026/10/18
+ */
+public final class StripedReadWriteLock<K> extends Striped<K, ReadWriteLock> {
+
+    private StripedReadWriteLock(int stripes, Supplier<? extends ReadWriteLock> factory) {
+        super(stripes, factory);
+    }
+
+    /**
+     * Creates a striped read-write lock with at least the given number of
+     * {@link StampedReadWriteLock} stripes, rounded up to a power of two.
+     *
+     * @param stripes the minimum number of stripes
+     * @param <K> the key type
+     * @return a new striped read-write lock
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     */
+    public static <K> StripedReadWriteLock<K> readWriteLock(int stripes) {
+        return new StripedReadWriteLock<K>(stripes, StampedReadWriteLock::new);
+    }
+
+    /**
+     * Creates a striped read-write lock with at least the given number of
+     * stripes, rounded up to a power of two, each created by the given
+     * factory.
+     *
+     * @param stripes the minimum number of stripes
+     * @param factory creates one read-write lock per stripe
+     * @param <K> the key type
+     * @return a new striped read-write lock
+     * @throws IllegalArgumentException if {@code stripes} is not positive
+     * @throws NullPointerException if {@code factory} is null or returns null
+     */
+    public static <K> StripedReadWriteLock<K> readWriteLock(int stripes,
+                                                            Supplier<? extends ReadWriteLock> factory) {
+        return new StripedReadWriteLock<K>(stripes, factory);
+    }
+
+    /**
+     * Locks the read locks of the stripes of all the given keys, in
+     * ascending stripe order.
+     *
+     * @param keys the keys
+     * @return the read locks acquired, in acquisition order
+     * @throws NullPointerException if {@code keys} or any key is null
+     */
+    public List<Lock> readLockAll(Iterable<? extends K> keys) {
+        List<ReadWriteLock> stripes = bulkGet(keys);
+        List<Lock> locks = new ArrayList<Lock>(stripes.size());
+        for (ReadWriteLock rw : stripes)
+            locks.add(rw.readLock());
+        return lockInOrder(locks);
+    }
+
+    /**
+     * Locks the write locks of the stripes of all the given keys, in
+     * ascending stripe order.
+     *
+     * @param keys the keys
+     * @return the write locks acquired, in acquisition order
+     * @throws NullPointerException if {@code keys} or any key is null
+     */
+    public List<Lock> writeLockAll(Iterable<? extends K> keys) {
+        List<ReadWriteLock> stripes = bulkGet(keys);
+        List<Lock> locks = new ArrayList<Lock>(stripes.size());
+        for (ReadWriteLock rw : stripes)
+            locks.add(rw.writeLock());
+        return lockInOrder(locks);
+    }
+
+    /**
+     * Releases the locks returned by a bulk acquisition, in reverse order.
+     *
+     * @param locks the locks returned by a bulk acquisition
+     */
+    public static void unlockAll(List<? extends Lock> locks) {
+        unlockInReverse(locks, locks.size());
+    }
+}
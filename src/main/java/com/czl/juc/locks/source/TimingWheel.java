@@ -0,0 +1,449 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 分层时间轮：4层，每层64个槽，最低层一个槽为一个tick（默认1毫秒）。
+ * 定时任务的添加与取消都是O(1)：调用线程只做一次入队或一次CAS，
+ * 槽内链表只由时间轮线程维护。到期的任务由时间轮线程在tick边界上批量执行。
+ *
+ * A hierarchical timing wheel, after Varghese and Lauck, with one worker
+ * thread that fires timeouts on tick boundaries.
+ *
+ * <p>The wheel has four levels of 64 slots. A level-0 slot spans one
+ * tick, and each slot of level {@code i} spans {@code 64^i} ticks, so
+ * with the default 1ms tick a timeout up to about 4.6 hours away is placed
+ * directly. Longer timeouts park in the farthest top-level slot and are
+ * placed again when it comes round. When the worker enters a new
+ * higher-level slot, it cascades that slot's timeouts down to lower
+ * levels, so every timeout is moved at most once per level.
+ *
+ * <p>{@link #schedule} and {@link Timeout#cancel} are O(1) and lock-free
+ * for the caller: scheduling appends to a queue and cancelling is one CAS
+ * plus an append. Only the worker thread touches the slot lists,
+ * draining both queues at every tick, so it unlinks cancelled timeouts in
+ * O(1) without any locking. Timeouts fire at the first tick boundary at
+ * or after their deadline, so they are never early and at most one tick
+ * late. All timeouts due in the same tick are fired together by the
+ * worker, which replaces one kernel timer per waiting thread with one
+ * wakeup per busy tick. Between them the worker parks until the next tick
+ * that has a timeout due or a higher-level slot to cascade, and
+ * indefinitely while the wheel is empty.
+ *
+ * <p>{@link #parkingPolicy()} adapts the wheel to {@link ParkingPolicy},
+ * so it can back the timed waits of a {@link Condition}:
+ *
+ *  <pre> {@code
+ * ReentrantLock lock = new ReentrantLock();
+ * Condition ready = lock.newCondition(TimingWheel.shared().parkingPolicy());
+ * }</pre>
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 分层时间轮
+ * @Date 2026/10/18
+ */
+public final class TimingWheel {
+
+    /** 每层槽数的位数 */
+    static final int WHEEL_BITS = 6;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /** 层数 */
+    static final int LEVELS = 4;
+
+    /** 默认tick，1毫秒 */
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 共享实例，延迟初始化
+     * Lazily initialized shared wheel with the default tick.
+     */
+    private static final class Shared {
+        static final TimingWheel WHEEL = new TimingWheel(DEFAULT_TICK_NANOS);
+    }
+
+    private final long tickNanos;
+
+    /** tick 0 对应的时间 */
+    private final long startNanos;
+
+    /** 各层的槽，只由时间轮线程访问 */
+    private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+
+    /** 已处理到的tick，只由时间轮线程访问 */
+    private long currentTick;
+
+    /** 在槽中的任务数，只由时间轮线程修改 */
+    private volatile int scheduled;
+
+    /** 新添加、尚未放入槽的任务 */
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<Timeout>();
+
+    /** 已取消、尚未从槽中摘除的任务 */
+    private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<Timeout>();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private volatile Thread worker;
+
+    /** 时间轮线程阻塞到的tick，更早到期的新任务需要唤醒它；Long.MAX_VALUE表示无限期阻塞 */
+    private volatile long wakeTick;
+
+    /** 把定时阻塞交给时间轮的阻塞策略 */
+    private final ParkingPolicy parkingPolicy = new WheelParkingPolicy();
+
+    /**
+     * 指定tick长度创建时间轮，工作线程在第一次添加任务时启动
+     * Creates a wheel with the given tick. The worker thread, a daemon,
+     * starts with the first scheduled timeout.
+     *
+     * @param tickNanos the tick length in nanoseconds
+     * @throws IllegalArgumentException if {@code tickNanos} is not positive
+     */
+    public TimingWheel(long tickNanos) {
+        if (tickNanos <= 0L)
+            throw new IllegalArgumentException();
+        this.tickNanos = tickNanos;
+        this.startNanos = System.nanoTime();
+        for (Bucket[] wheel : wheels) {
+            for (int i = 0; i < WHEEL_SIZE; i++)
+                wheel[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Returns the shared wheel, which has a tick of
+     * {@link #DEFAULT_TICK_NANOS}.
+     *
+     * @return the shared wheel
+     */
+    public static TimingWheel shared() {
+        return Shared.WHEEL;
+    }
+
+    /**
+     * Returns the tick length of this wheel.
+     *
+     * @return the tick in nanoseconds
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * 返回由本时间轮服务定时阻塞的阻塞策略：parkNanos登记一个到期时唤醒当前线程的任务，
+     * 然后无限期park，返回后取消该任务。短于一个tick的等待直接使用LockSupport.parkNanos
+     * Returns a parking policy whose timed parks are served by this
+     * wheel. {@code parkNanos} schedules a timeout that unparks the
+     * caller, parks untimed, and cancels the timeout on return. Waits
+     * shorter than one tick bypass the wheel and use
+     * {@link LockSupport#parkNanos(Object, long)}, to keep their precision.
+     *
+     * @return the wheel-backed parking policy
+     */
+    public ParkingPolicy parkingPolicy() {
+        return parkingPolicy;
+    }
+
+    /**
+     * 添加定时任务，到期后在时间轮线程中执行，任务应当很短
+     * Schedules a task to run on the worker thread once the delay has
+     * elapsed. Tasks should be short, since they delay every other
+     * timeout firing in the same tick.
+     *
+     * @param task the task to run
+     * @param delay the delay
+     * @param unit the time unit of the {@code delay} argument
+     * @return a handle that can cancel the timeout
+     * @throws NullPointerException if {@code task} or {@code unit} is null
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (task == null)
+            throw new NullPointerException();
+        return schedule(task, null, unit.toNanos(delay));
+    }
+
+    private Timeout schedule(Runnable task, Thread waiter, long delayNanos) {
+        long deadline = System.nanoTime() + Math.max(delayNanos, 0L) - startNanos;
+        // first tick boundary at or after the deadline
+        long tick = (deadline + tickNanos - 1) / tickNanos;
+        Timeout t = new Timeout(task, waiter, tick);
+        pending.add(t);
+        Thread w = worker;
+        if (w == null)
+            start();
+        else if (tick < wakeTick)
+            LockSupport.unpark(w);
+        return t;
+    }
+
+    private void start() {
+        if (started.compareAndSet(false, true)) {
+            Thread w = new Thread(this::run, "czl-timing-wheel");
+            w.setDaemon(true);
+            worker = w;
+            w.start();
+        }
+    }
+
+    private void run() {
+        for (;;) {
+            if (startNanos + (currentTick + 1) * tickNanos - System.nanoTime() <= 0L) {
+                advance();
+                continue;
+            }
+            long next = scheduled == 0 ? Long.MAX_VALUE : nextBusyTick();
+            // publish before checking pending, so a racing schedule either sees it or is seen
+            wakeTick = next;
+            if (!pending.isEmpty())
+                next = currentTick + 1;     // place the new timeouts at the next tick
+            if (next == Long.MAX_VALUE) {
+                LockSupport.park(this);
+                // the wheel is empty, so the clock can jump straight to now
+                long now = (System.nanoTime() - startNanos) / tickNanos;
+                if (scheduled == 0 && now > currentTick)
+                    currentTick = now;
+            } else {
+                LockSupport.parkNanos(this, startNanos + next * tickNanos - System.nanoTime());
+                // nothing is due before next, so the clock can skip to the tick before it
+                long skip = Math.min((System.nanoTime() - startNanos) / tickNanos, next) - 1;
+                if (skip > currentTick)
+                    currentTick = skip;
+            }
+        }
+    }
+
+    /**
+     * 下一个需要处理的tick：最低层下一个非空的槽，或者下一个级联边界，取较早者
+     * Returns the next tick with work: the next non-empty level-0 slot,
+     * or the next level-1 boundary, where higher slots cascade.
+     */
+    private long nextBusyTick() {
+        long boundary = (currentTick | WHEEL_MASK) + 1;
+        for (long tick = currentTick + 1; tick < boundary; tick++) {
+            if (!wheels[0][(int) tick & WHEEL_MASK].isEmpty())
+                return tick;
+        }
+        return boundary;
+    }
+
+    /**
+     * 在槽中、尚未到期也未摘除的任务数，供测试观察
+     * Returns the number of timeouts linked into slots. Cancelled timeouts
+     * count until the worker unlinks them.
+     */
+    int scheduledCount() {
+        return scheduled;
+    }
+
+    /**
+     * 前进一个tick：摘除已取消的任务，放入新任务，级联上层的槽，执行到期的任务
+     */
+    private void advance() {
+        long tick = ++currentTick;
+        Timeout t;
+        while ((t = cancelled.poll()) != null) {
+            if (t.bucket != null) {
+                t.bucket.remove(t);
+                scheduled--;
+            }
+        }
+        while ((t = pending.poll()) != null) {
+            if (t.state == Timeout.PENDING)
+                place(t);
+        }
+        int level = 0;
+        while (level + 1 < LEVELS && (tick & ((1L << (WHEEL_BITS * (level + 1))) - 1)) == 0)
+            level++;
+        for (; level > 0; level--) {
+            Bucket b = wheels[level][(int) (tick >>> (WHEEL_BITS * level)) & WHEEL_MASK];
+            while ((t = b.poll()) != null) {
+                scheduled--;
+                place(t);
+            }
+        }
+        Bucket due = wheels[0][(int) tick & WHEEL_MASK];
+        while ((t = due.poll()) != null) {
+            scheduled--;
+            t.expire();
+        }
+    }
+
+    /**
+     * 按剩余tick数放入合适的层；已到期的直接执行
+     */
+    private void place(Timeout t) {
+        long delta = t.deadlineTick - currentTick;
+        if (delta <= 0L) {
+            t.expire();
+            return;
+        }
+        Bucket b = null;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < (1L << (WHEEL_BITS * (level + 1)))) {
+                b = wheels[level][(int) (t.deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK];
+                break;
+            }
+        }
+        if (b == null) {
+            // beyond the top level: wait in its farthest slot, then place again
+            int top = WHEEL_BITS * (LEVELS - 1);
+            b = wheels[LEVELS - 1][(int) ((currentTick >>> top) + WHEEL_MASK) & WHEEL_MASK];
+        }
+        b.add(t);
+        scheduled++;
+    }
+
+    /**
+     * 定时任务的句柄
+     * A scheduled timeout. It fires at most once and can be cancelled
+     * until it does.
+     */
+    public final class Timeout {
+        static final int PENDING = 0;
+        static final int CANCELLED = 1;
+        static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final Thread waiter;
+        final long deadlineTick;
+        volatile int state;
+
+        /** 所在的槽与槽内链表，只由时间轮线程访问 */
+        Bucket bucket;
+        Timeout prev, next;
+
+        Timeout(Runnable task, Thread waiter, long deadlineTick) {
+            this.task = task;
+            this.waiter = waiter;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * 取消：一次CAS，槽内的节点由时间轮线程在下一个tick摘除
+         * Cancels this timeout. The slot entry is unlinked by the worker
+         * at its next tick.
+         *
+         * @return {@code true} if this call cancelled the timeout,
+         *         {@code false} if it had already fired or been cancelled
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED))
+                return false;
+            cancelled.add(this);
+            return true;
+        }
+
+        /**
+         * Returns whether this timeout has been cancelled.
+         *
+         * @return {@code true} if cancelled
+         */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Returns whether this timeout has fired.
+         *
+         * @return {@code true} if expired
+         */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        void expire() {
+            if (!STATE.compareAndSet(this, PENDING, EXPIRED))
+                return;
+            if (waiter != null) {
+                LockSupport.unpark(waiter);
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable ex) {
+                Thread w = Thread.currentThread();
+                w.getUncaughtExceptionHandler().uncaughtException(w, ex);
+            }
+        }
+    }
+
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    /**
+     * 槽：双向链表，只由时间轮线程访问
+     * A slot's doubly-linked list. Worker thread only.
+     */
+    static final class Bucket {
+        private Timeout head, tail;
+
+        void add(Timeout t) {
+            t.bucket = this;
+            t.prev = tail;
+            t.next = null;
+            if (tail == null)
+                head = t;
+            else
+                tail.next = t;
+            tail = t;
+        }
+
+        void remove(Timeout t) {
+            Timeout p = t.prev, n = t.next;
+            if (p == null)
+                head = n;
+            else
+                p.next = n;
+            if (n == null)
+                tail = p;
+            else
+                n.prev = p;
+            t.prev = t.next = null;
+            t.bucket = null;
+        }
+
+        boolean isEmpty() {
+            return head == null;
+        }
+
+        Timeout poll() {
+            Timeout t = head;
+            if (t != null)
+                remove(t);
+            return t;
+        }
+    }
+
+    /**
+     * 定时阻塞由时间轮唤醒
+     */
+    private final class WheelParkingPolicy implements ParkingPolicy {
+        public void park(Object blocker) {
+            LockSupport.park(blocker);
+        }
+
+        public void parkNanos(Object blocker, long nanos) {
+            if (nanos < tickNanos) {
+                LockSupport.parkNanos(blocker, nanos);
+                return;
+            }
+            Timeout t = schedule(null, Thread.currentThread(), nanos);
+            LockSupport.park(blocker);
+            t.cancel();
+        }
+
+        public void unpark(Thread thread) {
+            LockSupport.unpark(thread);
+        }
+
+        public String toString() {
+            return "TimingWheel.parkingPolicy[tick=" + tickNanos + "ns]";
+        }
+    }
+}
@@ -0,0 +1,660 @@
+package com.czl.juc.locks.source;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 带可升级读模式的读写锁。除读锁、写锁外还有第三种模式：可升级读锁。
+ * 可升级读锁与普通读锁共存，但同一时刻最多一个线程持有；持有者获取写锁即原子地升级，
+ * 期间不释放锁、也不允许其他写线程插入，因此“先读检查、不满足再写”的代码不必放开读锁重新加写锁、
+ * 重新校验并重试。释放写锁后降级回可升级读锁。
+ *
+ * A {@link ReadWriteLock} with a third, <em>upgradable</em> read mode,
+ * returned by {@link #upgradableLock()}.
+ *
+ * <p>The upgradable lock coexists with plain readers but excludes
+ * writers and other upgradable holders, so at most one thread holds it at
+ * a time. While holding it, a thread acquires the write lock to
+ * <em>upgrade</em>: new readers are turned away, the existing ones drain,
+ * and the thread becomes the writer without ever releasing the lock, so
+ * no other writer can slip in between the check and the update.
+ * Releasing the write lock downgrades back to the upgradable mode. This
+ * replaces the drop-read, take-write, re-validate loop of read-check-then
+ * write code such as cache fills:
+ *
+ *  <pre> {@code
+ * lock.upgradableLock().lock();
+ * try {
+ *   V v = map.get(key);                 // readers may run alongside
+ *   if (v == null) {
+ *     lock.writeLock().lock();          // atomic upgrade
+ *     try {
+ *       v = load(key);                  // no re-check needed
+ *       map.put(key, v);
+ *     } finally {
+ *       lock.writeLock().unlock();      // back to upgradable
+ *     }
+ *   }
+ *   return v;
+ * } finally {
+ *   lock.upgradableLock().unlock();
+ * }}</pre>
+ *
+ * <p>Threads that only ever read should use the plain {@link #readLock()}
+ * so that they do not serialize on the upgradable mode. Upgrading waits
+ * for every reader, so a thread must not hold the read lock while it
+ * upgrades. As in {@link StampedReadWriteLock}, the read lock is not
+ * reentrant and queued writers are preferred over newly arriving readers
+ * and upgraders. The write and upgradable locks are reentrant; the write
+ * lock holder may acquire the read lock but not the upgradable lock.
+ * None of the locks supports conditions.
+ *
+ * @author one3c-chenzhilong9
+ * @Description: 带可升级读模式的读写锁
+ * @Date 2026/10/18
+ */
+public class UpgradableReadWriteLock implements ReadWriteLock {
+
+    private final Sync sync;
+    /** 可升级读锁的持有者之间互斥，排队的可升级读线程在这里等待，而不进入读写锁的等待队列 */
+    private final ReentrantLock upgradeGate;
+    private final ReadLock readerLock;
+    private final UpgradableLock upgradableLock;
+    private final WriteLock writerLock;
+
+    /**
+     * Creates a new lock, initially in unlocked state.
+     */
+    public UpgradableReadWriteLock() {
+        sync = new Sync();
+        upgradeGate = new ReentrantLock();
+        readerLock = new ReadLock();
+        upgradableLock = new UpgradableLock();
+        writerLock = new WriteLock();
+    }
+
+    @Override
+    public Lock readLock() {
+        return readerLock;
+    }
+
+    /**
+     * 写锁；可升级读锁的持有者获取写锁即为升级，释放写锁即为降级
+     * Returns the write lock. When the holder of the upgradable lock
+     * acquires it, the acquisition is an atomic upgrade, and its final
+     * release downgrades back to the upgradable mode.
+     *
+     * @return the lock used for writing
+     */
+    @Override
+    public Lock writeLock() {
+        return writerLock;
+    }
+
+    /**
+     * 可升级读锁
+     * Returns the upgradable read lock.
+     *
+     * @return the lock used for reads that may upgrade to writes
+     */
+    public Lock upgradableLock() {
+        return upgradableLock;
+    }
+
+    /**
+     * 写锁是否被持有
+     * Queries if the write lock is held by any thread.
+     *
+     * @return {@code true} if any thread holds the write lock
+     */
+    public boolean isWriteLocked() {
+        return Sync.exclusiveCount(sync.getState()) != 0;
+    }
+
+    /**
+     * 可升级读锁是否被持有（包括已升级为写锁的情况）
+     * Queries if the upgradable lock is held by any thread, including a
+     * holder that has upgraded.
+     *
+     * @return {@code true} if any thread holds the upgradable lock
+     */
+    public boolean isUpgradableLocked() {
+        return (sync.getState() & Sync.UPGRADABLE) != 0;
+    }
+
+    /**
+     * Queries the number of read locks held for this lock, not counting
+     * the upgradable lock.
+     *
+     * @return the number of read locks held
+     */
+    public int getReadLockCount() {
+        return Sync.sharedCount(sync.getState());
+    }
+
+    /**
+     * 同步器。state低15位为写锁重入次数，第15位表示可升级读锁被持有，
+     * 第16位表示正在升级（此时拒绝新的读线程），高15位为读锁数量
+     * Synchronization implementation. The lower 15 bits of the state count
+     * write holds, bit 15 is set while the upgradable lock is held, bit 16
+     * is set while its holder is waiting for readers to drain so that it
+     * can upgrade, and the upper 15 bits count read holds.
+     *
+     * <p>Readers and the upgradable holder acquire in shared mode, so a
+     * writer release wakes both together. The upgrading holder does not
+     * queue: a writer queued ahead of it could never get past its
+     * upgradable hold, so it parks on its own and the last reader to leave
+     * unparks it.
+     */
+    static final class Sync extends QueuedSynchronizer {
+        private static final long serialVersionUID = -2630318342370624017L;
+
+        static final int SHARED_SHIFT   = 17;
+        static final int SHARED_UNIT    = (1 << SHARED_SHIFT);
+        static final int MAX_COUNT      = (1 << 15) - 1;
+        static final int EXCLUSIVE_MASK = (1 << 15) - 1;
+        static final int UPGRADABLE     = 1 << 15;
+        static final int UPGRADING      = 1 << 16;
+
+        /** 共享模式参数：读锁 */
+        static final int READ = 1;
+        /** 共享模式参数：可升级读锁 */
+        static final int UPGRADE = 2;
+        /** 共享模式参数：放弃升级，清除UPGRADING并唤醒被拒绝的读线程 */
+        static final int ABORT_UPGRADE = 3;
+
+        /** Returns the number of shared holds represented in count  */
+        static int sharedCount(int c)    { return c >>> SHARED_SHIFT; }
+        /** Returns the number of exclusive holds represented in count  */
+        static int exclusiveCount(int c) { return c & EXCLUSIVE_MASK; }
+
+        /** 可升级读锁的持有者，最后一个读线程离开时唤醒它 */
+        transient volatile Thread upgrader;
+        /** 可升级读锁的重入次数，只由持有者访问 */
+        transient int upgradeHolds;
+
+        protected final boolean tryAcquire(int acquires) {
+            Thread current = Thread.currentThread();
+            int c = getState();
+            int w = exclusiveCount(c);
+            if (c != 0) {
+                // only reentrant acquires get past readers or an upgradable holder
+                if (w == 0 || current != getExclusiveOwnerThread())
+                    return false;
+                if (w + exclusiveCount(acquires) > MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+                setState(c + acquires);
+                return true;
+            }
+            if (!compareAndSetState(c, c + acquires))
+                return false;
+            setExclusiveOwnerThread(current);
+            return true;
+        }
+
+        /**
+         * 写锁完全释放时返回true；若是已升级的持有者，可升级读标记保留，即降级
+         * Returns true on the final write release. For an upgraded holder
+         * the upgradable bit stays set, which is the downgrade, and
+         * queued readers are woken to join it.
+         */
+        protected final boolean tryRelease(int releases) {
+            if (!isHeldExclusively())
+                throw new IllegalMonitorStateException();
+            int nextc = getState() - releases;
+            boolean free = exclusiveCount(nextc) == 0;
+            if (free)
+                setExclusiveOwnerThread(null);
+            setState(nextc);
+            return free;
+        }
+
+        /**
+         * 写锁被其他线程持有，或队首是等待的写线程时失败；升级进行中时读锁获取也失败
+         * Fails if another thread holds the write lock or if the first
+         * queued thread is a writer. A read acquire also fails while the
+         * upgradable holder is upgrading; an upgradable acquire fails
+         * while any write lock is held.
+         */
+        protected final int tryAcquireShared(int mode) {
+            Thread current = Thread.currentThread();
+            for (;;) {
+                int c = getState();
+                if (exclusiveCount(c) != 0) {
+                    if (mode == UPGRADE || getExclusiveOwnerThread() != current)
+                        return -1;
+                } else if ((mode == READ && (c & UPGRADING) != 0) ||
+                           apparentlyFirstQueuedIsExclusive()) {
+                    return -1;
+                }
+                if (mode == UPGRADE) {
+                    if (compareAndSetState(c, c | UPGRADABLE)) {
+                        upgrader = current;
+                        upgradeHolds = 1;
+                        return 1;
+                    }
+                } else {
+                    if (sharedCount(c) == MAX_COUNT)
+                        throw new Error("Maximum lock count exceeded");
+                    if (compareAndSetState(c, c + SHARED_UNIT))
+                        return 1;
+                }
+            }
+        }
+
+        protected final boolean tryReleaseShared(int mode) {
+            for (;;) {
+                int c = getState();
+                int nextc;
+                if (mode == UPGRADE) {
+                    if ((c & UPGRADABLE) == 0 || exclusiveCount(c) != 0)
+                        throw new IllegalMonitorStateException();
+                    nextc = c & ~UPGRADABLE;
+                } else if (mode == ABORT_UPGRADE) {
+                    nextc = c & ~UPGRADING;
+                } else {
+                    if (sharedCount(c) == 0)
+                        throw new IllegalMonitorStateException();
+                    nextc = c - SHARED_UNIT;
+                }
+                if (compareAndSetState(c, nextc)) {
+                    if (mode == READ && sharedCount(nextc) == 0 && (nextc & UPGRADING) != 0)
+                        LockSupport.unpark(upgrader);
+                    // readers turned away by the aborted upgrade are queued
+                    return nextc == 0 || mode == ABORT_UPGRADE;
+                }
+            }
+        }
+
+        /**
+         * 没有读线程时，把可升级读锁原子地转换为写锁
+         * Converts the upgradable hold into the write lock if no readers
+         * remain. Called only by the upgradable holder.
+         */
+        private boolean tryUpgrade() {
+            for (;;) {
+                int c = getState();
+                if (sharedCount(c) != 0)
+                    return false;
+                if (compareAndSetState(c, (c & ~UPGRADING) + 1)) {
+                    setExclusiveOwnerThread(Thread.currentThread());
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 升级：先拒绝新的读线程，再等待已有的读线程全部释放
+         * Upgrades the caller's upgradable hold to the write lock: turns
+         * away new readers, then waits for the existing ones to leave.
+         *
+         * @param nanos wait limit; negative to wait forever, zero to not wait
+         * @param interruptible whether to abort on interrupt
+         * @return whether the upgrade happened
+         */
+        final boolean upgrade(long nanos, boolean interruptible)
+                throws InterruptedException {
+            if (interruptible && Thread.interrupted())
+                throw new InterruptedException();
+            if (tryUpgrade())
+                return true;
+            if (nanos == 0L)
+                return false;
+            for (;;) {
+                int c = getState();
+                if (compareAndSetState(c, c | UPGRADING))
+                    break;
+            }
+            final boolean timed = nanos > 0L;
+            final long deadline = timed ? System.nanoTime() + nanos : 0L;
+            boolean upgraded = false;
+            boolean interrupted = false;
+            try {
+                while (!tryUpgrade()) {
+                    if (!timed) {
+                        LockSupport.park(this);
+                    } else if ((nanos = deadline - System.nanoTime()) > 0L) {
+                        LockSupport.parkNanos(this, nanos);
+                    } else {
+                        return false;
+                    }
+                    if (Thread.interrupted()) {
+                        if (interruptible)
+                            throw new InterruptedException();
+                        interrupted = true;
+                    }
+                }
+                upgraded = true;
+                return true;
+            } finally {
+                if (!upgraded)
+                    releaseShared(ABORT_UPGRADE);
+                if (interrupted)
+                    Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * 当前线程是否持有可升级读锁
+         */
+        final boolean isUpgrader() {
+            return upgrader == Thread.currentThread();
+        }
+
+        /**
+         * Performs tryLock for write, enabling barging.
+         */
+        final boolean tryWriteLock() {
+            Thread current = Thread.currentThread();
+            int c = getState();
+            if (c != 0) {
+                int w = exclusiveCount(c);
+                if (w == 0 || current != getExclusiveOwnerThread())
+                    return false;
+                if (w == MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+            }
+            if (!compareAndSetState(c, c + 1))
+                return false;
+            if (c == 0)
+                setExclusiveOwnerThread(current);
+            return true;
+        }
+
+        /**
+         * Performs tryLock for read, enabling barging past queued writers.
+         */
+        final boolean tryReadLock() {
+            Thread current = Thread.currentThread();
+            for (;;) {
+                int c = getState();
+                if (exclusiveCount(c) != 0) {
+                    if (getExclusiveOwnerThread() != current)
+                        return false;
+                } else if ((c & UPGRADING) != 0) {
+                    return false;
+                }
+                if (sharedCount(c) == MAX_COUNT)
+                    throw new Error("Maximum lock count exceeded");
+                if (compareAndSetState(c, c + SHARED_UNIT))
+                    return true;
+            }
+        }
+
+        /**
+         * Performs tryLock for the upgradable mode, enabling barging.
+         * Called with the upgrade gate held.
+         */
+        final boolean tryUpgradableLock() {
+            for (;;) {
+                int c = getState();
+                if (exclusiveCount(c) != 0)
+                    return false;
+                if (compareAndSetState(c, c | UPGRADABLE)) {
+                    upgrader = Thread.currentThread();
+                    upgradeHolds = 1;
+                    return true;
+                }
+            }
+        }
+
+        protected final boolean isHeldExclusively() {
+            return getExclusiveOwnerThread() == Thread.currentThread();
+        }
+    }
+
+    /**
+     * 读锁视图，不可重入
+     * The lock returned by method {@link #readLock}. Not reentrant.
+     */
+    final class ReadLock implements Lock {
+
+        public void lock() {
+            sync.acquireShared(Sync.READ);
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            sync.acquireSharedInterruptibly(Sync.READ);
+        }
+
+        public boolean tryLock() {
+            return sync.tryReadLock();
+        }
+
+        public boolean tryLock(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            return sync.tryAcquireSharedNanos(Sync.READ, unit.toNanos(timeout));
+        }
+
+        public void unlock() {
+            sync.releaseShared(Sync.READ);
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException} because
+         * read locks do not support conditions.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        public String toString() {
+            return super.toString() + "[Read locks = " + getReadLockCount() + "]";
+        }
+    }
+
+    /**
+     * 可升级读锁视图，可重入。先在upgradeGate上与其他可升级读线程互斥，再以共享模式进入读写锁
+     * The lock returned by method {@link #upgradableLock}. Reentrant.
+     * Upgradable holders first exclude each other on the upgrade gate, so
+     * that at most one of them is ever queued on the synchronizer, and then
+     * acquire in shared mode alongside readers.
+     */
+    final class UpgradableLock implements Lock {
+
+        public void lock() {
+            if (reenter())
+                return;
+            upgradeGate.lock();
+            boolean acquired = false;
+            try {
+                sync.acquireShared(Sync.UPGRADE);
+                acquired = true;
+            } finally {
+                if (!acquired)
+                    upgradeGate.unlock();
+            }
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (reenter())
+                return;
+            upgradeGate.lockInterruptibly();
+            boolean acquired = false;
+            try {
+                sync.acquireSharedInterruptibly(Sync.UPGRADE);
+                acquired = true;
+            } finally {
+                if (!acquired)
+                    upgradeGate.unlock();
+            }
+        }
+
+        public boolean tryLock() {
+            if (reenter())
+                return true;
+            if (!upgradeGate.tryLock())
+                return false;
+            boolean acquired = false;
+            try {
+                acquired = sync.tryUpgradableLock();
+                return acquired;
+            } finally {
+                if (!acquired)
+                    upgradeGate.unlock();
+            }
+        }
+
+        public boolean tryLock(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (reenter())
+                return true;
+            if (!upgradeGate.tryLock(timeout, unit))
+                return false;
+            boolean acquired = false;
+            try {
+                acquired = sync.tryAcquireSharedNanos(Sync.UPGRADE, deadline - System.nanoTime());
+                return acquired;
+            } finally {
+                if (!acquired)
+                    upgradeGate.unlock();
+            }
+        }
+
+        /**
+         * 已持有时重入；写锁持有者不能获取可升级读锁
+         */
+        private boolean reenter() {
+            if (sync.isUpgrader()) {
+                if (sync.upgradeHolds == Integer.MAX_VALUE)
+                    throw new Error("Maximum lock count exceeded");
+                sync.upgradeHolds++;
+                return true;
+            }
+            if (sync.isHeldExclusively())
+                throw new IllegalMonitorStateException("write lock held");
+            return false;
+        }
+
+        /**
+         * 释放可升级读锁；已升级且尚未释放写锁时抛出IllegalMonitorStateException
+         * Releases the upgradable lock.
+         *
+         * @throws IllegalMonitorStateException if the current thread does
+         *         not hold this lock, or still holds the write lock it
+         *         upgraded to
+         */
+        public void unlock() {
+            if (!sync.isUpgrader() || sync.isHeldExclusively())
+                throw new IllegalMonitorStateException();
+            if (--sync.upgradeHolds > 0)
+                return;
+            sync.upgrader = null;
+            try {
+                sync.releaseShared(Sync.UPGRADE);
+            } finally {
+                upgradeGate.unlock();
+            }
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException} because
+         * upgradable locks do not support conditions.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        public String toString() {
+            Thread o = sync.upgrader;
+            return super.toString() + ((o == null) ?
+                                       "[Unlocked]" :
+                                       "[Locked by thread " + o.getName() + "]");
+        }
+    }
+
+    /**
+     * 写锁视图，可重入。可升级读锁的持有者首次获取时为升级
+     * The lock returned by method {@link #writeLock}. Reentrant. The
+     * first acquisition by the upgradable holder is an upgrade.
+     */
+    final class WriteLock implements Lock {
+
+        public void lock() {
+            if (upgrading()) {
+                try {
+                    sync.upgrade(-1L, false);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);    // not interruptible
+                }
+            } else {
+                sync.acquire(1);
+            }
+        }
+
+        public void lockInterruptibly() throws InterruptedException {
+            if (upgrading())
+                sync.upgrade(-1L, true);
+            else
+                sync.acquireInterruptibly(1);
+        }
+
+        public boolean tryLock() {
+            if (upgrading()) {
+                try {
+                    return sync.upgrade(0L, false);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+            return sync.tryWriteLock();
+        }
+
+        public boolean tryLock(long timeout, TimeUnit unit)
+                throws InterruptedException {
+            long nanos = Math.max(unit.toNanos(timeout), 0L);
+            if (upgrading())
+                return sync.upgrade(nanos, true);
+            return sync.tryAcquireNanos(1, nanos);
+        }
+
+        /**
+         * 当前线程持有可升级读锁且尚未持有写锁，即本次获取为升级
+         */
+        private boolean upgrading() {
+            return sync.isUpgrader() && !sync.isHeldExclusively();
+        }
+
+        public void unlock() {
+            sync.release(1);
+        }
+
+        /**
+         * Throws {@code UnsupportedOperationException}.
+         *
+         * @throws UnsupportedOperationException always
+         */
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+
+        public String toString() {
+            Thread o = sync.isHeldExclusively() ? Thread.currentThread() : null;
+            return super.toString() + (isWriteLocked() ?
+                                       "[Locked" + (o == null ? "" : " by thread " + o.getName()) + "]" :
+                                       "[Unlocked]");
+        }
+    }
+
+    /**
+     * Returns a string identifying this lock, as well as its lock state.
+     *
+     * @return a string identifying this lock, as well as its lock state
+     */
+    public String toString() {
+        int c = sync.getState();
+        return super.toString() +
+            "[Write locks = " + Sync.exclusiveCount(c) +
+            ", Read locks = " + Sync.sharedCount(c) +
+            ", Upgradable = " + ((c & Sync.UPGRADABLE) != 0) + "]";
+    }
+}
@@ -0,0 +1,114 @@
+package com.czl.juc.locks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.czl.juc.locks.source.Condition;
+import com.czl.juc.locks.source.LockOrderValidator;
+import com.czl.juc.locks.source.ReentrantLock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: ReentrantLock与Condition的交互：等待期间其他线程获取并释放锁后，等待线程的锁顺序记录仍然正确。
+ * 锁类按本包以外的第一个栈帧确定，所以这个测试不放在source包里。
+ * 需要-Dcom.czl.juc.locks.lockOrder=true，由pom里单独的lock-order执行在独立的JVM中运行
+ * @Date 2026/10/18
+ */
+class ReentrantLockConditionTest {
+
+    /** 在线程中执行，异常记录下来由测试线程检查 */
+    private static Thread start(String name, ThrowingRunnable body, List<Throwable> failures) {
+        Thread t = new Thread(() -> {
+            try {
+                body.run();
+            } catch (Throwable e) {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            }
+        }, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    /** 等待线程在await期间由另一个线程获取并释放锁，唤醒后按a、b的顺序各自独立加锁，不应报告倒置 */
+    @Test
+    void awaitDoesNotLeaveTheLockTrackedAsHeld() throws InterruptedException {
+        assertTrue(LockOrderValidator.ENABLED, "run with -Dcom.czl.juc.locks.lockOrder=true");
+        int before = LockOrderValidator.shared().getInversions().size();
+        ReentrantLock a = new ReentrantLock();
+        ReentrantLock b = new ReentrantLock();
+        Condition ready = a.newCondition();
+        CountDownLatch waiting = new CountDownLatch(1);
+        List<Throwable> failures = new ArrayList<Throwable>();
+
+        Thread waiter = start("waiter", () -> {
+            a.lock();
+            try {
+                waiting.countDown();
+                assertTrue(ready.await(5, TimeUnit.SECONDS));
+            } finally {
+                a.unlock();
+            }
+            // a is not held here: taking a inside b is a new order, not an inversion
+            b.lock();
+            try {
+                a.lock();
+                a.unlock();
+            } finally {
+                b.unlock();
+            }
+        }, failures);
+        waiting.await();
+        a.lock();
+        try {
+            ready.signal();
+        } finally {
+            a.unlock();
+        }
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        List<LockOrderValidator.Inversion> inversions = LockOrderValidator.shared().getInversions();
+        assertEquals(before, inversions.size(), () -> inversions.get(inversions.size() - 1).toString());
+    }
+
+    /** 持有a时await，唤醒后仍持有a，此时获取b要记录a → b，与相反顺序构成倒置 */
+    @Test
+    void lockReacquiredByAwaitIsTrackedAgain() throws InterruptedException {
+        int before = LockOrderValidator.shared().getInversions().size();
+        ReentrantLock a = new ReentrantLock();
+        ReentrantLock b = new ReentrantLock();
+        Condition ready = a.newCondition();
+        List<Throwable> failures = new ArrayList<Throwable>();
+
+        b.lock();
+        a.lock();                       // records b -> a
+        a.unlock();
+        b.unlock();
+        Thread waiter = start("waiter", () -> {
+            a.lock();
+            try {
+                assertFalse(ready.await(10, TimeUnit.MILLISECONDS));
+                b.lock();               // records a -> b: an inversion
+                b.unlock();
+            } finally {
+                a.unlock();
+            }
+        }, failures);
+        waiter.join(5000);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(before + 1, LockOrderValidator.shared().getInversions().size());
+    }
+}
@@ -0,0 +1,226 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 互斥锁的公共测试：重入、限时获取在期限内返回、中断后不遗留锁、条件变量的释放与重新获取。
+ * 子类提供被测的锁，不支持条件变量的锁校验newCondition抛出UnsupportedOperationException
+ * @Date 2026/10/18
+ */
+abstract class AbstractLockTest {
+
+    /** 限时获取失败时允许的最长耗时，远大于请求的10ms，只用来发现"一直等到持有者释放"的错误 */
+    static final long DEADLINE_SLACK_MILLIS = 1000;
+
+    /** 被测的锁，每个测试一把新锁 */
+    abstract Lock newLock();
+
+    /** 是否支持条件变量 */
+    boolean supportsConditions() {
+        return false;
+    }
+
+    /** 在另一个线程里tryLock，成功则立即释放 */
+    static boolean availableElsewhere(Lock lock) throws InterruptedException {
+        AtomicBoolean acquired = new AtomicBoolean();
+        Thread t = new Thread(() -> {
+            if (lock.tryLock()) {
+                acquired.set(true);
+                lock.unlock();
+            }
+        }, "probe");
+        t.setDaemon(true);
+        t.start();
+        t.join(5000);
+        assertFalse(t.isAlive(), "tryLock blocked");
+        return acquired.get();
+    }
+
+    /** 在另一个线程里持有锁，直到done或者2秒后释放；返回时锁已被持有 */
+    static Thread holdElsewhere(Lock lock, CountDownLatch done) throws InterruptedException {
+        CountDownLatch held = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            try {
+                held.countDown();
+                done.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        }, "holder");
+        holder.setDaemon(true);
+        holder.start();
+        assertTrue(held.await(5, TimeUnit.SECONDS), "holder did not get the lock");
+        return holder;
+    }
+
+    /** 启动守护线程，失败记入failures */
+    static Thread start(String name, ThrowingRunnable body, List<Throwable> failures) {
+        Thread t = new Thread(() -> {
+            try {
+                body.run();
+            } catch (Throwable e) {
+                synchronized (failures) {
+                    failures.add(e);
+                }
+            }
+        }, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    @Test
+    void lockIsReentrant() throws InterruptedException {
+        Lock lock = newLock();
+        lock.lock();
+        lock.lock();
+        assertFalse(availableElsewhere(lock));
+        lock.unlock();
+        assertFalse(availableElsewhere(lock), "released by the inner unlock");
+        lock.unlock();
+        assertTrue(availableElsewhere(lock));
+    }
+
+    @Test
+    void tryLockIsReentrant() throws InterruptedException {
+        Lock lock = newLock();
+        assertTrue(lock.tryLock());
+        assertTrue(lock.tryLock());
+        assertTrue(lock.tryLock(10, TimeUnit.MILLISECONDS));
+        lock.unlock();
+        lock.unlock();
+        assertFalse(availableElsewhere(lock));
+        lock.unlock();
+        assertTrue(availableElsewhere(lock));
+    }
+
+    @Test
+    void timedTryLockReturnsByItsDeadline() throws InterruptedException {
+        Lock lock = newLock();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = holdElsewhere(lock, done);
+        long start = System.nanoTime();
+        assertFalse(lock.tryLock(10, TimeUnit.MILLISECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < DEADLINE_SLACK_MILLIS, "tryLock(10ms) took " + elapsedMillis + "ms");
+        assertFalse(lock.tryLock(0, TimeUnit.MILLISECONDS));
+        done.countDown();
+        holder.join();
+        assertTrue(lock.tryLock(5, TimeUnit.SECONDS));
+        lock.unlock();
+    }
+
+    @Test
+    void interruptedLockLeavesTheLockUsable() throws InterruptedException {
+        Lock lock = newLock();
+        lock.lock();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread waiter = start("waiter", () -> {
+            try {
+                lock.lockInterruptibly();
+                lock.unlock();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        }, failures);
+        Thread.sleep(50);
+        waiter.interrupt();
+        waiter.join(5000);
+        assertFalse(waiter.isAlive(), "lockInterruptibly ignored the interrupt");
+        assertTrue(interrupted.get());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        lock.unlock();
+        assertTrue(availableElsewhere(lock), "lock stranded by the interrupted waiter");
+    }
+
+    @Test
+    void unlockWithoutHoldThrows() {
+        Lock lock = newLock();
+        assertThrows(IllegalMonitorStateException.class, lock::unlock);
+    }
+
+    @Test
+    void conditionsAreSupportedOrRejected() {
+        Lock lock = newLock();
+        if (!supportsConditions())
+            assertThrows(UnsupportedOperationException.class, lock::newCondition);
+        else
+            assertThrows(IllegalMonitorStateException.class, () -> lock.newCondition().await());
+    }
+
+    /** 重入持有后await：等待期间锁完全释放，唤醒后恢复原来的重入次数 */
+    @Test
+    void awaitReleasesFullyAndRestoresTheHolds() throws InterruptedException {
+        if (!supportsConditions())
+            return;
+        Lock lock = newLock();
+        Condition ready = lock.newCondition();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        CountDownLatch waiting = new CountDownLatch(1);
+        AtomicBoolean signalled = new AtomicBoolean();
+        Thread waiter = start("waiter", () -> {
+            lock.lock();
+            lock.lock();
+            try {
+                waiting.countDown();
+                while (!signalled.get())
+                    assertTrue(ready.await(5, TimeUnit.SECONDS), "signal lost");
+                lock.unlock();
+                assertFalse(availableElsewhere(lock), "await lost a hold");
+            } finally {
+                lock.unlock();
+            }
+        }, failures);
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        assertTrue(lock.tryLock(5, TimeUnit.SECONDS), "await did not release every hold");
+        try {
+            signalled.set(true);
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertTrue(availableElsewhere(lock));
+    }
+
+    @Test
+    void timedAwaitReturnsByItsDeadlineHoldingTheLock() throws InterruptedException {
+        if (!supportsConditions())
+            return;
+        Lock lock = newLock();
+        Condition never = lock.newCondition();
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            assertFalse(never.await(10, TimeUnit.MILLISECONDS));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsedMillis < DEADLINE_SLACK_MILLIS, "await(10ms) took " + elapsedMillis + "ms");
+            assertTrue(never.awaitNanos(TimeUnit.MILLISECONDS.toNanos(10)) <= 0L);
+            assertFalse(availableElsewhere(lock));
+        } finally {
+            lock.unlock();
+        }
+        assertTrue(availableElsewhere(lock));
+    }
+}
@@ -0,0 +1,82 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 队列自旋锁（CLH、MCS）的公共测试：严格按到达顺序交接，队列中间的等待者超时放弃后，
+ * 后面的等待者仍按顺序拿到锁
+ * @Date 2026/10/18
+ */
+abstract class AbstractQueueSpinLockTest extends AbstractLockTest {
+
+    /** 自旋线程不会阻塞，只能给它一段时间入队 */
+    static final long ENQUEUE_MILLIS = 100;
+
+    /** 启动一个获取后记录编号的线程，并等它入队 */
+    private static Thread queue(Lock lock, int id, List<Integer> order, List<Throwable> failures)
+            throws InterruptedException {
+        Thread t = start("waiter-" + id, () -> {
+            lock.lock();
+            try {
+                order.add(id);
+            } finally {
+                lock.unlock();
+            }
+        }, failures);
+        Thread.sleep(ENQUEUE_MILLIS);
+        return t;
+    }
+
+    @Test
+    void handsOffInArrivalOrder() throws InterruptedException {
+        Lock lock = newLock();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        List<Throwable> failures = new ArrayList<Throwable>();
+        lock.lock();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++)
+            threads[i] = queue(lock, i, order, failures);
+        assertEquals(Collections.emptyList(), order);
+        lock.unlock();
+        for (Thread t : threads) {
+            t.join(5000);
+            assertFalse(t.isAlive());
+        }
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(Arrays.asList(0, 1, 2, 3), order);
+    }
+
+    /** 中间的等待者超时放弃，它的前后两个等待者仍按顺序拿到锁 */
+    @Test
+    void abandonedWaiterIsSkippedInOrder() throws InterruptedException {
+        Lock lock = newLock();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+        List<Throwable> failures = new ArrayList<Throwable>();
+        AtomicBoolean gaveUp = new AtomicBoolean();
+        lock.lock();
+        Thread first = queue(lock, 0, order, failures);
+        Thread quitter = start("quitter", () -> gaveUp.set(!lock.tryLock(ENQUEUE_MILLIS, TimeUnit.MILLISECONDS)), failures);
+        Thread.sleep(ENQUEUE_MILLIS / 2);
+        Thread last = queue(lock, 2, order, failures);
+        quitter.join(5000);
+        assertTrue(gaveUp.get(), "timed waiter acquired a held lock");
+        lock.unlock();
+        first.join(5000);
+        last.join(5000);
+        assertFalse(last.isAlive(), "successor of the abandoned node never got the lock");
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(Arrays.asList(0, 2), order);
+        assertTrue(availableElsewhere(lock));
+    }
+}
@@ -0,0 +1,63 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 读写锁的公共测试：写锁按互斥锁跑{@link AbstractLockTest}的全部用例，
+ * 另外校验读写互斥、读锁共享、写锁持有者降级获取读锁，以及读锁被持有时写锁的限时获取在期限内返回
+ * @Date 2026/10/18
+ */
+abstract class AbstractReadWriteLockTest extends AbstractLockTest {
+
+    /** 被测的读写锁，每个测试一把新锁 */
+    abstract ReadWriteLock newReadWriteLock();
+
+    Lock newLock() {
+        return newReadWriteLock().writeLock();
+    }
+
+    @Test
+    void writerExcludesReaders() throws InterruptedException {
+        ReadWriteLock rw = newReadWriteLock();
+        rw.writeLock().lock();
+        assertFalse(availableElsewhere(rw.readLock()));
+        rw.writeLock().unlock();
+        assertTrue(availableElsewhere(rw.readLock()));
+    }
+
+    @Test
+    void readersShareAndExcludeWriters() throws InterruptedException {
+        ReadWriteLock rw = newReadWriteLock();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread reader = holdElsewhere(rw.readLock(), done);
+        assertTrue(rw.readLock().tryLock(), "second reader excluded");
+        rw.readLock().unlock();
+        assertFalse(rw.writeLock().tryLock());
+        long start = System.nanoTime();
+        assertFalse(rw.writeLock().tryLock(10, TimeUnit.MILLISECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < DEADLINE_SLACK_MILLIS, "tryLock(10ms) took " + elapsedMillis + "ms");
+        done.countDown();
+        reader.join();
+        assertTrue(rw.writeLock().tryLock(5, TimeUnit.SECONDS));
+        rw.writeLock().unlock();
+    }
+
+    @Test
+    void writerMayDowngrade() throws InterruptedException {
+        ReadWriteLock rw = newReadWriteLock();
+        rw.writeLock().lock();
+        assertTrue(rw.readLock().tryLock(1, TimeUnit.SECONDS), "write holder refused the read lock");
+        rw.writeLock().unlock();
+        assertTrue(availableElsewhere(rw.readLock()), "readers still excluded after downgrading");
+        assertFalse(availableElsewhere(rw.writeLock()));
+        rw.readLock().unlock();
+        assertTrue(availableElsewhere(rw.writeLock()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 异步条件变量：唤醒后重新获取锁；限时等待超时后立即出队；executor拒绝执行时等待的future以拒绝异常完成，锁不被遗留
+ * @Date 2026/10/18
+ */
+class AsyncConditionTest {
+
+    /** 在调用线程上直接执行，rejecting为true时拒绝执行 */
+    private volatile boolean rejecting;
+
+    private final Executor executor = task -> {
+        if (rejecting)
+            throw new RejectedExecutionException("shut down");
+        task.run();
+    };
+
+    @Test
+    void signalledWaiterHoldsTheLockAgain() throws Exception {
+        AsyncLock lock = new AsyncLock(executor);
+        AsyncCondition cond = lock.newCondition();
+        AsyncLock.LockHandle h = lock.lockAsync().get(1, TimeUnit.SECONDS);
+        CompletableFuture<Void> await = cond.awaitAsync(h);
+        assertFalse(h.isHeld());
+        AsyncLock.LockHandle signaller = lock.tryLock();
+        assertNotNull(signaller);
+        cond.signal();
+        assertFalse(await.isDone(), "completed before the signaller released the lock");
+        signaller.unlock();
+        await.get(1, TimeUnit.SECONDS);
+        assertTrue(h.isHeld());
+        h.unlock();
+        assertNotNull(lock.tryLock());
+    }
+
+    /** 超时的等待者立即出队并重新持有锁；之后的signal交给后面的等待者 */
+    @Test
+    void timedOutWaiterLeavesTheQueue() throws Exception {
+        AsyncLock lock = new AsyncLock(executor);
+        AsyncCondition cond = lock.newCondition();
+        AsyncLock.LockHandle timed = lock.lockAsync().get(1, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> timedAwait = cond.awaitAsync(timed, 20, TimeUnit.MILLISECONDS);
+        AsyncLock.LockHandle other = lock.lockAsync().get(1, TimeUnit.SECONDS);
+        CompletableFuture<Void> await = cond.awaitAsync(other);
+        assertEquals(2, cond.waiterCount());
+        assertFalse(timedAwait.get(5, TimeUnit.SECONDS), "timed out but reported a signal");
+        assertTrue(timed.isHeld());
+        assertEquals(1, cond.waiterCount(), "timed-out waiter left in the queue");
+        assertEquals(1, cond.getWaitQueueLength());
+        cond.signal();
+        timed.unlock();
+        await.get(1, TimeUnit.SECONDS);
+        assertTrue(other.isHeld());
+        assertEquals(0, cond.waiterCount());
+        other.unlock();
+        assertFalse(lock.isLocked());
+    }
+
+    @Test
+    void rejectedGrantFailsTheAwait() throws Exception {
+        AsyncLock lock = new AsyncLock(executor);
+        AsyncCondition cond = lock.newCondition();
+        AsyncLock.LockHandle h = lock.lockAsync().get(1, TimeUnit.SECONDS);
+        CompletableFuture<Void> await = cond.awaitAsync(h);
+        AsyncLock.LockHandle signaller = lock.tryLock();
+        cond.signal();
+        rejecting = true;
+        signaller.unlock();
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> await.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException, String.valueOf(e.getCause()));
+        assertFalse(h.isHeld());
+        rejecting = false;
+        assertNotNull(lock.tryLock(), "lock left held after the rejected grant");
+    }
+
+    @Test
+    void rejectedGrantFailsTheTimedAwait() throws Exception {
+        AsyncLock lock = new AsyncLock(executor);
+        AsyncCondition cond = lock.newCondition();
+        AsyncLock.LockHandle h = lock.lockAsync().get(1, TimeUnit.SECONDS);
+        CompletableFuture<Boolean> await = cond.awaitAsync(h, 1, TimeUnit.MINUTES);
+        AsyncLock.LockHandle signaller = lock.tryLock();
+        cond.signal();
+        rejecting = true;
+        signaller.unlock();
+        ExecutionException e = assertThrows(ExecutionException.class,
+            () -> await.get(1, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException, String.valueOf(e.getCause()));
+        assertFalse(h.isHeld());
+        rejecting = false;
+        assertNotNull(lock.tryLock(), "lock left held after the rejected grant");
+    }
+}
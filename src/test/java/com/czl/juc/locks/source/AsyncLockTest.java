@@ -0,0 +1,133 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 异步锁：限时获取在释放时获得或超时失败，超时与取消的等待者立即出队、不再获得锁，
+ * executor拒绝大量交接时逐个失败而不递归
+ * @Date 2026/10/18
+ */
+class AsyncLockTest {
+
+    /** 在调用线程上直接执行，rejecting为true时拒绝执行 */
+    private volatile boolean rejecting;
+
+    private final Executor executor = task -> {
+        if (rejecting)
+            throw new RejectedExecutionException("shut down");
+        task.run();
+    };
+
+    private static Throwable failure(CompletableFuture<?> f) throws InterruptedException {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    @Test
+    void tryLockAsyncIsGrantedOnRelease() throws Exception {
+        AsyncLock lock = new AsyncLock(executor);
+        AsyncLock.LockHandle h = lock.tryLock();
+        assertNotNull(h);
+        assertNull(lock.tryLock());
+        CompletableFuture<AsyncLock.LockHandle> f = lock.tryLockAsync(10, TimeUnit.SECONDS);
+        assertFalse(f.isDone());
+        assertEquals(1, lock.getQueueLength());
+        h.unlock();
+        AsyncLock.LockHandle granted = f.get(1, TimeUnit.SECONDS);
+        assertTrue(granted.isHeld());
+        assertSame(lock, granted.lock());
+        assertTrue(lock.isLocked());
+        assertEquals(0, lock.waiterCount());
+        granted.unlock();
+        assertFalse(lock.isLocked());
+        assertThrows(IllegalMonitorStateException.class, granted::unlock);
+    }
+
+    @Test
+    void tryLockAsyncOnAFreeLockIsGrantedAtOnce() throws Exception {
+        AsyncLock lock = new AsyncLock(executor);
+        CompletableFuture<AsyncLock.LockHandle> f = lock.tryLockAsync(0L, TimeUnit.SECONDS);
+        assertTrue(f.isDone());
+        AsyncLock.LockHandle h = f.get();
+        assertTrue(lock.isLocked());
+        assertTrue(failure(lock.tryLockAsync(0L, TimeUnit.SECONDS)) instanceof TimeoutException);
+        assertEquals(0, lock.waiterCount());
+        h.unlock();
+    }
+
+    /** 超时的等待者立即出队，释放时锁交给它后面的等待者 */
+    @Test
+    void timedOutWaiterLeavesTheQueue() throws Exception {
+        AsyncLock lock = new AsyncLock(executor);
+        AsyncLock.LockHandle h = lock.tryLock();
+        CompletableFuture<AsyncLock.LockHandle> timed = lock.tryLockAsync(20, TimeUnit.MILLISECONDS);
+        CompletableFuture<AsyncLock.LockHandle> next = lock.lockAsync();
+        assertEquals(2, lock.waiterCount());
+        assertTrue(failure(timed) instanceof TimeoutException);
+        assertEquals(1, lock.waiterCount(), "timed-out waiter left in the queue");
+        assertEquals(1, lock.getQueueLength());
+        h.unlock();
+        AsyncLock.LockHandle granted = next.get(1, TimeUnit.SECONDS);
+        assertTrue(lock.isLocked());
+        granted.unlock();
+        assertFalse(lock.isLocked());
+    }
+
+    /** 取消的等待者立即出队，不会获得锁 */
+    @Test
+    void cancelledWaiterLeavesTheQueue() throws Exception {
+        AsyncLock lock = new AsyncLock(executor);
+        AsyncLock.LockHandle h = lock.tryLock();
+        CompletableFuture<AsyncLock.LockHandle> cancelled = lock.lockAsync();
+        CompletableFuture<AsyncLock.LockHandle> timedCancelled = lock.tryLockAsync(10, TimeUnit.SECONDS);
+        CompletableFuture<AsyncLock.LockHandle> next = lock.lockAsync();
+        assertEquals(3, lock.waiterCount());
+        assertTrue(cancelled.cancel(false));
+        assertTrue(timedCancelled.cancel(false));
+        assertEquals(1, lock.waiterCount(), "cancelled waiters left in the queue");
+        assertEquals(1, lock.getQueueLength());
+        h.unlock();
+        AsyncLock.LockHandle granted = next.get(1, TimeUnit.SECONDS);
+        assertTrue(granted.isHeld());
+        granted.unlock();
+        assertFalse(lock.isLocked());
+        assertEquals(0, lock.waiterCount());
+    }
+
+    /** executor拒绝时每个等待者以拒绝异常失败，在释放线程上循环传递，不会因为等待者多而栈溢出 */
+    @Test
+    void rejectedGrantsFailEachWaiterWithoutRecursion() throws Exception {
+        AsyncLock lock = new AsyncLock(executor);
+        AsyncLock.LockHandle h = lock.tryLock();
+        List<CompletableFuture<AsyncLock.LockHandle>> waiting = new ArrayList<CompletableFuture<AsyncLock.LockHandle>>();
+        for (int i = 0; i < 20000; i++)
+            waiting.add(lock.lockAsync());
+        rejecting = true;
+        h.unlock();
+        for (CompletableFuture<AsyncLock.LockHandle> f : waiting)
+            assertTrue(f.isCompletedExceptionally());
+        assertTrue(failure(waiting.get(0)) instanceof RejectedExecutionException);
+        assertTrue(failure(waiting.get(waiting.size() - 1)) instanceof RejectedExecutionException);
+        assertFalse(lock.isLocked(), "lock left held after the rejected grants");
+        assertEquals(0, lock.waiterCount());
+        rejecting = false;
+        assertNotNull(lock.tryLock());
+    }
+}
@@ -0,0 +1,172 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 写锁批量提交：每个更新恰好执行一次、按提交顺序执行，每批不超过maxBatch，
+ * 队列长于一批时由最早的等待者接手合并，抛出异常的更新只让它自己的提交者失败，更新内部的嵌套提交直接执行
+ * @Date 2026/10/18
+ */
+class BatchingWriterTest {
+
+    /** 一次更新的执行记录：名字、所在批次、执行它的线程 */
+    static final class Ran {
+        final String name;
+        final long batch;
+        final Thread runner;
+
+        Ran(String name, long batch, Thread runner) {
+            this.name = name;
+            this.batch = batch;
+            this.runner = runner;
+        }
+    }
+
+    /** 等到队列中有n个更新 */
+    private static void awaitQueueLength(BatchingWriter writer, int n) throws InterruptedException {
+        long deadline = System.nanoTime() + 5000000000L;
+        while (writer.getQueueLength() != n) {
+            assertTrue(System.nanoTime() - deadline < 0, "queue length " + writer.getQueueLength() + ", expected " + n);
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * 测试线程持有写锁，使第一个提交者作为合并者阻塞在写锁上，其余提交者按names的顺序逐个排队；
+     * 释放写锁后等所有提交者返回。每个更新记下名字、批次与执行线程，名字为failing的更新抛出异常
+     */
+    private static List<Ran> submitInOrder(BatchingWriter writer, ReadWriteLock lock, List<String> names,
+                                           String failing, List<Thread> submitters, List<Throwable> failures)
+            throws InterruptedException {
+        List<Ran> ran = new ArrayList<Ran>();
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                submitters.add(AbstractLockTest.start(name, () -> writer.write(() -> {
+                    ran.add(new Ran(name, writer.getBatchCount(), Thread.currentThread()));
+                    if (name.equals(failing))
+                        throw new IllegalStateException(name);
+                }), failures));
+                awaitQueueLength(writer, i + 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Thread t : submitters) {
+            t.join(5000);
+            assertFalse(t.isAlive(), t.getName() + " never returned");
+        }
+        return ran;
+    }
+
+    private static List<String> names(List<Ran> ran) {
+        List<String> names = new ArrayList<String>();
+        for (Ran r : ran)
+            names.add(r.name);
+        return names;
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchingWriter(new HoldTableReadWriteLock(), 0));
+        BatchingWriter writer = new BatchingWriter(new HoldTableReadWriteLock());
+        assertEquals(BatchingWriter.DEFAULT_MAX_BATCH, writer.getMaxBatch());
+        assertThrows(NullPointerException.class, () -> writer.write((Runnable) null));
+        assertThrows(NullPointerException.class, () -> writer.write((Supplier<Object>) null));
+    }
+
+    /** 五个排队的更新在一批里按提交顺序各执行一次，由第一个提交者执行 */
+    @Test
+    void updatesRunOnceInSubmissionOrder() throws InterruptedException {
+        ReadWriteLock lock = new HoldTableReadWriteLock();
+        BatchingWriter writer = new BatchingWriter(lock, 8);
+        List<Thread> submitters = new ArrayList<Thread>();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        List<String> order = Arrays.asList("a", "b", "c", "d", "e");
+        List<Ran> ran = submitInOrder(writer, lock, order, null, submitters, failures);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(order, names(ran));
+        for (Ran r : ran) {
+            assertEquals(0L, r.batch);
+            assertSame(submitters.get(0), r.runner);
+        }
+        assertEquals(1L, writer.getBatchCount());
+        assertEquals(5L, writer.getWriteCount());
+        assertEquals(0, writer.getQueueLength());
+    }
+
+    /**
+     * maxBatch为2时五个更新分三批执行；每批结束后合并者唤醒最早的等待者，
+     * 由它执行下一批，所以每批的执行线程是该批第一个更新的提交者
+     */
+    @Test
+    void batchesRespectMaxBatchAndHandTheRoleOn() throws InterruptedException {
+        ReadWriteLock lock = new HoldTableReadWriteLock();
+        BatchingWriter writer = new BatchingWriter(lock, 2);
+        List<Thread> submitters = new ArrayList<Thread>();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        List<String> order = Arrays.asList("a", "b", "c", "d", "e");
+        List<Ran> ran = submitInOrder(writer, lock, order, null, submitters, failures);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(order, names(ran));
+        long[] batches = {0, 0, 1, 1, 2};
+        int[] runners = {0, 0, 2, 2, 4};
+        for (int i = 0; i < ran.size(); i++) {
+            assertEquals(batches[i], ran.get(i).batch, "batch of " + ran.get(i).name);
+            assertSame(submitters.get(runners[i]), ran.get(i).runner, "runner of " + ran.get(i).name);
+        }
+        assertEquals(3L, writer.getBatchCount());
+        assertEquals(5L, writer.getWriteCount());
+    }
+
+    /** 同一批里c抛出异常：只有c的提交者收到它，其余更新照常执行、提交者正常返回 */
+    @Test
+    void failingUpdateFailsOnlyItsSubmitter() throws InterruptedException {
+        ReadWriteLock lock = new HoldTableReadWriteLock();
+        BatchingWriter writer = new BatchingWriter(lock, 8);
+        List<Thread> submitters = new ArrayList<Thread>();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        List<String> order = Arrays.asList("a", "b", "c", "d", "e");
+        List<Ran> ran = submitInOrder(writer, lock, order, "c", submitters, failures);
+        assertEquals(order, names(ran));
+        assertEquals(1, failures.size(), "failures: " + failures);
+        assertTrue(failures.get(0) instanceof IllegalStateException, String.valueOf(failures.get(0)));
+        assertEquals("c", failures.get(0).getMessage());
+        assertEquals(1L, writer.getBatchCount());
+        assertEquals(5L, writer.getWriteCount());
+        assertTrue(AbstractLockTest.availableElsewhere(lock.writeLock()), "write lock left held");
+    }
+
+    /** 更新内部再次提交：嵌套的更新在合并者线程上直接执行，不排队也不单独计数 */
+    @Test
+    void nestedWriteRunsDirectly() {
+        ReadWriteLock lock = new HoldTableReadWriteLock();
+        BatchingWriter writer = new BatchingWriter(lock);
+        List<Thread> nestedRunners = Collections.synchronizedList(new ArrayList<Thread>());
+        int result = writer.write(() -> {
+            int inner = writer.write(() -> {
+                nestedRunners.add(Thread.currentThread());
+                return 41;
+            });
+            return inner + 1;
+        });
+        assertEquals(42, result);
+        assertEquals(Collections.singletonList(Thread.currentThread()), nestedRunners);
+        assertEquals(1L, writer.getBatchCount());
+        assertEquals(1L, writer.getWriteCount());
+        assertEquals(0, writer.getQueueLength());
+    }
+}
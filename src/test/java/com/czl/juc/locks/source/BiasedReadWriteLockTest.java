@@ -0,0 +1,97 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 读偏向读写锁：读锁重入（写线程正在等待读线程退出时）、锁降级、非持有者释放读锁、
+ * 分散在各个计数槽上的读者都会挡住写者；写锁与读写互斥的公共用例见AbstractReadWriteLockTest
+ * @Date 2026/10/18
+ */
+class BiasedReadWriteLockTest extends AbstractReadWriteLockTest {
+
+    ReadWriteLock newReadWriteLock() {
+        return new BiasedReadWriteLock();
+    }
+
+    @Test
+    void readReentryWhileWriterDrains() throws InterruptedException {
+        BiasedReadWriteLock lock = new BiasedReadWriteLock();
+        lock.readLock().lock();
+        Thread writer = new Thread(() -> {
+            lock.writeLock().lock();
+            lock.writeLock().unlock();
+        }, "writer");
+        writer.setDaemon(true);
+        writer.start();
+        // the writer holds the internal lock and has revoked the bias
+        while (!lock.toString().contains("bias = false")) {
+            Thread.sleep(1);
+        }
+        assertTrue(lock.readLock().tryLock(5, TimeUnit.SECONDS));
+        lock.readLock().lock();
+        assertEquals(3, lock.getReadHoldCount());
+        lock.readLock().unlock();
+        lock.readLock().unlock();
+        assertTrue(writer.isAlive());
+        lock.readLock().unlock();
+        writer.join(5000);
+        assertFalse(writer.isAlive());
+        assertEquals(0, lock.getReadHoldCount());
+    }
+
+    @Test
+    void newReaderWaitsForWriter() throws InterruptedException {
+        BiasedReadWriteLock lock = new BiasedReadWriteLock();
+        lock.writeLock().lock();
+        boolean[] acquired = new boolean[1];
+        Thread reader = new Thread(() -> acquired[0] = lock.readLock().tryLock(), "reader");
+        reader.setDaemon(true);
+        reader.start();
+        reader.join();
+        assertFalse(acquired[0]);
+        lock.readLock().lock();    // downgrade
+        lock.writeLock().unlock();
+        assertEquals(1, lock.getReadHoldCount());
+        lock.readLock().unlock();
+    }
+
+    @Test
+    void readUnlockWithoutHoldThrows() throws InterruptedException {
+        BiasedReadWriteLock lock = new BiasedReadWriteLock(1);
+        Thread holder = new Thread(() -> lock.readLock().lock(), "holder");
+        holder.setDaemon(true);
+        holder.start();
+        holder.join();
+        // same stripe as the holder, but no hold of its own
+        assertThrows(IllegalMonitorStateException.class, () -> lock.readLock().unlock());
+    }
+
+    /** 读者分散在各个计数槽上，写者要等最后一个读者退出 */
+    @Test
+    void readersOnEveryStripeHoldOffTheWriter() throws InterruptedException {
+        BiasedReadWriteLock lock = new BiasedReadWriteLock(4);
+        int readers = 8;
+        CountDownLatch[] done = new CountDownLatch[readers];
+        Thread[] threads = new Thread[readers];
+        for (int i = 0; i < readers; i++) {
+            done[i] = new CountDownLatch(1);
+            threads[i] = holdElsewhere(lock.readLock(), done[i]);
+        }
+        for (int i = 0; i < readers; i++) {
+            assertFalse(lock.writeLock().tryLock(10, TimeUnit.MILLISECONDS), "writer got in past " + (readers - i) + " readers");
+            done[i].countDown();
+            threads[i].join();
+        }
+        assertTrue(lock.writeLock().tryLock(5, TimeUnit.SECONDS));
+        lock.writeLock().unlock();
+        assertTrue(availableElsewhere(lock.readLock()), "read bias not restored after the writer");
+    }
+}
@@ -0,0 +1,34 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: CLH自旋锁：在前驱节点上自旋，严格按到达顺序交接，超时放弃的节点被后继跳过；持有者查询
+ * @Date 2026/10/18
+ */
+class ClhLockTest extends AbstractQueueSpinLockTest {
+
+    Lock newLock() {
+        return new ClhLock();
+    }
+
+    @Test
+    void ownerQueriesFollowTheHolds() throws InterruptedException {
+        ClhLock lock = new ClhLock();
+        assertFalse(lock.isLocked());
+        lock.lock();
+        lock.lock();
+        assertTrue(lock.isLocked());
+        assertTrue(lock.isHeldByCurrentThread());
+        lock.unlock();
+        assertTrue(lock.isHeldByCurrentThread(), "released by the inner unlock");
+        lock.unlock();
+        assertFalse(lock.isHeldByCurrentThread());
+        assertFalse(lock.isLocked());
+        assertTrue(availableElsewhere(lock));
+    }
+}
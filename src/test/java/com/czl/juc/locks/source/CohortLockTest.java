@@ -0,0 +1,176 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: NUMA感知队列锁：限时获取与可中断获取在放弃后不阻塞，放弃的等待者不会把全局锁遗留在本节点，
+ * 有同节点等待者时锁留在节点内交接；重入等公共用例见AbstractLockTest
+ * @Date 2026/10/18
+ */
+class CohortLockTest extends AbstractLockTest {
+
+    /** 按线程名末尾的数字分到两个节点 */
+    private static CohortLock twoNodes() {
+        return new CohortLock(2, t -> t.getName().endsWith("1") ? 1 : 0, CohortLock.DEFAULT_MAX_LOCAL_PASSES);
+    }
+
+    Lock newLock() {
+        return twoNodes();
+    }
+
+    @Test
+    void timedTryLockReturnsByItsDeadline() throws InterruptedException {
+        CohortLock lock = twoNodes();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            try {
+                held.countDown();
+                done.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        }, "holder-0");
+        holder.setDaemon(true);
+        holder.start();
+        held.await();
+        long start = System.nanoTime();
+        assertFalse(lock.tryLock(10, TimeUnit.MILLISECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < 1000, "tryLock(10ms) took " + elapsedMillis + "ms");
+        done.countDown();
+        holder.join();
+        assertTrue(lock.tryLock());
+        lock.unlock();
+    }
+
+    @Test
+    void interruptedLockReturnsPromptly() throws InterruptedException {
+        CohortLock lock = twoNodes();
+        lock.lock();
+        long[] elapsedMillis = new long[1];
+        boolean[] interrupted = new boolean[1];
+        Thread waiter = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                lock.lockInterruptibly();
+                lock.unlock();
+            } catch (InterruptedException e) {
+                interrupted[0] = true;
+            }
+            elapsedMillis[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }, "waiter-0");
+        waiter.setDaemon(true);
+        waiter.start();
+        try {
+            Thread.sleep(50);
+            waiter.interrupt();
+            waiter.join(5000);
+            assertFalse(waiter.isAlive(), "lockInterruptibly blocked after interrupt");
+        } finally {
+            lock.unlock();
+        }
+        assertTrue(interrupted[0]);
+        assertTrue(elapsedMillis[0] < 1000, "lockInterruptibly took " + elapsedMillis[0] + "ms");
+    }
+
+    @Test
+    void abandonedWaitersDoNotStrandTheGlobalLock() throws InterruptedException {
+        CohortLock lock = twoNodes();
+        AtomicLong inside = new AtomicLong();
+        long[] count = new long[1];
+        Thread[] threads = new Thread[6];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    try {
+                        if (!lock.tryLock(i % 3, TimeUnit.MICROSECONDS))
+                            continue;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    try {
+                        assertEquals(1, inside.incrementAndGet());
+                        count[0]++;
+                        inside.decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }, "stress-" + (t & 1));
+            threads[t].setDaemon(true);
+            threads[t].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        // both cohorts can still get in
+        for (String name : new String[] {"check-0", "check-1"}) {
+            boolean[] acquired = new boolean[1];
+            Thread t = new Thread(() -> {
+                try {
+                    acquired[0] = lock.tryLock(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (acquired[0])
+                    lock.unlock();
+            }, name);
+            t.setDaemon(true);
+            t.start();
+            t.join();
+            assertTrue(acquired[0], name + " could not acquire after the stress run");
+        }
+        assertTrue(lock.toString().endsWith("Unlocked]"));
+    }
+
+    /** 等到线程阻塞 */
+    private static void awaitBlocked(Thread t) throws InterruptedException {
+        long deadline = System.nanoTime() + 5000000000L;
+        while (t.getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() - deadline < 0, t.getName() + " did not block");
+            Thread.sleep(1);
+        }
+    }
+
+    /** 另一节点的线程先排在全局锁上，同节点的线程后到，锁仍先交给同节点的线程 */
+    @Test
+    void handOffStaysWithinTheCohort() throws InterruptedException {
+        CohortLock lock = twoNodes();
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        List<Throwable> failures = new ArrayList<Throwable>();
+        lock.lock();                                    // "main" maps to node 0
+        Thread remote = start("remote-1", () -> {
+            lock.lock();
+            order.add("remote");
+            lock.unlock();
+        }, failures);
+        awaitBlocked(remote);
+        Thread mate = start("mate-0", () -> {
+            lock.lock();
+            order.add("mate");
+            lock.unlock();
+        }, failures);
+        awaitBlocked(mate);
+        lock.unlock();
+        mate.join(5000);
+        remote.join(5000);
+        assertFalse(remote.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(Arrays.asList("mate", "remote"), order);
+    }
+}
@@ -0,0 +1,243 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 在线死锁检测：两把ReentrantLock上的环被找到并只报告一次，快照中已不成立的环经复核后不报告，
+ * 监听器抛出异常后扫描继续，打破死锁时被选中线程的lockInterruptibly()抛出DeadlockException。
+ * 需要-Dcom.czl.juc.locks.deadlockDetection=true，由pom里单独的deadlockDetection执行在独立的JVM中运行
+ * @Date 2026/10/18
+ */
+class DeadlockDetectorTest {
+
+    /** 两个线程各持有一把锁，再以lockInterruptibly()等待对方的锁 */
+    private static final class Crossing {
+        final Map<Thread, Throwable> failed = new ConcurrentHashMap<Thread, Throwable>();
+        final Set<Thread> acquired = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        final Thread a;
+        final Thread b;
+
+        Crossing(ReentrantLock first, ReentrantLock second) throws InterruptedException {
+            CountDownLatch holding = new CountDownLatch(2);
+            a = start("a", first, second, holding);
+            b = start("b", second, first, holding);
+            long deadline = System.nanoTime() + 5000000000L;
+            while (!second.hasQueuedThread(a) || !first.hasQueuedThread(b)) {
+                assertTrue(System.nanoTime() - deadline < 0, "threads never crossed");
+                Thread.sleep(1);
+            }
+        }
+
+        private Thread start(String name, ReentrantLock own, ReentrantLock other, CountDownLatch holding) {
+            Thread t = new Thread(() -> {
+                own.lock();
+                try {
+                    holding.countDown();
+                    holding.await();
+                    other.lockInterruptibly();
+                    acquired.add(Thread.currentThread());
+                    other.unlock();
+                } catch (InterruptedException e) {
+                    failed.put(Thread.currentThread(), e);
+                } finally {
+                    own.unlock();
+                }
+            }, name);
+            t.setDaemon(true);
+            t.start();
+            return t;
+        }
+
+        void join() throws InterruptedException {
+            for (Thread t : new Thread[] {a, b}) {
+                t.join(10000);
+                assertFalse(t.isAlive(), t.getName() + " still deadlocked");
+            }
+        }
+    }
+
+    @BeforeEach
+    void quietSharedDetector() {
+        DeadlockDetector.shared().setListener(d -> { });
+    }
+
+    @AfterEach
+    void resetSharedDetector() {
+        DeadlockDetector.shared().setBreakCycles(false);
+    }
+
+    @Test
+    void detectionIsEnabledInThisFork() {
+        assertTrue(DeadlockDetector.ENABLED, "run with -Dcom.czl.juc.locks.deadlockDetection=true");
+    }
+
+    @Test
+    void cycleAcrossTwoLocksIsReportedOnce() throws InterruptedException {
+        DeadlockDetector detector = new DeadlockDetector();
+        List<DeadlockDetector.Deadlock> reported = new CopyOnWriteArrayList<DeadlockDetector.Deadlock>();
+        detector.setListener(reported::add);
+        ReentrantLock first = new ReentrantLock();
+        ReentrantLock second = new ReentrantLock();
+        detector.register(first);
+        detector.register(second);
+        assertEquals(Collections.emptyList(), detector.detect());
+
+        Crossing crossing = new Crossing(first, second);
+        List<DeadlockDetector.Deadlock> found = detector.detect();
+        assertEquals(1, found.size());
+        DeadlockDetector.Deadlock d = found.get(0);
+        assertEquals(new HashSet<Thread>(Arrays.asList(crossing.a, crossing.b)), new HashSet<Thread>(d.getThreads()));
+        for (int i = 0; i < 2; i++) {
+            Thread t = d.getThreads().get(i);
+            ReentrantLock lock = d.getLocks().get(i);
+            assertTrue(lock.hasQueuedThread(t));
+            assertSame(d.getThreads().get(1 - i), lock.getOwner(), "the lock is held by the next thread");
+            assertTrue(d.getStacks().get(t).length > 0);
+        }
+        assertTrue(d.toString().contains("\"a\" waits for"), d.toString());
+        assertEquals(Collections.singletonList(d), reported);
+
+        assertEquals(1, detector.detect().size(), "a live cycle is still found");
+        assertEquals(1, reported.size(), "the same cycle was reported twice");
+
+        crossing.a.interrupt();
+        crossing.join();
+        assertFalse(crossing.failed.get(crossing.a) instanceof DeadlockDetector.DeadlockException,
+            "failed without breakCycles");
+        assertTrue(crossing.acquired.contains(crossing.b));
+        assertEquals(Collections.emptyList(), detector.detect());
+    }
+
+    /**
+     * 快照说x等待first、y等待second，但y其实没有排队：x的边成立，y的边不成立。
+     * 复核逐条检查边，返回null；完整扫描也找不到环
+     */
+    @Test
+    void cycleThatNoLongerHoldsIsNotVerified() throws InterruptedException {
+        ReentrantLock first = new ReentrantLock();
+        ReentrantLock second = new ReentrantLock();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread y = AbstractLockTest.start("y", () -> {
+            first.lock();
+            try {
+                holding.countDown();
+                release.await();
+            } finally {
+                first.unlock();
+            }
+        }, failures);
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        Thread x = AbstractLockTest.start("x", () -> {
+            second.lock();
+            try {
+                first.lock();
+                first.unlock();
+            } finally {
+                second.unlock();
+            }
+        }, failures);
+        long deadline = System.nanoTime() + 5000000000L;
+        while (!first.hasQueuedThread(x)) {
+            assertTrue(System.nanoTime() - deadline < 0, "x never queued");
+            Thread.sleep(1);
+        }
+
+        Map<Thread, ReentrantLock> snapshot = new HashMap<Thread, ReentrantLock>();
+        snapshot.put(x, first);
+        snapshot.put(y, second);
+        assertNull(DeadlockDetector.verify(Arrays.asList(x, y), snapshot));
+        Map<Thread, ReentrantLock> live = new HashMap<Thread, ReentrantLock>();
+        live.put(x, first);
+        assertNull(DeadlockDetector.verify(Collections.singletonList(x), live), "x does not wait for itself");
+
+        DeadlockDetector detector = new DeadlockDetector();
+        detector.setListener(d -> failures.add(new AssertionError("reported " + d)));
+        detector.register(first);
+        detector.register(second);
+        assertEquals(Collections.emptyList(), detector.detect());
+
+        release.countDown();
+        x.join(5000);
+        y.join(5000);
+        assertFalse(x.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+    }
+
+    /** 监听器抛出异常后扫描线程继续运行，下一个环照常报告 */
+    @Test
+    void scanningSurvivesAFailingListener() throws InterruptedException {
+        DeadlockDetector detector = new DeadlockDetector();
+        List<DeadlockDetector.Deadlock> reported = new CopyOnWriteArrayList<DeadlockDetector.Deadlock>();
+        detector.setListener(d -> {
+            reported.add(d);
+            throw new IllegalStateException("listener failed");
+        });
+        detector.start(10, TimeUnit.MILLISECONDS);
+        try {
+            for (int round = 1; round <= 2; round++) {
+                ReentrantLock first = new ReentrantLock();
+                ReentrantLock second = new ReentrantLock();
+                detector.register(first);
+                detector.register(second);
+                Crossing crossing = new Crossing(first, second);
+                long deadline = System.nanoTime() + 5000000000L;
+                while (reported.size() < round) {
+                    assertTrue(System.nanoTime() - deadline < 0, "cycle " + round + " never reported");
+                    Thread.sleep(1);
+                }
+                crossing.a.interrupt();
+                crossing.join();
+            }
+        } finally {
+            detector.stop();
+        }
+        assertEquals(2, reported.size());
+    }
+
+    /** 打开breakCycles后，环中在lockInterruptibly()里等待的一个线程抛出DeadlockException，另一个随后获得锁 */
+    @Test
+    void victimsLockInterruptiblyFailsWithDeadlockException() throws InterruptedException {
+        DeadlockDetector shared = DeadlockDetector.shared();
+        List<DeadlockDetector.Deadlock> reported = new CopyOnWriteArrayList<DeadlockDetector.Deadlock>();
+        shared.setListener(reported::add);
+        shared.setBreakCycles(true);
+        Crossing crossing = new Crossing(new ReentrantLock(), new ReentrantLock());
+        shared.detect();
+        crossing.join();
+
+        assertEquals(1, crossing.failed.size(), "failed: " + crossing.failed);
+        Thread victim = crossing.failed.keySet().iterator().next();
+        Thread survivor = victim == crossing.a ? crossing.b : crossing.a;
+        assertTrue(crossing.acquired.contains(survivor));
+        Throwable e = crossing.failed.get(victim);
+        assertTrue(e instanceof DeadlockDetector.DeadlockException, String.valueOf(e));
+        DeadlockDetector.Deadlock d = ((DeadlockDetector.DeadlockException) e).getDeadlock();
+        assertNotNull(d);
+        assertEquals(Collections.singletonList(d), reported);
+        assertEquals(new HashSet<Thread>(Arrays.asList(victim, survivor)), new HashSet<Thread>(d.getThreads()));
+    }
+}
@@ -0,0 +1,54 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 文件租约存储：令牌在实例之间单调递增，空文件或损坏文件不会被当作新记录
+ * @Date 2026/10/18
+ */
+class FileLeaseStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tokensIncreaseAcrossStores() {
+        FileLeaseStore a = new FileLeaseStore(dir.toFile());
+        LeaseStore.Lease first = a.tryAcquire("orders", "a", 60000);
+        assertNotNull(first);
+        assertNull(new FileLeaseStore(dir.toFile()).tryAcquire("orders", "b", 60000));
+        assertTrue(a.release(first));
+
+        FileLeaseStore b = new FileLeaseStore(dir.toFile());
+        LeaseStore.Lease second = b.tryAcquire("orders", "b", 60000);
+        assertNotNull(second);
+        assertEquals(first.getToken() + 1, second.getToken());
+        LeaseStore.Lease renewed = b.renew(second, 60000);
+        assertNotNull(renewed);
+        assertEquals(second.getToken(), renewed.getToken());
+        assertFalse(Files.exists(dir.resolve("orders.lease.tmp")));
+    }
+
+    @Test
+    void emptyLeaseFileIsNotAFreshRecord() throws Exception {
+        FileLeaseStore store = new FileLeaseStore(dir.toFile());
+        LeaseStore.Lease lease = store.tryAcquire("orders", "a", 60000);
+        assertTrue(store.release(lease));
+        File file = dir.resolve("orders.lease").toFile();
+        Files.write(file.toPath(), new byte[0]);
+        assertThrows(UncheckedIOException.class, () -> store.tryAcquire("orders", "b", 60000));
+    }
+}
@@ -0,0 +1,178 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 平面合并锁：Lock方法按底层互斥锁测试；合并执行的临界区互斥、可嵌套，异常只抛给自己的调用者；
+ * 槽位数向上取整到2的幂，一个合并者在一次合并中执行所有已发布的操作并把结果写回各自的槽位，槽位用尽时在互斥锁下直接执行
+ * @Date 2026/10/18
+ */
+class FlatCombiningLockTest extends AbstractLockTest {
+
+    Lock newLock() {
+        return new FlatCombiningLock();
+    }
+
+    boolean supportsConditions() {
+        return true;
+    }
+
+    /** 等到n个槽位已发布操作 */
+    private static void awaitPending(FlatCombiningLock lock, int n) throws InterruptedException {
+        long deadline = System.nanoTime() + 5000000000L;
+        while (lock.pendingCount() != n) {
+            assertTrue(System.nanoTime() - deadline < 0, "pending " + lock.pendingCount() + ", expected " + n);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void slotCountRoundsUpToAPowerOfTwo() {
+        assertEquals(1, new FlatCombiningLock(1).getSlotCount());
+        assertEquals(4, new FlatCombiningLock(3).getSlotCount());
+        assertEquals(64, new FlatCombiningLock(64).getSlotCount());
+        assertEquals(1024, new FlatCombiningLock(1000).getSlotCount());
+        assertTrue(new FlatCombiningLock().getSlotCount() >= FlatCombiningLock.MIN_SLOTS);
+        assertThrows(IllegalArgumentException.class, () -> new FlatCombiningLock(0));
+    }
+
+    /**
+     * 测试线程持有互斥锁时四个调用者发布操作并自旋；释放后其中一个成为合并者，
+     * 在一次合并中执行全部四个操作，各自拿回自己的结果，抛出异常的只让自己的调用者失败
+     */
+    @Test
+    void oneCombinerRunsEveryPublishedSection() throws InterruptedException {
+        FlatCombiningLock lock = new FlatCombiningLock(8);
+        Set<Thread> runners = ConcurrentHashMap.newKeySet();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        List<Thread> callers = new ArrayList<Thread>();
+        List<AtomicReference<Object>> results = new ArrayList<AtomicReference<Object>>();
+        lock.lock();
+        try {
+            for (int i = 0; i < 4; i++) {
+                int id = i;
+                AtomicReference<Object> result = new AtomicReference<Object>();
+                results.add(result);
+                callers.add(start("caller-" + i, () -> result.set(lock.execute(() -> {
+                    runners.add(Thread.currentThread());
+                    if (id == 2)
+                        throw new IllegalStateException("section 2");
+                    return id * 10;
+                })), failures));
+            }
+            awaitPending(lock, 4);
+            assertEquals(0L, lock.getCombineCount(), "combined while the mutex was held");
+        } finally {
+            lock.unlock();
+        }
+        for (Thread t : callers) {
+            t.join(10000);
+            assertFalse(t.isAlive());
+        }
+        assertEquals(1, runners.size(), "sections ran on " + runners);
+        assertTrue(callers.contains(runners.iterator().next()));
+        assertEquals(1L, lock.getCombineCount());
+        assertEquals(4L, lock.getCombinedCount());
+        assertEquals(0, results.get(0).get());
+        assertEquals(10, results.get(1).get());
+        assertNull(results.get(2).get());
+        assertEquals(30, results.get(3).get());
+        assertEquals(1, failures.size(), "failures: " + failures);
+        assertEquals("section 2", failures.get(0).getMessage());
+        assertEquals(0, lock.pendingCount());
+    }
+
+    /** 唯一的槽位被占用时，另一个调用者不合并，而是在自己的线程上于互斥锁下执行 */
+    @Test
+    void callerWithoutASlotRunsUnderTheMutex() throws InterruptedException {
+        FlatCombiningLock lock = new FlatCombiningLock(1);
+        AtomicReference<Thread> publishedRunner = new AtomicReference<Thread>();
+        AtomicReference<Thread> fallbackRunner = new AtomicReference<Thread>();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread published;
+        Thread fallback;
+        lock.lock();
+        try {
+            published = start("published", () -> lock.execute(() -> {
+                publishedRunner.set(Thread.currentThread());
+            }), failures);
+            awaitPending(lock, 1);
+            fallback = start("fallback", () -> lock.execute(() -> {
+                fallbackRunner.set(Thread.currentThread());
+            }), failures);
+            long deadline = System.nanoTime() + 5000000000L;
+            while (fallback.getState() != Thread.State.WAITING) {
+                assertTrue(System.nanoTime() - deadline < 0, "fallback never blocked on the mutex");
+                Thread.sleep(1);
+            }
+        } finally {
+            lock.unlock();
+        }
+        published.join(10000);
+        fallback.join(10000);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertSame(fallback, fallbackRunner.get());
+        assertSame(published, publishedRunner.get());
+        assertEquals(1L, lock.getCombinedCount(), "the fallback section was combined");
+        Set<Thread> both = new HashSet<Thread>();
+        both.add(publishedRunner.get());
+        both.add(fallbackRunner.get());
+        assertEquals(2, both.size());
+    }
+
+    @Test
+    void combinedSectionsAreExclusive() throws InterruptedException {
+        FlatCombiningLock lock = new FlatCombiningLock(4);
+        long[] counter = new long[1];
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = start("fc-" + i, () -> {
+                for (int n = 0; n < 10000; n++)
+                    lock.execute(() -> { counter[0]++; });
+            }, failures);
+        }
+        for (Thread t : threads) {
+            t.join(10000);
+            assertFalse(t.isAlive());
+        }
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(80000L, lock.execute(() -> counter[0]));
+    }
+
+    @Test
+    void nestedSectionRunsDirectly() throws InterruptedException {
+        FlatCombiningLock lock = new FlatCombiningLock();
+        assertEquals(Integer.valueOf(2), lock.execute(() -> lock.execute(() -> 1) + 1));
+        lock.lock();
+        try {
+            assertEquals("held", lock.execute(() -> "held"));
+        } finally {
+            lock.unlock();
+        }
+        assertTrue(availableElsewhere(lock));
+    }
+
+    @Test
+    void failingSectionFailsOnlyItsCaller() throws InterruptedException {
+        FlatCombiningLock lock = new FlatCombiningLock();
+        IllegalStateException boom = new IllegalStateException("boom");
+        assertSame(boom, assertThrows(IllegalStateException.class, () -> lock.execute(() -> { throw boom; })));
+        assertEquals("ok", lock.execute(() -> "ok"));
+        assertTrue(availableElsewhere(lock));
+    }
+}
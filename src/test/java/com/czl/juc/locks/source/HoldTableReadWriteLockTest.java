@@ -0,0 +1,194 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 读锁重入次数记在表里的读写锁：写锁与条件变量、读锁重入；
+ * 大量并发读线程（超过初始表容量，触发扩容）各自的重入次数互不干扰，写线程排队时非首个读线程仍能经由表重入，
+ * 表扩容时丢弃已结束且不再持有的线程的记录、保留仍持有的记录
+ * @Date 2026/10/18
+ */
+class HoldTableReadWriteLockTest extends AbstractReadWriteLockTest {
+
+    ReadWriteLock newReadWriteLock() {
+        return new HoldTableReadWriteLock();
+    }
+
+    boolean supportsConditions() {
+        return true;
+    }
+
+    @Test
+    void readLockIsReentrant() throws InterruptedException {
+        HoldTableReadWriteLock rw = new HoldTableReadWriteLock();
+        rw.readLock().lock();
+        assertTrue(rw.readLock().tryLock());
+        assertEquals(2, rw.getReadHoldCount());
+        rw.readLock().unlock();
+        assertFalse(availableElsewhere(rw.writeLock()));
+        rw.readLock().unlock();
+        assertEquals(0, rw.getReadHoldCount());
+        assertTrue(availableElsewhere(rw.writeLock()));
+        assertThrows(IllegalMonitorStateException.class, () -> rw.readLock().unlock());
+    }
+
+    /**
+     * 64个读线程同时持有，第i个重入i % 5 + 1次：首个读线程、缓存的记录和表中的记录（中途扩容）
+     * 各自计数，总数等于各线程之和，释放时逐一减少
+     */
+    @Test
+    void concurrentReadersKeepSeparateHoldCounts() throws InterruptedException {
+        HoldTableReadWriteLock rw = new HoldTableReadWriteLock();
+        int readers = 64;
+        CyclicBarrier allHolding = new CyclicBarrier(readers + 1);
+        CyclicBarrier counted = new CyclicBarrier(readers + 1);
+        List<Throwable> failures = new ArrayList<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        int total = 0;
+        for (int i = 0; i < readers; i++) {
+            int holds = i % 5 + 1;
+            total += holds;
+            threads.add(start("reader-" + i, () -> {
+                for (int k = 1; k <= holds; k++) {
+                    rw.readLock().lock();
+                    assertEquals(k, rw.getReadHoldCount());
+                }
+                allHolding.await(10, TimeUnit.SECONDS);
+                counted.await(10, TimeUnit.SECONDS);
+                for (int k = holds - 1; k >= 0; k--) {
+                    rw.readLock().unlock();
+                    assertEquals(k, rw.getReadHoldCount());
+                }
+                assertThrows(IllegalMonitorStateException.class, () -> rw.readLock().unlock());
+            }, failures));
+        }
+        try {
+            allHolding.await(10, TimeUnit.SECONDS);
+            assertEquals(total, rw.getReadLockCount());
+            assertEquals(0, rw.getReadHoldCount(), "holds of other threads counted for this one");
+            assertTrue(rw.holdTableCapacity() > HoldTableReadWriteLock.HoldTable.MIN_CAPACITY, "table never resized");
+            counted.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+        for (Thread t : threads)
+            t.join(10000);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(0, rw.getReadLockCount());
+        assertTrue(availableElsewhere(rw.writeLock()));
+    }
+
+    /** 新的读线程能否在另一个线程里限时获取读锁；限时获取不插队，写线程排队时失败 */
+    private static boolean newReaderAdmitted(HoldTableReadWriteLock rw) throws InterruptedException {
+        AtomicReference<Boolean> admitted = new AtomicReference<Boolean>(false);
+        Thread probe = new Thread(() -> {
+            try {
+                if (rw.readLock().tryLock(1, TimeUnit.MILLISECONDS)) {
+                    admitted.set(true);
+                    rw.readLock().unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "probe");
+        probe.setDaemon(true);
+        probe.start();
+        probe.join(5000);
+        assertFalse(probe.isAlive(), "tryLock blocked");
+        return admitted.get();
+    }
+
+    /**
+     * 写线程排队时新读线程被拒绝，但已持有读锁的线程可以重入。
+     * 第二个读线程不是firstReader，它的重入次数只能在表里找到
+     */
+    @Test
+    void holdingReaderReentersPastAQueuedWriter() throws InterruptedException {
+        HoldTableReadWriteLock rw = new HoldTableReadWriteLock();
+        rw.readLock().lock();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch writerQueued = new CountDownLatch(1);
+        CountDownLatch reentered = new CountDownLatch(1);
+        Thread second = start("second-reader", () -> {
+            rw.readLock().lock();
+            try {
+                holding.countDown();
+                writerQueued.await();
+                assertTrue(rw.readLock().tryLock(5, TimeUnit.SECONDS), "reentry blocked behind the writer");
+                assertEquals(2, rw.getReadHoldCount());
+                rw.readLock().unlock();
+                reentered.countDown();
+            } finally {
+                rw.readLock().unlock();
+            }
+        }, failures);
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        // a third reader's record takes the cache, so the second reader's is found in the table
+        start("third-reader", () -> {
+            rw.readLock().lock();
+            rw.readLock().unlock();
+        }, failures).join();
+        Thread writer = start("writer", () -> {
+            rw.writeLock().lock();
+            rw.writeLock().unlock();
+        }, failures);
+        long deadline = System.nanoTime() + 5000000000L;
+        while (newReaderAdmitted(rw)) {
+            assertTrue(System.nanoTime() - deadline < 0, "writer never queued");
+            Thread.sleep(1);
+        }
+        writerQueued.countDown();
+        assertTrue(reentered.await(5, TimeUnit.SECONDS), "second reader could not re-enter");
+        second.join(5000);
+        assertTrue(writer.isAlive(), "writer ran while the first reader held");
+        rw.readLock().unlock();
+        writer.join(5000);
+        assertFalse(writer.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+    }
+
+    /**
+     * 表扩容时丢弃已结束且不再持有读锁的线程的记录：大量短命线程之后表的容量不随线程数增长；
+     * 结束时仍记有次数的记录被保留
+     */
+    @Test
+    void resizeDropsRecordsOfFinishedThreadsOnly() throws InterruptedException {
+        HoldTableReadWriteLock.HoldTable table = new HoldTableReadWriteLock.HoldTable();
+        AtomicReference<HoldTableReadWriteLock.Holds> leaked = new AtomicReference<HoldTableReadWriteLock.Holds>();
+        Thread leaker = new Thread(() -> {
+            HoldTableReadWriteLock.Holds h = table.claim(Thread.currentThread());
+            h.count = 1;
+            leaked.set(h);
+        });
+        leaker.start();
+        leaker.join();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        for (int i = 0; i < 200; i++) {
+            start("short-lived-" + i, () -> {
+                HoldTableReadWriteLock.Holds h = table.claim(Thread.currentThread());
+                assertSame(h, table.claim(Thread.currentThread()));
+                assertSame(h, table.find(Thread.currentThread()));
+            }, failures).join();
+        }
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertTrue(table.capacity() <= 2 * HoldTableReadWriteLock.HoldTable.MIN_CAPACITY,
+            "capacity grew to " + table.capacity() + " for finished threads");
+        assertSame(leaked.get(), table.find(leaker), "record with holds outstanding was dropped");
+        assertNull(table.find(Thread.currentThread()));
+    }
+}
@@ -0,0 +1,145 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 按key加锁：同一key重入、不同key互不阻塞；等待者的引用使key的锁在持有者释放后仍留在表中，
+ * 限时获取失败或被中断的等待者释放引用，锁能被回收；空闲的锁放回池子，池子有上限
+ * @Date 2026/10/18
+ */
+class KeyedLockManagerTest {
+
+    private final KeyedLockManager<String> locks = new KeyedLockManager<String>();
+
+    /** 在另一个线程里tryLock(key)，成功则立即释放 */
+    private boolean availableElsewhere(String key) throws InterruptedException {
+        AtomicBoolean acquired = new AtomicBoolean();
+        Thread t = new Thread(() -> {
+            if (locks.tryLock(key)) {
+                acquired.set(true);
+                locks.unlock(key);
+            }
+        }, "probe");
+        t.setDaemon(true);
+        t.start();
+        t.join(5000);
+        assertFalse(t.isAlive(), "tryLock blocked");
+        return acquired.get();
+    }
+
+    @Test
+    void keysAreReentrantAndIndependent() throws InterruptedException {
+        locks.lock("a");
+        assertTrue(locks.tryLock("a"));
+        assertFalse(availableElsewhere("a"));
+        assertTrue(availableElsewhere("b"));
+        locks.unlock("a");
+        assertFalse(availableElsewhere("a"), "released by the inner unlock");
+        locks.unlock("a");
+        assertTrue(availableElsewhere("a"));
+        assertEquals(0, locks.getActiveKeyCount());
+        assertThrows(IllegalMonitorStateException.class, () -> locks.unlock("a"));
+    }
+
+    @Test
+    void timedOutWaiterDropsItsReference() throws InterruptedException {
+        locks.lock("a");
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread waiter = AbstractLockTest.start("waiter", () -> {
+            long start = System.nanoTime();
+            assertFalse(locks.tryLock("a", 10, TimeUnit.MILLISECONDS));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsedMillis < AbstractLockTest.DEADLINE_SLACK_MILLIS,
+                "tryLock(10ms) took " + elapsedMillis + "ms");
+        }, failures);
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        locks.unlock("a");
+        assertEquals(0, locks.getActiveKeyCount(), "lock of a timed-out waiter kept in the table");
+    }
+
+    @Test
+    void interruptedWaiterDropsItsReference() throws InterruptedException {
+        locks.lock("a");
+        CountDownLatch interrupted = new CountDownLatch(1);
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread waiter = AbstractLockTest.start("waiter", () -> {
+            try {
+                locks.lockInterruptibly("a");
+                locks.unlock("a");
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        }, failures);
+        Thread.sleep(50);
+        waiter.interrupt();
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "lockInterruptibly ignored the interrupt");
+        assertEquals(new ArrayList<Throwable>(), failures);
+        locks.unlock("a");
+        assertEquals(0, locks.getActiveKeyCount(), "lock of an interrupted waiter kept in the table");
+        assertTrue(availableElsewhere("a"));
+    }
+
+    /** 持有者释放时还有等待者，映射不能被移除，否则新来的线程会拿到另一把锁 */
+    @Test
+    void waiterKeepsTheKeyMappedAcrossTheHoldersRelease() throws InterruptedException {
+        locks.lock("a");
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread waiter = AbstractLockTest.start("waiter", () -> {
+            locks.lock("a");
+            try {
+                acquired.countDown();
+                assertTrue(done.await(5, TimeUnit.SECONDS));
+            } finally {
+                locks.unlock("a");
+            }
+        }, failures);
+        Thread.sleep(50);
+        assertEquals(1, locks.getActiveKeyCount());
+        locks.unlock("a");
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(1, locks.getActiveKeyCount());
+        assertTrue(locks.isLocked("a"));
+        assertFalse(availableElsewhere("a"), "a third thread got a different lock for the same key");
+        done.countDown();
+        waiter.join(5000);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(0, locks.getActiveKeyCount());
+    }
+
+    @Test
+    void idleLocksArePooledUpToTheLimit() {
+        KeyedLockManager<String> bounded = new KeyedLockManager<String>(false, 2);
+        for (String key : new String[] {"a", "b", "c"})
+            bounded.lock(key);
+        assertEquals(3, bounded.getActiveKeyCount());
+        assertEquals(0, bounded.getPooledCount());
+        for (String key : new String[] {"a", "b", "c"})
+            bounded.unlock(key);
+        assertEquals(0, bounded.getActiveKeyCount());
+        assertEquals(2, bounded.getPooledCount(), "pool grew past its limit");
+        bounded.lock("d");
+        assertEquals(1, bounded.getPooledCount(), "new key did not reuse a pooled lock");
+        bounded.unlock("d");
+        assertEquals(2, bounded.getPooledCount());
+        KeyedLockManager<String> unpooled = new KeyedLockManager<String>(true, 0);
+        unpooled.lock("a");
+        unpooled.unlock("a");
+        assertEquals(0, unpooled.getPooledCount());
+        assertThrows(IllegalArgumentException.class, () -> new KeyedLockManager<String>(false, -1));
+    }
+}
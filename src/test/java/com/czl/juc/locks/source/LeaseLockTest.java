@@ -0,0 +1,143 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 租约锁：重入、限时获取等公共用例见AbstractLockTest；可中断获取在放弃后不阻塞，放弃的等待者不会把租约遗留在本进程，
+ * 令牌单调递增；本进程内的交接沿用租约不换令牌，持有者的租约过期后其他进程以更大的令牌接手
+ * @Date 2026/10/18
+ */
+class LeaseLockTest extends AbstractLockTest {
+
+    private final InMemoryLeaseStore store = new InMemoryLeaseStore();
+
+    /** 租约足够长，测试中不会靠过期恢复 */
+    LeaseLock newLock() {
+        return new LeaseLock(store, "test", 60, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void interruptedLockReturnsPromptly() throws InterruptedException {
+        LeaseLock lock = newLock();
+        lock.lock();
+        boolean[] interrupted = new boolean[1];
+        Thread waiter = new Thread(() -> {
+            try {
+                lock.lockInterruptibly();
+                lock.unlock();
+            } catch (InterruptedException e) {
+                interrupted[0] = true;
+            }
+        }, "waiter");
+        waiter.setDaemon(true);
+        waiter.start();
+        try {
+            Thread.sleep(50);
+            waiter.interrupt();
+            waiter.join(1000);
+            assertFalse(waiter.isAlive(), "lockInterruptibly blocked after interrupt");
+        } finally {
+            lock.unlock();
+        }
+        assertTrue(interrupted[0]);
+    }
+
+    @Test
+    void abandonedWaitersDoNotStrandTheLease() throws InterruptedException {
+        LeaseLock lock = newLock();
+        AtomicLong inside = new AtomicLong();
+        long[] lastToken = new long[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    try {
+                        if (!lock.tryLock(i % 3, TimeUnit.MICROSECONDS))
+                            continue;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    try {
+                        assertEquals(1, inside.incrementAndGet());
+                        long token = lock.getFencingToken();
+                        assertTrue(token >= lastToken[0]);
+                        lastToken[0] = token;
+                        inside.decrementAndGet();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }, "stress-" + t);
+            threads[t].setDaemon(true);
+            threads[t].start();
+        }
+        for (Thread t : threads)
+            t.join();
+        // another process gets the lease at once, not after it expires
+        LeaseLock other = newLock();
+        assertTrue(other.tryLock(5, TimeUnit.SECONDS));
+        assertTrue(other.getFencingToken() > lastToken[0]);
+        other.unlock();
+    }
+
+    /** 本进程内交接：等待的线程直接沿用租约，令牌不变，存储只被请求一次 */
+    @Test
+    void localHandOffKeepsTheLease() throws InterruptedException {
+        AtomicLong acquisitions = new AtomicLong();
+        LeaseLock lock = new LeaseLock(new InMemoryLeaseStore() {
+            public Lease tryAcquire(String name, String owner, long ttlMillis) {
+                acquisitions.incrementAndGet();
+                return super.tryAcquire(name, owner, ttlMillis);
+            }
+        }, "test", 60, TimeUnit.SECONDS);
+        lock.lock();
+        long token = lock.getFencingToken();
+        long[] handedToken = new long[1];
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread waiter = start("waiter", () -> {
+            lock.lock();
+            try {
+                handedToken[0] = lock.getFencingToken();
+                assertTrue(lock.isLeaseValid());
+            } finally {
+                lock.unlock();
+            }
+        }, failures);
+        Thread.sleep(50);
+        lock.unlock();
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(token, handedToken[0], "the lease was not handed over");
+        assertEquals(1L, acquisitions.get());
+    }
+
+    /** 持有者不释放，租约过期后另一个进程接手，令牌更大，原持有者的租约不再有效 */
+    @Test
+    void expiredLeaseIsTakenOverWithANewerToken() throws InterruptedException {
+        LeaseLock stalled = new LeaseLock(store, "test", 100, TimeUnit.MILLISECONDS);
+        LeaseLock other = new LeaseLock(store, "test", 100, TimeUnit.MILLISECONDS);
+        stalled.lock();
+        long stalledToken = stalled.getFencingToken();
+        assertTrue(stalled.isLeaseValid());
+        assertFalse(other.tryLock(), "lease shared by two processes");
+        long start = System.nanoTime();
+        assertTrue(other.tryLock(5, TimeUnit.SECONDS), "expired lease never taken over");
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(waitedMillis < DEADLINE_SLACK_MILLIS, "took over after " + waitedMillis + "ms");
+        assertTrue(other.getFencingToken() > stalledToken);
+        assertFalse(stalled.isLeaseValid());
+        stalled.unlock();
+        assertTrue(other.isLeaseValid(), "stale holder's unlock released the new lease");
+        other.unlock();
+    }
+}
@@ -0,0 +1,276 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 锁的运行统计：直方图的分桶边界与百分位数，等待与持有时间、插队、阻塞、超时计数。
+ * 需要-Dcom.czl.juc.locks.statistics=true，由pom里单独的statistics执行在独立的JVM中运行
+ * @Date 2026/10/18
+ */
+class LockStatisticsTest {
+
+    /** 等到统计到至少一次阻塞 */
+    private static void awaitPark(LockStatistics stats) throws InterruptedException {
+        long deadline = System.nanoTime() + 5000000000L;
+        while (stats.getParkCount() == 0L) {
+            assertTrue(System.nanoTime() - deadline < 0, "no park counted");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void statisticsAreEnabledInThisFork() {
+        assertTrue(LockStatistics.ENABLED, "run with -Dcom.czl.juc.locks.statistics=true");
+        assertNotNull(new ReentrantLock().getStatistics());
+        assertNotNull(new ReentrantLock(true).getStatistics());
+    }
+
+    @Test
+    void countingParksRejectsNull() {
+        assertThrows(NullPointerException.class, () -> new ReentrantLock().getStatistics().countingParks(null));
+    }
+
+    /** 重入只算一次获取：等待与持有时间各记一次 */
+    @Test
+    void reentryRecordsOneWaitAndOneHold() {
+        ReentrantLock lock = new ReentrantLock();
+        LockStatistics stats = lock.getStatistics();
+        lock.lock();
+        assertTrue(lock.tryLock());
+        lock.lock();
+        lock.unlock();
+        lock.unlock();
+        assertEquals(1, stats.getWaitTimes().getTotalCount());
+        assertEquals(0, stats.getHoldTimes().getTotalCount(), "hold recorded before the outermost unlock");
+        lock.unlock();
+        assertEquals(1, stats.getHoldTimes().getTotalCount());
+        assertEquals(0L, stats.getBargeCount());
+        assertEquals(0L, stats.getParkCount());
+    }
+
+    /** 被阻塞的获取记下阻塞的时长和阻塞次数 */
+    @Test
+    void blockedAcquireRecordsItsWaitAndParks() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        LockStatistics stats = lock.getStatistics();
+        lock.lock();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread waiter = AbstractLockTest.start("waiter", () -> {
+            lock.lock();
+            lock.unlock();
+        }, failures);
+        ReentrantLockTest.awaitQueueLength(lock, 1);
+        awaitPark(stats);
+        Thread.sleep(100);
+        lock.unlock();
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(2, stats.getWaitTimes().getTotalCount());
+        long maxMillis = TimeUnit.NANOSECONDS.toMillis(stats.getWaitTimes().getMaxValue());
+        assertTrue(maxMillis >= 90, "longest wait " + maxMillis + "ms");
+        assertTrue(stats.getParkCount() > 0L);
+    }
+
+    /** 在已有线程排队时获取到锁记一次插队 */
+    @Test
+    void acquisitionAheadOfTheQueueCountsAsABarge() throws InterruptedException {
+        // 等待者不被unpark唤醒，只在1ms的定时器到期时重试，释放后立即tryLock几乎总能赶在它前面
+        ReentrantLock lock = new ReentrantLock(false, new ReentrantLockTest.PollingPolicy());
+        LockStatistics stats = lock.getStatistics();
+        lock.lock();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread waiter = AbstractLockTest.start("waiter", () -> {
+            lock.lock();
+            lock.unlock();
+        }, failures);
+        try {
+            ReentrantLockTest.awaitQueueLength(lock, 1);
+            assertEquals(0L, stats.getBargeCount(), "the first acquisition overtook nobody");
+            for (int i = 0; i < 100 && stats.getBargeCount() == 0L && lock.hasQueuedThreads(); i++) {
+                lock.unlock();
+                if (!lock.tryLock())
+                    lock.lock();
+            }
+            assertTrue(stats.getBargeCount() > 0L, "barge not counted");
+        } finally {
+            lock.unlock();
+        }
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+    }
+
+    @Test
+    void failedTimedAcquisitionsCountAsTimeouts() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        LockStatistics stats = lock.getStatistics();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = AbstractLockTest.holdElsewhere(lock, done);
+        assertFalse(lock.tryLock(10, TimeUnit.MILLISECONDS));
+        assertFalse(lock.tryLock(0, TimeUnit.MILLISECONDS));
+        assertFalse(lock.tryLock());
+        assertEquals(2L, stats.getTimeoutCount(), "only timed attempts count");
+        done.countDown();
+        holder.join(5000);
+        assertTrue(lock.tryLock(5, TimeUnit.SECONDS));
+        lock.unlock();
+        assertEquals(2L, stats.getTimeoutCount());
+    }
+
+    /** 条件变量上的阻塞也计入阻塞次数 */
+    @Test
+    void conditionAwaitParksAreCounted() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        LockStatistics stats = lock.getStatistics();
+        Condition never = lock.newCondition();
+        lock.lock();
+        try {
+            assertFalse(never.await(10, TimeUnit.MILLISECONDS));
+        } finally {
+            lock.unlock();
+        }
+        assertTrue(stats.getParkCount() > 0L);
+    }
+
+    /** 等待线程的持有时间包括await，不被等待期间其他线程的获取覆盖 */
+    @Test
+    void holdTimeIncludesTheAwait() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        Condition ready = lock.newCondition();
+        CountDownLatch waiting = new CountDownLatch(1);
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread waiter = AbstractLockTest.start("waiter", () -> {
+            lock.lock();
+            try {
+                waiting.countDown();
+                assertTrue(ready.await(5, TimeUnit.SECONDS));
+            } finally {
+                lock.unlock();
+            }
+        }, failures);
+        waiting.await();
+        Thread.sleep(200);
+        lock.lock();
+        try {
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+        waiter.join(5000);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        LockStatistics stats = lock.getStatistics();
+        assertEquals(2, stats.getHoldTimes().getTotalCount());
+        long maxMillis = TimeUnit.NANOSECONDS.toMillis(stats.getHoldTimes().getMaxValue());
+        assertTrue(maxMillis >= 150, "longest hold " + maxMillis + "ms");
+    }
+
+    @Test
+    void resetClearsEverything() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        LockStatistics stats = lock.getStatistics();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread holder = AbstractLockTest.holdElsewhere(lock, done);
+        assertFalse(lock.tryLock(10, TimeUnit.MILLISECONDS));
+        done.countDown();
+        holder.join(5000);
+        assertTrue(stats.getTimeoutCount() > 0L);
+        stats.reset();
+        assertEquals(0L, stats.getTimeoutCount());
+        assertEquals(0L, stats.getParkCount());
+        assertEquals(0L, stats.getBargeCount());
+        assertEquals(0L, stats.getWaitTimes().getTotalCount());
+        assertEquals(0L, stats.getHoldTimes().getTotalCount());
+        assertEquals(0L, stats.getHoldTimes().getMaxValue());
+    }
+
+    /** 0到15各占一个桶，之后每个2的幂区间分16个等宽的桶 */
+    @Nested
+    class Histogram {
+
+        @Test
+        void smallValuesHaveTheirOwnBuckets() {
+            for (int v = 0; v < LogLinearHistogram.SUB_BUCKETS; v++) {
+                assertEquals(v, LogLinearHistogram.bucketOf(v));
+                assertEquals(v, LogLinearHistogram.highestValueIn(v));
+            }
+        }
+
+        @Test
+        void bucketsSplitEachPowerOfTwoIntoSixteen() {
+            assertEquals(16, LogLinearHistogram.bucketOf(16));
+            assertEquals(31, LogLinearHistogram.bucketOf(31));
+            assertEquals(32, LogLinearHistogram.bucketOf(32));
+            assertEquals(32, LogLinearHistogram.bucketOf(33));
+            assertEquals(33, LogLinearHistogram.bucketOf(34));
+            assertEquals(33L, LogLinearHistogram.highestValueIn(32));
+            for (int e = LogLinearHistogram.SUB_BUCKET_BITS; e < 63; e++) {
+                long v = 1L << e;
+                int first = (e - LogLinearHistogram.SUB_BUCKET_BITS + 1) << LogLinearHistogram.SUB_BUCKET_BITS;
+                assertEquals(first, LogLinearHistogram.bucketOf(v), "2^" + e);
+                assertEquals(first - 1, LogLinearHistogram.bucketOf(v - 1), "2^" + e + "-1");
+                assertEquals(v + (v >>> LogLinearHistogram.SUB_BUCKET_BITS) - 1,
+                    LogLinearHistogram.highestValueIn(first), "2^" + e);
+                assertEquals(v - 1, LogLinearHistogram.highestValueIn(first - 1), "2^" + e + "-1");
+            }
+        }
+
+        @Test
+        void largestValueFallsInTheLastBucket() {
+            assertEquals(LogLinearHistogram.BUCKETS - 1, LogLinearHistogram.bucketOf(Long.MAX_VALUE));
+            assertEquals(Long.MAX_VALUE, LogLinearHistogram.highestValueIn(LogLinearHistogram.BUCKETS - 1));
+        }
+
+        /** 桶的上界不小于值，相对误差不超过1/16 */
+        @Test
+        void everyBucketBoundsItsValuesTightly() {
+            for (long v = 1; v > 0 && v < Long.MAX_VALUE / 3; v = v * 3 + 1) {
+                int b = LogLinearHistogram.bucketOf(v);
+                assertTrue(LogLinearHistogram.highestValueIn(b) >= v, "value " + v);
+                assertTrue(LogLinearHistogram.highestValueIn(b - 1) < v, "value " + v);
+                assertTrue(LogLinearHistogram.highestValueIn(b) - v <= v / LogLinearHistogram.SUB_BUCKETS, "value " + v);
+            }
+        }
+
+        @Test
+        void percentilesReportTheBucketCappedAtTheMax() {
+            LogLinearHistogram h = new LogLinearHistogram();
+            assertEquals(0L, h.getValueAtPercentile(50.0));
+            for (long v = 1; v <= 100; v++)
+                h.record(v);
+            assertEquals(100L, h.getTotalCount());
+            assertEquals(100L, h.getMaxValue());
+            assertEquals(1L, h.getValueAtPercentile(0.0));
+            assertEquals(51L, h.getValueAtPercentile(50.0), "50 shares a bucket with 51");
+            assertEquals(100L, h.getValueAtPercentile(100.0), "bucket of 100 ends at 103, capped at the max");
+            assertThrows(IllegalArgumentException.class, () -> h.getValueAtPercentile(-1.0));
+            assertThrows(IllegalArgumentException.class, () -> h.getValueAtPercentile(100.5));
+            assertThrows(IllegalArgumentException.class, () -> h.getValueAtPercentile(Double.NaN));
+        }
+
+        @Test
+        void negativeValuesAreRecordedAsZeroAndResetClears() {
+            LogLinearHistogram h = new LogLinearHistogram();
+            h.record(-5L);
+            h.record(Long.MAX_VALUE);
+            assertEquals(2L, h.getTotalCount());
+            assertEquals(0L, h.getValueAtPercentile(50.0));
+            assertEquals(Long.MAX_VALUE, h.getValueAtPercentile(100.0));
+            h.reset();
+            assertEquals(0L, h.getTotalCount());
+            assertEquals(0L, h.getMaxValue());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 非公平锁的自适应自旋预算：失败减半，低于下限后只做1/64的探测，成功后按观测到的等待时间恢复
+ * @Date 2026/10/18
+ */
+class NonfairSpinBudgetTest {
+
+    private static final long MIN = ReentrantLock.NonfairSync.MIN_SPIN_NANOS;
+    private static final long MAX = ReentrantLock.NonfairSync.MAX_SPIN_NANOS;
+
+    private final ReentrantLock.NonfairSync sync = new ReentrantLock.NonfairSync(ParkingPolicy.DEFAULT);
+
+    @Test
+    void failedSpinHalvesTheBudget() {
+        long budget = sync.spinBudget();
+        assertEquals(MAX / 4, budget);
+        sync.onSpinFailure(budget);
+        assertEquals(budget / 2, sync.spinBudget());
+    }
+
+    @Test
+    void belowTheMinimumOnlyProbes() {
+        while (sync.spinNanos >= MIN)
+            sync.onSpinFailure(sync.spinNanos);
+        int probes = 0;
+        for (int i = 0; i < 64 * 4; i++) {
+            long budget = sync.spinBudget();
+            if (budget != 0L) {
+                assertEquals(MIN, budget, "a probe spins for the minimum budget");
+                probes++;
+            }
+        }
+        assertEquals(4, probes);
+        // a failed probe keeps spinning switched off
+        sync.onSpinFailure(MIN);
+        assertTrue(sync.spinNanos < MIN);
+    }
+
+    @Test
+    void successfulSpinGrowsTheBudgetBack() {
+        while (sync.spinNanos >= MIN)
+            sync.onSpinFailure(sync.spinNanos);
+        sync.onSpinSuccess(MIN);                // a probe that found the lock free soon
+        assertTrue(sync.spinNanos >= MIN, "one success re-enables spinning");
+        assertTrue(sync.spinBudget() >= MIN);
+        long before = sync.spinNanos;
+        for (int i = 0; i < 64; i++)
+            sync.onSpinSuccess(8000L);
+        assertTrue(sync.spinNanos > before, "budget did not follow longer waits");
+        assertTrue(sync.spinNanos >= 2 * 7000L, "budget " + sync.spinNanos + " below twice the observed wait");
+        for (int i = 0; i < 64; i++)
+            sync.onSpinSuccess(1000000L);
+        assertEquals(MAX, sync.spinNanos, "budget exceeds its cap");
+        sync.onSpinSuccess(0L);
+        assertEquals(MAX, sync.spinNanos, "a success shrank the budget");
+    }
+}
@@ -0,0 +1,75 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 阶段公平读写锁：写阶段结束时所有等待的读者一起进入，即使后面还有写者排队；
+ * 写者等待时新来的读者不能插队；写锁重入、降级与限时获取的公共用例
+ * @Date 2026/10/18
+ */
+class PhaseFairReadWriteLockTest extends AbstractReadWriteLockTest {
+
+    ReadWriteLock newReadWriteLock() {
+        return new PhaseFairReadWriteLock();
+    }
+
+    /** 等到线程阻塞 */
+    private static void awaitBlocked(Thread t) throws InterruptedException {
+        long deadline = System.nanoTime() + 5000000000L;
+        while (t.getState() != Thread.State.WAITING && t.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(System.nanoTime() - deadline < 0, t.getName() + " did not block");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void readPhaseAdmitsAllWaitingReadersBeforeTheNextWriter() throws InterruptedException {
+        PhaseFairReadWriteLock rw = new PhaseFairReadWriteLock();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        CountDownLatch reading = new CountDownLatch(2);
+        CountDownLatch leave = new CountDownLatch(1);
+        AtomicBoolean written = new AtomicBoolean();
+        rw.writeLock().lock();
+        Thread[] readers = new Thread[2];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = start("reader-" + i, () -> {
+                rw.readLock().lock();
+                try {
+                    assertFalse(written.get(), "the queued writer went first");
+                    reading.countDown();
+                    leave.await(5, TimeUnit.SECONDS);
+                } finally {
+                    rw.readLock().unlock();
+                }
+            }, failures);
+            awaitBlocked(readers[i]);
+        }
+        Thread writer = start("writer", () -> {
+            rw.writeLock().lock();
+            written.set(true);
+            rw.writeLock().unlock();
+        }, failures);
+        awaitBlocked(writer);
+        rw.writeLock().unlock();
+        assertTrue(reading.await(5, TimeUnit.SECONDS), "waiting readers not admitted together");
+        assertFalse(written.get());
+        assertFalse(rw.readLock().tryLock(10, TimeUnit.MILLISECONDS), "new reader overtook the waiting writer");
+        leave.countDown();
+        writer.join(5000);
+        for (Thread r : readers)
+            r.join(5000);
+        assertTrue(written.get());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertTrue(availableElsewhere(rw.readLock()));
+    }
+}
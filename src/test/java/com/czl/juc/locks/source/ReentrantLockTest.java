@@ -0,0 +1,550 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 可重入锁：公共用例，持有计数与持有者查询，排队线程经由指定的阻塞策略阻塞与唤醒，默认不开启运行统计，
+ * 释放越过一段延迟取消的等待者唤醒活着的后继，公平模式按排队顺序获取，
+ * 最终公平模式在插队压力下于交接阈值左右把锁交给队首等待者；
+ * 队列与条件计数器在取消、中断、signal转移与条件超时后与真实队列一致，快照报告持有者与持有计数
+ * @Date 2026/10/18
+ */
+class ReentrantLockTest extends AbstractLockTest {
+
+    Lock newLock() {
+        return new ReentrantLock();
+    }
+
+    boolean supportsConditions() {
+        return true;
+    }
+
+    /** 等到锁的等待队列长度达到n */
+    static void awaitQueueLength(ReentrantLock lock, int n) throws InterruptedException {
+        long deadline = System.nanoTime() + 5000000000L;
+        while (lock.getQueueLength() != n) {
+            assertTrue(System.nanoTime() - deadline < 0, "queue length " + lock.getQueueLength() + ", expected " + n);
+            Thread.sleep(1);
+        }
+    }
+
+    /** 计数后交给默认策略 */
+    static final class CountingPolicy implements ParkingPolicy {
+        final AtomicInteger parks = new AtomicInteger();
+        final AtomicInteger unparks = new AtomicInteger();
+
+        public void park(Object blocker) {
+            parks.incrementAndGet();
+            ParkingPolicy.DEFAULT.park(blocker);
+        }
+
+        public void parkNanos(Object blocker, long nanos) {
+            parks.incrementAndGet();
+            ParkingPolicy.DEFAULT.parkNanos(blocker, nanos);
+        }
+
+        public void unpark(Thread thread) {
+            unparks.incrementAndGet();
+            ParkingPolicy.DEFAULT.unpark(thread);
+        }
+    }
+
+    @Test
+    void holdCountAndOwnerFollowReentry() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        assertEquals(0, lock.getHoldCount());
+        lock.lock();
+        lock.lock();
+        assertEquals(2, lock.getHoldCount());
+        assertTrue(lock.isHeldByCurrentThread());
+        assertTrue(lock.isLocked());
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread other = start("other", () -> {
+            assertFalse(lock.isHeldByCurrentThread());
+            assertEquals(0, lock.getHoldCount());
+            assertThrows(IllegalMonitorStateException.class, lock::unlock);
+        }, failures);
+        other.join(5000);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(2, lock.getHoldCount(), "a failed unlock by another thread changed the holds");
+        lock.unlock();
+        lock.unlock();
+        assertFalse(lock.isLocked());
+    }
+
+    @Test
+    void queuedThreadsParkThroughThePolicy() throws InterruptedException {
+        CountingPolicy policy = new CountingPolicy();
+        ReentrantLock lock = new ReentrantLock(false, policy);
+        lock.lock();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread waiter = start("waiter", () -> {
+            lock.lock();
+            lock.unlock();
+        }, failures);
+        awaitQueueLength(lock, 1);
+        long deadline = System.nanoTime() + 5000000000L;
+        while (policy.parks.get() == 0 && System.nanoTime() - deadline < 0)
+            Thread.sleep(1);
+        assertTrue(policy.parks.get() > 0, "waiter did not park through the policy");
+        lock.unlock();
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertTrue(policy.unparks.get() > 0, "waiter was not woken through the policy");
+    }
+
+    /** 默认不开启运行统计：没有统计对象，阻塞策略不经包装直接由同步器调用 */
+    @Test
+    void statisticsAreOffByDefault() throws InterruptedException {
+        assertFalse(LockStatistics.ENABLED, "statistics are enabled only in their own fork");
+        assertNull(new ReentrantLock().getStatistics());
+        assertNull(new ReentrantLock(true).getStatistics());
+        Set<String> callers = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        ParkingPolicy policy = new ParkingPolicy() {
+            public void park(Object blocker) {
+                callers.add(new Throwable().getStackTrace()[1].getClassName());
+                ParkingPolicy.DEFAULT.park(blocker);
+            }
+
+            public void parkNanos(Object blocker, long nanos) {
+                callers.add(new Throwable().getStackTrace()[1].getClassName());
+                ParkingPolicy.DEFAULT.parkNanos(blocker, nanos);
+            }
+
+            public void unpark(Thread thread) {
+                ParkingPolicy.DEFAULT.unpark(thread);
+            }
+        };
+        ReentrantLock lock = new ReentrantLock(false, policy);
+        assertNull(lock.getStatistics());
+        lock.lock();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread waiter = start("waiter", () -> {
+            lock.lock();
+            lock.unlock();
+        }, failures);
+        awaitQueueLength(lock, 1);
+        long deadline = System.nanoTime() + 5000000000L;
+        while (callers.isEmpty() && System.nanoTime() - deadline < 0)
+            Thread.sleep(1);
+        lock.unlock();
+        waiter.join(5000);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(Collections.singleton(QueuedSynchronizer.class.getName()), callers);
+    }
+
+    @Test
+    void nullPolicyIsRejected() {
+        assertThrows(NullPointerException.class, () -> new ReentrantLock(false, null));
+    }
+
+    @Test
+    void fairLockGrantsInQueueOrder() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock(true);
+        assertTrue(lock.isFair());
+        List<Integer> order = new ArrayList<Integer>();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        lock.lock();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            int id = i;
+            threads[i] = start("fair-" + i, () -> {
+                lock.lock();
+                try {
+                    order.add(id);
+                } finally {
+                    lock.unlock();
+                }
+            }, failures);
+            awaitQueueLength(lock, i + 1);
+        }
+        lock.unlock();
+        for (Thread t : threads)
+            t.join(5000);
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(Arrays.asList(0, 1, 2, 3), order);
+    }
+
+    /** 等到线程进入锁的等待队列 */
+    static void awaitQueued(ReentrantLock lock, Thread t) throws InterruptedException {
+        long deadline = System.nanoTime() + 5000000000L;
+        while (!lock.hasQueuedThread(t)) {
+            assertTrue(System.nanoTime() - deadline < 0, t.getName() + " not queued");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * 两段一起超时的限时等待者，各自后面跟着一个不限时的等待者：超时的节点延迟摘除，
+     * 下一次释放越过整段已取消的节点唤醒活着的后继，队列长度最后回到0。
+     * 丢弃超时线程取消时发出的unpark，活着的等待者就不会提前醒来自己清理前面的节点，只能靠释放时的前向遍历唤醒
+     */
+    @Test
+    void releaseWakesTheLiveSuccessorPastACancelledRun() throws InterruptedException {
+        Set<Thread> muted = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+        ReentrantLock lock = new ReentrantLock(false, new ParkingPolicy() {
+            public void park(Object blocker) {
+                ParkingPolicy.DEFAULT.park(blocker);
+            }
+
+            public void parkNanos(Object blocker, long nanos) {
+                ParkingPolicy.DEFAULT.parkNanos(blocker, nanos);
+            }
+
+            public void unpark(Thread thread) {
+                if (!muted.contains(Thread.currentThread()))
+                    ParkingPolicy.DEFAULT.unpark(thread);
+            }
+        });
+        List<Throwable> failures = new ArrayList<Throwable>();
+        List<String> order = new ArrayList<String>();
+        List<Thread> timed = new ArrayList<Thread>();
+        List<Thread> live = new ArrayList<Thread>();
+        lock.lock();
+        for (String name : new String[] {"first", "second"}) {
+            for (int i = 0; i < 6; i++) {
+                Thread t = start("timed-" + name + "-" + i, () -> {
+                    assertFalse(lock.tryLock(300, TimeUnit.MILLISECONDS), "acquired while held");
+                }, failures);
+                muted.add(t);
+                timed.add(t);
+                awaitQueued(lock, t);
+            }
+            Thread t = start(name, () -> {
+                lock.lock();
+                try {
+                    synchronized (order) {
+                        order.add(name);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }, failures);
+            live.add(t);
+            awaitQueued(lock, t);
+        }
+        for (Thread t : timed)
+            t.join(5000);
+        assertEquals(2, lock.getQueueLength(), "cancelled waiters still counted");
+        lock.unlock();
+        for (Thread t : live) {
+            t.join(5000);
+            assertFalse(t.isAlive(), t.getName() + " never woken past the cancelled run");
+        }
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(Arrays.asList("first", "second"), order);
+        assertEquals(0, lock.getQueueLength());
+        assertFalse(lock.hasQueuedThreads());
+        assertTrue(availableElsewhere(lock));
+    }
+
+    @Nested
+    class Fair extends AbstractLockTest {
+
+        Lock newLock() {
+            return new ReentrantLock(true);
+        }
+
+        boolean supportsConditions() {
+            return true;
+        }
+    }
+
+    /** 等待超过20ms即交接给队首 */
+    @Nested
+    class EventuallyFair extends AbstractLockTest {
+
+        static final long HANDOFF_MILLIS = 20;
+
+        /** 插队线程每次持有锁的时长 */
+        static final long HOLD_MILLIS = 10;
+
+        Lock newLock() {
+            return new ReentrantLock(HANDOFF_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        boolean supportsConditions() {
+            return true;
+        }
+
+        @Test
+        void negativeThresholdIsRejected() {
+            assertThrows(IllegalArgumentException.class, () -> new ReentrantLock(-1, TimeUnit.MILLISECONDS));
+        }
+
+        /**
+         * 一个线程不停地插队获取锁，每次持有10ms，只短暂释放。等待者不被unpark唤醒，只靠1ms的定时阻塞轮询，
+         * 几乎总是在锁被持有时醒来：非公平时每轮要等上百毫秒到数秒，最终公平时每轮在阈值加一次持有左右拿到锁
+         */
+        @Test
+        void headWaiterIsServedDespiteBarging() throws InterruptedException {
+            ReentrantLock lock = new ReentrantLock(HANDOFF_MILLIS, TimeUnit.MILLISECONDS, new PollingPolicy());
+            AtomicBoolean stop = new AtomicBoolean();
+            List<Throwable> failures = new ArrayList<Throwable>();
+            Thread barger = start("barger", () -> {
+                long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (!stop.get() && System.nanoTime() - until < 0) {
+                    lock.lock();
+                    try {
+                        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(HOLD_MILLIS);
+                        while (System.nanoTime() - end < 0) {
+                            // hold, releasing only briefly between holds
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }, failures);
+            Thread.sleep(HOLD_MILLIS * 2);
+            int rounds = 5;
+            long totalMillis = 0;
+            try {
+                for (int r = 0; r < rounds; r++) {
+                    long[] waitedMillis = new long[1];
+                    Thread waiter = start("waiter", () -> {
+                        long start = System.nanoTime();
+                        lock.lock();
+                        waitedMillis[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        lock.unlock();
+                    }, failures);
+                    waiter.join(10000);
+                    totalMillis += waitedMillis[0];
+                }
+            } finally {
+                stop.set(true);
+            }
+            barger.join(5000);
+            assertEquals(new ArrayList<Throwable>(), failures);
+            assertTrue(totalMillis < rounds * (HANDOFF_MILLIS + HOLD_MILLIS + 50),
+                "waiters overtaken for " + totalMillis + "ms over " + rounds + " rounds");
+        }
+    }
+
+    /** O(1)计数器与遍历真实队列的结果对照 */
+    @Nested
+    class Counters {
+
+        /** 等到真实的同步队列中有n个线程 */
+        private void awaitQueuedThreads(ReentrantLock lock, int n) throws InterruptedException {
+            long deadline = System.nanoTime() + 5000000000L;
+            while (lock.getQueuedThreads().size() != n) {
+                assertTrue(System.nanoTime() - deadline < 0,
+                    "queued threads " + lock.getQueuedThreads() + ", expected " + n);
+                Thread.sleep(1);
+            }
+        }
+
+        /** 计数器与遍历队列得到的结果一致；调用线程须持有锁 */
+        private void assertCounts(ReentrantLock lock, int queued, Condition condition, int waiting) {
+            assertEquals(queued, lock.getQueuedThreads().size(), "queued threads");
+            assertEquals(queued, lock.getQueueLength(), "queue length counter");
+            assertEquals(queued > 0, lock.hasQueuedThreads());
+            assertEquals(waiting, lock.getWaitingThreads(condition).size(), "waiting threads");
+            assertEquals(waiting, lock.getWaitQueueLength(condition), "wait queue length counter");
+            assertEquals(waiting > 0, lock.hasWaiters(condition));
+            ReentrantLock.Snapshot snapshot = lock.snapshot();
+            assertEquals(queued, snapshot.getQueueLength());
+            assertEquals(waiting, snapshot.getConditionWaiters());
+        }
+
+        /** 三个限时获取超时、两个可中断获取被中断后，计数器只剩仍在排队的lock() */
+        @Test
+        void queueLengthFollowsCancellationAndInterrupt() throws InterruptedException {
+            ReentrantLock lock = new ReentrantLock();
+            Condition unused = lock.newCondition();
+            List<Throwable> failures = new ArrayList<Throwable>();
+            List<Thread> timed = new ArrayList<Thread>();
+            List<Thread> interruptible = new ArrayList<Thread>();
+            lock.lock();
+            try {
+                for (int i = 0; i < 3; i++)
+                    timed.add(start("timed-" + i, () -> assertFalse(lock.tryLock(100, TimeUnit.MILLISECONDS)), failures));
+                for (int i = 0; i < 2; i++)
+                    interruptible.add(start("interruptible-" + i,
+                        () -> assertThrows(InterruptedException.class, lock::lockInterruptibly), failures));
+                Thread plain = start("plain", () -> {
+                    lock.lock();
+                    lock.unlock();
+                }, failures);
+                awaitQueuedThreads(lock, 6);
+                assertCounts(lock, 6, unused, 0);
+
+                for (Thread t : timed)
+                    t.join(5000);
+                assertCounts(lock, 3, unused, 0);
+
+                for (Thread t : interruptible)
+                    t.interrupt();
+                for (Thread t : interruptible)
+                    t.join(5000);
+                assertCounts(lock, 1, unused, 0);
+                assertEquals(Collections.singletonList(plain), new ArrayList<Thread>(lock.getQueuedThreads()));
+            } finally {
+                lock.unlock();
+            }
+            awaitQueueLength(lock, 0);
+            assertEquals(new ArrayList<Throwable>(), failures);
+            lock.lock();
+            try {
+                assertCounts(lock, 0, unused, 0);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 四个线程在条件上等待：一个限时等待超时、一个被中断，各自转入同步队列；
+         * 再signal一个、signalAll其余的。每一步两个计数器都与两条真实队列一致
+         */
+        @Test
+        void waitCountsFollowSignalTransferAndConditionTimeout() throws InterruptedException {
+            ReentrantLock lock = new ReentrantLock();
+            Condition ready = lock.newCondition();
+            List<Throwable> failures = new ArrayList<Throwable>();
+            Thread timedOut = start("timed", () -> {
+                lock.lock();
+                try {
+                    assertFalse(ready.await(300, TimeUnit.MILLISECONDS), "signalled before the timeout");
+                } finally {
+                    lock.unlock();
+                }
+            }, failures);
+            Thread interrupted = start("interrupted", () -> {
+                lock.lock();
+                try {
+                    assertThrows(InterruptedException.class, ready::await);
+                } finally {
+                    lock.unlock();
+                }
+            }, failures);
+            List<Thread> signalled = new ArrayList<Thread>();
+            for (int i = 0; i < 2; i++) {
+                signalled.add(start("signalled-" + i, () -> {
+                    lock.lock();
+                    try {
+                        ready.await();
+                    } finally {
+                        lock.unlock();
+                    }
+                }, failures));
+            }
+            long deadline = System.nanoTime() + 5000000000L;
+            for (;;) {
+                lock.lock();
+                try {
+                    if (lock.getWaitingThreads(ready).size() == 4) {
+                        assertCounts(lock, 0, ready, 4);
+                        interrupted.interrupt();
+                        // both leave the condition queue and queue for the lock we hold
+                        awaitQueuedThreads(lock, 2);
+                        assertCounts(lock, 2, ready, 2);
+                        ready.signal();
+                        assertCounts(lock, 3, ready, 1);
+                        ready.signalAll();
+                        assertCounts(lock, 4, ready, 0);
+                        break;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                assertTrue(System.nanoTime() - deadline < 0, "waiters never all waited");
+                Thread.sleep(1);
+            }
+            timedOut.join(5000);
+            interrupted.join(5000);
+            for (Thread t : signalled)
+                t.join(5000);
+            assertEquals(new ArrayList<Throwable>(), failures);
+            lock.lock();
+            try {
+                assertCounts(lock, 0, ready, 0);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Test
+        void snapshotReportsOwnerAndHoldCount() throws InterruptedException {
+            ReentrantLock lock = new ReentrantLock();
+            ReentrantLock.Snapshot snapshot = new ReentrantLock.Snapshot();
+            assertSame(snapshot, lock.snapshot(snapshot));
+            assertNull(snapshot.getOwner());
+            assertEquals(0, snapshot.getHoldCount());
+            assertFalse(snapshot.isLocked());
+
+            lock.lock();
+            lock.lock();
+            List<Throwable> failures = new ArrayList<Throwable>();
+            Thread main = Thread.currentThread();
+            Thread observer = start("observer", () -> {
+                ReentrantLock.Snapshot seen = lock.snapshot();
+                assertSame(main, seen.getOwner(), "owner as seen by another thread");
+                assertEquals(2, seen.getHoldCount(), "hold count as seen by another thread");
+                assertTrue(seen.isLocked());
+            }, failures);
+            observer.join(5000);
+            assertEquals(new ArrayList<Throwable>(), failures);
+
+            Thread waiter = start("waiter", () -> {
+                lock.lock();
+                try {
+                    ReentrantLock.Snapshot mine = lock.snapshot();
+                    assertSame(Thread.currentThread(), mine.getOwner());
+                    assertEquals(1, mine.getHoldCount());
+                    assertEquals(0, mine.getQueueLength());
+                } finally {
+                    lock.unlock();
+                }
+            }, failures);
+            awaitQueued(lock, waiter);
+            lock.snapshot(snapshot);
+            assertSame(main, snapshot.getOwner());
+            assertEquals(2, snapshot.getHoldCount());
+            assertEquals(1, snapshot.getQueueLength());
+            lock.unlock();
+            lock.snapshot(snapshot);
+            assertSame(main, snapshot.getOwner());
+            assertEquals(1, snapshot.getHoldCount(), "hold count after one of two unlocks");
+            lock.unlock();
+            waiter.join(5000);
+            assertEquals(new ArrayList<Throwable>(), failures);
+            lock.snapshot(snapshot);
+            assertNull(snapshot.getOwner());
+            assertEquals(0, snapshot.getHoldCount());
+            assertEquals(0, snapshot.getQueueLength());
+        }
+    }
+
+    /** 忽略unpark，阻塞最多1ms：被唤醒的线程只在自己的定时器到期时醒来 */
+    static final class PollingPolicy implements ParkingPolicy {
+        public void park(Object blocker) {
+            ParkingPolicy.DEFAULT.parkNanos(blocker, 1000000L);
+        }
+
+        public void parkNanos(Object blocker, long nanos) {
+            ParkingPolicy.DEFAULT.parkNanos(blocker, Math.min(nanos, 1000000L));
+        }
+
+        public void unpark(Thread thread) {
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 共享内存锁：进程内的重入、限时获取与中断，每个测试使用临时目录中的新文件；
+ * 另外启动子JVM，校验跨进程互斥（等待者经由闸门的文件锁睡眠）、限时获取经由闸门的tryLock轮询、
+ * 等待闸门时被中断，以及持有进程被杀死后按PID检测并接管
+ * @Date 2026/10/18
+ */
+class SharedMemoryLockTest extends AbstractLockTest {
+
+    @TempDir
+    File dir;
+
+    /** 本测试启动的子进程，测试结束时强制结束 */
+    private final List<Peer> peers = new ArrayList<Peer>();
+
+    Lock newLock() {
+        return new SharedMemoryLock(lockFile(), 0);
+    }
+
+    private File lockFile() {
+        return new File(dir, "locks");
+    }
+
+    @AfterEach
+    void destroyPeers() throws InterruptedException {
+        for (Peer peer : peers) {
+            peer.process.destroyForcibly();
+            peer.process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 子JVM的入口。hold：加锁，输出"locked &lt;pid&gt;"，读到一行输入或输入关闭后释放并输出"unlocked"；
+     * count：在锁内把计数文件中的整数加一，共n次，然后输出"done"
+     */
+    static final class Child {
+        public static void main(String[] args) throws Exception {
+            SharedMemoryLock lock = new SharedMemoryLock(new File(args[1]), 0);
+            if ("hold".equals(args[0])) {
+                lock.lock();
+                System.out.println("locked " + SharedMemoryLock.Owner.PID);
+                new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine();
+                lock.unlock();
+                System.out.println("unlocked");
+            } else {
+                System.out.println("started");
+                File counter = new File(args[2]);
+                for (int i = Integer.parseInt(args[3]); i > 0; i--) {
+                    lock.lock();
+                    try {
+                        increment(counter);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                System.out.println("done");
+            }
+        }
+    }
+
+    /** 子进程与它的标准输入输出 */
+    private static final class Peer {
+        final Process process;
+        final BufferedReader out;
+        final Writer in;
+
+        Peer(Process process) {
+            this.process = process;
+            this.out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            this.in = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        /** 读下一行，要求以prefix开头，返回其余部分 */
+        String expect(String prefix) {
+            String line = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> out.readLine());
+            assertTrue(line != null && line.startsWith(prefix), "expected " + prefix + ", child wrote " + line);
+            return line.substring(prefix.length()).trim();
+        }
+
+        /** 让hold的子进程释放 */
+        void release() throws IOException {
+            in.write("\n");
+            in.flush();
+        }
+    }
+
+    private Peer spawn(String... args) throws IOException {
+        List<String> command = new ArrayList<String>(Arrays.asList(
+            new File(System.getProperty("java.home"), "bin/java").getPath(),
+            "-cp", System.getProperty("java.class.path"), Child.class.getName()));
+        command.addAll(Arrays.asList(args));
+        Peer peer = new Peer(new ProcessBuilder(command).redirectErrorStream(true).start());
+        peers.add(peer);
+        return peer;
+    }
+
+    /** 不加锁的读-改-写，只有互斥时结果才正确 */
+    static void increment(File counter) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(counter, "rw")) {
+            int n = raf.length() < 4 ? 0 : raf.readInt();
+            raf.seek(0L);
+            raf.writeInt(n + 1);
+        }
+    }
+
+    private static int read(File counter) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(counter, "r")) {
+            return raf.readInt();
+        }
+    }
+
+    /** 三个进程同时计数：自旋失败的等待者在闸门的文件锁上睡眠，计数不丢失 */
+    @Test
+    void processesExcludeEachOther() throws Exception {
+        File counter = new File(dir, "counter");
+        int perProcess = 300;
+        Peer a = spawn("count", lockFile().getPath(), counter.getPath(), Integer.toString(perProcess));
+        Peer b = spawn("count", lockFile().getPath(), counter.getPath(), Integer.toString(perProcess));
+        a.expect("started");
+        b.expect("started");
+        Lock lock = newLock();
+        for (int i = 0; i < perProcess; i++) {
+            lock.lock();
+            try {
+                increment(counter);
+            } finally {
+                lock.unlock();
+            }
+        }
+        a.expect("done");
+        b.expect("done");
+        assertEquals(3 * perProcess, read(counter));
+    }
+
+    /** 另一个进程持有时，限时获取在期限内失败；它释放后获取成功 */
+    @Test
+    void timedTryLockWaitsForAnotherProcess() throws Exception {
+        Peer holder = spawn("hold", lockFile().getPath());
+        long pid = Long.parseLong(holder.expect("locked"));
+        SharedMemoryLock lock = new SharedMemoryLock(lockFile(), 0);
+        assertTrue(lock.isLocked());
+        assertEquals(pid, lock.getOwnerPid());
+        assertFalse(lock.tryLock());
+        long start = System.nanoTime();
+        assertFalse(lock.tryLock(20, TimeUnit.MILLISECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis < DEADLINE_SLACK_MILLIS, "tryLock(20ms) took " + elapsedMillis + "ms");
+        holder.release();
+        assertTrue(lock.tryLock(10, TimeUnit.SECONDS));
+        try {
+            assertEquals(SharedMemoryLock.Owner.PID, lock.getOwnerPid());
+        } finally {
+            lock.unlock();
+        }
+        holder.expect("unlocked");
+        assertEquals(0L, lock.getRecoveryCount());
+    }
+
+    /**
+     * 另一个进程持有锁字、第二个进程在闸门上等待时，本进程的限时获取在闸门外轮询，
+     * 不限时的获取在闸门的文件锁上阻塞：两者被中断都及时返回，lock()被中断后继续等待并保留中断状态
+     */
+    @Test
+    void interruptWhileWaitingForTheGate() throws Exception {
+        File counter = new File(dir, "counter");
+        Peer holder = spawn("hold", lockFile().getPath());
+        holder.expect("locked");
+        Peer gated = spawn("count", lockFile().getPath(), counter.getPath(), "1");
+        gated.expect("started");
+        Thread.sleep(200);      // let it spin out and take the gate
+        SharedMemoryLock lock = new SharedMemoryLock(lockFile(), 0);
+        List<Throwable> failures = new ArrayList<Throwable>();
+        for (boolean timed : new boolean[] {true, false}) {
+            CountDownLatch interrupted = new CountDownLatch(1);
+            Thread waiter = start(timed ? "timed" : "untimed", () -> {
+                try {
+                    if (timed)
+                        lock.tryLock(30, TimeUnit.SECONDS);
+                    else
+                        lock.lockInterruptibly();
+                } catch (InterruptedException e) {
+                    assertFalse(Thread.currentThread().isInterrupted());
+                    interrupted.countDown();
+                }
+            }, failures);
+            Thread.sleep(200);
+            waiter.interrupt();
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS), (timed ? "tryLock" : "lockInterruptibly") +
+                " ignored the interrupt at the gate");
+            waiter.join(5000);
+        }
+        AtomicBoolean stillInterrupted = new AtomicBoolean();
+        Thread uninterruptible = start("lock", () -> {
+            lock.lock();
+            stillInterrupted.set(Thread.currentThread().isInterrupted());
+            lock.unlock();
+        }, failures);
+        Thread.sleep(200);
+        uninterruptible.interrupt();
+        Thread.sleep(200);
+        assertTrue(uninterruptible.isAlive(), "lock() gave up on interrupt");
+        holder.release();
+        holder.expect("unlocked");
+        uninterruptible.join(10000);
+        assertFalse(uninterruptible.isAlive());
+        assertTrue(stillInterrupted.get(), "lock() lost the interrupt");
+        gated.expect("done");
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(1, read(counter));
+    }
+
+    /** 持有锁的进程被杀死，等待者按PID发现持有者已不存在，接管锁并计一次恢复 */
+    @Test
+    void deadOwnerIsRecovered() throws Exception {
+        Peer holder = spawn("hold", lockFile().getPath());
+        long pid = Long.parseLong(holder.expect("locked"));
+        SharedMemoryLock lock = new SharedMemoryLock(lockFile(), 0);
+        assertEquals(pid, lock.getOwnerPid());
+        assertFalse(lock.tryLock(20, TimeUnit.MILLISECONDS), "live owner taken over");
+        holder.process.destroyForcibly();
+        assertTrue(holder.process.waitFor(10, TimeUnit.SECONDS));
+        assertEquals(pid, lock.getOwnerPid(), "a killed owner cannot clear the word");
+        assertTrue(lock.tryLock(10, TimeUnit.SECONDS), "dead owner never recovered");
+        try {
+            assertEquals(1L, lock.getRecoveryCount());
+            assertEquals(SharedMemoryLock.Owner.PID, lock.getOwnerPid());
+        } finally {
+            lock.unlock();
+        }
+        assertFalse(lock.isLocked());
+    }
+
+    @Test
+    void negativeSlotIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SharedMemoryLock(lockFile(), -1));
+    }
+}
@@ -0,0 +1,101 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 支持乐观读的读写锁：乐观读的版本校验与回退到读锁，排队的写者优先于新来的读者；写锁与条件变量的公共用例
+ * @Date 2026/10/18
+ */
+class StampedReadWriteLockTest extends AbstractReadWriteLockTest {
+
+    ReadWriteLock newReadWriteLock() {
+        return new StampedReadWriteLock();
+    }
+
+    boolean supportsConditions() {
+        return true;
+    }
+
+    /** 写锁重入期间版本号只在最外层获取和释放时变化，乐观读在整个写期间都不能通过校验 */
+    @Test
+    void reentrantWriteInvalidatesOptimisticReadsUntilFullyReleased() {
+        StampedReadWriteLock rw = new StampedReadWriteLock();
+        long stamp = rw.tryOptimisticRead();
+        assertTrue(rw.validate(stamp));
+        rw.writeLock().lock();
+        rw.writeLock().lock();
+        assertEquals(0L, rw.tryOptimisticRead());
+        rw.writeLock().unlock();
+        assertEquals(0L, rw.tryOptimisticRead(), "optimistic read allowed inside a reentrant write");
+        rw.writeLock().unlock();
+        assertFalse(rw.validate(stamp));
+        long after = rw.tryOptimisticRead();
+        assertTrue(after != 0L && rw.validate(after));
+        assertEquals("x", rw.optimisticRead(() -> "x"));
+    }
+
+    /** 乐观读期间有写者提交，校验失败后在读锁下重读，得到写入后的值 */
+    @Test
+    void optimisticReadFallsBackToTheReadLockAfterAWrite() {
+        StampedReadWriteLock rw = new StampedReadWriteLock();
+        AtomicInteger value = new AtomicInteger(1);
+        AtomicInteger runs = new AtomicInteger();
+        int result = rw.optimisticRead(() -> {
+            int v = value.get();
+            if (runs.incrementAndGet() == 1) {
+                Thread writer = new Thread(() -> {
+                    rw.writeLock().lock();
+                    try {
+                        value.set(2);
+                    } finally {
+                        rw.writeLock().unlock();
+                    }
+                }, "writer");
+                writer.start();
+                try {
+                    writer.join();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            } else {
+                assertEquals(1, rw.getReadLockCount(), "retry not under the read lock");
+            }
+            return v;
+        });
+        assertEquals(2, runs.get());
+        assertEquals(2, result);
+        assertEquals(0, rw.getReadLockCount());
+    }
+
+    @Test
+    void queuedWriterHoldsOffNewReaders() throws InterruptedException {
+        StampedReadWriteLock rw = new StampedReadWriteLock();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread reader = holdElsewhere(rw.readLock(), done);
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread writer = start("writer", () -> {
+            rw.writeLock().lock();
+            rw.writeLock().unlock();
+        }, failures);
+        long deadline = System.nanoTime() + 5000000000L;
+        while (writer.getState() != Thread.State.WAITING && System.nanoTime() - deadline < 0)
+            Thread.sleep(1);
+        assertFalse(rw.readLock().tryLock(10, TimeUnit.MILLISECONDS), "new reader overtook the queued writer");
+        done.countDown();
+        reader.join();
+        writer.join(5000);
+        assertFalse(writer.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertTrue(availableElsewhere(rw.readLock()));
+    }
+}
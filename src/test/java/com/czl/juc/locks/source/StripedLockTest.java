@@ -0,0 +1,180 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 分段锁：分段数向上取整到2的幂，相等的key落在同一分段，bulkGet去重并按下标升序，
+ * lockAll按升序获取、某个分段获取失败时释放已获取的分段，相反顺序的并发lockAll不会死锁
+ * @Date 2026/10/18
+ */
+class StripedLockTest {
+
+    /** 为每个分段下标找一个落在该分段的key */
+    static List<Integer> keyPerStripe(Striped<Integer, ?> striped) {
+        Integer[] keys = new Integer[striped.size()];
+        int found = 0;
+        for (int k = 0; found < keys.length; k++) {
+            int i = striped.indexFor(k);
+            if (keys[i] == null) {
+                keys[i] = k;
+                found++;
+            }
+        }
+        return Arrays.asList(keys);
+    }
+
+    @Test
+    void stripeCountRoundsUpToAPowerOfTwo() {
+        assertEquals(1, Striped.stripeCount(1));
+        assertEquals(2, Striped.stripeCount(2));
+        assertEquals(4, Striped.stripeCount(3));
+        assertEquals(4, Striped.stripeCount(4));
+        assertEquals(8, Striped.stripeCount(5));
+        assertEquals(1024, Striped.stripeCount(1000));
+        assertEquals(Striped.MAX_STRIPES, Striped.stripeCount(Striped.MAX_STRIPES - 1));
+        assertEquals(Striped.MAX_STRIPES, Striped.stripeCount(Striped.MAX_STRIPES));
+        assertEquals(Striped.MAX_STRIPES, Striped.stripeCount(Striped.MAX_STRIPES + 1));
+        assertEquals(Striped.MAX_STRIPES, Striped.stripeCount(Integer.MAX_VALUE));
+        assertEquals(1, StripedLock.lock(1).size());
+        assertEquals(8, StripedLock.lock(5).size());
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> StripedLock.lock(0));
+        assertThrows(IllegalArgumentException.class, () -> StripedLock.lock(-1));
+        assertThrows(NullPointerException.class, () -> StripedLock.lock(4, null));
+        assertThrows(NullPointerException.class, () -> StripedLock.lock(4, () -> null));
+        assertThrows(NullPointerException.class, () -> StripedLock.lock(4).get(null));
+        assertThrows(NullPointerException.class, () -> StripedLock.lock(4).bulkGet(Arrays.asList("a", null)));
+    }
+
+    @Test
+    void equalKeysShareAStripe() {
+        StripedLock<String> striped = StripedLock.lock(64);
+        for (int i = 0; i < 1000; i++) {
+            String key = "key-" + i;
+            String equal = new String(key);
+            assertEquals(striped.indexFor(key), striped.indexFor(equal));
+            assertSame(striped.get(key), striped.get(equal));
+            assertSame(striped.get(key), striped.getAt(striped.indexFor(key)));
+        }
+    }
+
+    /** 只有高位不同的哈希码经过混合后也分散到不同分段 */
+    @Test
+    void hashCodesDifferingInHighBitsAreSpread() {
+        StripedLock<Integer> striped = StripedLock.lock(16);
+        Set<Integer> used = new HashSet<Integer>();
+        for (int i = 0; i < 64; i++)
+            used.add(striped.indexFor(i << 16));
+        assertTrue(used.size() > 8, "keys spread over only " + used.size() + " stripes");
+    }
+
+    @Test
+    void bulkGetDedupsInAscendingStripeOrder() {
+        StripedLock<Integer> striped = StripedLock.lock(16);
+        List<Integer> keys = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++)
+            keys.add(i);
+        Collections.reverse(keys);
+        keys.addAll(new ArrayList<Integer>(keys));
+        List<Lock> stripes = striped.bulkGet(keys);
+        Set<Integer> indexes = new HashSet<Integer>();
+        for (Integer key : keys)
+            indexes.add(striped.indexFor(key));
+        assertEquals(indexes.size(), stripes.size());
+        int previous = -1;
+        for (Lock stripe : stripes) {
+            int index = -1;
+            for (int i = 0; i < striped.size(); i++) {
+                if (striped.getAt(i) == stripe)
+                    index = i;
+            }
+            assertTrue(index > previous, "stripe " + index + " after " + previous);
+            previous = index;
+        }
+        assertEquals(Collections.emptyList(), striped.bulkGet(Collections.<Integer>emptyList()));
+    }
+
+    /** 同一分段的多个key只锁一次 */
+    @Test
+    void lockAllTakesEachStripeOnce() throws InterruptedException {
+        StripedLock<Integer> striped = StripedLock.lock(8);
+        List<Integer> perStripe = keyPerStripe(striped);
+        List<Integer> keys = Arrays.asList(perStripe.get(5), perStripe.get(2), perStripe.get(5), perStripe.get(2));
+        List<Lock> locks = striped.lockAll(keys);
+        try {
+            assertEquals(Arrays.asList(striped.getAt(2), striped.getAt(5)), locks);
+            for (Lock lock : locks) {
+                assertEquals(1, ((ReentrantLock) lock).getHoldCount());
+                assertFalse(AbstractLockTest.availableElsewhere(lock));
+            }
+            assertTrue(AbstractLockTest.availableElsewhere(striped.getAt(3)));
+        } finally {
+            StripedLock.unlockAll(locks);
+        }
+        for (Lock lock : locks)
+            assertTrue(AbstractLockTest.availableElsewhere(lock));
+    }
+
+    /** 第3个分段的获取抛出异常：前面已获取的分段被释放，后面的分段没有被获取 */
+    @Test
+    void lockAllReleasesTheStripesTakenWhenAnAcquisitionThrows() throws InterruptedException {
+        AtomicInteger created = new AtomicInteger();
+        StripedLock<Integer> striped = StripedLock.lock(4, () -> {
+            if (created.getAndIncrement() != 2)
+                return new ReentrantLock();
+            return new ReentrantLock() {
+                public void lock() {
+                    throw new IllegalStateException("stripe 2");
+                }
+            };
+        });
+        List<Integer> keys = keyPerStripe(striped);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> striped.lockAll(keys));
+        assertEquals("stripe 2", e.getMessage());
+        for (int i = 0; i < striped.size(); i++) {
+            ReentrantLock stripe = (ReentrantLock) striped.getAt(i);
+            assertFalse(stripe.isHeldByCurrentThread(), "stripe " + i + " left held");
+            assertFalse(stripe.isLocked(), "stripe " + i + " left held");
+        }
+    }
+
+    /** 两个线程以相反的key顺序反复lockAll，按分段升序获取所以不会死锁 */
+    @Test
+    void opposingLockAllCallsDoNotDeadlock() throws InterruptedException {
+        StripedLock<Integer> striped = StripedLock.lock(8);
+        List<Integer> keys = keyPerStripe(striped);
+        List<Integer> reversed = new ArrayList<Integer>(keys);
+        Collections.reverse(reversed);
+        List<Throwable> failures = new ArrayList<Throwable>();
+        Thread[] threads = new Thread[2];
+        for (int t = 0; t < threads.length; t++) {
+            List<Integer> order = t == 0 ? keys : reversed;
+            threads[t] = AbstractLockTest.start("bulk-" + t, () -> {
+                for (int i = 0; i < 2000; i++)
+                    StripedLock.unlockAll(striped.lockAll(order));
+            }, failures);
+        }
+        for (Thread t : threads) {
+            t.join(10000);
+            assertFalse(t.isAlive(), t.getName() + " deadlocked");
+        }
+        assertEquals(new ArrayList<Throwable>(), failures);
+    }
+}
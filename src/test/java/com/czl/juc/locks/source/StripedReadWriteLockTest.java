@@ -0,0 +1,64 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 分段读写锁：默认分段为StampedReadWriteLock，readLockAll与writeLockAll按分段升序获取各分段的读锁或写锁视图，
+ * unlockAll全部释放，未涉及的分段不受影响
+ * @Date 2026/10/18
+ */
+class StripedReadWriteLockTest {
+
+    @Test
+    void defaultStripesAreStampedReadWriteLocks() {
+        StripedReadWriteLock<Integer> striped = StripedReadWriteLock.readWriteLock(3);
+        assertEquals(4, striped.size());
+        for (int i = 0; i < striped.size(); i++)
+            assertTrue(striped.getAt(i) instanceof StampedReadWriteLock);
+    }
+
+    @Test
+    void readLockAllTakesTheReadViewsInStripeOrder() throws InterruptedException {
+        StripedReadWriteLock<Integer> striped = StripedReadWriteLock.readWriteLock(8);
+        List<Integer> perStripe = StripedLockTest.keyPerStripe(striped);
+        List<Lock> locks = striped.readLockAll(Arrays.asList(perStripe.get(6), perStripe.get(1), perStripe.get(6)));
+        try {
+            assertEquals(Arrays.asList(striped.getAt(1).readLock(), striped.getAt(6).readLock()), locks);
+            for (int i : new int[] {1, 6}) {
+                assertTrue(AbstractLockTest.availableElsewhere(striped.getAt(i).readLock()), "readers excluded");
+                assertFalse(AbstractLockTest.availableElsewhere(striped.getAt(i).writeLock()), "writer admitted");
+            }
+            assertTrue(AbstractLockTest.availableElsewhere(striped.getAt(2).writeLock()));
+        } finally {
+            StripedReadWriteLock.unlockAll(locks);
+        }
+        assertTrue(AbstractLockTest.availableElsewhere(striped.getAt(1).writeLock()));
+        assertTrue(AbstractLockTest.availableElsewhere(striped.getAt(6).writeLock()));
+    }
+
+    @Test
+    void writeLockAllTakesTheWriteViewsInStripeOrder() throws InterruptedException {
+        StripedReadWriteLock<Integer> striped = StripedReadWriteLock.readWriteLock(8);
+        List<Integer> perStripe = StripedLockTest.keyPerStripe(striped);
+        List<Lock> locks = striped.writeLockAll(Arrays.asList(perStripe.get(7), perStripe.get(0)));
+        try {
+            assertEquals(Arrays.asList(striped.getAt(0).writeLock(), striped.getAt(7).writeLock()), locks);
+            for (int i : new int[] {0, 7}) {
+                assertFalse(AbstractLockTest.availableElsewhere(striped.getAt(i).readLock()), "reader admitted");
+                assertFalse(AbstractLockTest.availableElsewhere(striped.getAt(i).writeLock()), "writer admitted");
+            }
+            assertTrue(AbstractLockTest.availableElsewhere(striped.getAt(3).readLock()));
+        } finally {
+            StripedReadWriteLock.unlockAll(locks);
+        }
+        assertTrue(AbstractLockTest.availableElsewhere(striped.getAt(0).readLock()));
+        assertTrue(AbstractLockTest.availableElsewhere(striped.getAt(7).writeLock()));
+    }
+}
@@ -0,0 +1,183 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 分层时间轮：任务不早于到期时间执行，迟到不超过一个tick（另加调度误差），跨层级联后按时执行，
+ * 取消后由时间轮线程摘除，比当前阻塞目标更早到期的新任务唤醒时间轮线程，以及由时间轮服务的Condition定时等待
+ * @Date 2026/10/18
+ */
+class TimingWheelTest {
+
+    /** 线程调度带来的误差，远小于测试里的阻塞目标间隔 */
+    static final long SLACK_MILLIS = 50;
+
+    /** 记录执行时刻的任务 */
+    static final class Firing implements Runnable {
+        final long scheduledAt = System.nanoTime();
+        final AtomicLong firedAt = new AtomicLong();
+        final CountDownLatch fired = new CountDownLatch(1);
+
+        public void run() {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }
+
+        /** 等待执行，返回相对添加时刻的延迟 */
+        long awaitMillis() throws InterruptedException {
+            assertTrue(fired.await(10, TimeUnit.SECONDS), "timeout did not fire");
+            return TimeUnit.NANOSECONDS.toMillis(firedAt.get() - scheduledAt);
+        }
+    }
+
+    /** 等到槽中的任务数为n */
+    private static void awaitScheduled(TimingWheel wheel, int n) throws InterruptedException {
+        long deadline = System.nanoTime() + 5000000000L;
+        while (wheel.scheduledCount() != n) {
+            assertTrue(System.nanoTime() - deadline < 0, "scheduled " + wheel.scheduledCount() + ", expected " + n);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void nonPositiveTickIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel(0L));
+        assertThrows(NullPointerException.class,
+            () -> new TimingWheel(TimingWheel.DEFAULT_TICK_NANOS).schedule(null, 1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void timeoutsFireNoEarlierThanTheirDelayAndAboutATickLate() throws InterruptedException {
+        long tickMillis = 20;
+        TimingWheel wheel = new TimingWheel(TimeUnit.MILLISECONDS.toNanos(tickMillis));
+        long[] delays = {0, 5, 20, 35, 70};
+        Firing[] firings = new Firing[delays.length];
+        for (int i = 0; i < delays.length; i++) {
+            firings[i] = new Firing();
+            wheel.schedule(firings[i], delays[i], TimeUnit.MILLISECONDS);
+        }
+        for (int i = 0; i < delays.length; i++) {
+            long millis = firings[i].awaitMillis();
+            assertTrue(millis >= delays[i], "delay " + delays[i] + "ms fired after " + millis + "ms");
+            assertTrue(millis <= delays[i] + tickMillis + SLACK_MILLIS, "delay " + delays[i] + "ms fired after " + millis + "ms");
+        }
+        awaitScheduled(wheel, 0);
+    }
+
+    /** 50微秒的tick：20ms在第1层，300ms在第2层，逐层级联到第0层后按时执行 */
+    @Test
+    void timeoutsCascadeDownTheLevels() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(TimeUnit.MICROSECONDS.toNanos(50));
+        long[] delays = {1, 20, 300};
+        List<Integer> order = new ArrayList<Integer>();
+        Firing[] firings = new Firing[delays.length];
+        for (int i = delays.length - 1; i >= 0; i--) {
+            int id = i;
+            Firing f = new Firing();
+            firings[i] = f;
+            wheel.schedule(() -> {
+                synchronized (order) {
+                    order.add(id);
+                }
+                f.run();
+            }, delays[i], TimeUnit.MILLISECONDS);
+        }
+        for (int i = 0; i < delays.length; i++) {
+            long millis = firings[i].awaitMillis();
+            assertTrue(millis >= delays[i], "delay " + delays[i] + "ms fired after " + millis + "ms");
+            assertTrue(millis <= delays[i] + SLACK_MILLIS, "delay " + delays[i] + "ms fired after " + millis + "ms");
+        }
+        assertEquals(Arrays.asList(0, 1, 2), order);
+        awaitScheduled(wheel, 0);
+    }
+
+    /** 取消只做一次CAS，槽中的节点在时间轮线程的下一个tick被摘除，任务不会执行 */
+    @Test
+    void cancelledTimeoutIsUnlinkedByTheWorker() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(TimingWheel.DEFAULT_TICK_NANOS);
+        AtomicBoolean ran = new AtomicBoolean();
+        TimingWheel.Timeout far = wheel.schedule(() -> ran.set(true), 10, TimeUnit.SECONDS);
+        awaitScheduled(wheel, 1);
+        assertTrue(far.cancel());
+        assertFalse(far.cancel(), "cancelled twice");
+        assertTrue(far.isCancelled());
+        Firing near = new Firing();
+        TimingWheel.Timeout t = wheel.schedule(near, 5, TimeUnit.MILLISECONDS);
+        near.awaitMillis();
+        assertTrue(t.isExpired());
+        assertFalse(t.cancel(), "cancelled after firing");
+        assertEquals(0, wheel.scheduledCount(), "cancelled timeout still linked after the next tick");
+        assertFalse(ran.get());
+        assertFalse(far.isExpired());
+    }
+
+    /**
+     * 只有一个远期任务时，时间轮线程阻塞到下一个级联边界（tick为10ms时是640ms后）。
+     * 更早到期的新任务必须唤醒它，而不是等到那个边界
+     */
+    @Test
+    void earlierTimeoutWakesTheParkedWorker() throws InterruptedException {
+        long tickMillis = 10;
+        TimingWheel wheel = new TimingWheel(TimeUnit.MILLISECONDS.toNanos(tickMillis));
+        TimingWheel.Timeout far = wheel.schedule(() -> { }, 10, TimeUnit.SECONDS);
+        awaitScheduled(wheel, 1);
+        Thread.sleep(3 * tickMillis);
+        Firing near = new Firing();
+        wheel.schedule(near, 20, TimeUnit.MILLISECONDS);
+        long millis = near.awaitMillis();
+        assertTrue(millis >= 20, "fired after " + millis + "ms");
+        assertTrue(millis <= 20 + tickMillis + SLACK_MILLIS, "fired after " + millis + "ms");
+        far.cancel();
+    }
+
+    @Test
+    void conditionAwaitNanosIsServedByTheWheel() throws InterruptedException {
+        ReentrantLock lock = new ReentrantLock();
+        Condition ready = lock.newCondition(TimingWheel.shared().parkingPolicy());
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            assertTrue(ready.awaitNanos(TimeUnit.MILLISECONDS.toNanos(30)) <= 0L);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(millis >= 30, "awaitNanos(30ms) returned after " + millis + "ms");
+            assertTrue(millis <= 30 + SLACK_MILLIS, "awaitNanos(30ms) returned after " + millis + "ms");
+            assertTrue(lock.isHeldByCurrentThread());
+        } finally {
+            lock.unlock();
+        }
+        List<Throwable> failures = new ArrayList<Throwable>();
+        CountDownLatch waiting = new CountDownLatch(1);
+        Thread waiter = AbstractLockTest.start("waiter", () -> {
+            lock.lock();
+            try {
+                waiting.countDown();
+                assertTrue(ready.awaitNanos(TimeUnit.SECONDS.toNanos(5)) > 0L, "signal missed");
+            } finally {
+                lock.unlock();
+            }
+        }, failures);
+        assertTrue(waiting.await(5, TimeUnit.SECONDS));
+        lock.lock();
+        try {
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+        waiter.join(5000);
+        assertFalse(waiter.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+    }
+}
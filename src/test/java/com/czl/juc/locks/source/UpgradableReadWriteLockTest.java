@@ -0,0 +1,174 @@
+package com.czl.juc.locks.source;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author one3c-chenzhilong9
+ * @Description: 带可升级读模式的读写锁：写锁的公共用例，可升级读与读共享、之间互斥，升级等待读者且限时升级在期限内返回，
+ * 等待升级时拒绝新读者、其他写线程插不进升级前后，释放写锁降级回可升级读，写锁持有者可以读但不能获取可升级读锁
+ * @Date 2026/10/18
+ */
+class UpgradableReadWriteLockTest extends AbstractReadWriteLockTest {
+
+    ReadWriteLock newReadWriteLock() {
+        return new UpgradableReadWriteLock();
+    }
+
+    @Test
+    void upgradableSharesWithReadersButNotWithItself() throws InterruptedException {
+        UpgradableReadWriteLock rw = new UpgradableReadWriteLock();
+        rw.upgradableLock().lock();
+        rw.upgradableLock().lock();
+        assertTrue(availableElsewhere(rw.readLock()));
+        assertFalse(availableElsewhere(rw.upgradableLock()));
+        assertFalse(availableElsewhere(rw.writeLock()));
+        rw.upgradableLock().unlock();
+        assertFalse(availableElsewhere(rw.upgradableLock()), "released by the inner unlock");
+        rw.upgradableLock().unlock();
+        assertTrue(availableElsewhere(rw.upgradableLock()));
+    }
+
+    @Test
+    void upgradeWaitsForReadersWithinItsDeadline() throws InterruptedException {
+        UpgradableReadWriteLock rw = new UpgradableReadWriteLock();
+        CountDownLatch done = new CountDownLatch(1);
+        Thread reader = holdElsewhere(rw.readLock(), done);
+        rw.upgradableLock().lock();
+        try {
+            long start = System.nanoTime();
+            assertFalse(rw.writeLock().tryLock(10, TimeUnit.MILLISECONDS));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsedMillis < DEADLINE_SLACK_MILLIS, "upgrade tryLock(10ms) took " + elapsedMillis + "ms");
+            done.countDown();
+            reader.join();
+            assertTrue(rw.writeLock().tryLock(5, TimeUnit.SECONDS));
+            assertFalse(availableElsewhere(rw.readLock()));
+            rw.writeLock().unlock();
+            assertTrue(availableElsewhere(rw.readLock()), "readers excluded after the write was released");
+        } finally {
+            rw.upgradableLock().unlock();
+        }
+        assertTrue(availableElsewhere(rw.writeLock()));
+    }
+
+    /**
+     * 升级等待已有读者时拒绝新读者；此时到达的写线程排在升级之后，
+     * 直到升级者释放写锁又释放可升级读锁才获得写锁，看到的是升级期间写入的值
+     */
+    @Test
+    void upgradeTurnsAwayNewReadersAndLetsNoWriterIn() throws InterruptedException {
+        UpgradableReadWriteLock rw = new UpgradableReadWriteLock();
+        CountDownLatch readerDone = new CountDownLatch(1);
+        Thread reader = holdElsewhere(rw.readLock(), readerDone);
+        List<Throwable> failures = new ArrayList<Throwable>();
+        AtomicInteger value = new AtomicInteger();
+        CountDownLatch upgraded = new CountDownLatch(1);
+        CountDownLatch downgrade = new CountDownLatch(1);
+        CountDownLatch downgraded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread upgrader = start("upgrader", () -> {
+            rw.upgradableLock().lock();
+            try {
+                rw.writeLock().lock();
+                try {
+                    value.set(1);
+                    upgraded.countDown();
+                    downgrade.await();
+                } finally {
+                    rw.writeLock().unlock();
+                }
+                assertTrue(rw.isUpgradableLocked());
+                assertFalse(rw.isWriteLocked());
+                downgraded.countDown();
+                release.await();
+            } finally {
+                rw.upgradableLock().unlock();
+            }
+        }, failures);
+
+        long deadline = System.nanoTime() + 5000000000L;
+        while (availableElsewhere(rw.readLock())) {
+            assertTrue(System.nanoTime() - deadline < 0, "new readers still admitted during the upgrade");
+            Thread.sleep(1);
+        }
+        assertEquals(1, rw.getReadLockCount(), "the existing reader was not kept");
+        assertFalse(rw.isWriteLocked(), "upgraded before the reader drained");
+        AtomicInteger seen = new AtomicInteger(-1);
+        Thread writer = start("writer", () -> {
+            rw.writeLock().lock();
+            try {
+                seen.set(value.get());
+            } finally {
+                rw.writeLock().unlock();
+            }
+        }, failures);
+
+        readerDone.countDown();
+        reader.join();
+        assertTrue(upgraded.await(5, TimeUnit.SECONDS), "upgrade never completed");
+        assertTrue(rw.isWriteLocked());
+        downgrade.countDown();
+        assertTrue(downgraded.await(5, TimeUnit.SECONDS));
+        Thread.sleep(20);
+        assertTrue(writer.isAlive(), "writer got in while the upgradable lock was held");
+        assertEquals(-1, seen.get());
+        release.countDown();
+        upgrader.join(5000);
+        writer.join(5000);
+        assertFalse(writer.isAlive());
+        assertEquals(new ArrayList<Throwable>(), failures);
+        assertEquals(1, seen.get(), "writer ran before the upgrade");
+    }
+
+    /** 释放写锁降级回可升级读：读者重新被接纳，其他可升级读线程和写线程仍被排除 */
+    @Test
+    void releasingTheWriteLockDowngradesToUpgradable() throws InterruptedException {
+        UpgradableReadWriteLock rw = new UpgradableReadWriteLock();
+        rw.upgradableLock().lock();
+        try {
+            rw.writeLock().lock();
+            assertTrue(rw.isWriteLocked());
+            assertTrue(rw.isUpgradableLocked());
+            assertFalse(availableElsewhere(rw.readLock()));
+            assertThrows(IllegalMonitorStateException.class, () -> rw.upgradableLock().unlock(),
+                "released the upgradable lock while still upgraded");
+            rw.writeLock().unlock();
+            assertFalse(rw.isWriteLocked());
+            assertTrue(rw.isUpgradableLocked());
+            assertTrue(availableElsewhere(rw.readLock()), "readers excluded after the downgrade");
+            assertFalse(availableElsewhere(rw.upgradableLock()));
+            assertFalse(availableElsewhere(rw.writeLock()));
+        } finally {
+            rw.upgradableLock().unlock();
+        }
+        assertFalse(rw.isUpgradableLocked());
+        assertTrue(availableElsewhere(rw.writeLock()));
+    }
+
+    @Test
+    void writeHolderMayReadButNotTakeTheUpgradableLock() throws InterruptedException {
+        UpgradableReadWriteLock rw = new UpgradableReadWriteLock();
+        rw.writeLock().lock();
+        try {
+            assertTrue(rw.readLock().tryLock());
+            assertEquals(1, rw.getReadLockCount());
+            rw.readLock().unlock();
+            assertThrows(IllegalMonitorStateException.class, () -> rw.upgradableLock().tryLock());
+            assertThrows(IllegalMonitorStateException.class, () -> rw.upgradableLock().lock());
+            assertFalse(rw.isUpgradableLocked());
+        } finally {
+            rw.writeLock().unlock();
+        }
+        assertTrue(availableElsewhere(rw.upgradableLock()));
+    }
+}